@@ -29,6 +29,13 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
     // configuration
     public static final String CFG_KEY_NUM_WORKERS = "AnnotationHandler.numWorkers";
     public static final int DEFAULT_NUM_WORKERS = 7;
+    public static final String CFG_KEY_QUEUE_CAPACITY = "AnnotationHandler.queueCapacity";
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+    public static final String CFG_KEY_OVERLOAD_POLICY = "AnnotationHandler.overloadPolicy";
+    public static final String CFG_KEY_VIRTUAL_THREADS = "AnnotationHandler.virtualThreads";
+    public static final boolean DEFAULT_VIRTUAL_THREADS = false;
+    public static final String CFG_KEY_MAX_CONCURRENT_JOBS = "AnnotationHandler.maxConcurrentJobs";
+    public static final int DEFAULT_MAX_CONCURRENT_JOBS = 100;
 
     // instance variables
     private final MongoAnnotationClientInterface mongoAnnotationClient;
@@ -51,6 +58,22 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
         return configMgr().getConfigInteger(CFG_KEY_NUM_WORKERS, DEFAULT_NUM_WORKERS);
     }
 
+    protected int getQueueCapacity_() {
+        return configMgr().getConfigInteger(CFG_KEY_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    protected OverloadPolicy getOverloadPolicy_() {
+        return overloadPolicyFromConfig(configMgr().getConfigString(CFG_KEY_OVERLOAD_POLICY));
+    }
+
+    protected boolean getUseVirtualThreads_() {
+        return configMgr().getConfigBoolean(CFG_KEY_VIRTUAL_THREADS, DEFAULT_VIRTUAL_THREADS);
+    }
+
+    protected int getMaxConcurrentJobs_() {
+        return configMgr().getConfigInteger(CFG_KEY_MAX_CONCURRENT_JOBS, DEFAULT_MAX_CONCURRENT_JOBS);
+    }
+
     @Override
     protected boolean init_() {
         logger.trace("init_");
@@ -88,12 +111,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding SaveDataSetJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -106,12 +124,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding queryDataSets job id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     public ResultStatus validateSaveDataSetRequest(SaveDataSetRequest request) {
@@ -172,12 +185,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding SaveAnnotationJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     public ResultStatus validateSaveAnnotationRequest(SaveAnnotationRequest request) {
@@ -229,12 +237,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding queryAnnotations job id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -266,12 +269,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding ExportDataJobBase id: {} to queue", handlerRequest.responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, handlerRequest.responseObserver);
     }
 
     @Override
@@ -283,12 +281,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding SavePvMetadataJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -300,12 +293,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding QueryPvMetadataJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -317,12 +305,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding GetPvMetadataJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -334,12 +317,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding DeletePvMetadataJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -351,12 +329,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding SaveConfigurationJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -368,12 +341,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding GetConfigurationJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -385,12 +353,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding QueryConfigurationsJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -402,12 +365,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding DeleteConfigurationJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -420,12 +378,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding SaveConfigurationActivationJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -438,12 +391,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding GetConfigurationActivationJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -456,12 +404,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding QueryConfigurationActivationsJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -474,12 +417,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding DeleteConfigurationActivationJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -492,12 +430,7 @@ public class MongoAnnotationHandler extends QueueHandlerBase implements Annotati
 
         logger.debug("adding GetActiveConfigurationsJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
 }
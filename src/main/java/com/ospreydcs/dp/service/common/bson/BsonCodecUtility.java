@@ -0,0 +1,108 @@
+package com.ospreydcs.dp.service.common.bson;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers shared by the hand-written codecs for BucketDocument and its embedded documents.  Numeric readers accept any
+ * BSON numeric type, matching the leniency of the driver's default codecs, so that documents written by other tools
+ * (e.g., an int32 where we write int64) decode without error.
+ */
+public final class BsonCodecUtility {
+
+    private BsonCodecUtility() {
+    }
+
+    public static int readInt32(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> (int) reader.readInt64();
+            case DOUBLE -> (int) reader.readDouble();
+            default -> throw new IllegalStateException(
+                    "expected numeric BSON value, found: " + reader.getCurrentBsonType());
+        };
+    }
+
+    public static long readInt64(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> throw new IllegalStateException(
+                    "expected numeric BSON value, found: " + reader.getCurrentBsonType());
+        };
+    }
+
+    public static double readDouble(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DOUBLE -> reader.readDouble();
+            default -> throw new IllegalStateException(
+                    "expected numeric BSON value, found: " + reader.getCurrentBsonType());
+        };
+    }
+
+    /**
+     * Reads a string value, or returns null (consuming the value) if the current value is BSON null.
+     */
+    public static String readNullableString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        return reader.readString();
+    }
+
+    public static List<String> readStringList(BsonReader reader) {
+        final List<String> list = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            list.add(readNullableString(reader));
+        }
+        reader.readEndArray();
+        return list;
+    }
+
+    public static Map<String, String> readStringMap(BsonReader reader) {
+        final Map<String, String> map = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String key = reader.readName();
+            map.put(key, readNullableString(reader));
+        }
+        reader.readEndDocument();
+        return map;
+    }
+
+    public static void writeStringList(BsonWriter writer, String name, List<String> list) {
+        writer.writeStartArray(name);
+        for (String value : list) {
+            if (value == null) {
+                writer.writeNull();
+            } else {
+                writer.writeString(value);
+            }
+        }
+        writer.writeEndArray();
+    }
+
+    public static void writeStringMap(BsonWriter writer, String name, Map<String, String> map) {
+        writer.writeStartDocument(name);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (entry.getValue() == null) {
+                writer.writeNull(entry.getKey());
+            } else {
+                writer.writeString(entry.getKey(), entry.getValue());
+            }
+        }
+        writer.writeEndDocument();
+    }
+
+}
@@ -89,4 +89,19 @@ public class BsonConstants {
     public static final String BSON_KEY_ACTIVATION_END_TIME = "endTime";
     public static final String BSON_KEY_ACTIVATION_DESCRIPTION = "description";
     public static final String BSON_KEY_ACTIVATION_MODIFIED_BY = "modifiedBy";
+
+    // rollups collection
+    public static final String BSON_KEY_ROLLUP_ID = "_id";
+    public static final String BSON_KEY_ROLLUP_RESOLUTION_SECONDS = "resolutionSeconds";
+    public static final String BSON_KEY_ROLLUP_BIN_START_SECONDS = "binStartSeconds";
+    public static final String BSON_KEY_ROLLUP_COUNT = "count";
+    public static final String BSON_KEY_ROLLUP_SUM = "sum";
+    public static final String BSON_KEY_ROLLUP_MIN = "min";
+    public static final String BSON_KEY_ROLLUP_MAX = "max";
+
+    // pvCatalog collection, other fields use the BSON_KEY_PV_METADATA keys
+    public static final String BSON_KEY_PV_CATALOG_ID = "_id";
+    public static final String BSON_KEY_PV_CATALOG_PROVIDER_ID = "providerId";
+    public static final String BSON_KEY_PV_CATALOG_PROVIDER_NAME = "providerName";
+    public static final String BSON_KEY_PV_CATALOG_LAST_BUCKET_FIRST_TIMESTAMP = "lastBucketFirstTimestamp";
 }
@@ -0,0 +1,115 @@
+package com.ospreydcs.dp.service.common.bson;
+
+import org.bson.BsonBinary;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Date;
+
+/**
+ * Hand-written codec for DataTimestampsDocument and its embedded TimestampDocuments.  Produces the same BSON as the
+ * POJO codec (field names, BSON types, null fields omitted) so that documents written with either codec can be read
+ * with the other.  Unrecognized fields are skipped on decode.
+ */
+public class DataTimestampsDocumentCodec implements Codec<DataTimestampsDocument> {
+
+    // field names
+    public static final String FIELD_VALUE_CASE = "valueCase";
+    public static final String FIELD_VALUE_TYPE = "valueType";
+    public static final String FIELD_BYTES = "bytes";
+    public static final String FIELD_SAMPLE_PERIOD = "samplePeriod";
+    public static final String FIELD_SAMPLE_COUNT = "sampleCount";
+    public static final String FIELD_FIRST_TIME = "firstTime";
+    public static final String FIELD_LAST_TIME = "lastTime";
+    public static final String FIELD_SECONDS = "seconds";
+    public static final String FIELD_NANOS = "nanos";
+    public static final String FIELD_DATE_TIME = "dateTime";
+
+    @Override
+    public void encode(BsonWriter writer, DataTimestampsDocument document, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeInt32(FIELD_VALUE_CASE, document.getValueCase());
+        if (document.getValueType() != null) {
+            writer.writeString(FIELD_VALUE_TYPE, document.getValueType());
+        }
+        if (document.getBytes() != null) {
+            writer.writeBinaryData(FIELD_BYTES, new BsonBinary(document.getBytes()));
+        }
+        writer.writeInt64(FIELD_SAMPLE_PERIOD, document.getSamplePeriod());
+        writer.writeInt32(FIELD_SAMPLE_COUNT, document.getSampleCount());
+        if (document.getFirstTime() != null) {
+            writer.writeName(FIELD_FIRST_TIME);
+            encodeTimestamp(writer, document.getFirstTime());
+        }
+        if (document.getLastTime() != null) {
+            writer.writeName(FIELD_LAST_TIME);
+            encodeTimestamp(writer, document.getLastTime());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public DataTimestampsDocument decode(BsonReader reader, DecoderContext decoderContext) {
+        final DataTimestampsDocument document = new DataTimestampsDocument();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String fieldName = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (fieldName) {
+                case FIELD_VALUE_CASE -> document.setValueCase(BsonCodecUtility.readInt32(reader));
+                case FIELD_VALUE_TYPE -> document.setValueType(reader.readString());
+                case FIELD_BYTES -> document.setBytes(reader.readBinaryData().getData());
+                case FIELD_SAMPLE_PERIOD -> document.setSamplePeriod(BsonCodecUtility.readInt64(reader));
+                case FIELD_SAMPLE_COUNT -> document.setSampleCount(BsonCodecUtility.readInt32(reader));
+                case FIELD_FIRST_TIME -> document.setFirstTime(decodeTimestamp(reader));
+                case FIELD_LAST_TIME -> document.setLastTime(decodeTimestamp(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return document;
+    }
+
+    @Override
+    public Class<DataTimestampsDocument> getEncoderClass() {
+        return DataTimestampsDocument.class;
+    }
+
+    private static void encodeTimestamp(BsonWriter writer, TimestampDocument timestamp) {
+        writer.writeStartDocument();
+        writer.writeInt64(FIELD_SECONDS, timestamp.getSeconds());
+        writer.writeInt64(FIELD_NANOS, timestamp.getNanos());
+        if (timestamp.getDateTime() != null) {
+            writer.writeDateTime(FIELD_DATE_TIME, timestamp.getDateTime().getTime());
+        }
+        writer.writeEndDocument();
+    }
+
+    private static TimestampDocument decodeTimestamp(BsonReader reader) {
+        final TimestampDocument timestamp = new TimestampDocument();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String fieldName = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (fieldName) {
+                case FIELD_SECONDS -> timestamp.setSeconds(BsonCodecUtility.readInt64(reader));
+                case FIELD_NANOS -> timestamp.setNanos(BsonCodecUtility.readInt64(reader));
+                case FIELD_DATE_TIME -> timestamp.setDateTime(new Date(reader.readDateTime()));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return timestamp;
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.ospreydcs.dp.service.common.bson.bucket;
+
+import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocumentCodec;
+import com.ospreydcs.dp.service.common.bson.column.ColumnDocumentBase;
+import com.ospreydcs.dp.service.common.bson.column.ColumnDocumentCodec;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Provides the hand-written codecs for BucketDocument, DataTimestampsDocument, and the scalar column documents.  The
+ * supplied POJO codec registry is used for the embedded documents that are still handled reflectively (column
+ * metadata and non-scalar column types), so it must not itself contain this provider.
+ */
+public class BucketCodecProvider implements CodecProvider {
+
+    // instance variables
+    private final DataTimestampsDocumentCodec dataTimestampsCodec;
+    private final ColumnDocumentCodec columnCodec;
+    private final BucketDocumentCodec bucketCodec;
+
+    public BucketCodecProvider(CodecRegistry pojoCodecRegistry) {
+        this.dataTimestampsCodec = new DataTimestampsDocumentCodec();
+        this.columnCodec = new ColumnDocumentCodec(
+                pojoCodecRegistry.get(ColumnDocumentBase.class),
+                pojoCodecRegistry.get(ColumnMetadataDocument.class));
+        this.bucketCodec = new BucketDocumentCodec(columnCodec, dataTimestampsCodec);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        if (clazz == BucketDocument.class) {
+            return (Codec<T>) bucketCodec;
+        } else if (clazz == DataTimestampsDocument.class) {
+            return (Codec<T>) dataTimestampsCodec;
+        } else if (clazz == ColumnDocumentBase.class) {
+            return (Codec<T>) columnCodec;
+        }
+        return null;
+    }
+
+}
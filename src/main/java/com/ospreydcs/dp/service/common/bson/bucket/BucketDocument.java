@@ -1,15 +1,20 @@
 package com.ospreydcs.dp.service.common.bson.bucket;
 
+import com.google.protobuf.UnknownFieldSet;
+import com.google.protobuf.UnsafeByteOperations;
 import com.ospreydcs.dp.grpc.v1.common.*;
 import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
 import com.ospreydcs.dp.grpc.v1.query.QueryDataRequest;
 import com.ospreydcs.dp.service.common.bson.column.*;
 import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
 import com.ospreydcs.dp.service.common.bson.DpBsonDocumentBase;
+import com.ospreydcs.dp.service.common.bson.TimestampDocument;
 import com.ospreydcs.dp.service.common.exception.DpException;
+import com.ospreydcs.dp.service.common.protobuf.DataBucketUtility;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * This POJO is for writing time series data to mongodb by customizing the code registry.
@@ -86,20 +91,15 @@ public class BucketDocument extends DpBsonDocumentBase {
     private static BucketDocument columnBucketDocument(
             String pvName,
             IngestDataRequest request,
+            DataTimestampsDocument requestDataTimestampsDocument,
+            String documentIdSuffix,
             ColumnDocumentBase dataColumnDocument,
             String providerName
     ) {
         final BucketDocument bucket = new BucketDocument();
 
-        // create DataTimestampsDocument for the request
-        final DataTimestampsDocument requestDataTimestampsDocument =
-                DataTimestampsDocument.fromDataTimestamps(request.getIngestionDataFrame().getDataTimestamps());
-
-        // get PV name and generate id for BucketDocument
-        final String documentId = pvName + "-"
-                + requestDataTimestampsDocument.getFirstTime().getSeconds() + "-"
-                + requestDataTimestampsDocument.getFirstTime().getNanos();
-        bucket.setId(documentId);
+        // generate id for BucketDocument from PV name and request first timestamp
+        bucket.setId(pvName + documentIdSuffix);
         bucket.setPvName(pvName);
         bucket.setProviderId(request.getProviderId());
         bucket.setProviderName(providerName);
@@ -107,7 +107,7 @@ public class BucketDocument extends DpBsonDocumentBase {
 
         bucket.setDataColumn(dataColumnDocument);
 
-        // embed requestDataTimesetampsDocument within each BucketDocument
+        // embed requestDataTimestampsDocument within each BucketDocument
         bucket.setDataTimestamps(requestDataTimestampsDocument);
 
         return bucket;
@@ -125,103 +125,134 @@ public class BucketDocument extends DpBsonDocumentBase {
      */
     public static List<BucketDocument> generateBucketsFromRequest(IngestDataRequest request, String providerName)
             throws DpException {
+        return generateBucketsFromRequest(request, providerName, false);
+    }
+
+    /**
+     * Generates a list of BucketDocuments as above.  If packScalarValues is true, the values for double, float, int32,
+     * int64, bool, and enum columns are stored as a packed binary instead of a BSON array of boxed values.
+     *
+     * @param request
+     * @param providerName
+     * @param packScalarValues
+     * @return
+     */
+    public static List<BucketDocument> generateBucketsFromRequest(
+            IngestDataRequest request,
+            String providerName,
+            boolean packScalarValues
+    ) throws DpException {
 
         final List<BucketDocument> bucketList = new ArrayList<>();
 
+        // Create DataTimestampsDocument for the request once, and share it across all the request's buckets.  This
+        // avoids re-running DataTimestampsModel and re-serializing the same DataTimestamps for each column in the
+        // request.  The shared document must not be modified for an individual bucket.
+        final DataTimestampsDocument requestDataTimestampsDocument =
+                DataTimestampsDocument.fromDataTimestamps(request.getIngestionDataFrame().getDataTimestamps());
+        final String documentIdSuffix = "-"
+                + requestDataTimestampsDocument.getFirstTime().getSeconds() + "-"
+                + requestDataTimestampsDocument.getFirstTime().getNanos();
+
+        // creates the BucketDocument for a column of the request, with the request's shared fields
+        final BiFunction<String, ColumnDocumentBase, BucketDocument> bucketForColumn =
+                (pvName, columnDocument) -> columnBucketDocument(
+                        pvName, request, requestDataTimestampsDocument, documentIdSuffix, columnDocument, providerName);
+
         // create BucketDocument for each DataColumn
         for (DataColumn column : request.getIngestionDataFrame().getDataColumnsList()) {
             ColumnDocumentBase columnDocument = DataColumnDocument.fromDataColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each SerializedDataColumn
         for (SerializedDataColumn column : request.getIngestionDataFrame().getSerializedDataColumnsList()) {
             ColumnDocumentBase columnDocument = SerializedDataColumnDocument.fromSerializedDataColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each DoubleColumn
         for (DoubleColumn column : request.getIngestionDataFrame().getDoubleColumnsList()) {
-            ColumnDocumentBase columnDocument = DoubleColumnDocument.fromDoubleColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            ColumnDocumentBase columnDocument = DoubleColumnDocument.fromDoubleColumn(column, packScalarValues);
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each FloatColumn
         for (FloatColumn column : request.getIngestionDataFrame().getFloatColumnsList()) {
-            ColumnDocumentBase columnDocument = FloatColumnDocument.fromFloatColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            ColumnDocumentBase columnDocument = FloatColumnDocument.fromFloatColumn(column, packScalarValues);
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each Int64Column
         for (Int64Column column : request.getIngestionDataFrame().getInt64ColumnsList()) {
-            ColumnDocumentBase columnDocument = Int64ColumnDocument.fromInt64Column(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            ColumnDocumentBase columnDocument = Int64ColumnDocument.fromInt64Column(column, packScalarValues);
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each Int32Column
         for (Int32Column column : request.getIngestionDataFrame().getInt32ColumnsList()) {
-            ColumnDocumentBase columnDocument = Int32ColumnDocument.fromInt32Column(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            ColumnDocumentBase columnDocument = Int32ColumnDocument.fromInt32Column(column, packScalarValues);
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each BoolColumn
         for (BoolColumn column : request.getIngestionDataFrame().getBoolColumnsList()) {
-            ColumnDocumentBase columnDocument = BoolColumnDocument.fromBoolColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            ColumnDocumentBase columnDocument = BoolColumnDocument.fromBoolColumn(column, packScalarValues);
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each StringColumn
         for (StringColumn column : request.getIngestionDataFrame().getStringColumnsList()) {
             ColumnDocumentBase columnDocument = StringColumnDocument.fromStringColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each EnumColumn
         for (EnumColumn column : request.getIngestionDataFrame().getEnumColumnsList()) {
-            ColumnDocumentBase columnDocument = EnumColumnDocument.fromEnumColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            ColumnDocumentBase columnDocument = EnumColumnDocument.fromEnumColumn(column, packScalarValues);
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each DoubleArrayColumn
         for (DoubleArrayColumn column : request.getIngestionDataFrame().getDoubleArrayColumnsList()) {
             ColumnDocumentBase columnDocument = DoubleArrayColumnDocument.fromDoubleArrayColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each FloatArrayColumn
         for (FloatArrayColumn column : request.getIngestionDataFrame().getFloatArrayColumnsList()) {
             ColumnDocumentBase columnDocument = FloatArrayColumnDocument.fromFloatArrayColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each Int32ArrayColumn
         for (Int32ArrayColumn column : request.getIngestionDataFrame().getInt32ArrayColumnsList()) {
             ColumnDocumentBase columnDocument = Int32ArrayColumnDocument.fromInt32ArrayColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each Int64ArrayColumn
         for (Int64ArrayColumn column : request.getIngestionDataFrame().getInt64ArrayColumnsList()) {
             ColumnDocumentBase columnDocument = Int64ArrayColumnDocument.fromInt64ArrayColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each BoolArrayColumn
         for (BoolArrayColumn column : request.getIngestionDataFrame().getBoolArrayColumnsList()) {
             ColumnDocumentBase columnDocument = BoolArrayColumnDocument.fromBoolArrayColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each StructColumn
         for (StructColumn column : request.getIngestionDataFrame().getStructColumnsList()) {
             ColumnDocumentBase columnDocument = StructColumnDocument.fromStructColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         // create BucketDocument for each ImageColumn
         for (ImageColumn column : request.getIngestionDataFrame().getImageColumnsList()) {
             ColumnDocumentBase columnDocument = ImageColumnDocument.fromImageColumn(column);
-            bucketList.add(columnBucketDocument(column.getName(), request, columnDocument, providerName));
+            bucketList.add(bucketForColumn.apply(column.getName(), columnDocument));
         }
 
         return bucketList;
@@ -231,6 +262,32 @@ public class BucketDocument extends DpBsonDocumentBase {
             BucketDocument document,
             QueryDataRequest.QuerySpec querySpec
     ) throws DpException {
+        return dataBucketFromDocument(document, querySpec, false);
+    }
+
+    /**
+     * Builds a DataBucket for the query result as above.  If spliceStoredBytes is true, the document's stored
+     * DataTimestamps bytes and (for column types that support it) stored column bytes are placed in the bucket without
+     * parsing them into protobuf messages, so they are only copied once when the response is serialized for the wire.
+     * The resulting bucket serializes identically, but its dataTimestamps and dataValues fields are not readable via
+     * the protobuf accessors within this process, so this should only be used for buckets that are sent to the client
+     * without further processing.
+     *
+     * @param document
+     * @param querySpec
+     * @param spliceStoredBytes
+     * @return
+     * @throws DpException
+     */
+    public static DataBucket dataBucketFromDocument(
+            BucketDocument document,
+            QueryDataRequest.QuerySpec querySpec,
+            boolean spliceStoredBytes
+    ) throws DpException {
+
+        if (spliceStoredBytes) {
+            return splicedDataBucketFromDocument(document);
+        }
 
         final DataBucket.Builder bucketBuilder = DataBucket.newBuilder();
 
@@ -255,4 +312,87 @@ public class BucketDocument extends DpBsonDocumentBase {
         return bucketBuilder.build();
     }
 
+    /**
+     * Builds a DataBucket for the query result as above.  If trimToTimeRange is true, the bucket's timestamps and data
+     * values are trimmed to the samples within the query's [beginTime, endTime) range (see
+     * DataBucketUtility.trimToTimeRange()), and null is returned if the bucket contains no samples in that range.
+     * Stored bytes are only spliced for buckets that lie entirely within the query time range, since trimming requires
+     * the parsed bucket contents.
+     *
+     * @param document
+     * @param querySpec
+     * @param spliceStoredBytes
+     * @param trimToTimeRange
+     * @return
+     * @throws DpException
+     */
+    public static DataBucket dataBucketFromDocument(
+            BucketDocument document,
+            QueryDataRequest.QuerySpec querySpec,
+            boolean spliceStoredBytes,
+            boolean trimToTimeRange
+    ) throws DpException {
+
+        if ( ! trimToTimeRange || document.withinTimeRange(querySpec.getBeginTime(), querySpec.getEndTime())) {
+            return dataBucketFromDocument(document, querySpec, spliceStoredBytes);
+        }
+
+        final DataBucket bucket = dataBucketFromDocument(document, querySpec, false);
+        return DataBucketUtility.trimToTimeRange(bucket, querySpec.getBeginTime(), querySpec.getEndTime());
+    }
+
+    /**
+     * Returns true if the bucket's first and last times are within the half-open range [beginTime, endTime).
+     */
+    private boolean withinTimeRange(Timestamp beginTime, Timestamp endTime) {
+        if (dataTimestamps == null || dataTimestamps.getFirstTime() == null || dataTimestamps.getLastTime() == null) {
+            return false;
+        }
+        final TimestampDocument firstTime = dataTimestamps.getFirstTime();
+        final TimestampDocument lastTime = dataTimestamps.getLastTime();
+        final boolean firstTimeInRange = firstTime.getSeconds() > beginTime.getEpochSeconds()
+                || (firstTime.getSeconds() == beginTime.getEpochSeconds()
+                        && firstTime.getNanos() >= beginTime.getNanoseconds());
+        final boolean lastTimeInRange = lastTime.getSeconds() < endTime.getEpochSeconds()
+                || (lastTime.getSeconds() == endTime.getEpochSeconds()
+                        && lastTime.getNanos() < endTime.getNanoseconds());
+        return firstTimeInRange && lastTimeInRange;
+    }
+
+    private static DataBucket splicedDataBucketFromDocument(BucketDocument document) throws DpException {
+
+        final DataBucket.Builder bucketBuilder = DataBucket.newBuilder();
+
+        // set name
+        bucketBuilder.setPvName(document.getPvName());
+
+        // add stored data timestamps bytes as the dataTimestamps field, parsing only if there are none
+        final byte[] dataTimestampsBytes = document.getDataTimestamps().getBytes();
+        if (dataTimestampsBytes != null) {
+            final UnknownFieldSet.Field dataTimestampsField = UnknownFieldSet.Field.newBuilder()
+                    .addLengthDelimited(UnsafeByteOperations.unsafeWrap(dataTimestampsBytes))
+                    .build();
+            bucketBuilder.setUnknownFields(UnknownFieldSet.newBuilder()
+                    .addField(DataBucket.DATATIMESTAMPS_FIELD_NUMBER, dataTimestampsField)
+                    .build());
+        } else {
+            bucketBuilder.setDataTimestamps(document.getDataTimestamps().toDataTimestamps());
+        }
+
+        // add data values, using the stored column bytes if supported by the column type
+        if ( ! document.getDataColumn().addColumnBytesToBucket(bucketBuilder)) {
+            document.getDataColumn().addColumnToBucket(bucketBuilder);
+        }
+
+        // add provider details
+        if (document.getProviderId() != null) {
+            bucketBuilder.setProviderId(document.getProviderId());
+        }
+        if (document.getProviderName() != null) {
+            bucketBuilder.setProviderName(document.getProviderName());
+        }
+
+        return bucketBuilder.build();
+    }
+
 }
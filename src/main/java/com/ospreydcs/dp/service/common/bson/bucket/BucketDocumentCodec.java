@@ -0,0 +1,135 @@
+package com.ospreydcs.dp.service.common.bson.bucket;
+
+import com.ospreydcs.dp.service.common.bson.BsonCodecUtility;
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
+import com.ospreydcs.dp.service.common.bson.column.ColumnDocumentBase;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.time.Instant;
+
+/**
+ * Hand-written codec for BucketDocument, used instead of the reflective POJO codec when enabled by configuration.
+ * Produces the same BSON as the POJO codec (the "id" property is written as "_id", null fields are omitted, Instant
+ * fields are written as BSON date) so that buckets written with either codec can be read with the other.  Unrecognized
+ * fields, such as those added by query projections or aggregation stages, are skipped on decode.
+ *
+ * Unlike the POJO codec, a field added to BucketDocument is not silently dropped if this codec isn't updated, but it
+ * isn't persisted either.  Any new field must be added to both encode() and decode().
+ */
+public class BucketDocumentCodec implements Codec<BucketDocument> {
+
+    // field names
+    public static final String FIELD_ID = "_id";
+    public static final String FIELD_PV_NAME = "pvName";
+    public static final String FIELD_DATA_COLUMN = "dataColumn";
+    public static final String FIELD_DATA_TIMESTAMPS = "dataTimestamps";
+    public static final String FIELD_PROVIDER_ID = "providerId";
+    public static final String FIELD_PROVIDER_NAME = "providerName";
+    public static final String FIELD_CLIENT_REQUEST_ID = "clientRequestId";
+    public static final String FIELD_TAGS = "tags";
+    public static final String FIELD_ATTRIBUTES = "attributes";
+    public static final String FIELD_CREATED_AT = "createdAt";
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+
+    // instance variables
+    private final Codec<ColumnDocumentBase> columnCodec;
+    private final Codec<DataTimestampsDocument> dataTimestampsCodec;
+
+    public BucketDocumentCodec(
+            Codec<ColumnDocumentBase> columnCodec,
+            Codec<DataTimestampsDocument> dataTimestampsCodec
+    ) {
+        this.columnCodec = columnCodec;
+        this.dataTimestampsCodec = dataTimestampsCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, BucketDocument document, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (document.getId() != null) {
+            writer.writeString(FIELD_ID, document.getId());
+        }
+        if (document.getPvName() != null) {
+            writer.writeString(FIELD_PV_NAME, document.getPvName());
+        }
+        if (document.getDataColumn() != null) {
+            writer.writeName(FIELD_DATA_COLUMN);
+            encoderContext.encodeWithChildContext(columnCodec, writer, document.getDataColumn());
+        }
+        if (document.getDataTimestamps() != null) {
+            writer.writeName(FIELD_DATA_TIMESTAMPS);
+            encoderContext.encodeWithChildContext(dataTimestampsCodec, writer, document.getDataTimestamps());
+        }
+        if (document.getProviderId() != null) {
+            writer.writeString(FIELD_PROVIDER_ID, document.getProviderId());
+        }
+        if (document.getProviderName() != null) {
+            writer.writeString(FIELD_PROVIDER_NAME, document.getProviderName());
+        }
+        if (document.getClientRequestId() != null) {
+            writer.writeString(FIELD_CLIENT_REQUEST_ID, document.getClientRequestId());
+        }
+        if (document.getTags() != null) {
+            BsonCodecUtility.writeStringList(writer, FIELD_TAGS, document.getTags());
+        }
+        if (document.getAttributes() != null) {
+            BsonCodecUtility.writeStringMap(writer, FIELD_ATTRIBUTES, document.getAttributes());
+        }
+        if (document.getCreatedAt() != null) {
+            writer.writeDateTime(FIELD_CREATED_AT, document.getCreatedAt().toEpochMilli());
+        }
+        if (document.getUpdatedAt() != null) {
+            writer.writeDateTime(FIELD_UPDATED_AT, document.getUpdatedAt().toEpochMilli());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public BucketDocument decode(BsonReader reader, DecoderContext decoderContext) {
+        final BucketDocument document = new BucketDocument();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String fieldName = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (fieldName) {
+                case FIELD_ID -> {
+                    // ids generated by the server (rather than by bucket generation) are ObjectIds
+                    if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+                        document.setId(reader.readObjectId().toHexString());
+                    } else {
+                        document.setId(reader.readString());
+                    }
+                }
+                case FIELD_PV_NAME -> document.setPvName(reader.readString());
+                case FIELD_DATA_COLUMN -> document.setDataColumn(
+                        decoderContext.decodeWithChildContext(columnCodec, reader));
+                case FIELD_DATA_TIMESTAMPS -> document.setDataTimestamps(
+                        decoderContext.decodeWithChildContext(dataTimestampsCodec, reader));
+                case FIELD_PROVIDER_ID -> document.setProviderId(reader.readString());
+                case FIELD_PROVIDER_NAME -> document.setProviderName(reader.readString());
+                case FIELD_CLIENT_REQUEST_ID -> document.setClientRequestId(reader.readString());
+                case FIELD_TAGS -> document.setTags(BsonCodecUtility.readStringList(reader));
+                case FIELD_ATTRIBUTES -> document.setAttributes(BsonCodecUtility.readStringMap(reader));
+                case FIELD_CREATED_AT -> document.setCreatedAt(Instant.ofEpochMilli(reader.readDateTime()));
+                case FIELD_UPDATED_AT -> document.setUpdatedAt(Instant.ofEpochMilli(reader.readDateTime()));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return document;
+    }
+
+    @Override
+    public Class<BucketDocument> getEncoderClass() {
+        return BucketDocument.class;
+    }
+
+}
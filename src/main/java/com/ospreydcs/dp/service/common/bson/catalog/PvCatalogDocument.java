@@ -0,0 +1,182 @@
+package com.ospreydcs.dp.service.common.bson.catalog;
+
+import java.util.Date;
+
+/**
+ * Catalog entry summarizing the buckets ingested for a PV by a single provider.  Entries are keyed by PV name and
+ * provider id, and are updated incrementally as data is ingested, so that PV and provider statistics can be computed
+ * from the small pvCatalog collection instead of aggregating over the buckets collection.  The "last" fields describe
+ * the bucket with the latest first time, matching the ordering used by the bucket aggregations they replace.
+ */
+public class PvCatalogDocument {
+
+    // instance variables
+    private String id;
+    private String pvName;
+    private String providerId;
+    private String providerName;
+    private String lastBucketId;
+    private String lastBucketDataType;
+    private int lastBucketDataTimestampsCase;
+    private String lastBucketDataTimestampsType;
+    private int lastBucketSampleCount;
+    private long lastBucketSamplePeriod;
+    private Date firstDataTimestamp;
+    private Date lastBucketFirstTimestamp;
+    private Date lastDataTimestamp;
+    private int numBuckets;
+
+    public PvCatalogDocument() {
+    }
+
+    public PvCatalogDocument(String pvName, String providerId) {
+        this.id = catalogId(pvName, providerId);
+        this.pvName = pvName;
+        this.providerId = providerId;
+        this.numBuckets = 0;
+    }
+
+    public static String catalogId(String pvName, String providerId) {
+        return pvName + "-" + providerId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPvName() {
+        return pvName;
+    }
+
+    public void setPvName(String pvName) {
+        this.pvName = pvName;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public String getProviderName() {
+        return providerName;
+    }
+
+    public void setProviderName(String providerName) {
+        this.providerName = providerName;
+    }
+
+    public String getLastBucketId() {
+        return lastBucketId;
+    }
+
+    public void setLastBucketId(String lastBucketId) {
+        this.lastBucketId = lastBucketId;
+    }
+
+    public String getLastBucketDataType() {
+        return lastBucketDataType;
+    }
+
+    public void setLastBucketDataType(String lastBucketDataType) {
+        this.lastBucketDataType = lastBucketDataType;
+    }
+
+    public int getLastBucketDataTimestampsCase() {
+        return lastBucketDataTimestampsCase;
+    }
+
+    public void setLastBucketDataTimestampsCase(int lastBucketDataTimestampsCase) {
+        this.lastBucketDataTimestampsCase = lastBucketDataTimestampsCase;
+    }
+
+    public String getLastBucketDataTimestampsType() {
+        return lastBucketDataTimestampsType;
+    }
+
+    public void setLastBucketDataTimestampsType(String lastBucketDataTimestampsType) {
+        this.lastBucketDataTimestampsType = lastBucketDataTimestampsType;
+    }
+
+    public int getLastBucketSampleCount() {
+        return lastBucketSampleCount;
+    }
+
+    public void setLastBucketSampleCount(int lastBucketSampleCount) {
+        this.lastBucketSampleCount = lastBucketSampleCount;
+    }
+
+    public long getLastBucketSamplePeriod() {
+        return lastBucketSamplePeriod;
+    }
+
+    public void setLastBucketSamplePeriod(long lastBucketSamplePeriod) {
+        this.lastBucketSamplePeriod = lastBucketSamplePeriod;
+    }
+
+    public Date getFirstDataTimestamp() {
+        return firstDataTimestamp;
+    }
+
+    public void setFirstDataTimestamp(Date firstDataTimestamp) {
+        this.firstDataTimestamp = firstDataTimestamp;
+    }
+
+    public Date getLastBucketFirstTimestamp() {
+        return lastBucketFirstTimestamp;
+    }
+
+    public void setLastBucketFirstTimestamp(Date lastBucketFirstTimestamp) {
+        this.lastBucketFirstTimestamp = lastBucketFirstTimestamp;
+    }
+
+    public Date getLastDataTimestamp() {
+        return lastDataTimestamp;
+    }
+
+    public void setLastDataTimestamp(Date lastDataTimestamp) {
+        this.lastDataTimestamp = lastDataTimestamp;
+    }
+
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    public void setNumBuckets(int numBuckets) {
+        this.numBuckets = numBuckets;
+    }
+
+    // NOTE - the methods below avoid "get" / "set" prefixes so that the POJO codec doesn't treat them as properties.
+
+    /**
+     * Merges another entry for the same PV and provider into this one.  The "last" fields are taken from the other
+     * entry if its last bucket starts no earlier than this entry's, so that later ingestion wins ties.
+     */
+    public void addEntry(PvCatalogDocument other) {
+        numBuckets += other.numBuckets;
+        if (firstDataTimestamp == null
+                || (other.firstDataTimestamp != null && other.firstDataTimestamp.before(firstDataTimestamp))) {
+            firstDataTimestamp = other.firstDataTimestamp;
+        }
+        if (lastBucketFirstTimestamp == null
+                || (other.lastBucketFirstTimestamp != null
+                && ! other.lastBucketFirstTimestamp.before(lastBucketFirstTimestamp))) {
+            providerName = other.providerName;
+            lastBucketId = other.lastBucketId;
+            lastBucketDataType = other.lastBucketDataType;
+            lastBucketDataTimestampsCase = other.lastBucketDataTimestampsCase;
+            lastBucketDataTimestampsType = other.lastBucketDataTimestampsType;
+            lastBucketSampleCount = other.lastBucketSampleCount;
+            lastBucketSamplePeriod = other.lastBucketSamplePeriod;
+            lastBucketFirstTimestamp = other.lastBucketFirstTimestamp;
+            lastDataTimestamp = other.lastDataTimestamp;
+        }
+    }
+
+}
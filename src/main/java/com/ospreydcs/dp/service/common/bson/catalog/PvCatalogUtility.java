@@ -0,0 +1,101 @@
+package com.ospreydcs.dp.service.common.bson.catalog;
+
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.bson.column.ColumnDocumentBase;
+import org.bson.codecs.pojo.annotations.BsonDiscriminator;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PvCatalogUtility {
+
+    /**
+     * Returns the value of the "_t" discriminator field stored for a column document, which is reported as the data
+     * type of a PV's last bucket.
+     */
+    private static String dataType(ColumnDocumentBase dataColumn) {
+        if (dataColumn == null) {
+            return null;
+        }
+        final BsonDiscriminator discriminator = dataColumn.getClass().getAnnotation(BsonDiscriminator.class);
+        if (discriminator == null || discriminator.value().isEmpty()) {
+            return dataColumn.getClass().getName();
+        }
+        return discriminator.value();
+    }
+
+    /**
+     * Creates a catalog entry for a single bucket, describing that bucket as the PV's first and last.
+     *
+     * @param bucket
+     * @return
+     */
+    public static PvCatalogDocument catalogEntryFromBucket(BucketDocument bucket) {
+
+        final PvCatalogDocument entry = new PvCatalogDocument(bucket.getPvName(), bucket.getProviderId());
+        entry.setProviderName(bucket.getProviderName());
+        entry.setLastBucketId(bucket.getId());
+        entry.setLastBucketDataType(dataType(bucket.getDataColumn()));
+        entry.setNumBuckets(1);
+
+        final DataTimestampsDocument dataTimestamps = bucket.getDataTimestamps();
+        if (dataTimestamps != null) {
+            entry.setLastBucketDataTimestampsCase(dataTimestamps.getValueCase());
+            entry.setLastBucketDataTimestampsType(dataTimestamps.getValueType());
+            entry.setLastBucketSampleCount(dataTimestamps.getSampleCount());
+            entry.setLastBucketSamplePeriod(dataTimestamps.getSamplePeriod());
+            if (dataTimestamps.getFirstTime() != null) {
+                entry.setFirstDataTimestamp(dataTimestamps.getFirstTime().getDateTime());
+                entry.setLastBucketFirstTimestamp(dataTimestamps.getFirstTime().getDateTime());
+            }
+            if (dataTimestamps.getLastTime() != null) {
+                entry.setLastDataTimestamp(dataTimestamps.getLastTime().getDateTime());
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Generates catalog entries for a batch of bucket documents, with one entry for each combination of PV name and
+     * provider in the batch.  The entries contain the batch's contribution to the catalog, to be merged with the
+     * stored entries.
+     *
+     * @param buckets
+     * @return
+     */
+    public static Collection<PvCatalogDocument> catalogEntriesFromBuckets(Collection<BucketDocument> buckets) {
+        final Map<String, PvCatalogDocument> entryMap = new LinkedHashMap<>();
+        for (BucketDocument bucket : buckets) {
+            addEntry(entryMap, catalogEntryFromBucket(bucket));
+        }
+        return entryMap.values();
+    }
+
+    /**
+     * Merges catalog entries with the same id, as for the buckets of multiple ingestion requests for the same PV and
+     * provider, so that each stored entry is updated once.
+     *
+     * @param entries
+     * @return
+     */
+    public static Collection<PvCatalogDocument> mergeCatalogEntries(Collection<PvCatalogDocument> entries) {
+        final Map<String, PvCatalogDocument> entryMap = new LinkedHashMap<>();
+        for (PvCatalogDocument entry : entries) {
+            addEntry(entryMap, entry);
+        }
+        return entryMap.values();
+    }
+
+    private static void addEntry(Map<String, PvCatalogDocument> entryMap, PvCatalogDocument entry) {
+        final PvCatalogDocument mergedEntry = entryMap.get(entry.getId());
+        if (mergedEntry == null) {
+            entryMap.put(entry.getId(), entry);
+        } else {
+            mergedEntry.addEntry(entry);
+        }
+    }
+
+}
@@ -1,9 +1,14 @@
 package com.ospreydcs.dp.service.common.bson.column;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
 import com.ospreydcs.dp.service.common.exception.DpException;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -75,6 +80,47 @@ public abstract class ArrayColumnDocumentBase extends BinaryColumnDocumentBase {
     protected abstract void writeValuesToBuffer(ByteBuffer buffer, Object values, int totalElements) 
             throws DpException;
 
+    /**
+     * Frames the stored values as a serialized protobuf array column without decoding them, for array types whose
+     * storage format matches the protobuf packed encoding of the values field (little-endian fixed width doubles and
+     * floats, and one 0/1 byte per bool).  The returned ByteString references the stored bytes rather than copying
+     * them.
+     *
+     * @param nameFieldNumber protobuf field number of the column's name field
+     * @param dimensionsFieldNumber protobuf field number of the column's dimensions field
+     * @param valuesFieldNumber protobuf field number of the column's packed values field
+     * @return serialized protobuf column
+     * @throws DpException
+     */
+    protected ByteString packedArrayColumnBytes(
+            int nameFieldNumber,
+            int dimensionsFieldNumber,
+            int valuesFieldNumber
+    ) throws DpException {
+
+        final byte[] binaryData = getBinaryData();
+
+        final ByteString.Output headerOutput = ByteString.newOutput();
+        final CodedOutputStream headerStream = CodedOutputStream.newInstance(headerOutput);
+        try {
+            if (getName() != null && ! getName().isEmpty()) {
+                headerStream.writeString(nameFieldNumber, getName());
+            }
+            if (dimensions != null) {
+                headerStream.writeMessage(dimensionsFieldNumber, dimensions.toArrayDimensions());
+            }
+            if (binaryData.length > 0) {
+                headerStream.writeTag(valuesFieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                headerStream.writeUInt32NoTag(binaryData.length);
+            }
+            headerStream.flush();
+        } catch (IOException e) {
+            throw new DpException("Failed to frame array column bytes: " + e.getMessage());
+        }
+
+        return headerOutput.toByteString().concat(UnsafeByteOperations.unsafeWrap(binaryData));
+    }
+
     /**
      * Reads array values from binary storage and creates the appropriate protobuf column.
      * Subclasses implement this with type-specific deserialization logic.
@@ -59,6 +59,14 @@ public abstract class BinaryColumnDocumentBase extends ColumnDocumentBase {
         this.storage = StorageDocument.inline(data);
     }
 
+    /**
+     * Returns true if the column's stored bytes can be sent in a query result without parsing them.  This requires
+     * inline storage, and no column metadata to apply to the column via applyMetadataToProto().
+     */
+    protected boolean canSpliceColumnBytes() {
+        return getColumnMetadata() == null && storage != null && storage.isInline() && storage.getData() != null;
+    }
+
     /**
      * Binary columns use direct deserialization pattern for protobuf conversion.
      * Each subclass implements its own deserialization logic.
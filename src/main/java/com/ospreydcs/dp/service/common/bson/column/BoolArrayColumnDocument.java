@@ -1,5 +1,6 @@
 package com.ospreydcs.dp.service.common.bson.column;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 import com.ospreydcs.dp.grpc.v1.common.BoolArrayColumn;
 import com.ospreydcs.dp.grpc.v1.common.DataBucket;
@@ -90,4 +91,17 @@ public class BoolArrayColumnDocument extends ArrayColumnDocumentBase {
         DataValues dataValues = DataValues.newBuilder().setBoolArrayColumn(boolArrayColumn).build();
         bucketBuilder.setDataValues(dataValues);
     }
+
+    @Override
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) throws DpException {
+        if ( ! canSpliceColumnBytes()) {
+            return false;
+        }
+        final ByteString columnBytes = packedArrayColumnBytes(
+                BoolArrayColumn.NAME_FIELD_NUMBER,
+                BoolArrayColumn.DIMENSIONS_FIELD_NUMBER,
+                BoolArrayColumn.VALUES_FIELD_NUMBER);
+        setDataValuesBytes(bucketBuilder, DataValues.ValuesCase.BOOLARRAYCOLUMN, columnBytes);
+        return true;
+    }
 }
\ No newline at end of file
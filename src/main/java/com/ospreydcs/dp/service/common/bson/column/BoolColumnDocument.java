@@ -9,13 +9,34 @@ import com.ospreydcs.dp.service.common.exception.DpException;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 @BsonDiscriminator(key = "_t", value = "boolColumn")
 public class BoolColumnDocument extends ScalarColumnDocumentBase<Boolean> {
 
     public static BoolColumnDocument fromBoolColumn(BoolColumn requestColumn) {
+        return fromBoolColumn(requestColumn, false);
+    }
+
+    /**
+     * Creates document from the request column.  If packValues is true, values are stored in packedValues with one
+     * byte per value copied directly from the protobuf column, instead of as a list of boxed values.
+     */
+    public static BoolColumnDocument fromBoolColumn(BoolColumn requestColumn, boolean packValues) {
         BoolColumnDocument document = new BoolColumnDocument();
         document.setName(requestColumn.getName());
-        document.setValues(requestColumn.getValuesList());
+        if (packValues) {
+            final int valueCount = requestColumn.getValuesCount();
+            final ByteBuffer packed = allocatePackedValues(valueCount, 1);
+            for (int i = 0 ; i < valueCount ; i++) {
+                packed.put((byte) (requestColumn.getValues(i) ? 1 : 0));
+            }
+            document.setPackedValues(packed.array());
+        } else {
+            document.setValues(requestColumn.getValuesList());
+        }
         if (requestColumn.hasMetadata()) {
             document.setColumnMetadata(ColumnMetadataDocument.fromColumnMetadata(requestColumn.getMetadata()));
         }
@@ -29,7 +50,25 @@ public class BoolColumnDocument extends ScalarColumnDocumentBase<Boolean> {
 
     @Override
     protected void addAllValuesToBuilder(Message.Builder builder) {
-        ((BoolColumn.Builder) builder).addAllValues(this.getValues());
+        final BoolColumn.Builder columnBuilder = (BoolColumn.Builder) builder;
+        if (getPackedValues() != null) {
+            // decode packed values directly into the builder's primitive list
+            final byte[] packed = getPackedValues();
+            for (byte value : packed) {
+                columnBuilder.addValues(value != 0);
+            }
+        } else {
+            columnBuilder.addAllValues(this.getValues());
+        }
+    }
+
+    @Override
+    protected List<Boolean> unpackValues(ByteBuffer packed) {
+        final List<Boolean> unpacked = new ArrayList<>(packed.remaining());
+        while (packed.hasRemaining()) {
+            unpacked.add(packed.get() != 0);
+        }
+        return unpacked;
     }
 
     @Override
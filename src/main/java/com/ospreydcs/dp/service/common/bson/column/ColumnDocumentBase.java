@@ -1,9 +1,12 @@
 package com.ospreydcs.dp.service.common.bson.column;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnknownFieldSet;
 import com.ospreydcs.dp.grpc.v1.common.ColumnMetadata;
 import com.ospreydcs.dp.grpc.v1.common.DataBucket;
 import com.ospreydcs.dp.grpc.v1.common.DataColumn;
+import com.ospreydcs.dp.grpc.v1.common.DataValues;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import com.ospreydcs.dp.service.common.exception.DpException;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
@@ -93,4 +96,39 @@ public abstract class ColumnDocumentBase {
      * @throws DpException
      */
     public abstract void addColumnToBucket(DataBucket.Builder bucketBuilder) throws DpException;
+
+    /**
+     * Adds the column to the supplied DataBucket.Builder for use in query result, using the document's stored bytes
+     * directly instead of parsing them into a protobuf column message that is then re-serialized for the wire.
+     * Returns false if the fast path is not supported for this column type or document (e.g., because stored column
+     * metadata must be applied to the column), in which case the caller should use addColumnToBucket() instead.
+     * <p>
+     * The bucket's DataValues may carry the spliced column bytes as an unknown field whose number is that of the
+     * column type's field in the DataValues oneof.  The bucket serializes exactly as if the column had been set
+     * normally, so clients are unaffected, but within this process getDataValues().getValuesCase() returns
+     * VALUES_NOT_SET.  The result should only be used for buckets that are sent without further inspection.
+     *
+     * @param bucketBuilder
+     * @return true if the column was added to bucketBuilder
+     * @throws DpException
+     */
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) throws DpException {
+        return false;
+    }
+
+    /**
+     * Sets the bucket's DataValues to contain the supplied serialized protobuf column, without parsing it, as the
+     * field for the specified DataValues oneof case.
+     */
+    protected static void setDataValuesBytes(
+            DataBucket.Builder bucketBuilder,
+            DataValues.ValuesCase valuesCase,
+            ByteString columnBytes
+    ) {
+        final UnknownFieldSet.Field columnField =
+                UnknownFieldSet.Field.newBuilder().addLengthDelimited(columnBytes).build();
+        final UnknownFieldSet dataValuesFields =
+                UnknownFieldSet.newBuilder().addField(valuesCase.getNumber(), columnField).build();
+        bucketBuilder.setDataValues(DataValues.newBuilder().setUnknownFields(dataValuesFields));
+    }
 }
@@ -0,0 +1,241 @@
+package com.ospreydcs.dp.service.common.bson.column;
+
+import com.ospreydcs.dp.service.common.bson.BsonCodecUtility;
+import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
+import org.bson.*;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written codec for the scalar column documents embedded in BucketDocument (double, float, int32, int64, bool,
+ * string, and enum), which make up the bulk of ingested data.  Produces the same BSON as the POJO codec, with the
+ * "_t" discriminator written first.  Other column document types (binary, array, and legacy DataColumnDocument) are
+ * delegated to the POJO codec for ColumnDocumentBase, as is any document whose "_t" field is not the first field.
+ */
+public class ColumnDocumentCodec implements Codec<ColumnDocumentBase> {
+
+    // field names
+    public static final String FIELD_DISCRIMINATOR = "_t";
+    public static final String FIELD_NAME = "name";
+    public static final String FIELD_COLUMN_METADATA = "columnMetadata";
+    public static final String FIELD_VALUES = "values";
+    public static final String FIELD_PACKED_VALUES = "packedValues";
+    public static final String FIELD_ENUM_ID = "enumId";
+
+    // discriminator values, must match @BsonDiscriminator annotations on the document classes
+    public static final String DISCRIMINATOR_DOUBLE = "doubleColumn";
+    public static final String DISCRIMINATOR_FLOAT = "floatColumn";
+    public static final String DISCRIMINATOR_INT32 = "int32Column";
+    public static final String DISCRIMINATOR_INT64 = "int64Column";
+    public static final String DISCRIMINATOR_BOOL = "boolColumn";
+    public static final String DISCRIMINATOR_STRING = "stringColumn";
+    public static final String DISCRIMINATOR_ENUM = "enumColumn";
+
+    // instance variables
+    private final Codec<ColumnDocumentBase> pojoColumnCodec;
+    private final Codec<ColumnMetadataDocument> columnMetadataCodec;
+
+    public ColumnDocumentCodec(
+            Codec<ColumnDocumentBase> pojoColumnCodec,
+            Codec<ColumnMetadataDocument> columnMetadataCodec
+    ) {
+        this.pojoColumnCodec = pojoColumnCodec;
+        this.columnMetadataCodec = columnMetadataCodec;
+    }
+
+    private static String discriminatorFor(ColumnDocumentBase document) {
+        // compare exact class so that any subclass of a scalar document type goes to the POJO codec
+        final Class<?> documentClass = document.getClass();
+        if (documentClass == DoubleColumnDocument.class) {
+            return DISCRIMINATOR_DOUBLE;
+        } else if (documentClass == FloatColumnDocument.class) {
+            return DISCRIMINATOR_FLOAT;
+        } else if (documentClass == Int32ColumnDocument.class) {
+            return DISCRIMINATOR_INT32;
+        } else if (documentClass == Int64ColumnDocument.class) {
+            return DISCRIMINATOR_INT64;
+        } else if (documentClass == BoolColumnDocument.class) {
+            return DISCRIMINATOR_BOOL;
+        } else if (documentClass == StringColumnDocument.class) {
+            return DISCRIMINATOR_STRING;
+        } else if (documentClass == EnumColumnDocument.class) {
+            return DISCRIMINATOR_ENUM;
+        } else {
+            return null;
+        }
+    }
+
+    private static ScalarColumnDocumentBase<?> newDocument(String discriminator) {
+        return switch (discriminator) {
+            case DISCRIMINATOR_DOUBLE -> new DoubleColumnDocument();
+            case DISCRIMINATOR_FLOAT -> new FloatColumnDocument();
+            case DISCRIMINATOR_INT32 -> new Int32ColumnDocument();
+            case DISCRIMINATOR_INT64 -> new Int64ColumnDocument();
+            case DISCRIMINATOR_BOOL -> new BoolColumnDocument();
+            case DISCRIMINATOR_STRING -> new StringColumnDocument();
+            case DISCRIMINATOR_ENUM -> new EnumColumnDocument();
+            default -> null;
+        };
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ColumnDocumentBase document, EncoderContext encoderContext) {
+
+        final String discriminator = discriminatorFor(document);
+        if (discriminator == null) {
+            pojoColumnCodec.encode(writer, document, encoderContext);
+            return;
+        }
+
+        final ScalarColumnDocumentBase<?> scalarDocument = (ScalarColumnDocumentBase<?>) document;
+
+        writer.writeStartDocument();
+        writer.writeString(FIELD_DISCRIMINATOR, discriminator);
+        if (scalarDocument.getName() != null) {
+            writer.writeString(FIELD_NAME, scalarDocument.getName());
+        }
+        if (scalarDocument.getColumnMetadata() != null) {
+            writer.writeName(FIELD_COLUMN_METADATA);
+            encoderContext.encodeWithChildContext(columnMetadataCodec, writer, scalarDocument.getColumnMetadata());
+        }
+        if (scalarDocument.getValues() != null) {
+            writer.writeStartArray(FIELD_VALUES);
+            for (Object value : scalarDocument.getValues()) {
+                writeValue(writer, value);
+            }
+            writer.writeEndArray();
+        }
+        if (scalarDocument.getPackedValues() != null) {
+            writer.writeBinaryData(FIELD_PACKED_VALUES, new BsonBinary(scalarDocument.getPackedValues()));
+        }
+        if (scalarDocument instanceof EnumColumnDocument enumDocument && enumDocument.getEnumId() != null) {
+            writer.writeString(FIELD_ENUM_ID, enumDocument.getEnumId());
+        }
+        writer.writeEndDocument();
+    }
+
+    private static void writeValue(BsonWriter writer, Object value) {
+        if (value == null) {
+            writer.writeNull();
+        } else if (value instanceof Double doubleValue) {
+            writer.writeDouble(doubleValue);
+        } else if (value instanceof Float floatValue) {
+            writer.writeDouble(floatValue);
+        } else if (value instanceof Integer intValue) {
+            writer.writeInt32(intValue);
+        } else if (value instanceof Long longValue) {
+            writer.writeInt64(longValue);
+        } else if (value instanceof Boolean booleanValue) {
+            writer.writeBoolean(booleanValue);
+        } else if (value instanceof String stringValue) {
+            writer.writeString(stringValue);
+        } else {
+            throw new IllegalArgumentException("unsupported scalar column value type: " + value.getClass().getName());
+        }
+    }
+
+    @Override
+    public ColumnDocumentBase decode(BsonReader reader, DecoderContext decoderContext) {
+
+        // peek at discriminator, and delegate to POJO codec if not a scalar type we handle
+        final BsonReaderMark mark = reader.getMark();
+        reader.readStartDocument();
+        ScalarColumnDocumentBase<?> document = null;
+        if (reader.readBsonType() == BsonType.STRING && FIELD_DISCRIMINATOR.equals(reader.readName())) {
+            document = newDocument(reader.readString());
+        }
+        if (document == null) {
+            mark.reset();
+            return pojoColumnCodec.decode(reader, decoderContext);
+        }
+
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            final String fieldName = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (fieldName) {
+                case FIELD_NAME -> document.setName(reader.readString());
+                case FIELD_COLUMN_METADATA -> document.setColumnMetadata(
+                        decoderContext.decodeWithChildContext(columnMetadataCodec, reader));
+                case FIELD_VALUES -> readValues(reader, document);
+                case FIELD_PACKED_VALUES -> document.setPackedValues(reader.readBinaryData().getData());
+                case FIELD_ENUM_ID -> {
+                    if (document instanceof EnumColumnDocument enumDocument) {
+                        enumDocument.setEnumId(reader.readString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return document;
+    }
+
+    private static void readValues(BsonReader reader, ScalarColumnDocumentBase<?> document) {
+        reader.readStartArray();
+        if (document instanceof DoubleColumnDocument doubleDocument) {
+            final List<Double> values = new ArrayList<>();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                values.add(isNull(reader) ? null : BsonCodecUtility.readDouble(reader));
+            }
+            doubleDocument.setValues(values);
+        } else if (document instanceof FloatColumnDocument floatDocument) {
+            final List<Float> values = new ArrayList<>();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                values.add(isNull(reader) ? null : (float) BsonCodecUtility.readDouble(reader));
+            }
+            floatDocument.setValues(values);
+        } else if (document instanceof Int64ColumnDocument int64Document) {
+            final List<Long> values = new ArrayList<>();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                values.add(isNull(reader) ? null : BsonCodecUtility.readInt64(reader));
+            }
+            int64Document.setValues(values);
+        } else if (document instanceof BoolColumnDocument boolDocument) {
+            final List<Boolean> values = new ArrayList<>();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                values.add(isNull(reader) ? null : reader.readBoolean());
+            }
+            boolDocument.setValues(values);
+        } else if (document instanceof StringColumnDocument stringDocument) {
+            final List<String> values = new ArrayList<>();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                values.add(BsonCodecUtility.readNullableString(reader));
+            }
+            stringDocument.setValues(values);
+        } else {
+            // int32 and enum columns
+            final List<Integer> values = new ArrayList<>();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                values.add(isNull(reader) ? null : BsonCodecUtility.readInt32(reader));
+            }
+            @SuppressWarnings("unchecked")
+            final ScalarColumnDocumentBase<Integer> intDocument = (ScalarColumnDocumentBase<Integer>) document;
+            intDocument.setValues(values);
+        }
+        reader.readEndArray();
+    }
+
+    private static boolean isNull(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Class<ColumnDocumentBase> getEncoderClass() {
+        return ColumnDocumentBase.class;
+    }
+
+}
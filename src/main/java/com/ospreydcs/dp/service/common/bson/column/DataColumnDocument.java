@@ -3,6 +3,7 @@ package com.ospreydcs.dp.service.common.bson.column;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
 import com.ospreydcs.dp.grpc.v1.common.*;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import com.ospreydcs.dp.service.common.exception.DpException;
@@ -115,4 +116,14 @@ public class DataColumnDocument extends ColumnDocumentBase {
         DataValues dataValues = DataValues.newBuilder().setDataColumn(dataColumn).build();
         bucketBuilder.setDataValues(dataValues);
     }
+
+    @Override
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) {
+        if (this.bytes == null) {
+            return false;
+        }
+        // stored bytes are the serialized DataColumn, including any column metadata
+        setDataValuesBytes(bucketBuilder, DataValues.ValuesCase.DATACOLUMN, UnsafeByteOperations.unsafeWrap(this.bytes));
+        return true;
+    }
 }
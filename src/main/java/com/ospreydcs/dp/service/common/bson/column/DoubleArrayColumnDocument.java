@@ -1,5 +1,6 @@
 package com.ospreydcs.dp.service.common.bson.column;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 import com.ospreydcs.dp.grpc.v1.common.DataBucket;
 import com.ospreydcs.dp.grpc.v1.common.DataValues;
@@ -90,4 +91,17 @@ public class DoubleArrayColumnDocument extends ArrayColumnDocumentBase {
         DataValues dataValues = DataValues.newBuilder().setDoubleArrayColumn(doubleArrayColumn).build();
         bucketBuilder.setDataValues(dataValues);
     }
+
+    @Override
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) throws DpException {
+        if ( ! canSpliceColumnBytes()) {
+            return false;
+        }
+        final ByteString columnBytes = packedArrayColumnBytes(
+                DoubleArrayColumn.NAME_FIELD_NUMBER,
+                DoubleArrayColumn.DIMENSIONS_FIELD_NUMBER,
+                DoubleArrayColumn.VALUES_FIELD_NUMBER);
+        setDataValuesBytes(bucketBuilder, DataValues.ValuesCase.DOUBLEARRAYCOLUMN, columnBytes);
+        return true;
+    }
 }
\ No newline at end of file
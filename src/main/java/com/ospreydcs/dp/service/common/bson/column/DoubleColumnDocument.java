@@ -9,13 +9,35 @@ import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import com.ospreydcs.dp.service.common.exception.DpException;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 @BsonDiscriminator(key = "_t", value = "doubleColumn")
 public class DoubleColumnDocument extends ScalarColumnDocumentBase<Double> {
 
     public static DoubleColumnDocument fromDoubleColumn(DoubleColumn requestColumn) {
+        return fromDoubleColumn(requestColumn, false);
+    }
+
+    /**
+     * Creates document from the request column.  If packValues is true, values are stored in packedValues as
+     * little-endian double values copied directly from the protobuf column, instead of as a list of boxed values.
+     */
+    public static DoubleColumnDocument fromDoubleColumn(DoubleColumn requestColumn, boolean packValues) {
         DoubleColumnDocument document = new DoubleColumnDocument();
         document.setName(requestColumn.getName());
-        document.setValues(requestColumn.getValuesList());
+        if (packValues) {
+            final int valueCount = requestColumn.getValuesCount();
+            final ByteBuffer packed = allocatePackedValues(valueCount, Double.BYTES);
+            for (int i = 0 ; i < valueCount ; i++) {
+                packed.putDouble(requestColumn.getValues(i));
+            }
+            document.setPackedValues(packed.array());
+        } else {
+            document.setValues(requestColumn.getValuesList());
+        }
         if (requestColumn.hasMetadata()) {
             document.setColumnMetadata(ColumnMetadataDocument.fromColumnMetadata(requestColumn.getMetadata()));
         }
@@ -29,7 +51,26 @@ public class DoubleColumnDocument extends ScalarColumnDocumentBase<Double> {
 
     @Override
     protected void addAllValuesToBuilder(Message.Builder builder) {
-        ((DoubleColumn.Builder) builder).addAllValues(this.getValues());
+        final DoubleColumn.Builder columnBuilder = (DoubleColumn.Builder) builder;
+        if (getPackedValues() != null) {
+            // decode packed values directly into the builder's primitive list
+            final DoubleBuffer packed = packedValuesBuffer().asDoubleBuffer();
+            while (packed.hasRemaining()) {
+                columnBuilder.addValues(packed.get());
+            }
+        } else {
+            columnBuilder.addAllValues(this.getValues());
+        }
+    }
+
+    @Override
+    protected List<Double> unpackValues(ByteBuffer packed) {
+        final DoubleBuffer packedView = packed.asDoubleBuffer();
+        final List<Double> unpacked = new ArrayList<>(packedView.remaining());
+        while (packedView.hasRemaining()) {
+            unpacked.add(packedView.get());
+        }
+        return unpacked;
     }
 
     @Override
@@ -9,6 +9,11 @@ import com.ospreydcs.dp.service.common.exception.DpException;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 @BsonDiscriminator(key = "_t", value = "enumColumn")
 public class EnumColumnDocument extends ScalarColumnDocumentBase<Integer> {
 
@@ -23,9 +28,26 @@ public class EnumColumnDocument extends ScalarColumnDocumentBase<Integer> {
     }
 
     public static EnumColumnDocument fromEnumColumn(EnumColumn requestColumn) {
+        return fromEnumColumn(requestColumn, false);
+    }
+
+    /**
+     * Creates document from the request column.  If packValues is true, values are stored in packedValues as
+     * little-endian int32 values copied directly from the protobuf column, instead of as a list of boxed values.
+     */
+    public static EnumColumnDocument fromEnumColumn(EnumColumn requestColumn, boolean packValues) {
         EnumColumnDocument document = new EnumColumnDocument();
         document.setName(requestColumn.getName());
-        document.setValues(requestColumn.getValuesList());
+        if (packValues) {
+            final int valueCount = requestColumn.getValuesCount();
+            final ByteBuffer packed = allocatePackedValues(valueCount, Integer.BYTES);
+            for (int i = 0 ; i < valueCount ; i++) {
+                packed.putInt(requestColumn.getValues(i));
+            }
+            document.setPackedValues(packed.array());
+        } else {
+            document.setValues(requestColumn.getValuesList());
+        }
         document.setEnumId(requestColumn.getEnumId());
         if (requestColumn.hasMetadata()) {
             document.setColumnMetadata(ColumnMetadataDocument.fromColumnMetadata(requestColumn.getMetadata()));
@@ -40,7 +62,26 @@ public class EnumColumnDocument extends ScalarColumnDocumentBase<Integer> {
 
     @Override
     protected void addAllValuesToBuilder(Message.Builder builder) {
-        ((EnumColumn.Builder) builder).addAllValues(this.getValues());
+        final EnumColumn.Builder columnBuilder = (EnumColumn.Builder) builder;
+        if (getPackedValues() != null) {
+            // decode packed values directly into the builder's primitive list
+            final IntBuffer packed = packedValuesBuffer().asIntBuffer();
+            while (packed.hasRemaining()) {
+                columnBuilder.addValues(packed.get());
+            }
+        } else {
+            columnBuilder.addAllValues(this.getValues());
+        }
+    }
+
+    @Override
+    protected List<Integer> unpackValues(ByteBuffer packed) {
+        final IntBuffer packedView = packed.asIntBuffer();
+        final List<Integer> unpacked = new ArrayList<>(packedView.remaining());
+        while (packedView.hasRemaining()) {
+            unpacked.add(packedView.get());
+        }
+        return unpacked;
     }
 
     @Override
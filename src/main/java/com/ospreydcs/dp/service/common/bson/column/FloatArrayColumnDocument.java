@@ -1,5 +1,6 @@
 package com.ospreydcs.dp.service.common.bson.column;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 import com.ospreydcs.dp.grpc.v1.common.DataBucket;
 import com.ospreydcs.dp.grpc.v1.common.DataValues;
@@ -90,4 +91,17 @@ public class FloatArrayColumnDocument extends ArrayColumnDocumentBase {
         DataValues dataValues = DataValues.newBuilder().setFloatArrayColumn(floatArrayColumn).build();
         bucketBuilder.setDataValues(dataValues);
     }
+
+    @Override
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) throws DpException {
+        if ( ! canSpliceColumnBytes()) {
+            return false;
+        }
+        final ByteString columnBytes = packedArrayColumnBytes(
+                FloatArrayColumn.NAME_FIELD_NUMBER,
+                FloatArrayColumn.DIMENSIONS_FIELD_NUMBER,
+                FloatArrayColumn.VALUES_FIELD_NUMBER);
+        setDataValuesBytes(bucketBuilder, DataValues.ValuesCase.FLOATARRAYCOLUMN, columnBytes);
+        return true;
+    }
 }
\ No newline at end of file
@@ -9,13 +9,35 @@ import com.ospreydcs.dp.service.common.exception.DpException;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 @BsonDiscriminator(key = "_t", value = "floatColumn")
 public class FloatColumnDocument extends ScalarColumnDocumentBase<Float> {
 
     public static FloatColumnDocument fromFloatColumn(FloatColumn requestColumn) {
+        return fromFloatColumn(requestColumn, false);
+    }
+
+    /**
+     * Creates document from the request column.  If packValues is true, values are stored in packedValues as
+     * little-endian float values copied directly from the protobuf column, instead of as a list of boxed values.
+     */
+    public static FloatColumnDocument fromFloatColumn(FloatColumn requestColumn, boolean packValues) {
         FloatColumnDocument document = new FloatColumnDocument();
         document.setName(requestColumn.getName());
-        document.setValues(requestColumn.getValuesList());
+        if (packValues) {
+            final int valueCount = requestColumn.getValuesCount();
+            final ByteBuffer packed = allocatePackedValues(valueCount, Float.BYTES);
+            for (int i = 0 ; i < valueCount ; i++) {
+                packed.putFloat(requestColumn.getValues(i));
+            }
+            document.setPackedValues(packed.array());
+        } else {
+            document.setValues(requestColumn.getValuesList());
+        }
         if (requestColumn.hasMetadata()) {
             document.setColumnMetadata(ColumnMetadataDocument.fromColumnMetadata(requestColumn.getMetadata()));
         }
@@ -29,7 +51,26 @@ public class FloatColumnDocument extends ScalarColumnDocumentBase<Float> {
 
     @Override
     protected void addAllValuesToBuilder(Message.Builder builder) {
-        ((FloatColumn.Builder) builder).addAllValues(this.getValues());
+        final FloatColumn.Builder columnBuilder = (FloatColumn.Builder) builder;
+        if (getPackedValues() != null) {
+            // decode packed values directly into the builder's primitive list
+            final FloatBuffer packed = packedValuesBuffer().asFloatBuffer();
+            while (packed.hasRemaining()) {
+                columnBuilder.addValues(packed.get());
+            }
+        } else {
+            columnBuilder.addAllValues(this.getValues());
+        }
+    }
+
+    @Override
+    protected List<Float> unpackValues(ByteBuffer packed) {
+        final FloatBuffer packedView = packed.asFloatBuffer();
+        final List<Float> unpacked = new ArrayList<>(packedView.remaining());
+        while (packedView.hasRemaining()) {
+            unpacked.add(packedView.get());
+        }
+        return unpacked;
     }
 
     @Override
@@ -2,6 +2,7 @@ package com.ospreydcs.dp.service.common.bson.column;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
 import com.ospreydcs.dp.grpc.v1.common.DataBucket;
 import com.ospreydcs.dp.grpc.v1.common.DataValues;
 import com.ospreydcs.dp.grpc.v1.common.ImageColumn;
@@ -42,4 +43,15 @@ public class ImageColumnDocument extends BinaryColumnDocumentBase {
         DataValues dataValues = DataValues.newBuilder().setImageColumn(imageColumn).build();
         bucketBuilder.setDataValues(dataValues);
     }
+
+    @Override
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) throws DpException {
+        if ( ! canSpliceColumnBytes()) {
+            return false;
+        }
+        // stored bytes are the serialized ImageColumn
+        setDataValuesBytes(
+                bucketBuilder, DataValues.ValuesCase.IMAGECOLUMN, UnsafeByteOperations.unsafeWrap(getBinaryData()));
+        return true;
+    }
 }
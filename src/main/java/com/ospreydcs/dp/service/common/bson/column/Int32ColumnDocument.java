@@ -9,13 +9,35 @@ import com.ospreydcs.dp.service.common.exception.DpException;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 @BsonDiscriminator(key = "_t", value = "int32Column")
 public class Int32ColumnDocument extends ScalarColumnDocumentBase<Integer> {
 
     public static Int32ColumnDocument fromInt32Column(Int32Column requestColumn) {
+        return fromInt32Column(requestColumn, false);
+    }
+
+    /**
+     * Creates document from the request column.  If packValues is true, values are stored in packedValues as
+     * little-endian int32 values copied directly from the protobuf column, instead of as a list of boxed values.
+     */
+    public static Int32ColumnDocument fromInt32Column(Int32Column requestColumn, boolean packValues) {
         Int32ColumnDocument document = new Int32ColumnDocument();
         document.setName(requestColumn.getName());
-        document.setValues(requestColumn.getValuesList());
+        if (packValues) {
+            final int valueCount = requestColumn.getValuesCount();
+            final ByteBuffer packed = allocatePackedValues(valueCount, Integer.BYTES);
+            for (int i = 0 ; i < valueCount ; i++) {
+                packed.putInt(requestColumn.getValues(i));
+            }
+            document.setPackedValues(packed.array());
+        } else {
+            document.setValues(requestColumn.getValuesList());
+        }
         if (requestColumn.hasMetadata()) {
             document.setColumnMetadata(ColumnMetadataDocument.fromColumnMetadata(requestColumn.getMetadata()));
         }
@@ -29,7 +51,26 @@ public class Int32ColumnDocument extends ScalarColumnDocumentBase<Integer> {
 
     @Override
     protected void addAllValuesToBuilder(Message.Builder builder) {
-        ((Int32Column.Builder) builder).addAllValues(this.getValues());
+        final Int32Column.Builder columnBuilder = (Int32Column.Builder) builder;
+        if (getPackedValues() != null) {
+            // decode packed values directly into the builder's primitive list
+            final IntBuffer packed = packedValuesBuffer().asIntBuffer();
+            while (packed.hasRemaining()) {
+                columnBuilder.addValues(packed.get());
+            }
+        } else {
+            columnBuilder.addAllValues(this.getValues());
+        }
+    }
+
+    @Override
+    protected List<Integer> unpackValues(ByteBuffer packed) {
+        final IntBuffer packedView = packed.asIntBuffer();
+        final List<Integer> unpacked = new ArrayList<>(packedView.remaining());
+        while (packedView.hasRemaining()) {
+            unpacked.add(packedView.get());
+        }
+        return unpacked;
     }
 
     @Override
@@ -9,13 +9,35 @@ import com.ospreydcs.dp.service.common.exception.DpException;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 @BsonDiscriminator(key = "_t", value = "int64Column")
 public class Int64ColumnDocument extends ScalarColumnDocumentBase<Long> {
 
     public static Int64ColumnDocument fromInt64Column(Int64Column requestColumn) {
+        return fromInt64Column(requestColumn, false);
+    }
+
+    /**
+     * Creates document from the request column.  If packValues is true, values are stored in packedValues as
+     * little-endian int64 values copied directly from the protobuf column, instead of as a list of boxed values.
+     */
+    public static Int64ColumnDocument fromInt64Column(Int64Column requestColumn, boolean packValues) {
         Int64ColumnDocument document = new Int64ColumnDocument();
         document.setName(requestColumn.getName());
-        document.setValues(requestColumn.getValuesList());
+        if (packValues) {
+            final int valueCount = requestColumn.getValuesCount();
+            final ByteBuffer packed = allocatePackedValues(valueCount, Long.BYTES);
+            for (int i = 0 ; i < valueCount ; i++) {
+                packed.putLong(requestColumn.getValues(i));
+            }
+            document.setPackedValues(packed.array());
+        } else {
+            document.setValues(requestColumn.getValuesList());
+        }
         if (requestColumn.hasMetadata()) {
             document.setColumnMetadata(ColumnMetadataDocument.fromColumnMetadata(requestColumn.getMetadata()));
         }
@@ -29,7 +51,26 @@ public class Int64ColumnDocument extends ScalarColumnDocumentBase<Long> {
 
     @Override
     protected void addAllValuesToBuilder(Message.Builder builder) {
-        ((Int64Column.Builder) builder).addAllValues(this.getValues());
+        final Int64Column.Builder columnBuilder = (Int64Column.Builder) builder;
+        if (getPackedValues() != null) {
+            // decode packed values directly into the builder's primitive list
+            final LongBuffer packed = packedValuesBuffer().asLongBuffer();
+            while (packed.hasRemaining()) {
+                columnBuilder.addValues(packed.get());
+            }
+        } else {
+            columnBuilder.addAllValues(this.getValues());
+        }
+    }
+
+    @Override
+    protected List<Long> unpackValues(ByteBuffer packed) {
+        final LongBuffer packedView = packed.asLongBuffer();
+        final List<Long> unpacked = new ArrayList<>(packedView.remaining());
+        while (packedView.hasRemaining()) {
+            unpacked.add(packedView.get());
+        }
+        return unpacked;
     }
 
     @Override
@@ -6,12 +6,21 @@ import com.ospreydcs.dp.grpc.v1.common.DataValue;
 import com.ospreydcs.dp.service.common.exception.DpException;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.List;
 
+/**
+ * Base class for scalar column documents.  Values are stored in one of two forms: as a BSON array in "values" (the
+ * original encoding, with one boxed element per sample), or for primitive types as a BSON binary in "packedValues"
+ * containing the values packed in little-endian byte order.  Exactly one of the two is set on a document.  Documents
+ * written before packed storage was added contain only "values", so both forms are handled on the read path.
+ */
 @BsonDiscriminator
 public abstract class ScalarColumnDocumentBase<T> extends ColumnDocumentBase {
 
     private List<T> values;
+    private byte[] packedValues;
 
     public List<T> getValues() {
         return values;
@@ -21,6 +30,45 @@ public abstract class ScalarColumnDocumentBase<T> extends ColumnDocumentBase {
         this.values = values;
     }
 
+    public byte[] getPackedValues() {
+        return packedValues;
+    }
+
+    public void setPackedValues(byte[] packedValues) {
+        this.packedValues = packedValues;
+    }
+
+    /**
+     * Allocates a little-endian buffer for packing the specified number of values of the specified width.
+     */
+    protected static ByteBuffer allocatePackedValues(int valueCount, int valueBytes) {
+        return ByteBuffer.allocate(valueCount * valueBytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns a little-endian view of packedValues for decoding.
+     */
+    protected ByteBuffer packedValuesBuffer() {
+        return ByteBuffer.wrap(packedValues).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the column values as a list, decoding packedValues if the column uses packed storage.  Used by paths that
+     * need boxed values anyway, the protobuf column is built directly from packedValues by addAllValuesToBuilder().
+     */
+    protected List<T> valuesList() {
+        if (packedValues != null) {
+            return unpackValues(packedValuesBuffer());
+        }
+        return values;
+    }
+
+    /**
+     * Decodes packedValues to a list, using the packed encoding of the subclass's column type.  Column types without
+     * a packed encoding throw UnsupportedOperationException.
+     */
+    protected abstract List<T> unpackValues(ByteBuffer packed);
+
     // Scalar-specific methods for incremental protobuf building
     protected abstract Message.Builder createColumnBuilder();
     
@@ -63,7 +111,7 @@ public abstract class ScalarColumnDocumentBase<T> extends ColumnDocumentBase {
         DataColumn.Builder builder = DataColumn.newBuilder();
         builder.setName(this.getName());
         
-        for (T value : this.getValues()) {
+        for (T value : this.valuesList()) {
             DataValue dataValue = createDataValueFromScalar(value);
             builder.addDataValues(dataValue);
         }
@@ -2,6 +2,7 @@ package com.ospreydcs.dp.service.common.bson.column;
 
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
 import com.ospreydcs.dp.grpc.v1.common.DataBucket;
 import com.ospreydcs.dp.grpc.v1.common.DataValues;
 import com.ospreydcs.dp.grpc.v1.common.SerializedDataColumn;
@@ -64,4 +65,19 @@ SerializedDataColumnDocument extends BinaryColumnDocumentBase {
         DataValues dataValues = DataValues.newBuilder().setSerializedDataColumn(serializedDataColumn).build();
         bucketBuilder.setDataValues(dataValues);
     }
+
+    @Override
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) throws DpException {
+        if ( ! canSpliceColumnBytes()) {
+            return false;
+        }
+        // wrap the stored payload instead of copying it, the column message is otherwise just name and encoding
+        SerializedDataColumn serializedDataColumn = SerializedDataColumn.newBuilder()
+                .setName(getName() != null ? getName() : "")
+                .setEncoding(getEncoding() != null ? getEncoding() : "")
+                .setPayload(UnsafeByteOperations.unsafeWrap(getBinaryData()))
+                .build();
+        bucketBuilder.setDataValues(DataValues.newBuilder().setSerializedDataColumn(serializedDataColumn));
+        return true;
+    }
 }
\ No newline at end of file
@@ -9,6 +9,9 @@ import com.ospreydcs.dp.service.common.exception.DpException;
 import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
 import org.bson.codecs.pojo.annotations.BsonDiscriminator;
 
+import java.nio.ByteBuffer;
+import java.util.List;
+
 @BsonDiscriminator(key = "_t", value = "stringColumn")
 public class StringColumnDocument extends ScalarColumnDocumentBase<String> {
 
@@ -29,7 +32,15 @@ public class StringColumnDocument extends ScalarColumnDocumentBase<String> {
 
     @Override
     protected void addAllValuesToBuilder(Message.Builder builder) {
-        ((StringColumn.Builder) builder).addAllValues(this.getValues());
+        ((StringColumn.Builder) builder).addAllValues(this.valuesList());
+    }
+
+    /**
+     * String columns don't have a packed encoding and are always stored as a values array.
+     */
+    @Override
+    protected List<String> unpackValues(ByteBuffer packed) {
+        throw new UnsupportedOperationException("packed values not supported for string columns");
     }
 
     @Override
@@ -2,6 +2,7 @@ package com.ospreydcs.dp.service.common.bson.column;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
+import com.google.protobuf.UnsafeByteOperations;
 import com.ospreydcs.dp.grpc.v1.common.DataBucket;
 import com.ospreydcs.dp.grpc.v1.common.DataValues;
 import com.ospreydcs.dp.grpc.v1.common.StructColumn;
@@ -42,4 +43,15 @@ public class StructColumnDocument extends BinaryColumnDocumentBase {
         DataValues dataValues = DataValues.newBuilder().setStructColumn(structColumn).build();
         bucketBuilder.setDataValues(dataValues);
     }
+
+    @Override
+    public boolean addColumnBytesToBucket(DataBucket.Builder bucketBuilder) throws DpException {
+        if ( ! canSpliceColumnBytes()) {
+            return false;
+        }
+        // stored bytes are the serialized StructColumn
+        setDataValuesBytes(
+                bucketBuilder, DataValues.ValuesCase.STRUCTCOLUMN, UnsafeByteOperations.unsafeWrap(getBinaryData()));
+        return true;
+    }
 }
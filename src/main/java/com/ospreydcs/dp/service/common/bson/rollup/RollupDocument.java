@@ -0,0 +1,122 @@
+package com.ospreydcs.dp.service.common.bson.rollup;
+
+/**
+ * Summary of the numeric values for a PV within a single time bin of a rollup tier.  A bin covers the range
+ * [binStartSeconds, binStartSeconds + resolutionSeconds).  Documents are keyed by PV name, resolution, and bin start
+ * time, and are updated incrementally as data is ingested, so count, sum, min, and max are stored instead of the mean.
+ */
+public class RollupDocument {
+
+    // instance variables
+    private String id;
+    private String pvName;
+    private long resolutionSeconds;
+    private long binStartSeconds;
+    private long count;
+    private double sum;
+    private double min;
+    private double max;
+
+    public RollupDocument() {
+    }
+
+    public RollupDocument(String pvName, long resolutionSeconds, long binStartSeconds) {
+        this.id = rollupId(pvName, resolutionSeconds, binStartSeconds);
+        this.pvName = pvName;
+        this.resolutionSeconds = resolutionSeconds;
+        this.binStartSeconds = binStartSeconds;
+        this.count = 0;
+        this.sum = 0;
+        this.min = Double.POSITIVE_INFINITY;
+        this.max = Double.NEGATIVE_INFINITY;
+    }
+
+    public static String rollupId(String pvName, long resolutionSeconds, long binStartSeconds) {
+        return pvName + "-" + resolutionSeconds + "-" + binStartSeconds;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPvName() {
+        return pvName;
+    }
+
+    public void setPvName(String pvName) {
+        this.pvName = pvName;
+    }
+
+    public long getResolutionSeconds() {
+        return resolutionSeconds;
+    }
+
+    public void setResolutionSeconds(long resolutionSeconds) {
+        this.resolutionSeconds = resolutionSeconds;
+    }
+
+    public long getBinStartSeconds() {
+        return binStartSeconds;
+    }
+
+    public void setBinStartSeconds(long binStartSeconds) {
+        this.binStartSeconds = binStartSeconds;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public void setSum(double sum) {
+        this.sum = sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public void setMin(double min) {
+        this.min = min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    // NOTE - the methods below avoid "get" / "set" prefixes so that the POJO codec doesn't treat them as properties.
+
+    public double mean() {
+        return (count == 0) ? Double.NaN : sum / count;
+    }
+
+    public void addValue(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void addRollup(RollupDocument other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+}
@@ -0,0 +1,232 @@
+package com.ospreydcs.dp.service.common.bson.rollup;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.protobuf.DataTimestampsUtility;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+public class RollupUtility {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * Parses a comma-separated list of rollup tier resolutions in seconds (e.g. "1,60,3600").  Returns the valid
+     * resolutions in ascending order, ignoring (and logging) entries that are not positive integers.
+     *
+     * @param configValue
+     * @return
+     */
+    public static long[] parseTierSeconds(String configValue) {
+        if (configValue == null || configValue.isBlank()) {
+            return new long[0];
+        }
+        final TreeSet<Long> tiers = new TreeSet<>();
+        for (String entry : configValue.split(",")) {
+            try {
+                final long tierSeconds = Long.parseLong(entry.trim());
+                if (tierSeconds > 0) {
+                    tiers.add(tierSeconds);
+                } else {
+                    logger.error("ignoring non-positive rollup tier: {}", entry);
+                }
+            } catch (NumberFormatException e) {
+                logger.error("ignoring invalid rollup tier: {}", entry);
+            }
+        }
+        return tiers.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Returns the coarsest tier resolution that is no coarser than maxResolutionSeconds, or 0 if all tiers are
+     * coarser.
+     *
+     * @param tierSeconds ascending tier resolutions
+     * @param maxResolutionSeconds
+     * @return
+     */
+    public static long nearestTier(long[] tierSeconds, long maxResolutionSeconds) {
+        long nearestTier = 0;
+        for (long tier : tierSeconds) {
+            if (tier <= maxResolutionSeconds) {
+                nearestTier = tier;
+            }
+        }
+        return nearestTier;
+    }
+
+    /**
+     * Returns true if a PV's rollup tier covers all of its data from the query begin time onward, so that the query
+     * can be answered from the tier instead of raw buckets.  Rollups are only written for data ingested while the
+     * RollupWriter is enabled, so the tier covers the query if the PV's earliest bin in the tier is no later than the
+     * bin containing the later of the query begin time and the PV's earliest raw sample.  Returns false if the PV
+     * has no bins in the tier (e.g. non-numeric PVs, or data ingested before rollups were enabled) or no raw data.
+     *
+     * @param earliestBinStartSeconds start of the PV's earliest bin in the tier, or null if it has none
+     * @param earliestSampleSeconds seconds field of the PV's earliest raw sample time, or null if it has none
+     * @param queryBeginSeconds
+     * @param resolutionSeconds
+     * @return
+     */
+    public static boolean rollupsCoverQuery(
+            Long earliestBinStartSeconds,
+            Long earliestSampleSeconds,
+            long queryBeginSeconds,
+            long resolutionSeconds
+    ) {
+        if (earliestBinStartSeconds == null || earliestSampleSeconds == null) {
+            return false;
+        }
+        final long coverageStartSeconds = Math.max(queryBeginSeconds, earliestSampleSeconds);
+        final long coverageStartBinSeconds = Math.floorDiv(coverageStartSeconds, resolutionSeconds) * resolutionSeconds;
+        return earliestBinStartSeconds <= coverageStartBinSeconds;
+    }
+
+    private static double unsignedLongToDouble(long value) {
+        return (value >= 0) ? value : ((value >>> 1) | (value & 1)) * 2.0;
+    }
+
+    /**
+     * Returns an accessor for the numeric values of a DataColumn, or null if its values are not numeric.  The type of
+     * the first value determines whether the column is numeric, and values of other types are returned as NaN.
+     */
+    private static IntToDoubleFunction dataColumnValues(DataColumn column) {
+        if (column.getDataValuesCount() == 0) {
+            return null;
+        }
+        switch (column.getDataValues(0).getValueCase()) {
+            case DOUBLEVALUE, FLOATVALUE, INTVALUE, LONGVALUE, UINTVALUE, ULONGVALUE -> {
+                return index -> {
+                    final DataValue dataValue = column.getDataValues(index);
+                    return switch (dataValue.getValueCase()) {
+                        case DOUBLEVALUE -> dataValue.getDoubleValue();
+                        case FLOATVALUE -> dataValue.getFloatValue();
+                        case INTVALUE -> dataValue.getIntValue();
+                        case LONGVALUE -> dataValue.getLongValue();
+                        case UINTVALUE -> Integer.toUnsignedLong(dataValue.getUintValue());
+                        case ULONGVALUE -> unsignedLongToDouble(dataValue.getUlongValue());
+                        default -> Double.NaN;
+                    };
+                };
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Adds the column's values to the rollup documents for each tier.  Consecutive samples usually fall in the same
+     * bin, so the current document for each tier is kept to avoid a map lookup per sample.  NaN values are skipped.
+     */
+    private static void addColumnRollups(
+            String pvName,
+            int numValues,
+            IntToDoubleFunction values,
+            long[] sampleSeconds,
+            long[] tierSeconds,
+            Map<String, RollupDocument> rollupMap
+    ) {
+        final int sampleCount = Math.min(numValues, sampleSeconds.length);
+        for (long tier : tierSeconds) {
+            RollupDocument currentDocument = null;
+            for (int index = 0 ; index < sampleCount ; index++) {
+                final double value = values.applyAsDouble(index);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                final long binStartSeconds = Math.floorDiv(sampleSeconds[index], tier) * tier;
+                if (currentDocument == null || currentDocument.getBinStartSeconds() != binStartSeconds) {
+                    currentDocument = rollupMap.computeIfAbsent(
+                            RollupDocument.rollupId(pvName, tier, binStartSeconds),
+                            id -> new RollupDocument(pvName, tier, binStartSeconds));
+                }
+                currentDocument.addValue(value);
+            }
+        }
+    }
+
+    /**
+     * Generates rollup documents for each tier from the numeric scalar columns in an IngestDataRequest (double,
+     * float, int32, and int64 columns, and DataColumns containing numeric values).  The documents contain the
+     * request's contribution to each bin, to be merged with the stored document for the bin.
+     *
+     * @param request
+     * @param tierSeconds
+     * @return
+     */
+    public static Collection<RollupDocument> rollupsFromRequest(IngestDataRequest request, long[] tierSeconds) {
+
+        final Map<String, RollupDocument> rollupMap = new LinkedHashMap<>();
+        if (tierSeconds.length == 0) {
+            return rollupMap.values();
+        }
+
+        // get the seconds field of each sample timestamp, which determines its bin in every tier
+        final DataFrame dataFrame = request.getIngestionDataFrame();
+        final DataTimestamps dataTimestamps = dataFrame.getDataTimestamps();
+        final DataTimestampsUtility.DataTimestampsIterator iterator =
+                DataTimestampsUtility.dataTimestampsIterator(dataTimestamps);
+        if (iterator == null) {
+            return rollupMap.values();
+        }
+        final int sampleCount = new DataTimestampsUtility.DataTimestampsModel(dataTimestamps).getSampleCount();
+        final long[] sampleSeconds = new long[sampleCount];
+        int numSamples = 0;
+        while (iterator.hasNext() && numSamples < sampleCount) {
+            sampleSeconds[numSamples++] = iterator.next().getEpochSeconds();
+        }
+        final long[] seconds = (numSamples == sampleCount) ? sampleSeconds : Arrays.copyOf(sampleSeconds, numSamples);
+
+        for (DoubleColumn column : dataFrame.getDoubleColumnsList()) {
+            addColumnRollups(
+                    column.getName(), column.getValuesCount(), column::getValues, seconds, tierSeconds, rollupMap);
+        }
+        for (FloatColumn column : dataFrame.getFloatColumnsList()) {
+            addColumnRollups(
+                    column.getName(), column.getValuesCount(), column::getValues, seconds, tierSeconds, rollupMap);
+        }
+        for (Int64Column column : dataFrame.getInt64ColumnsList()) {
+            addColumnRollups(
+                    column.getName(), column.getValuesCount(), column::getValues, seconds, tierSeconds, rollupMap);
+        }
+        for (Int32Column column : dataFrame.getInt32ColumnsList()) {
+            addColumnRollups(
+                    column.getName(), column.getValuesCount(), column::getValues, seconds, tierSeconds, rollupMap);
+        }
+        for (DataColumn column : dataFrame.getDataColumnsList()) {
+            final IntToDoubleFunction values = dataColumnValues(column);
+            if (values != null) {
+                addColumnRollups(
+                        column.getName(), column.getDataValuesCount(), values, seconds, tierSeconds, rollupMap);
+            }
+        }
+
+        return rollupMap.values();
+    }
+
+    /**
+     * Merges rollup documents with the same id, as for the contributions of multiple ingestion requests to the same
+     * bin, so that each bin is updated once.
+     *
+     * @param rollupDocuments
+     * @return
+     */
+    public static Collection<RollupDocument> mergeRollups(Collection<RollupDocument> rollupDocuments) {
+        final Map<String, RollupDocument> rollupMap = new LinkedHashMap<>();
+        for (RollupDocument document : rollupDocuments) {
+            final RollupDocument mergedDocument = rollupMap.get(document.getId());
+            if (mergedDocument == null) {
+                rollupMap.put(document.getId(), document);
+            } else {
+                mergedDocument.addRollup(document);
+            }
+        }
+        return rollupMap.values();
+    }
+
+}
@@ -1,11 +1,16 @@
 package com.ospreydcs.dp.service.common.handler;
 
 import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class QueueHandlerBase {
 
@@ -14,23 +19,110 @@ public abstract class QueueHandlerBase {
 
     // constants
     protected static final int TIMEOUT_SECONDS = 10;
-    protected static final int MAX_QUEUE_SIZE = 1;
     protected static final int POLL_TIMEOUT_SECONDS = 1;
+    protected static final int DEFAULT_QUEUE_CAPACITY = 100;
+    protected static final OverloadPolicy DEFAULT_OVERLOAD_POLICY = OverloadPolicy.BLOCK;
+    protected static final int DEFAULT_MAX_CONCURRENT_JOBS = 100;
+    private static final int OVERLOAD_LOG_INTERVAL = 100;
+
+    /**
+     * Specifies how submitJob() handles a job when the request queue is full.  BLOCK waits for space in the queue,
+     * REJECT rejects the new job with a RESOURCE_EXHAUSTED error, and SHED rejects the oldest queued job that has a
+     * response observer (whose client has waited longest) to make room for the new one.  Jobs submitted without a
+     * response observer can't be rejected once queued, so they are never shed.
+     */
+    public enum OverloadPolicy {
+        BLOCK,
+        REJECT,
+        SHED
+    }
 
     // instance variables
     protected ExecutorService executorService = null;
-    protected BlockingQueue<HandlerJob> requestQueue = new LinkedBlockingQueue<>(MAX_QUEUE_SIZE);
+    protected BlockingDeque<HandlerJob> requestQueue = new LinkedBlockingDeque<>(DEFAULT_QUEUE_CAPACITY);
     protected final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
+    private final ReentrantLock submitLock = new ReentrantLock();
+    private OverloadPolicy overloadPolicy = DEFAULT_OVERLOAD_POLICY;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private boolean useVirtualThreads = false;
+    private int maxConcurrentJobs = DEFAULT_MAX_CONCURRENT_JOBS;
+    private Semaphore concurrentJobPermits = null;
+    private Thread virtualThreadDispatcher = null;
+
+    // queue gauges and counters
+    private final AtomicInteger maxQueueDepth = new AtomicInteger(0);
+    private final AtomicLong submittedJobCount = new AtomicLong(0);
+    private final AtomicLong blockedSubmitCount = new AtomicLong(0);
+    private final AtomicLong rejectedJobCount = new AtomicLong(0);
+    private final AtomicLong shedJobCount = new AtomicLong(0);
+    private final AtomicLong dequeuedJobCount = new AtomicLong(0);
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong(0);
 
     // abstract method interface
     protected abstract boolean init_();
     protected abstract boolean fini_();
     protected abstract int getNumWorkers_();
+    protected abstract int getQueueCapacity_();
+    protected abstract OverloadPolicy getOverloadPolicy_();
+
+    /**
+     * Returns true to execute each job on its own virtual thread instead of the fixed pool of numWorkers platform
+     * threads.  Handlers override to enable via configuration.
+     */
+    protected boolean getUseVirtualThreads_() {
+        return false;
+    }
+
+    /**
+     * Returns the maximum number of jobs executing concurrently in virtual thread mode.  Bounds the load placed on the
+     * database by blocking jobs, since virtual threads are not limited by pool size.
+     */
+    protected int getMaxConcurrentJobs_() {
+        return DEFAULT_MAX_CONCURRENT_JOBS;
+    }
 
     protected static ConfigurationManager configMgr() {
         return ConfigurationManager.getInstance();
     }
 
+    /**
+     * Parses OverloadPolicy from the specified config value, using the default if not specified or invalid.
+     */
+    protected static OverloadPolicy overloadPolicyFromConfig(String configValue) {
+        if (configValue == null || configValue.isBlank()) {
+            return DEFAULT_OVERLOAD_POLICY;
+        }
+        try {
+            return OverloadPolicy.valueOf(configValue.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("invalid overload policy: {}, using default: {}", configValue, DEFAULT_OVERLOAD_POLICY);
+            return DEFAULT_OVERLOAD_POLICY;
+        }
+    }
+
+    /**
+     * Wraps a job in the request queue with its enqueue time, for measuring queue wait time, and the response
+     * observer used to reject the job if it is shed from the queue.
+     */
+    private class QueuedJob extends HandlerJob {
+
+        private final HandlerJob job;
+        private final StreamObserver<?> responseObserver;
+        private final long enqueueNanos = System.nanoTime();
+
+        private QueuedJob(HandlerJob job, StreamObserver<?> responseObserver) {
+            this.job = job;
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public void execute() {
+            recordQueueWait(System.nanoTime() - enqueueNanos);
+            job.execute();
+        }
+    }
+
     private class QueueWorker implements Runnable {
 
         private final BlockingQueue queue;
@@ -40,12 +132,12 @@ public abstract class QueueHandlerBase {
         }
         public void run() {
             try {
-                while (!Thread.currentThread().isInterrupted() && !shutdownRequested.get()) {
+                while (!Thread.currentThread().isInterrupted()) {
 
 //                    // block while waiting for a queue element
 //                    HandlerQueryRequest request = (HandlerQueryRequest) queue.take();
 
-                    // poll for next queue item with a timeout
+                    // poll for next queue item with a timeout, exiting once the queue is drained after shutdown
                     HandlerJob job =
                             (HandlerJob) queue.poll(POLL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
 
@@ -53,9 +145,10 @@ public abstract class QueueHandlerBase {
                         try {
                             job.execute();
                         } catch (Exception ex) {
-                            logger.error("QueryWorker.run encountered exception: {}", ex.getMessage());
-                            ex.printStackTrace(System.err);
+                            logger.error("QueryWorker.run encountered exception", ex);
                         }
+                    } else if (shutdownRequested.get()) {
+                        break;
                     }
                 }
 
@@ -68,6 +161,55 @@ public abstract class QueueHandlerBase {
         }
     }
 
+    /**
+     * Dispatches jobs from the request queue to virtual threads, waiting for a permit before starting each job so
+     * that no more than maxConcurrentJobs execute at once.  While all permits are in use, jobs accumulate in the
+     * request queue and the handler's OverloadPolicy applies as it does for the worker pool.
+     */
+    private class VirtualThreadDispatcher implements Runnable {
+
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+
+                    // exit once the queue is drained after shutdown
+                    final HandlerJob job = requestQueue.poll(POLL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    if (job == null) {
+                        if (shutdownRequested.get()) {
+                            break;
+                        }
+                        continue;
+                    }
+
+                    concurrentJobPermits.acquire();
+                    try {
+                        executorService.execute(() -> {
+                            try {
+                                job.execute();
+                            } catch (Exception ex) {
+                                logger.error("VirtualThreadDispatcher job encountered exception", ex);
+                            } finally {
+                                concurrentJobPermits.release();
+                            }
+                        });
+                    } catch (RejectedExecutionException ex) {
+                        concurrentJobPermits.release();
+                        logger.error("VirtualThreadDispatcher job rejected by executor during shutdown");
+                        if (!rejectDequeuedJob(job, "handler shut down before request executed")) {
+                            logger.error("VirtualThreadDispatcher discarded job without response observer");
+                        }
+                    }
+                }
+
+                logger.trace("VirtualThreadDispatcher shutting down");
+
+            } catch (InterruptedException ex) {
+                logger.error("InterruptedException in VirtualThreadDispatcher.run");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     public boolean getShutdownRequested() {
         return shutdownRequested.get();
     }
@@ -81,15 +223,40 @@ public abstract class QueueHandlerBase {
             return false;
         }
 
-        int numWorkers = getNumWorkers_();
-        logger.info("init numWorkers: {}", numWorkers);
-
-        // init ExecutorService
-        executorService = Executors.newFixedThreadPool(numWorkers);
-
-        for (int i = 1 ; i <= numWorkers ; i++) {
-            QueueWorker worker = new QueueWorker(requestQueue);
-            executorService.execute(worker);
+        // init request queue
+        queueCapacity = getQueueCapacity_();
+        overloadPolicy = getOverloadPolicy_();
+        requestQueue = new LinkedBlockingDeque<>(queueCapacity);
+
+        useVirtualThreads = getUseVirtualThreads_();
+        if (useVirtualThreads) {
+
+            // init virtual thread per job executor, with dispatcher thread to limit concurrency
+            maxConcurrentJobs = getMaxConcurrentJobs_();
+            logger.info(
+                    "init virtual threads maxConcurrentJobs: {} queueCapacity: {} overloadPolicy: {}",
+                    maxConcurrentJobs, queueCapacity, overloadPolicy);
+            concurrentJobPermits = new Semaphore(maxConcurrentJobs);
+            executorService = Executors.newVirtualThreadPerTaskExecutor();
+            virtualThreadDispatcher =
+                    new Thread(new VirtualThreadDispatcher(), getClass().getSimpleName() + "-dispatcher");
+            virtualThreadDispatcher.setDaemon(true);
+            virtualThreadDispatcher.start();
+
+        } else {
+
+            int numWorkers = getNumWorkers_();
+            logger.info(
+                    "init numWorkers: {} queueCapacity: {} overloadPolicy: {}",
+                    numWorkers, queueCapacity, overloadPolicy);
+
+            // init ExecutorService
+            executorService = Executors.newFixedThreadPool(numWorkers);
+
+            for (int i = 1 ; i <= numWorkers ; i++) {
+                QueueWorker worker = new QueueWorker(requestQueue);
+                executorService.execute(worker);
+            }
         }
 
         // add a JVM shutdown hook just in case
@@ -99,18 +266,261 @@ public abstract class QueueHandlerBase {
         return true;
     }
 
-    public boolean fini() {
+    /**
+     * Adds a job to the request queue, applying the handler's OverloadPolicy if the queue is full.  If the job is
+     * rejected (or shed from the queue), the job's responseObserver is closed with a RESOURCE_EXHAUSTED error, or
+     * UNAVAILABLE if the handler is shutting down.  A null responseObserver indicates that the caller will send the
+     * rejection itself.
+     *
+     * Inserts into the request queue are serialized by submitLock, so that removing the oldest job and adding the new
+     * one for the SHED policy is atomic with respect to other submitters.
+     *
+     * @return true if the job was added to the queue, false if it was rejected
+     */
+    protected boolean submitJob(HandlerJob job, StreamObserver<?> responseObserver) {
+
+        final QueuedJob queuedJob = new QueuedJob(job, responseObserver);
+        submittedJobCount.incrementAndGet();
+
+        boolean added;
+        QueuedJob shedJob = null;
+        submitLock.lock();
+        try {
+            if (shutdownRequested.get()) {
+                rejectedJobCount.incrementAndGet();
+                if (responseObserver != null) {
+                    rejectJob(responseObserver, Status.UNAVAILABLE, "handler shutting down");
+                }
+                return false;
+            }
 
-        if (shutdownRequested.get()) {
+            added = requestQueue.offer(queuedJob);
+            if (!added && overloadPolicy == OverloadPolicy.SHED) {
+                // make room by removing the oldest queued job that can be rejected
+                shedJob = removeOldestRejectableJob();
+                if (shedJob != null) {
+                    shedJobCount.incrementAndGet();
+                    added = requestQueue.offer(queuedJob);
+                }
+            }
+        } finally {
+            submitLock.unlock();
+        }
+
+        // respond to shed job outside the lock
+        if (shedJob != null) {
+            rejectJob(shedJob.responseObserver, Status.RESOURCE_EXHAUSTED, "request shed from full handler queue");
+        }
+
+        if (!added && overloadPolicy == OverloadPolicy.BLOCK) {
+            blockedSubmitCount.incrementAndGet();
+            added = putJob(queuedJob);
+        }
+
+        if (added) {
+            updateMaxQueueDepth(requestQueue.size());
             return true;
         }
-        shutdownRequested.set(true);
+
+        final long rejectedCount = rejectedJobCount.incrementAndGet();
+        if (rejectedCount % OVERLOAD_LOG_INTERVAL == 1) {
+            logger.warn(
+                    "handler queue full, rejected jobs: {} shed jobs: {} queueCapacity: {} policy: {}",
+                    rejectedCount, shedJobCount.get(), queueCapacity, overloadPolicy);
+        }
+        if (responseObserver != null) {
+            rejectJob(responseObserver, Status.RESOURCE_EXHAUSTED, "handler queue full");
+        }
+        return false;
+    }
+
+    /**
+     * Removes and returns the oldest queued job with a response observer, or null if there is none.  Must be called
+     * holding submitLock.
+     */
+    private QueuedJob removeOldestRejectableJob() {
+        for (HandlerJob queued : requestQueue) {
+            if (queued instanceof QueuedJob candidate
+                    && candidate.responseObserver != null
+                    && requestQueue.removeFirstOccurrence(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a job to the request queue, waiting for space if the queue is full regardless of OverloadPolicy.  Used for
+     * internal jobs that must not be dropped.
+     */
+    protected boolean submitJobBlocking(HandlerJob job) {
+        submittedJobCount.incrementAndGet();
+        final QueuedJob queuedJob = new QueuedJob(job, null);
+        submitLock.lock();
+        try {
+            if (shutdownRequested.get()) {
+                rejectedJobCount.incrementAndGet();
+                return false;
+            }
+            if (requestQueue.offer(queuedJob)) {
+                updateMaxQueueDepth(requestQueue.size());
+                return true;
+            }
+        } finally {
+            submitLock.unlock();
+        }
+        blockedSubmitCount.incrementAndGet();
+        return putJob(queuedJob);
+    }
+
+    /**
+     * Waits for space in the request queue, giving up if the handler is shut down while waiting.
+     */
+    private boolean putJob(QueuedJob queuedJob) {
+        try {
+            while (!shutdownRequested.get()) {
+                if (requestQueue.offer(queuedJob, POLL_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    updateMaxQueueDepth(requestQueue.size());
+                    return true;
+                }
+            }
+            logger.error("handler shut down waiting for space in requestQueue");
+            return false;
+        } catch (InterruptedException e) {
+            logger.error("InterruptedException waiting for requestQueue.offer");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Responds to jobs left in the request queue when the workers exit during shutdown.  Jobs with a response observer
+     * are rejected with UNAVAILABLE.
+     */
+    private void rejectQueuedJobs() {
+        int unansweredCount = 0;
+        HandlerJob job;
+        while ((job = requestQueue.poll()) != null) {
+            if (!rejectDequeuedJob(job, "handler shut down before request executed")) {
+                unansweredCount++;
+            }
+        }
+        if (unansweredCount > 0) {
+            logger.error("fini discarded {} queued jobs without response observer", unansweredCount);
+        }
+    }
+
+    /**
+     * Rejects a job taken from the request queue that won't be executed with UNAVAILABLE, if it has a response
+     * observer.
+     *
+     * @return true if the job was rejected, false if it has no response observer
+     */
+    private static boolean rejectDequeuedJob(HandlerJob job, String msg) {
+        if (job instanceof QueuedJob queuedJob && queuedJob.responseObserver != null) {
+            rejectJob(queuedJob.responseObserver, Status.UNAVAILABLE, msg);
+            return true;
+        }
+        return false;
+    }
+
+    private static void rejectJob(StreamObserver<?> responseObserver, Status status, String msg) {
+        try {
+            responseObserver.onError(status.withDescription(msg).asRuntimeException());
+        } catch (IllegalStateException e) {
+            logger.debug("rejectJob response stream already closed: {}", e.getMessage());
+        }
+    }
+
+    private void updateMaxQueueDepth(int depth) {
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    private void recordQueueWait(long waitNanos) {
+        dequeuedJobCount.incrementAndGet();
+        totalQueueWaitNanos.addAndGet(waitNanos);
+        maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public boolean getUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    /**
+     * Returns the number of jobs currently executing in virtual thread mode, or zero if using the worker pool.
+     */
+    public int getActiveJobCount() {
+        return (concurrentJobPermits == null) ? 0 : maxConcurrentJobs - concurrentJobPermits.availablePermits();
+    }
+
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getQueueDepth() {
+        return requestQueue.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getSubmittedJobCount() {
+        return submittedJobCount.get();
+    }
+
+    public long getBlockedSubmitCount() {
+        return blockedSubmitCount.get();
+    }
+
+    public long getRejectedJobCount() {
+        return rejectedJobCount.get();
+    }
+
+    public long getShedJobCount() {
+        return shedJobCount.get();
+    }
+
+    public long getAverageQueueWaitNanos() {
+        final long count = dequeuedJobCount.get();
+        return (count == 0) ? 0 : totalQueueWaitNanos.get() / count;
+    }
+
+    public long getMaxQueueWaitNanos() {
+        return maxQueueWaitNanos.get();
+    }
+
+    public boolean fini() {
+
+        // stop accepting jobs, workers exit after executing the jobs already queued
+        submitLock.lock();
+        try {
+            if (shutdownRequested.get()) {
+                return true;
+            }
+            shutdownRequested.set(true);
+        } finally {
+            submitLock.unlock();
+        }
 
         logger.trace("QueueHandlerBase fini");
 
-        // shut down service
-        if (!fini_()) {
-            logger.error("error in fini_()");
+        // stop dispatching new jobs to virtual threads before shutting down executor service
+        if (virtualThreadDispatcher != null) {
+            try {
+                virtualThreadDispatcher.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            } catch (InterruptedException ex) {
+                logger.error("fini InterruptedException waiting for virtualThreadDispatcher");
+                Thread.currentThread().interrupt();
+            }
         }
 
         // shut down executor service thread pool and workers
@@ -133,6 +543,25 @@ public abstract class QueueHandlerBase {
             Thread.currentThread().interrupt();
         }
 
+        // respond to any jobs the workers didn't get to before timing out
+        rejectQueuedJobs();
+
+        // shut down service after queued jobs have executed
+        if (!fini_()) {
+            logger.error("error in fini_()");
+        }
+
+        logger.info(
+                "QueueHandlerBase queue stats submitted: {} blocked: {} rejected: {} shed: {} maxDepth: {} "
+                        + "avgWaitNanos: {} maxWaitNanos: {}",
+                submittedJobCount.get(),
+                blockedSubmitCount.get(),
+                rejectedJobCount.get(),
+                shedJobCount.get(),
+                maxQueueDepth.get(),
+                getAverageQueueWaitNanos(),
+                maxQueueWaitNanos.get());
+
         logger.info("QueueHandlerBase fini completed");
 
         return true;
@@ -9,7 +9,9 @@ import com.ospreydcs.dp.service.common.bson.annotation.AnnotationDocument;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
 import com.ospreydcs.dp.service.common.bson.RequestStatusDocument;
 import com.ospreydcs.dp.service.common.bson.calculations.CalculationsDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
 import com.ospreydcs.dp.service.common.bson.dataset.DataSetDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bson.codecs.configuration.CodecRegistry;
@@ -31,6 +33,8 @@ public class MongoAsyncClient extends MongoClientBase {
     protected MongoCollection<DataSetDocument> mongoCollectionDataSets = null;
     protected MongoCollection<AnnotationDocument> mongoCollectionAnnotations = null;
     protected MongoCollection<CalculationsDocument> mongoCollectionCalculations = null;
+    protected MongoCollection<RollupDocument> mongoCollectionRollups = null;
+    protected MongoCollection<PvCatalogDocument> mongoCollectionPvCatalog = null;
 
     @Override
     protected boolean initMongoClient(String connectString) {
@@ -174,4 +178,30 @@ public class MongoAsyncClient extends MongoClientBase {
         // configurationActivations indexes not used by async client
         return true;
     }
+
+    @Override
+    protected boolean initMongoCollectionRollups(String collectionName) {
+        mongoCollectionRollups =
+                mongoDatabase.getCollection(collectionName, RollupDocument.class);  // creates collection if it doesn't exist
+        return true;
+    }
+
+    @Override
+    protected boolean createMongoIndexRollups(Bson fieldNamesBson) {
+        mongoCollectionRollups.createIndex(fieldNamesBson);
+        return true;
+    }
+
+    @Override
+    protected boolean initMongoCollectionPvCatalog(String collectionName) {
+        mongoCollectionPvCatalog =
+                mongoDatabase.getCollection(collectionName, PvCatalogDocument.class);  // creates collection if it doesn't exist
+        return true;
+    }
+
+    @Override
+    protected boolean createMongoIndexPvCatalog(Bson fieldNamesBson) {
+        mongoCollectionPvCatalog.createIndex(fieldNamesBson);
+        return true;
+    }
 }
@@ -10,11 +10,13 @@ import com.ospreydcs.dp.service.common.bson.ProviderDocument;
 import com.ospreydcs.dp.service.common.bson.annotation.AnnotationDocument;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
 import com.ospreydcs.dp.service.common.bson.RequestStatusDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
 import com.ospreydcs.dp.service.common.bson.calculations.CalculationsDocument;
 import com.ospreydcs.dp.service.common.bson.dataset.DataSetDocument;
 import com.ospreydcs.dp.service.common.bson.configuration.ConfigurationActivationDocument;
 import com.ospreydcs.dp.service.common.bson.configuration.ConfigurationDocument;
 import com.ospreydcs.dp.service.common.bson.pvmetadata.PvMetadataDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bson.Document;
@@ -38,6 +40,8 @@ public class MongoSyncClient extends MongoClientBase {
     protected MongoCollection<PvMetadataDocument> mongoCollectionPvMetadata = null;
     protected MongoCollection<ConfigurationDocument> mongoCollectionConfigurations = null;
     protected MongoCollection<ConfigurationActivationDocument> mongoCollectionConfigurationActivations = null;
+    protected MongoCollection<RollupDocument> mongoCollectionRollups = null;
+    protected MongoCollection<PvCatalogDocument> mongoCollectionPvCatalog = null;
 
     @Override
     protected boolean initMongoClient(String connectString) {
@@ -202,4 +206,28 @@ public class MongoSyncClient extends MongoClientBase {
         return true;
     }
 
+    @Override
+    protected boolean initMongoCollectionRollups(String collectionName) {
+        mongoCollectionRollups = mongoDatabase.getCollection(collectionName, RollupDocument.class);
+        return true;
+    }
+
+    @Override
+    protected boolean createMongoIndexRollups(Bson fieldNamesBson) {
+        mongoCollectionRollups.createIndex(fieldNamesBson);
+        return true;
+    }
+
+    @Override
+    protected boolean initMongoCollectionPvCatalog(String collectionName) {
+        mongoCollectionPvCatalog = mongoDatabase.getCollection(collectionName, PvCatalogDocument.class);
+        return true;
+    }
+
+    @Override
+    protected boolean createMongoIndexPvCatalog(Bson fieldNamesBson) {
+        mongoCollectionPvCatalog.createIndex(fieldNamesBson);
+        return true;
+    }
+
 }
@@ -0,0 +1,364 @@
+package com.ospreydcs.dp.service.common.protobuf;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Reduces the number of samples in a DataBucket to a target point count for plotting long time ranges.
+ * <p>
+ * STRIDE keeps every Nth sample and works for any column type that can be sliced by sample index.  MINMAX keeps the
+ * minimum and maximum value in each of targetPoints / 2 bins, preserving peaks.  LTTB uses the
+ * Largest-Triangle-Three-Buckets algorithm to keep the samples that best preserve the visual shape of the series.
+ * MINMAX and LTTB require a numeric scalar column (double, float, int32, or int64), and fall back to STRIDE for other
+ * column types.
+ */
+public class DataBucketDecimationUtility {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    public enum DecimationMode {
+        NONE,
+        STRIDE,
+        MINMAX,
+        LTTB
+    }
+
+    /**
+     * Returns the DecimationMode for the specified configuration value, defaulting to NONE if the value is null
+     * or invalid.
+     */
+    public static DecimationMode decimationModeFromConfig(String configValue) {
+        if (configValue == null || configValue.isBlank()) {
+            return DecimationMode.NONE;
+        }
+        try {
+            return DecimationMode.valueOf(configValue.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("invalid decimation mode: {}, using: {}", configValue, DecimationMode.NONE);
+            return DecimationMode.NONE;
+        }
+    }
+
+    /**
+     * Returns the number of samples in the DataTimestamps.
+     */
+    static int sampleCount(DataTimestamps dataTimestamps) {
+        if (dataTimestamps.hasSamplingClock()) {
+            return dataTimestamps.getSamplingClock().getCount();
+        } else if (dataTimestamps.hasTimestampList()) {
+            return dataTimestamps.getTimestampList().getTimestampsCount();
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns an accessor for the values of a numeric scalar column, or null if the column is not numeric.
+     */
+    private static IntToDoubleFunction numericValues(DataValues dataValues) {
+        return switch (dataValues.getValuesCase()) {
+            case DOUBLECOLUMN -> dataValues.getDoubleColumn()::getValues;
+            case FLOATCOLUMN -> dataValues.getFloatColumn()::getValues;
+            case INT32COLUMN -> dataValues.getInt32Column()::getValues;
+            case INT64COLUMN -> dataValues.getInt64Column()::getValues;
+            default -> null;
+        };
+    }
+
+    private static int[] strideIndexes(int sampleCount, int stride) {
+        final int[] indexes = new int[(sampleCount + stride - 1) / stride];
+        for (int i = 0 ; i < indexes.length ; i++) {
+            indexes[i] = i * stride;
+        }
+        return indexes;
+    }
+
+    private static int[] minMaxIndexes(int sampleCount, int targetPoints, IntToDoubleFunction values) {
+        final int numBins = Math.max(1, targetPoints / 2);
+        final int binSize = (sampleCount + numBins - 1) / numBins;
+        final int[] indexes = new int[numBins * 2];
+        int numIndexes = 0;
+        for (int binStart = 0 ; binStart < sampleCount ; binStart += binSize) {
+            final int binEnd = Math.min(sampleCount, binStart + binSize);
+            int minIndex = binStart;
+            int maxIndex = binStart;
+            for (int i = binStart + 1 ; i < binEnd ; i++) {
+                final double value = values.applyAsDouble(i);
+                if (value < values.applyAsDouble(minIndex)) {
+                    minIndex = i;
+                }
+                if (value > values.applyAsDouble(maxIndex)) {
+                    maxIndex = i;
+                }
+            }
+            // keep samples in time order
+            indexes[numIndexes++] = Math.min(minIndex, maxIndex);
+            if (minIndex != maxIndex) {
+                indexes[numIndexes++] = Math.max(minIndex, maxIndex);
+            }
+        }
+        return Arrays.copyOf(indexes, numIndexes);
+    }
+
+    private static int[] lttbIndexes(
+            int sampleCount,
+            int targetPoints,
+            long[] sampleTimes,
+            IntToDoubleFunction values
+    ) {
+        final int[] indexes = new int[targetPoints];
+        int numIndexes = 0;
+
+        // always keep first sample
+        int selectedIndex = 0;
+        indexes[numIndexes++] = selectedIndex;
+
+        // divide samples between first and last into targetPoints - 2 buckets
+        final double bucketSize = (double) (sampleCount - 2) / (targetPoints - 2);
+        for (int bucket = 0 ; bucket < targetPoints - 2 ; bucket++) {
+
+            // average point of next bucket (or the last sample, for the final bucket)
+            final int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            final int nextEnd = Math.min(sampleCount, (int) Math.floor((bucket + 2) * bucketSize) + 1);
+            double averageTime = 0;
+            double averageValue = 0;
+            final int nextCount = Math.max(1, nextEnd - nextStart);
+            for (int i = nextStart ; i < nextStart + nextCount ; i++) {
+                final int index = Math.min(i, sampleCount - 1);
+                averageTime += sampleTimes[index] - sampleTimes[0];
+                averageValue += values.applyAsDouble(index);
+            }
+            averageTime /= nextCount;
+            averageValue /= nextCount;
+
+            // select the point in this bucket forming the largest triangle with the previously selected point and
+            // the next bucket's average point
+            final int rangeStart = (int) Math.floor(bucket * bucketSize) + 1;
+            final int rangeEnd = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            final double selectedTime = sampleTimes[selectedIndex] - sampleTimes[0];
+            final double selectedValue = values.applyAsDouble(selectedIndex);
+            double maxArea = -1;
+            int maxAreaIndex = rangeStart;
+            for (int i = rangeStart ; i < rangeEnd ; i++) {
+                final double area = Math.abs(
+                        (selectedTime - averageTime) * (values.applyAsDouble(i) - selectedValue)
+                                - (selectedTime - (sampleTimes[i] - sampleTimes[0])) * (averageValue - selectedValue));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxAreaIndex = i;
+                }
+            }
+            selectedIndex = maxAreaIndex;
+            indexes[numIndexes++] = selectedIndex;
+        }
+
+        // always keep last sample
+        indexes[numIndexes++] = sampleCount - 1;
+        return Arrays.copyOf(indexes, numIndexes);
+    }
+
+    private static long[] sampleTimes(DataTimestamps dataTimestamps, int sampleCount) {
+        final long[] sampleTimes = new long[sampleCount];
+        final DataTimestampsUtility.DataTimestampsIterator iterator =
+                DataTimestampsUtility.dataTimestampsIterator(dataTimestamps);
+        for (int i = 0 ; i < sampleCount && iterator.hasNext() ; i++) {
+            final Timestamp timestamp = iterator.next();
+            sampleTimes[i] = timestamp.getEpochSeconds() * 1_000_000_000L + timestamp.getNanoseconds();
+        }
+        return sampleTimes;
+    }
+
+    private static <T> List<T> select(List<T> values, int[] indexes) {
+        final List<T> selected = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            selected.add(values.get(index));
+        }
+        return selected;
+    }
+
+    private static <T> List<T> selectArrays(List<T> values, int[] indexes, ArrayDimensions dimensions) {
+        int elementCount = 1;
+        for (int dim : dimensions.getDimsList()) {
+            elementCount *= dim;
+        }
+        final List<T> selected = new ArrayList<>(indexes.length * elementCount);
+        for (int index : indexes) {
+            selected.addAll(values.subList(index * elementCount, (index + 1) * elementCount));
+        }
+        return selected;
+    }
+
+    /**
+     * Selects the samples with the specified indexes from the bucket's data values.  Returns null if the data values
+     * can't be selected by sample index, as for a SerializedDataColumn whose payload is opaque to the service.
+     */
+    private static DataValues selectDataValues(DataValues dataValues, int[] indexes) {
+        final DataValues.Builder builder = DataValues.newBuilder();
+        switch (dataValues.getValuesCase()) {
+            case DATACOLUMN -> {
+                final DataColumn column = dataValues.getDataColumn();
+                builder.setDataColumn(column.toBuilder()
+                        .clearDataValues().addAllDataValues(select(column.getDataValuesList(), indexes)));
+            }
+            case DOUBLECOLUMN -> {
+                final DoubleColumn column = dataValues.getDoubleColumn();
+                builder.setDoubleColumn(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case FLOATCOLUMN -> {
+                final FloatColumn column = dataValues.getFloatColumn();
+                builder.setFloatColumn(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case INT64COLUMN -> {
+                final Int64Column column = dataValues.getInt64Column();
+                builder.setInt64Column(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case INT32COLUMN -> {
+                final Int32Column column = dataValues.getInt32Column();
+                builder.setInt32Column(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case BOOLCOLUMN -> {
+                final BoolColumn column = dataValues.getBoolColumn();
+                builder.setBoolColumn(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case STRINGCOLUMN -> {
+                final StringColumn column = dataValues.getStringColumn();
+                builder.setStringColumn(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case ENUMCOLUMN -> {
+                final EnumColumn column = dataValues.getEnumColumn();
+                builder.setEnumColumn(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case DOUBLEARRAYCOLUMN -> {
+                final DoubleArrayColumn column = dataValues.getDoubleArrayColumn();
+                builder.setDoubleArrayColumn(column.toBuilder().clearValues()
+                        .addAllValues(selectArrays(column.getValuesList(), indexes, column.getDimensions())));
+            }
+            case FLOATARRAYCOLUMN -> {
+                final FloatArrayColumn column = dataValues.getFloatArrayColumn();
+                builder.setFloatArrayColumn(column.toBuilder().clearValues()
+                        .addAllValues(selectArrays(column.getValuesList(), indexes, column.getDimensions())));
+            }
+            case INT32ARRAYCOLUMN -> {
+                final Int32ArrayColumn column = dataValues.getInt32ArrayColumn();
+                builder.setInt32ArrayColumn(column.toBuilder().clearValues()
+                        .addAllValues(selectArrays(column.getValuesList(), indexes, column.getDimensions())));
+            }
+            case INT64ARRAYCOLUMN -> {
+                final Int64ArrayColumn column = dataValues.getInt64ArrayColumn();
+                builder.setInt64ArrayColumn(column.toBuilder().clearValues()
+                        .addAllValues(selectArrays(column.getValuesList(), indexes, column.getDimensions())));
+            }
+            case BOOLARRAYCOLUMN -> {
+                final BoolArrayColumn column = dataValues.getBoolArrayColumn();
+                builder.setBoolArrayColumn(column.toBuilder().clearValues()
+                        .addAllValues(selectArrays(column.getValuesList(), indexes, column.getDimensions())));
+            }
+            case STRUCTCOLUMN -> {
+                final StructColumn column = dataValues.getStructColumn();
+                builder.setStructColumn(column.toBuilder()
+                        .clearValues().addAllValues(select(column.getValuesList(), indexes)));
+            }
+            case IMAGECOLUMN -> {
+                final ImageColumn column = dataValues.getImageColumn();
+                builder.setImageColumn(column.toBuilder()
+                        .clearImages().addAllImages(select(column.getImagesList(), indexes)));
+            }
+            default -> {
+                return null;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Selects the timestamps with the specified indexes.  A SamplingClock decimated with a uniform stride is
+     * returned as a SamplingClock with a longer period, otherwise a TimestampList is returned.
+     */
+    private static DataTimestamps selectDataTimestamps(DataTimestamps dataTimestamps, int[] indexes, int stride) {
+        if (dataTimestamps.hasSamplingClock() && stride > 0) {
+            final SamplingClock samplingClock = dataTimestamps.getSamplingClock();
+            return dataTimestamps.toBuilder()
+                    .setSamplingClock(samplingClock.toBuilder()
+                            .setPeriodNanos(samplingClock.getPeriodNanos() * stride)
+                            .setCount(indexes.length))
+                    .build();
+        }
+        final List<Timestamp> timestamps = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            timestamps.add(DataTimestampsUtility.timestampForIndex(dataTimestamps, index));
+        }
+        return DataTimestampsUtility.dataTimestampsWithTimestampList(timestamps);
+    }
+
+    /**
+     * Decimates the bucket to approximately targetPoints samples using the specified mode.  Returns the original
+     * bucket if it already contains no more than targetPoints samples, if mode is NONE, or if its column type can't be
+     * decimated.
+     *
+     * @param bucket
+     * @param mode
+     * @param targetPoints
+     * @return
+     */
+    public static DataBucket decimate(DataBucket bucket, DecimationMode mode, int targetPoints) {
+
+        final DataTimestamps dataTimestamps = bucket.getDataTimestamps();
+        final int sampleCount = sampleCount(dataTimestamps);
+        if (mode == DecimationMode.NONE || targetPoints < 1 || sampleCount <= targetPoints) {
+            return bucket;
+        }
+
+        // MINMAX and LTTB require numeric values, MINMAX requires at least 2 points (minimum and maximum), and LTTB
+        // requires at least 3 points (first, last, and one between)
+        final IntToDoubleFunction values = numericValues(bucket.getDataValues());
+        DecimationMode effectiveMode = mode;
+        if (values == null
+                || (mode == DecimationMode.MINMAX && targetPoints < 2)
+                || (mode == DecimationMode.LTTB && targetPoints < 3)) {
+            effectiveMode = DecimationMode.STRIDE;
+        }
+
+        int stride = 0;
+        final int[] indexes;
+        switch (effectiveMode) {
+            case MINMAX -> indexes = minMaxIndexes(sampleCount, targetPoints, values);
+            case LTTB -> indexes =
+                    lttbIndexes(sampleCount, targetPoints, sampleTimes(dataTimestamps, sampleCount), values);
+            default -> {
+                stride = (sampleCount + targetPoints - 1) / targetPoints;
+                indexes = strideIndexes(sampleCount, stride);
+            }
+        }
+
+        final DataValues decimatedDataValues;
+        try {
+            decimatedDataValues = selectDataValues(bucket.getDataValues(), indexes);
+        } catch (IndexOutOfBoundsException e) {
+            // number of column values doesn't match the number of timestamps, so leave the bucket as is
+            return bucket;
+        }
+        if (decimatedDataValues == null) {
+            return bucket;
+        }
+
+        return bucket.toBuilder()
+                .setDataTimestamps(selectDataTimestamps(dataTimestamps, indexes, stride))
+                .setDataValues(decimatedDataValues)
+                .build();
+    }
+
+}
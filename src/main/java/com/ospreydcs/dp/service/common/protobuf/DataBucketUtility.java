@@ -0,0 +1,336 @@
+package com.ospreydcs.dp.service.common.protobuf;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+
+import java.util.List;
+
+public class DataBucketUtility {
+
+    /**
+     * Contains the range of sample indexes [beginIndex, endIndex) for a DataBucket's DataTimestamps that fall within
+     * a time range.
+     */
+    public record SampleIndexRange(int beginIndex, int endIndex, int sampleCount) {
+
+        public boolean isEmpty() {
+            return endIndex <= beginIndex;
+        }
+
+        public boolean isComplete() {
+            return beginIndex == 0 && endIndex == sampleCount;
+        }
+    }
+
+    private static long epochNanos(Timestamp timestamp) {
+        return timestamp.getEpochSeconds() * 1_000_000_000L + timestamp.getNanoseconds();
+    }
+
+    /**
+     * Returns the range of sample indexes in dataTimestamps that fall within the half-open time range
+     * [beginTime, endTime), or null if the range can't be determined because a TimestampList is not in ascending order
+     * or dataTimestamps contains neither a SamplingClock nor a TimestampList.
+     *
+     * @param dataTimestamps
+     * @param beginTime
+     * @param endTime
+     * @return
+     */
+    public static SampleIndexRange sampleIndexRange(
+            DataTimestamps dataTimestamps,
+            Timestamp beginTime,
+            Timestamp endTime
+    ) {
+        final long beginNanos = epochNanos(beginTime);
+        final long endNanos = epochNanos(endTime);
+
+        if (dataTimestamps.hasSamplingClock()) {
+
+            final SamplingClock samplingClock = dataTimestamps.getSamplingClock();
+            final int sampleCount = samplingClock.getCount();
+            final long startNanos = epochNanos(samplingClock.getStartTime());
+            final long periodNanos = samplingClock.getPeriodNanos();
+            if (periodNanos <= 0) {
+                // all samples have the start time
+                final boolean inRange = startNanos >= beginNanos && startNanos < endNanos;
+                return new SampleIndexRange(0, inRange ? sampleCount : 0, sampleCount);
+            }
+
+            // first index whose time is >= beginTime, and first index whose time is >= endTime
+            final long beginIndex = Math.max(0, Math.ceilDiv(beginNanos - startNanos, periodNanos));
+            final long endIndex = Math.min(sampleCount, Math.max(0, Math.ceilDiv(endNanos - startNanos, periodNanos)));
+            return new SampleIndexRange(
+                    (int) Math.min(beginIndex, sampleCount), (int) endIndex, sampleCount);
+
+        } else if (dataTimestamps.hasTimestampList()) {
+
+            final List<Timestamp> timestamps = dataTimestamps.getTimestampList().getTimestampsList();
+            final int sampleCount = timestamps.size();
+            int beginIndex = sampleCount;
+            int endIndex = sampleCount;
+            long previousNanos = Long.MIN_VALUE;
+            for (int index = 0 ; index < sampleCount ; index++) {
+                final long timestampNanos = epochNanos(timestamps.get(index));
+                if (timestampNanos < previousNanos) {
+                    return null;
+                }
+                previousNanos = timestampNanos;
+                if (beginIndex == sampleCount && timestampNanos >= beginNanos) {
+                    beginIndex = index;
+                }
+                if (endIndex == sampleCount && timestampNanos >= endNanos) {
+                    endIndex = index;
+                }
+            }
+            return new SampleIndexRange(beginIndex, Math.max(beginIndex, endIndex), sampleCount);
+
+        } else {
+            return null;
+        }
+    }
+
+    private static DataTimestamps sliceDataTimestamps(DataTimestamps dataTimestamps, SampleIndexRange range) {
+        final int beginIndex = range.beginIndex();
+        final int count = range.endIndex() - range.beginIndex();
+        if (dataTimestamps.hasSamplingClock()) {
+            final Timestamp startTime = DataTimestampsUtility.timestampForIndex(dataTimestamps, beginIndex);
+            return dataTimestamps.toBuilder()
+                    .setSamplingClock(dataTimestamps.getSamplingClock().toBuilder()
+                            .setStartTime(startTime)
+                            .setCount(count))
+                    .build();
+        } else {
+            return DataTimestampsUtility.dataTimestampsWithTimestampList(
+                    dataTimestamps.getTimestampList().getTimestampsList().subList(beginIndex, range.endIndex()));
+        }
+    }
+
+    private static int arrayElementCount(ArrayDimensions dimensions) {
+        int elementCount = 1;
+        for (int dim : dimensions.getDimsList()) {
+            elementCount *= dim;
+        }
+        return elementCount;
+    }
+
+    /**
+     * Returns true if the column contains elementsPerSample values for each sample in the range, so that it can be
+     * sliced to the range.
+     */
+    private static boolean hasSampleValues(int valueCount, int elementsPerSample, SampleIndexRange range) {
+        return valueCount == (long) range.sampleCount() * elementsPerSample;
+    }
+
+    /**
+     * Slices the bucket's data values to the samples in the specified index range.  Returns null if the data values
+     * can't be sliced, as for a SerializedDataColumn whose payload is opaque to the service, or a column whose number
+     * of values doesn't match the number of timestamps.  Values for primitive and array columns are copied by index
+     * through the typed builder methods, so they are not boxed.
+     */
+    private static DataValues sliceDataValues(DataValues dataValues, SampleIndexRange range) {
+
+        final int from = range.beginIndex();
+        final int to = range.endIndex();
+
+        switch (dataValues.getValuesCase()) {
+            case DATACOLUMN -> {
+                final DataColumn column = dataValues.getDataColumn();
+                if ( ! hasSampleValues(column.getDataValuesCount(), 1, range)) {
+                    return null;
+                }
+                return DataValues.newBuilder().setDataColumn(column.toBuilder()
+                        .clearDataValues()
+                        .addAllDataValues(column.getDataValuesList().subList(from, to))).build();
+            }
+            case DOUBLECOLUMN -> {
+                final DoubleColumn column = dataValues.getDoubleColumn();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                final DoubleColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from ; i < to ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setDoubleColumn(builder).build();
+            }
+            case FLOATCOLUMN -> {
+                final FloatColumn column = dataValues.getFloatColumn();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                final FloatColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from ; i < to ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setFloatColumn(builder).build();
+            }
+            case INT64COLUMN -> {
+                final Int64Column column = dataValues.getInt64Column();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                final Int64Column.Builder builder = column.toBuilder().clearValues();
+                for (int i = from ; i < to ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setInt64Column(builder).build();
+            }
+            case INT32COLUMN -> {
+                final Int32Column column = dataValues.getInt32Column();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                final Int32Column.Builder builder = column.toBuilder().clearValues();
+                for (int i = from ; i < to ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setInt32Column(builder).build();
+            }
+            case BOOLCOLUMN -> {
+                final BoolColumn column = dataValues.getBoolColumn();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                final BoolColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from ; i < to ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setBoolColumn(builder).build();
+            }
+            case STRINGCOLUMN -> {
+                final StringColumn column = dataValues.getStringColumn();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                return DataValues.newBuilder().setStringColumn(column.toBuilder()
+                        .clearValues()
+                        .addAllValues(column.getValuesList().subList(from, to))).build();
+            }
+            case ENUMCOLUMN -> {
+                final EnumColumn column = dataValues.getEnumColumn();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                final EnumColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from ; i < to ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setEnumColumn(builder).build();
+            }
+            case DOUBLEARRAYCOLUMN -> {
+                final DoubleArrayColumn column = dataValues.getDoubleArrayColumn();
+                final int elementCount = arrayElementCount(column.getDimensions());
+                if ( ! hasSampleValues(column.getValuesCount(), elementCount, range)) {
+                    return null;
+                }
+                final DoubleArrayColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from * elementCount ; i < to * elementCount ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setDoubleArrayColumn(builder).build();
+            }
+            case FLOATARRAYCOLUMN -> {
+                final FloatArrayColumn column = dataValues.getFloatArrayColumn();
+                final int elementCount = arrayElementCount(column.getDimensions());
+                if ( ! hasSampleValues(column.getValuesCount(), elementCount, range)) {
+                    return null;
+                }
+                final FloatArrayColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from * elementCount ; i < to * elementCount ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setFloatArrayColumn(builder).build();
+            }
+            case INT32ARRAYCOLUMN -> {
+                final Int32ArrayColumn column = dataValues.getInt32ArrayColumn();
+                final int elementCount = arrayElementCount(column.getDimensions());
+                if ( ! hasSampleValues(column.getValuesCount(), elementCount, range)) {
+                    return null;
+                }
+                final Int32ArrayColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from * elementCount ; i < to * elementCount ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setInt32ArrayColumn(builder).build();
+            }
+            case INT64ARRAYCOLUMN -> {
+                final Int64ArrayColumn column = dataValues.getInt64ArrayColumn();
+                final int elementCount = arrayElementCount(column.getDimensions());
+                if ( ! hasSampleValues(column.getValuesCount(), elementCount, range)) {
+                    return null;
+                }
+                final Int64ArrayColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from * elementCount ; i < to * elementCount ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setInt64ArrayColumn(builder).build();
+            }
+            case BOOLARRAYCOLUMN -> {
+                final BoolArrayColumn column = dataValues.getBoolArrayColumn();
+                final int elementCount = arrayElementCount(column.getDimensions());
+                if ( ! hasSampleValues(column.getValuesCount(), elementCount, range)) {
+                    return null;
+                }
+                final BoolArrayColumn.Builder builder = column.toBuilder().clearValues();
+                for (int i = from * elementCount ; i < to * elementCount ; i++) {
+                    builder.addValues(column.getValues(i));
+                }
+                return DataValues.newBuilder().setBoolArrayColumn(builder).build();
+            }
+            case STRUCTCOLUMN -> {
+                final StructColumn column = dataValues.getStructColumn();
+                if ( ! hasSampleValues(column.getValuesCount(), 1, range)) {
+                    return null;
+                }
+                return DataValues.newBuilder().setStructColumn(column.toBuilder()
+                        .clearValues()
+                        .addAllValues(column.getValuesList().subList(from, to))).build();
+            }
+            case IMAGECOLUMN -> {
+                final ImageColumn column = dataValues.getImageColumn();
+                if ( ! hasSampleValues(column.getImagesCount(), 1, range)) {
+                    return null;
+                }
+                return DataValues.newBuilder().setImageColumn(column.toBuilder()
+                        .clearImages()
+                        .addAllImages(column.getImagesList().subList(from, to))).build();
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Trims the bucket's DataTimestamps and data values to the samples that fall within the half-open time range
+     * [beginTime, endTime).  Returns the original bucket if all of its samples are within the range, or if the
+     * bucket can't be trimmed (a TimestampList that is not in ascending order, a column whose number of values doesn't
+     * match the number of timestamps, or a column type such as SerializedDataColumn whose values are opaque to the
+     * service).  Returns null if none of the bucket's samples are within the range.
+     *
+     * @param bucket
+     * @param beginTime
+     * @param endTime
+     * @return
+     */
+    public static DataBucket trimToTimeRange(DataBucket bucket, Timestamp beginTime, Timestamp endTime) {
+
+        final SampleIndexRange range = sampleIndexRange(bucket.getDataTimestamps(), beginTime, endTime);
+        if (range == null || range.isComplete()) {
+            return bucket;
+        }
+        if (range.isEmpty()) {
+            return null;
+        }
+
+        final DataValues trimmedDataValues = sliceDataValues(bucket.getDataValues(), range);
+        if (trimmedDataValues == null) {
+            return bucket;
+        }
+
+        return bucket.toBuilder()
+                .setDataTimestamps(sliceDataTimestamps(bucket.getDataTimestamps(), range))
+                .setDataValues(trimmedDataValues)
+                .build();
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.ospreydcs.dp.service.common.protobuf;
+
+import com.ospreydcs.dp.grpc.v1.common.DataBucket;
+import com.ospreydcs.dp.grpc.v1.common.Timestamp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits a query's decimation target point count across the buckets returned for each PV, so that the total number
+ * of points returned for a PV doesn't exceed the target regardless of how many buckets the query spans.
+ * <p>
+ * Buckets for a PV must be decimated in time order, as returned by the query.  Each bucket is allotted the fraction of
+ * the target corresponding to the part of the query time range from the end of the PV's previous bucket (or the query
+ * begin time) to the end of the bucket, so the allotments for a PV sum to no more than the target.  Fractional points
+ * and points allotted but not used by a bucket with fewer samples are carried over to the PV's next bucket, so a
+ * query over more buckets than target points returns 0 or 1 points for most buckets rather than a minimum per bucket.
+ * A bucket allotted no points is dropped from the result.  A bucket that can't be decimated (e.g. a serialized column)
+ * is returned with more points than it was allotted, in which case the carry is reset to zero rather than going
+ * negative, so the excess isn't taken from the PV's later buckets.
+ */
+public class DecimationPointBudget {
+
+    /**
+     * Budget state for a single PV.
+     */
+    private static class PvBudget {
+        private long lastBucketEndNanos;
+        private double carryPoints = 0;
+
+        private PvBudget(long lastBucketEndNanos) {
+            this.lastBucketEndNanos = lastBucketEndNanos;
+        }
+    }
+
+    // instance variables
+    private final DataBucketDecimationUtility.DecimationMode mode;
+    private final int targetPoints;
+    private final long queryBeginNanos;
+    private final long queryEndNanos;
+    private final Map<String, PvBudget> pvBudgets = new HashMap<>();
+
+    public DecimationPointBudget(
+            DataBucketDecimationUtility.DecimationMode mode,
+            int targetPoints,
+            Timestamp queryBeginTime,
+            Timestamp queryEndTime
+    ) {
+        this.mode = mode;
+        this.targetPoints = targetPoints;
+        this.queryBeginNanos = epochNanos(queryBeginTime);
+        this.queryEndNanos = epochNanos(queryEndTime);
+    }
+
+    private static long epochNanos(Timestamp timestamp) {
+        return timestamp.getEpochSeconds() * 1_000_000_000L + timestamp.getNanoseconds();
+    }
+
+    /**
+     * Decimates the bucket to its share of the PV's target point count.  Returns null if the bucket is allotted no
+     * points.
+     */
+    public DataBucket decimate(DataBucket bucket) {
+
+        final long queryNanos = queryEndNanos - queryBeginNanos;
+        if (queryNanos <= 0) {
+            return DataBucketDecimationUtility.decimate(bucket, mode, targetPoints);
+        }
+
+        // allot the bucket its share of the target for the time since the end of the PV's previous bucket
+        final long bucketEndNanos = Math.min(
+                queryEndNanos,
+                epochNanos(new DataTimestampsUtility.DataTimestampsModel(bucket.getDataTimestamps())
+                        .getLastTimestamp()));
+        final PvBudget pvBudget =
+                pvBudgets.computeIfAbsent(bucket.getPvName(), pvName -> new PvBudget(queryBeginNanos));
+        final long coveredNanos = Math.max(0, bucketEndNanos - pvBudget.lastBucketEndNanos);
+        pvBudget.lastBucketEndNanos = Math.max(pvBudget.lastBucketEndNanos, bucketEndNanos);
+        final double allottedPoints = pvBudget.carryPoints + (double) targetPoints * coveredNanos / queryNanos;
+        final int bucketPoints = (int) Math.floor(allottedPoints);
+
+        if (bucketPoints < 1) {
+            pvBudget.carryPoints = allottedPoints;
+            return null;
+        }
+
+        // carry over fractional points, and points not used by the bucket, but don't carry a deficit from a bucket
+        // returned undecimated with more points than allotted
+        final DataBucket decimatedBucket = DataBucketDecimationUtility.decimate(bucket, mode, bucketPoints);
+        pvBudget.carryPoints = Math.max(
+                0, allottedPoints - DataBucketDecimationUtility.sampleCount(decimatedBucket.getDataTimestamps()));
+        return decimatedBucket;
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.ospreydcs.dp.service.ingest.benchmark;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.exception.DpException;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Measures heap allocation by BucketDocument.generateBucketsFromRequest() for a single IngestDataRequest, comparing
+ * the current behavior (one DataTimestampsDocument shared by all buckets for the request) with the previous behavior
+ * of creating a DataTimestampsDocument for each column.  The previous behavior is emulated by replacing the shared
+ * document in each generated bucket with one created from the request's DataTimestamps.
+ *
+ * Usage: BenchmarkBucketGeneration [numColumns] [numRows] [useTimestampList] [numIterations]
+ */
+public class BenchmarkBucketGeneration {
+
+    // constants
+    private static final int DEFAULT_NUM_COLUMNS = 500;
+    private static final int DEFAULT_NUM_ROWS = 1000;
+    private static final boolean DEFAULT_USE_TIMESTAMP_LIST = false;
+    private static final int DEFAULT_NUM_ITERATIONS = 200;
+    private static final int NUM_WARMUP_ITERATIONS = 50;
+    private static final String PROVIDER_ID = "benchmarkProviderId";
+    private static final String PROVIDER_NAME = "benchmarkProvider";
+
+    private static IngestDataRequest buildRequest(int numColumns, int numRows, boolean useTimestampList) {
+
+        final DataTimestamps.Builder dataTimestampsBuilder = DataTimestamps.newBuilder();
+        if (useTimestampList) {
+            final TimestampList.Builder timestampListBuilder = TimestampList.newBuilder();
+            for (int i = 0 ; i < numRows ; i++) {
+                timestampListBuilder.addTimestamps(
+                        Timestamp.newBuilder().setEpochSeconds(1_700_000_000L).setNanoseconds(i * 1_000_000L));
+            }
+            dataTimestampsBuilder.setTimestampList(timestampListBuilder);
+        } else {
+            final SamplingClock.Builder samplingClockBuilder = SamplingClock.newBuilder();
+            samplingClockBuilder.setStartTime(Timestamp.newBuilder().setEpochSeconds(1_700_000_000L));
+            samplingClockBuilder.setPeriodNanos(1_000_000L);
+            samplingClockBuilder.setCount(numRows);
+            dataTimestampsBuilder.setSamplingClock(samplingClockBuilder);
+        }
+
+        final DataFrame.Builder dataFrameBuilder = DataFrame.newBuilder();
+        dataFrameBuilder.setDataTimestamps(dataTimestampsBuilder);
+        for (int colIndex = 0 ; colIndex < numColumns ; colIndex++) {
+            final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder();
+            columnBuilder.setName(IngestionBenchmarkBase.NAME_COLUMN_BASE + colIndex);
+            for (int rowIndex = 0 ; rowIndex < numRows ; rowIndex++) {
+                columnBuilder.addValues(rowIndex + (double) rowIndex / numRows);
+            }
+            dataFrameBuilder.addDoubleColumns(columnBuilder);
+        }
+
+        return IngestDataRequest.newBuilder()
+                .setProviderId(PROVIDER_ID)
+                .setClientRequestId("benchmarkRequest")
+                .setIngestionDataFrame(dataFrameBuilder)
+                .build();
+    }
+
+    private static List<BucketDocument> generateShared(IngestDataRequest request) throws DpException {
+        return BucketDocument.generateBucketsFromRequest(request, PROVIDER_NAME);
+    }
+
+    private static List<BucketDocument> generatePerColumn(IngestDataRequest request) throws DpException {
+        final List<BucketDocument> bucketList = BucketDocument.generateBucketsFromRequest(request, PROVIDER_NAME);
+        for (BucketDocument bucket : bucketList) {
+            bucket.setDataTimestamps(
+                    DataTimestampsDocument.fromDataTimestamps(request.getIngestionDataFrame().getDataTimestamps()));
+        }
+        return bucketList;
+    }
+
+    private interface BucketGenerator {
+        List<BucketDocument> generate(IngestDataRequest request) throws DpException;
+    }
+
+    /**
+     * Returns the average number of bytes allocated by the current thread per call to the generator.
+     */
+    private static long measureAllocatedBytes(
+            com.sun.management.ThreadMXBean threadMXBean,
+            BucketGenerator generator,
+            IngestDataRequest request,
+            int numIterations
+    ) throws DpException {
+
+        for (int i = 0 ; i < NUM_WARMUP_ITERATIONS ; i++) {
+            generator.generate(request);
+        }
+
+        final long threadId = Thread.currentThread().threadId();
+        final long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        long numBuckets = 0;
+        for (int i = 0 ; i < numIterations ; i++) {
+            numBuckets += generator.generate(request).size();
+        }
+        final long endBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        if (numBuckets != (long) numIterations * request.getIngestionDataFrame().getDoubleColumnsCount()) {
+            throw new IllegalStateException("unexpected bucket count: " + numBuckets);
+        }
+
+        return (endBytes - startBytes) / numIterations;
+    }
+
+    public static void main(final String[] args) throws DpException {
+
+        final int numColumns = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_COLUMNS;
+        final int numRows = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_NUM_ROWS;
+        final boolean useTimestampList = (args.length > 2) ? Boolean.parseBoolean(args[2]) : DEFAULT_USE_TIMESTAMP_LIST;
+        final int numIterations = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_NUM_ITERATIONS;
+
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if ( ! threadMXBean.isThreadAllocatedMemorySupported()) {
+            System.err.println("thread allocated memory measurement not supported by this JVM");
+            return;
+        }
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        final IngestDataRequest request = buildRequest(numColumns, numRows, useTimestampList);
+
+        final long perColumnBytes =
+                measureAllocatedBytes(threadMXBean, BenchmarkBucketGeneration::generatePerColumn, request, numIterations);
+        final long sharedBytes =
+                measureAllocatedBytes(threadMXBean, BenchmarkBucketGeneration::generateShared, request, numIterations);
+
+        System.out.println("columns: " + numColumns
+                + " rows: " + numRows
+                + " timestamps: " + (useTimestampList ? "TimestampList" : "SamplingClock")
+                + " iterations: " + numIterations);
+        System.out.println("per-column DataTimestampsDocument bytes/request: " + perColumnBytes);
+        System.out.println("shared DataTimestampsDocument bytes/request: " + sharedBytes);
+        System.out.println(String.format("reduction: %.1f%%", 100.0 * (perColumnBytes - sharedBytes) / perColumnBytes));
+    }
+
+}
@@ -16,7 +16,7 @@ public interface IngestionHandlerInterface {
     void handleRegisterProvider(
             RegisterProviderRequest request, StreamObserver<RegisterProviderResponse> responseObserver);
 
-    void handleIngestionRequest(HandlerIngestionRequest request);
+    boolean handleIngestionRequest(HandlerIngestionRequest request);
 
     void handleQueryRequestStatus(
             QueryRequestStatusRequest request, StreamObserver<QueryRequestStatusResponse> responseObserver);
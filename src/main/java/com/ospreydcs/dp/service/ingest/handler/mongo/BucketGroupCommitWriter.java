@@ -0,0 +1,338 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.client.result.InsertManyResult;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import com.ospreydcs.dp.service.ingest.model.BucketGroupInsertResult;
+import com.ospreydcs.dp.service.ingest.model.IngestionTaskResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class implements group commit for the BucketDocuments generated by concurrent IngestDataJobs.  Instead of each
+ * job inserting its own batch with insertMany(), jobs submit their batch via insertBatch() and wait for the result,
+ * while writer threads coalesce pending batches from multiple requests into a single unordered insertMany().  A group
+ * is written when it reaches maxGroupDocuments or maxGroupBytes, or when maxLingerMillis has elapsed since the first
+ * batch in the group was received.  A single batch larger than the group limits is written by itself.
+ *
+ * The result of the group insert is split back into an IngestionTaskResult for each originating request, so that
+ * each IngestDataJob handles its result exactly as it would for its own insertMany().  A request whose documents all
+ * inserted successfully gets an acknowledged InsertManyResult containing the ids of its documents, and a request with
+ * any failed document gets an error result.
+ *
+ * The queue of pending batches is bounded by maxPendingBatches.  When it is full, the submitting job inserts its batch
+ * directly, so that a stalled database write applies backpressure to the handler workers instead of accumulating
+ * batches in memory.  A job waits at most resultTimeoutMillis for its group result.  A batch that times out while
+ * still queued is removed and never written, while a batch that times out while its group is being written gets an
+ * error result even though the write may still complete.
+ */
+public class BucketGroupCommitWriter {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // constants
+    private static final int FINI_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Batch of BucketDocuments for a single ingestion request, waiting to be written as part of a group.
+     */
+    private static class PendingBatch {
+
+        private final IngestDataRequest request;
+        private final List<BucketDocument> documents;
+        private final long estimatedBytes;
+        private final CompletableFuture<IngestionTaskResult> resultFuture = new CompletableFuture<>();
+
+        private PendingBatch(IngestDataRequest request, List<BucketDocument> documents) {
+            this.request = request;
+            this.documents = documents;
+            this.estimatedBytes = request.getSerializedSize();
+        }
+    }
+
+    // instance variables
+    private final MongoIngestionClientInterface mongoClient;
+    private final int numWriters;
+    private final int maxGroupDocuments;
+    private final long maxGroupBytes;
+    private final long maxLingerMillis;
+    private final long resultTimeoutMillis;
+    private final BlockingQueue<PendingBatch> pendingQueue;
+    private final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
+    private final AtomicLong groupsWritten = new AtomicLong(0);
+    private final AtomicLong batchesWritten = new AtomicLong(0);
+    private final AtomicLong overflowCount = new AtomicLong(0);
+    private final AtomicLong timeoutCount = new AtomicLong(0);
+    private ExecutorService writerExecutor = null;
+
+    public BucketGroupCommitWriter(
+            MongoIngestionClientInterface mongoClient,
+            int numWriters,
+            int maxGroupDocuments,
+            long maxGroupBytes,
+            long maxLingerMillis,
+            int maxPendingBatches,
+            long resultTimeoutMillis
+    ) {
+        this.mongoClient = mongoClient;
+        this.numWriters = numWriters;
+        this.maxGroupDocuments = maxGroupDocuments;
+        this.maxGroupBytes = maxGroupBytes;
+        this.maxLingerMillis = maxLingerMillis;
+        this.resultTimeoutMillis = resultTimeoutMillis;
+        this.pendingQueue = new LinkedBlockingQueue<>(maxPendingBatches);
+    }
+
+    public boolean init() {
+        logger.info(
+                "BucketGroupCommitWriter init numWriters: {} maxGroupDocuments: {} maxGroupBytes: {}"
+                        + " maxLingerMillis: {} maxPendingBatches: {} resultTimeoutMillis: {}",
+                numWriters, maxGroupDocuments, maxGroupBytes, maxLingerMillis,
+                pendingQueue.remainingCapacity(), resultTimeoutMillis);
+        writerExecutor = Executors.newFixedThreadPool(numWriters);
+        for (int i = 0 ; i < numWriters ; i++) {
+            writerExecutor.execute(this::runWriter);
+        }
+        return true;
+    }
+
+    public boolean fini() {
+
+        if (!shutdownRequested.compareAndSet(false, true)) {
+            return true;
+        }
+
+        logger.debug("BucketGroupCommitWriter fini draining {} pending batches", pendingQueue.size());
+
+        // writers drain the queue before exiting
+        if (writerExecutor != null) {
+            writerExecutor.shutdown();
+            try {
+                if (!writerExecutor.awaitTermination(FINI_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    logger.error("BucketGroupCommitWriter fini timed out in awaitTermination()");
+                    writerExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                writerExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // fail anything left behind so that no job waits forever
+        PendingBatch pendingBatch;
+        while ((pendingBatch = pendingQueue.poll()) != null) {
+            pendingBatch.resultFuture.complete(
+                    new IngestionTaskResult(true, "ingestion handler shutting down", null));
+        }
+
+        logger.info(
+                "BucketGroupCommitWriter fini completed groups: {} batches: {} overflows: {} timeouts: {}",
+                groupsWritten.get(), batchesWritten.get(), overflowCount.get(), timeoutCount.get());
+
+        return true;
+    }
+
+    /**
+     * Submits the batch of BucketDocuments for the specified request for group commit, and waits up to
+     * resultTimeoutMillis for the result.  Falls back to inserting the batch directly if the pending queue is full or
+     * the writer is shutting down.
+     */
+    public IngestionTaskResult insertBatch(IngestDataRequest request, List<BucketDocument> dataDocumentBatch) {
+
+        if (shutdownRequested.get()) {
+            return mongoClient.insertBatch(request, dataDocumentBatch);
+        }
+
+        final PendingBatch pendingBatch = new PendingBatch(request, dataDocumentBatch);
+        if (!pendingQueue.offer(pendingBatch)) {
+            overflowCount.incrementAndGet();
+            logger.debug("BucketGroupCommitWriter pending queue full, inserting batch directly");
+            return mongoClient.insertBatch(request, dataDocumentBatch);
+        }
+
+        // handle race with fini(), where writers may have exited before the batch was added
+        if (shutdownRequested.get() && pendingQueue.remove(pendingBatch)) {
+            return mongoClient.insertBatch(request, dataDocumentBatch);
+        }
+
+        try {
+            return pendingBatch.resultFuture.get(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new IngestionTaskResult(true, "interrupted waiting for group commit", null);
+        } catch (ExecutionException e) {
+            return new IngestionTaskResult(true, "exception in group commit: " + e.getCause().getMessage(), null);
+        } catch (TimeoutException e) {
+            timeoutCount.incrementAndGet();
+            final String errorMsg = (pendingQueue.remove(pendingBatch))
+                    ? "timed out waiting for group commit, batch not written"
+                    : "timed out waiting for group commit write to complete";
+            logger.error("BucketGroupCommitWriter {}", errorMsg);
+            return new IngestionTaskResult(true, errorMsg, null);
+        }
+    }
+
+    public int getPendingBatchCount() {
+        return pendingQueue.size();
+    }
+
+    public long getGroupsWritten() {
+        return groupsWritten.get();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    private void runWriter() {
+
+        final List<PendingBatch> group = new ArrayList<>();
+        PendingBatch carryOver = null;
+
+        while (!shutdownRequested.get() || carryOver != null || !pendingQueue.isEmpty()) {
+
+            try {
+                // start group with batch left over from the previous group, or wait for a new one
+                PendingBatch first = carryOver;
+                carryOver = null;
+                if (first == null) {
+                    first = pendingQueue.poll(maxLingerMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                }
+                group.add(first);
+                int groupDocuments = first.documents.size();
+                long groupBytes = first.estimatedBytes;
+
+                // add batches to group until a limit is reached or the linger time for the first batch expires
+                final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+                while (groupDocuments < maxGroupDocuments && groupBytes < maxGroupBytes) {
+                    final long remainingNanos = deadlineNanos - System.nanoTime();
+                    final PendingBatch next = (remainingNanos > 0 && !shutdownRequested.get())
+                            ? pendingQueue.poll(remainingNanos, TimeUnit.NANOSECONDS)
+                            : pendingQueue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (groupDocuments + next.documents.size() > maxGroupDocuments
+                            || groupBytes + next.estimatedBytes > maxGroupBytes) {
+                        // doesn't fit, start the next group with it
+                        carryOver = next;
+                        break;
+                    }
+                    group.add(next);
+                    groupDocuments += next.documents.size();
+                    groupBytes += next.estimatedBytes;
+                }
+
+                writeGroup(group);
+
+            } catch (InterruptedException e) {
+                logger.error("BucketGroupCommitWriter interrupted");
+                failGroup(group, "interrupted in group commit");
+                if (carryOver != null) {
+                    carryOver.resultFuture.complete(
+                            new IngestionTaskResult(true, "interrupted in group commit", null));
+                }
+                Thread.currentThread().interrupt();
+                return;
+
+            } catch (Exception e) {
+                logger.error("BucketGroupCommitWriter exception: {}", e.getMessage());
+                failGroup(group, "exception in group commit: " + e.getMessage());
+
+            } finally {
+                group.clear();
+            }
+        }
+
+        logger.trace("BucketGroupCommitWriter writer exiting");
+    }
+
+    private void failGroup(List<PendingBatch> group, String errorMsg) {
+        for (PendingBatch pendingBatch : group) {
+            pendingBatch.resultFuture.complete(new IngestionTaskResult(true, errorMsg, null));
+        }
+    }
+
+    private void writeGroup(List<PendingBatch> group) {
+
+        // a group containing a single batch is written exactly as it would be without group commit
+        if (group.size() == 1) {
+            final PendingBatch pendingBatch = group.get(0);
+            pendingBatch.resultFuture.complete(mongoClient.insertBatch(pendingBatch.request, pendingBatch.documents));
+            batchesWritten.incrementAndGet();
+            return;
+        }
+
+        final List<BucketDocument> groupDocuments = new ArrayList<>();
+        for (PendingBatch pendingBatch : group) {
+            groupDocuments.addAll(pendingBatch.documents);
+        }
+
+        logger.debug("writing group of {} batches with {} documents", group.size(), groupDocuments.size());
+        final BucketGroupInsertResult groupResult = mongoClient.insertBucketGroup(groupDocuments);
+
+        // split group result into result for each originating request
+        int groupIndex = 0;
+        for (PendingBatch pendingBatch : group) {
+
+            final int batchSize = pendingBatch.documents.size();
+
+            if (groupResult.isError) {
+                pendingBatch.resultFuture.complete(new IngestionTaskResult(true, groupResult.msg, null));
+
+            } else {
+                String firstErrorMsg = null;
+                int errorCount = 0;
+                final Map<Integer, BsonValue> insertedIds = new HashMap<>();
+                for (int batchIndex = 0 ; batchIndex < batchSize ; batchIndex++) {
+                    final String writeError = groupResult.writeErrors.get(groupIndex + batchIndex);
+                    if (writeError == null) {
+                        insertedIds.put(batchIndex, new BsonString(pendingBatch.documents.get(batchIndex).getId()));
+                    } else {
+                        errorCount++;
+                        if (firstErrorMsg == null) {
+                            firstErrorMsg = writeError;
+                        }
+                    }
+                }
+
+                if (errorCount > 0) {
+                    final String errorMsg = "insertMany write errors: " + errorCount + " first error: " + firstErrorMsg;
+                    pendingBatch.resultFuture.complete(new IngestionTaskResult(true, errorMsg, null));
+                } else {
+                    pendingBatch.resultFuture.complete(
+                            new IngestionTaskResult(false, null, InsertManyResult.acknowledged(insertedIds)));
+                }
+            }
+
+            groupIndex += batchSize;
+        }
+
+        groupsWritten.incrementAndGet();
+        batchesWritten.addAndGet(group.size());
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.ospreydcs.dp.service.ingest.handler.mongo;
 
 import com.ospreydcs.dp.grpc.v1.ingestion.*;
+import com.ospreydcs.dp.service.common.mongo.MongoClientBase;
 import com.ospreydcs.dp.service.common.handler.QueueHandlerBase;
 import com.ospreydcs.dp.service.ingest.handler.interfaces.IngestionHandlerInterface;
 import com.ospreydcs.dp.service.ingest.handler.model.HandlerIngestionRequest;
@@ -25,12 +26,92 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
 
     public static final String CFG_KEY_NUM_WORKERS = "IngestionHandler.numWorkers";
     public static final int DEFAULT_NUM_WORKERS = 7;
+    public static final String CFG_KEY_QUEUE_CAPACITY = "IngestionHandler.queueCapacity";
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+    public static final String CFG_KEY_OVERLOAD_POLICY = "IngestionHandler.overloadPolicy";
+    public static final String CFG_KEY_VIRTUAL_THREADS = "IngestionHandler.virtualThreads";
+    public static final boolean DEFAULT_VIRTUAL_THREADS = false;
+    public static final String CFG_KEY_MAX_CONCURRENT_JOBS = "IngestionHandler.maxConcurrentJobs";
+    public static final int DEFAULT_MAX_CONCURRENT_JOBS = 100;
+    public static final String CFG_KEY_PACKED_SCALAR_COLUMNS = "IngestionHandler.packedScalarColumns";
+    public static final boolean DEFAULT_PACKED_SCALAR_COLUMNS = false;
+    public static final String CFG_KEY_REQUEST_STATUS_WRITE_BEHIND_ENABLED =
+            "IngestionHandler.RequestStatusWriter.writeBehindEnabled";
+    public static final boolean DEFAULT_REQUEST_STATUS_WRITE_BEHIND_ENABLED = false;
+    public static final String CFG_KEY_REQUEST_STATUS_MAX_QUEUE_SIZE = "IngestionHandler.RequestStatusWriter.maxQueueSize";
+    public static final int DEFAULT_REQUEST_STATUS_MAX_QUEUE_SIZE = 10000;
+    public static final String CFG_KEY_REQUEST_STATUS_MAX_BATCH_SIZE = "IngestionHandler.RequestStatusWriter.maxBatchSize";
+    public static final int DEFAULT_REQUEST_STATUS_MAX_BATCH_SIZE = 500;
+    public static final String CFG_KEY_REQUEST_STATUS_MAX_STALENESS_MILLIS =
+            "IngestionHandler.RequestStatusWriter.maxStalenessMillis";
+    public static final long DEFAULT_REQUEST_STATUS_MAX_STALENESS_MILLIS = 1000L;
+    public static final String CFG_KEY_GROUP_COMMIT_ENABLED = "IngestionHandler.GroupCommit.enabled";
+    public static final boolean DEFAULT_GROUP_COMMIT_ENABLED = false;
+    public static final String CFG_KEY_GROUP_COMMIT_NUM_WRITERS = "IngestionHandler.GroupCommit.numWriters";
+    public static final int DEFAULT_GROUP_COMMIT_NUM_WRITERS = 2;
+    public static final String CFG_KEY_GROUP_COMMIT_MAX_DOCUMENTS = "IngestionHandler.GroupCommit.maxDocuments";
+    public static final int DEFAULT_GROUP_COMMIT_MAX_DOCUMENTS = 1000;
+    public static final String CFG_KEY_GROUP_COMMIT_MAX_BYTES = "IngestionHandler.GroupCommit.maxBytes";
+    public static final long DEFAULT_GROUP_COMMIT_MAX_BYTES = 16_000_000L;
+    public static final String CFG_KEY_GROUP_COMMIT_MAX_LINGER_MILLIS = "IngestionHandler.GroupCommit.maxLingerMillis";
+    public static final long DEFAULT_GROUP_COMMIT_MAX_LINGER_MILLIS = 5L;
+    public static final String CFG_KEY_GROUP_COMMIT_MAX_PENDING_BATCHES =
+            "IngestionHandler.GroupCommit.maxPendingBatches";
+    public static final int DEFAULT_GROUP_COMMIT_MAX_PENDING_BATCHES = 1000;
+    public static final String CFG_KEY_GROUP_COMMIT_RESULT_TIMEOUT_MILLIS =
+            "IngestionHandler.GroupCommit.resultTimeoutMillis";
+    public static final long DEFAULT_GROUP_COMMIT_RESULT_TIMEOUT_MILLIS = 30_000L;
+    public static final String CFG_KEY_ROLLUP_WRITER_ENABLED = "IngestionHandler.RollupWriter.enabled";
+    public static final boolean DEFAULT_ROLLUP_WRITER_ENABLED = false;
+    public static final String CFG_KEY_ROLLUP_WRITER_MAX_QUEUE_SIZE = "IngestionHandler.RollupWriter.maxQueueSize";
+    public static final int DEFAULT_ROLLUP_WRITER_MAX_QUEUE_SIZE = 1000;
+    public static final String CFG_KEY_ROLLUP_WRITER_MAX_BATCH_SIZE = "IngestionHandler.RollupWriter.maxBatchSize";
+    public static final int DEFAULT_ROLLUP_WRITER_MAX_BATCH_SIZE = 100;
+    public static final String CFG_KEY_ROLLUP_WRITER_MAX_STALENESS_MILLIS =
+            "IngestionHandler.RollupWriter.maxStalenessMillis";
+    public static final long DEFAULT_ROLLUP_WRITER_MAX_STALENESS_MILLIS = 1000L;
+    public static final String CFG_KEY_PV_CATALOG_WRITER_MAX_QUEUE_SIZE =
+            "IngestionHandler.PvCatalogWriter.maxQueueSize";
+    public static final int DEFAULT_PV_CATALOG_WRITER_MAX_QUEUE_SIZE = 1000;
+    public static final String CFG_KEY_PV_CATALOG_WRITER_MAX_BATCH_SIZE =
+            "IngestionHandler.PvCatalogWriter.maxBatchSize";
+    public static final int DEFAULT_PV_CATALOG_WRITER_MAX_BATCH_SIZE = 100;
+    public static final String CFG_KEY_PV_CATALOG_WRITER_MAX_STALENESS_MILLIS =
+            "IngestionHandler.PvCatalogWriter.maxStalenessMillis";
+    public static final long DEFAULT_PV_CATALOG_WRITER_MAX_STALENESS_MILLIS = 1000L;
+    public static final String CFG_KEY_PV_NAME_INDEX_ENABLED = "IngestionHandler.SourceMonitor.pvNameIndexEnabled";
+    public static final boolean DEFAULT_PV_NAME_INDEX_ENABLED = false;
+    public static final String CFG_KEY_OUTBOX_ENABLED = "IngestionHandler.SourceMonitor.outboxEnabled";
+    public static final boolean DEFAULT_OUTBOX_ENABLED = false;
+    public static final String CFG_KEY_OUTBOX_CAPACITY = "IngestionHandler.SourceMonitor.outboxCapacity";
+    public static final int DEFAULT_OUTBOX_CAPACITY = 1000;
+    public static final String CFG_KEY_OUTBOX_OVERFLOW_POLICY = "IngestionHandler.SourceMonitor.outboxOverflowPolicy";
+    public static final SourceMonitor.OverflowPolicy DEFAULT_OUTBOX_OVERFLOW_POLICY =
+            SourceMonitor.OverflowPolicy.DROP_OLDEST;
+    public static final String CFG_KEY_OUTBOX_NUM_SENDERS = "IngestionHandler.SourceMonitor.outboxNumSenders";
+    public static final int DEFAULT_OUTBOX_NUM_SENDERS = 2;
+    public static final String CFG_KEY_BATCH_MAX_BUCKETS = "IngestionHandler.SourceMonitor.batchMaxBuckets";
+    public static final int DEFAULT_BATCH_MAX_BUCKETS = 1;
+    public static final String CFG_KEY_BATCH_MAX_BYTES = "IngestionHandler.SourceMonitor.batchMaxBytes";
+    public static final long DEFAULT_BATCH_MAX_BYTES = 2_000_000L;
+    public static final String CFG_KEY_BATCH_MAX_DELAY_MILLIS = "IngestionHandler.SourceMonitor.batchMaxDelayMillis";
+    public static final long DEFAULT_BATCH_MAX_DELAY_MILLIS = 0L;
+    public static final String CFG_KEY_SERIALIZE_ONCE = "IngestionHandler.SourceMonitor.serializeOnce";
+    public static final boolean DEFAULT_SERIALIZE_ONCE = false;
 
     // instance variables
 
     final private MongoIngestionClientInterface mongoIngestionClient;
     final private MongoQueryClientInterface mongoQueryClient;
     final private SourceMonitorManager sourceMonitorManager = new SourceMonitorManager();
+    private RequestStatusWriter requestStatusWriter = null;
+    private BucketGroupCommitWriter bucketGroupCommitWriter = null;
+    private RollupWriter rollupWriter = null;
+    private PvCatalogWriter pvCatalogWriter = null;
+    private PvNameIndex pvNameIndex = null;
+    private final boolean packScalarColumns =
+            configMgr().getConfigBoolean(CFG_KEY_PACKED_SCALAR_COLUMNS, DEFAULT_PACKED_SCALAR_COLUMNS);
+    private final boolean outboxEnabled = configMgr().getConfigBoolean(CFG_KEY_OUTBOX_ENABLED, DEFAULT_OUTBOX_ENABLED);
 
     public MongoIngestionHandler(
             MongoIngestionClientInterface mongoIngestionClient,
@@ -52,10 +133,87 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
         return configMgr().getConfigInteger(CFG_KEY_NUM_WORKERS, DEFAULT_NUM_WORKERS);
     }
 
+    protected int getQueueCapacity_() {
+        return configMgr().getConfigInteger(CFG_KEY_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    protected OverloadPolicy getOverloadPolicy_() {
+        return overloadPolicyFromConfig(configMgr().getConfigString(CFG_KEY_OVERLOAD_POLICY));
+    }
+
+    protected boolean getUseVirtualThreads_() {
+        return configMgr().getConfigBoolean(CFG_KEY_VIRTUAL_THREADS, DEFAULT_VIRTUAL_THREADS);
+    }
+
+    protected int getMaxConcurrentJobs_() {
+        return configMgr().getConfigInteger(CFG_KEY_MAX_CONCURRENT_JOBS, DEFAULT_MAX_CONCURRENT_JOBS);
+    }
+
+    private static SourceMonitor.OverflowPolicy outboxOverflowPolicyFromConfig(String configValue) {
+        if (configValue == null || configValue.isBlank()) {
+            return DEFAULT_OUTBOX_OVERFLOW_POLICY;
+        }
+        try {
+            return SourceMonitor.OverflowPolicy.valueOf(configValue.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error(
+                    "invalid outbox overflow policy: {}, using default: {}",
+                    configValue, DEFAULT_OUTBOX_OVERFLOW_POLICY);
+            return DEFAULT_OUTBOX_OVERFLOW_POLICY;
+        }
+    }
+
     public SourceMonitorManager getSourceMonitorPublisher() {
         return sourceMonitorManager;
     }
 
+    /**
+     * Returns true if scalar column values are stored as packed binary in BucketDocuments created by the handler.
+     */
+    public boolean getPackScalarColumns() {
+        return packScalarColumns;
+    }
+
+    /**
+     * Returns the write-behind stage for RequestStatusDocuments, or null if write-behind is disabled (or the handler
+     * is not initialized), in which case callers insert request status synchronously.
+     */
+    public RequestStatusWriter getRequestStatusWriter() {
+        return requestStatusWriter;
+    }
+
+    /**
+     * Returns the writer maintaining the rollup tiers for ingested data, or null if rollups are disabled (or the
+     * handler is not initialized).
+     */
+    public RollupWriter getRollupWriter() {
+        return rollupWriter;
+    }
+
+    /**
+     * Returns the writer maintaining the pvCatalog collection for ingested data, or null if the catalog is disabled
+     * (or the handler is not initialized).
+     */
+    public PvCatalogWriter getPvCatalogWriter() {
+        return pvCatalogWriter;
+    }
+
+    /**
+     * Returns the in-memory index of PV names used to validate subscribeData() requests, or null if the index is
+     * disabled (or the handler is not initialized), in which case PVs are validated by database query.
+     */
+    public PvNameIndex getPvNameIndex() {
+        return pvNameIndex;
+    }
+
+    /**
+     * Returns the group commit writer for BucketDocuments, or null if group commit is disabled (or the handler is not
+     * initialized), in which case callers insert the batch for each request directly.
+     */
+    public BucketGroupCommitWriter getBucketGroupCommitWriter() {
+        return bucketGroupCommitWriter;
+    }
+
     @Override
     protected boolean init_() {
         logger.trace("init_");
@@ -67,10 +225,85 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
             logger.error("error in mongoQueryClient.init");
             return false;
         }
-        if (!sourceMonitorManager.init()) {
+        final int numSenderThreads = (outboxEnabled)
+                ? configMgr().getConfigInteger(CFG_KEY_OUTBOX_NUM_SENDERS, DEFAULT_OUTBOX_NUM_SENDERS)
+                : 0;
+        final boolean serializeOnce = configMgr().getConfigBoolean(CFG_KEY_SERIALIZE_ONCE, DEFAULT_SERIALIZE_ONCE);
+        if (!sourceMonitorManager.init(numSenderThreads, serializeOnce)) {
             logger.error("error in SourceMonitorManager.init");
             return false;
         }
+        if (configMgr().getConfigBoolean(
+                CFG_KEY_REQUEST_STATUS_WRITE_BEHIND_ENABLED, DEFAULT_REQUEST_STATUS_WRITE_BEHIND_ENABLED)) {
+            requestStatusWriter = new RequestStatusWriter(
+                    mongoIngestionClient,
+                    configMgr().getConfigInteger(
+                            CFG_KEY_REQUEST_STATUS_MAX_QUEUE_SIZE, DEFAULT_REQUEST_STATUS_MAX_QUEUE_SIZE),
+                    configMgr().getConfigInteger(
+                            CFG_KEY_REQUEST_STATUS_MAX_BATCH_SIZE, DEFAULT_REQUEST_STATUS_MAX_BATCH_SIZE),
+                    configMgr().getConfigLong(
+                            CFG_KEY_REQUEST_STATUS_MAX_STALENESS_MILLIS, DEFAULT_REQUEST_STATUS_MAX_STALENESS_MILLIS));
+            if (!requestStatusWriter.init()) {
+                logger.error("error in RequestStatusWriter.init");
+                return false;
+            }
+        }
+        if (configMgr().getConfigBoolean(CFG_KEY_GROUP_COMMIT_ENABLED, DEFAULT_GROUP_COMMIT_ENABLED)) {
+            bucketGroupCommitWriter = new BucketGroupCommitWriter(
+                    mongoIngestionClient,
+                    configMgr().getConfigInteger(CFG_KEY_GROUP_COMMIT_NUM_WRITERS, DEFAULT_GROUP_COMMIT_NUM_WRITERS),
+                    configMgr().getConfigInteger(
+                            CFG_KEY_GROUP_COMMIT_MAX_DOCUMENTS, DEFAULT_GROUP_COMMIT_MAX_DOCUMENTS),
+                    configMgr().getConfigLong(CFG_KEY_GROUP_COMMIT_MAX_BYTES, DEFAULT_GROUP_COMMIT_MAX_BYTES),
+                    configMgr().getConfigLong(
+                            CFG_KEY_GROUP_COMMIT_MAX_LINGER_MILLIS, DEFAULT_GROUP_COMMIT_MAX_LINGER_MILLIS),
+                    configMgr().getConfigInteger(
+                            CFG_KEY_GROUP_COMMIT_MAX_PENDING_BATCHES, DEFAULT_GROUP_COMMIT_MAX_PENDING_BATCHES),
+                    configMgr().getConfigLong(
+                            CFG_KEY_GROUP_COMMIT_RESULT_TIMEOUT_MILLIS, DEFAULT_GROUP_COMMIT_RESULT_TIMEOUT_MILLIS));
+            if (!bucketGroupCommitWriter.init()) {
+                logger.error("error in BucketGroupCommitWriter.init");
+                return false;
+            }
+        }
+        if (configMgr().getConfigBoolean(CFG_KEY_ROLLUP_WRITER_ENABLED, DEFAULT_ROLLUP_WRITER_ENABLED)) {
+            rollupWriter = new RollupWriter(
+                    mongoIngestionClient,
+                    MongoClientBase.getRollupTierSeconds(),
+                    configMgr().getConfigInteger(
+                            CFG_KEY_ROLLUP_WRITER_MAX_QUEUE_SIZE, DEFAULT_ROLLUP_WRITER_MAX_QUEUE_SIZE),
+                    configMgr().getConfigInteger(
+                            CFG_KEY_ROLLUP_WRITER_MAX_BATCH_SIZE, DEFAULT_ROLLUP_WRITER_MAX_BATCH_SIZE),
+                    configMgr().getConfigLong(
+                            CFG_KEY_ROLLUP_WRITER_MAX_STALENESS_MILLIS, DEFAULT_ROLLUP_WRITER_MAX_STALENESS_MILLIS));
+            if (!rollupWriter.init()) {
+                logger.error("error in RollupWriter.init");
+                return false;
+            }
+        }
+        if (MongoClientBase.getPvCatalogEnabled()) {
+            pvCatalogWriter = new PvCatalogWriter(
+                    mongoIngestionClient,
+                    configMgr().getConfigInteger(
+                            CFG_KEY_PV_CATALOG_WRITER_MAX_QUEUE_SIZE, DEFAULT_PV_CATALOG_WRITER_MAX_QUEUE_SIZE),
+                    configMgr().getConfigInteger(
+                            CFG_KEY_PV_CATALOG_WRITER_MAX_BATCH_SIZE, DEFAULT_PV_CATALOG_WRITER_MAX_BATCH_SIZE),
+                    configMgr().getConfigLong(
+                            CFG_KEY_PV_CATALOG_WRITER_MAX_STALENESS_MILLIS,
+                            DEFAULT_PV_CATALOG_WRITER_MAX_STALENESS_MILLIS));
+            if (!pvCatalogWriter.init()) {
+                logger.error("error in PvCatalogWriter.init");
+                return false;
+            }
+        }
+        if (configMgr().getConfigBoolean(SubscribeDataJob.CFG_KEY_VALIDATE_PVS, SubscribeDataJob.DEFAULT_VALIDATE_PVS)
+                && configMgr().getConfigBoolean(CFG_KEY_PV_NAME_INDEX_ENABLED, DEFAULT_PV_NAME_INDEX_ENABLED)) {
+            pvNameIndex = new PvNameIndex(mongoQueryClient);
+            if (!pvNameIndex.init()) {
+                logger.error("error in PvNameIndex.init");
+                return false;
+            }
+        }
         return true;
     }
 
@@ -80,6 +313,23 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
         if (!sourceMonitorManager.fini()) {
             logger.error("error in SourceMonitorManager.fini");
         }
+        // write pending bucket groups, rollups, catalog entries, and queued request status documents before closing the
+        // mongo client
+        if (bucketGroupCommitWriter != null && !bucketGroupCommitWriter.fini()) {
+            logger.error("error in BucketGroupCommitWriter.fini");
+        }
+        if (rollupWriter != null && !rollupWriter.fini()) {
+            logger.error("error in RollupWriter.fini");
+        }
+        if (pvCatalogWriter != null && !pvCatalogWriter.fini()) {
+            logger.error("error in PvCatalogWriter.fini");
+        }
+        if (pvNameIndex != null && !pvNameIndex.fini()) {
+            logger.error("error in PvNameIndex.fini");
+        }
+        if (requestStatusWriter != null && !requestStatusWriter.fini()) {
+            logger.error("error in RequestStatusWriter.fini");
+        }
         if (!mongoQueryClient.fini()) {
             logger.error("error in MongoQueryClient.fini");
         }
@@ -100,17 +350,11 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
 
         logger.debug("adding RegisterProviderJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
-
+        submitJob(job, responseObserver);
     }
 
     @Override
-    public void handleIngestionRequest(HandlerIngestionRequest handlerIngestionRequest) {
+    public boolean handleIngestionRequest(HandlerIngestionRequest handlerIngestionRequest) {
 
         final IngestDataJob job = new IngestDataJob(handlerIngestionRequest, mongoIngestionClient, this);
 
@@ -120,12 +364,8 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
                 handlerIngestionRequest.request.getProviderId(),
                 handlerIngestionRequest.request.getClientRequestId());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        // caller sends reject response if the job is not accepted by the request queue
+        return submitJob(job, null);
     }
 
     @Override
@@ -138,12 +378,7 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
 
         logger.debug("adding QueryRequestStatusJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -151,9 +386,24 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
             SubscribeDataRequest request,
             StreamObserver<SubscribeDataResponse> responseObserver
     ) {
-        // create SourceMonitor for request
-        final SourceMonitor monitor =
-                new SourceMonitor(this, request.getNewSubscription().getPvNamesList(), responseObserver);
+        // create SourceMonitor for request, with an outbox for sending data off the ingestion worker threads if enabled
+        final SourceMonitor monitor;
+        if (outboxEnabled) {
+            final SourceMonitor.OutboxConfig outboxConfig = new SourceMonitor.OutboxConfig(
+                    configMgr().getConfigInteger(CFG_KEY_OUTBOX_CAPACITY, DEFAULT_OUTBOX_CAPACITY),
+                    outboxOverflowPolicyFromConfig(configMgr().getConfigString(CFG_KEY_OUTBOX_OVERFLOW_POLICY)),
+                    configMgr().getConfigInteger(CFG_KEY_BATCH_MAX_BUCKETS, DEFAULT_BATCH_MAX_BUCKETS),
+                    configMgr().getConfigLong(CFG_KEY_BATCH_MAX_BYTES, DEFAULT_BATCH_MAX_BYTES),
+                    configMgr().getConfigLong(CFG_KEY_BATCH_MAX_DELAY_MILLIS, DEFAULT_BATCH_MAX_DELAY_MILLIS));
+            monitor = new SourceMonitor(
+                    this,
+                    request.getNewSubscription().getPvNamesList(),
+                    responseObserver,
+                    outboxConfig,
+                    sourceMonitorManager.getSenderExecutor());
+        } else {
+            monitor = new SourceMonitor(this, request.getNewSubscription().getPvNamesList(), responseObserver);
+        }
 
         // add SourceMonitor to manager
         sourceMonitorManager.addMonitor(monitor);
@@ -165,17 +415,17 @@ public class MongoIngestionHandler extends QueueHandlerBase implements Ingestion
                         monitor,
                         sourceMonitorManager,
                         mongoIngestionClient,
-                        mongoQueryClient);
+                        mongoQueryClient,
+                        pvNameIndex);
 
         logger.debug(
                 "adding SubscribeDataJob id: {} to queue",
                 monitor.responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
+        if (!submitJob(job, null)) {
+            // send reject and close subscription if the job is not accepted by the request queue
+            monitor.handleReject("ingestion handler queue full, subscribeData request rejected");
+            sourceMonitorManager.terminateMonitor(monitor);
         }
 
         return monitor;
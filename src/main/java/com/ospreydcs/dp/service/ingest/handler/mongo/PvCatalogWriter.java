@@ -0,0 +1,91 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogUtility;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class maintains the pvCatalog collection, which contains an entry for each combination of PV and provider
+ * summarizing the buckets ingested by the handler.  After the buckets for an ingestion request are inserted, the
+ * request's catalog entries are added to a bounded queue (so that bucket data is not retained), and a dedicated writer
+ * thread merges the entries for all requests in a batch by PV and provider and upserts them to the pvCatalog
+ * collection with a single unordered bulkWrite() when either maxBatchSize requests have accumulated or
+ * maxStalenessMillis has elapsed since the first request in the batch was received.  The catalog therefore lags the
+ * buckets collection by at most maxStalenessMillis, so a PV that is ingested for the first time might not be found by
+ * queryPvStats() until the batch is written.  subscribeData() validation falls back to the buckets collection for PVs
+ * not found in the catalog.
+ *
+ * If the queue is full, the catalog entries for the request are written synchronously by the calling worker so that
+ * no ingested bucket is missing from the catalog.  The fini() method stops the writer thread after draining all queued
+ * requests, and must be called before the mongo client is closed.
+ */
+public class PvCatalogWriter extends WriteBehindWriterBase<Collection<PvCatalogDocument>> {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // instance variables
+    private final MongoIngestionClientInterface mongoClient;
+
+    public PvCatalogWriter(
+            MongoIngestionClientInterface mongoClient,
+            int maxQueueSize,
+            int maxBatchSize,
+            long maxStalenessMillis
+    ) {
+        super("PvCatalogWriter", "pv-catalog-writer", maxQueueSize, maxBatchSize, maxStalenessMillis);
+        this.mongoClient = mongoClient;
+    }
+
+    /**
+     * Adds the bucket documents for an ingestion request that were inserted successfully to the catalog queue.  Falls
+     * back to writing the request's catalog entries synchronously if the queue is full or the writer is shutting down.
+     */
+    public void addBuckets(List<BucketDocument> buckets) {
+        enqueue(PvCatalogUtility.catalogEntriesFromBuckets(buckets));
+    }
+
+    @Override
+    protected void writeSynchronous(Collection<PvCatalogDocument> catalogEntries) {
+        writeCatalogEntries(catalogEntries);
+    }
+
+    @Override
+    protected void writeBatch(List<Collection<PvCatalogDocument>> batch) {
+
+        // merge the entries for all requests in the batch so that each PV and provider is updated once
+        final List<PvCatalogDocument> catalogEntries = new ArrayList<>();
+        for (Collection<PvCatalogDocument> requestEntries : batch) {
+            catalogEntries.addAll(requestEntries);
+        }
+        writeCatalogEntries(PvCatalogUtility.mergeCatalogEntries(catalogEntries));
+    }
+
+    private void writeCatalogEntries(Collection<PvCatalogDocument> catalogDocuments) {
+
+        if (catalogDocuments.isEmpty()) {
+            return;
+        }
+
+        final BulkWriteResult result = mongoClient.upsertPvCatalog(new ArrayList<>(catalogDocuments));
+        if (result == null) {
+            logger.error("error upserting batch of {} pvCatalog documents", catalogDocuments.size());
+        } else if (!result.wasAcknowledged()) {
+            logger.error(
+                    "bulkWrite not acknowledged upserting batch of {} pvCatalog documents", catalogDocuments.size());
+        } else {
+            addDocumentsWritten(catalogDocuments.size());
+            incrementBatchesWritten();
+            logger.debug("upserted batch of {} pvCatalog documents", catalogDocuments.size());
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.client.MongoCursor;
+import com.ospreydcs.dp.service.query.handler.mongo.client.MongoQueryClientInterface;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory set of the PV names known to exist in the archive, used to validate subscribeData() requests without
+ * querying the database.  The index is loaded from the database by a background thread when the handler starts, and
+ * names are added as data is ingested and as lookups that miss the index are confirmed by the database.
+ *
+ * The index only answers positively: a PV found in the index exists, but a PV not found (e.g., before loading
+ * completes) must be checked against the database by the caller, so validation results are the same as without the
+ * index.
+ */
+public class PvNameIndex {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // instance variables
+    private final MongoQueryClientInterface mongoQueryClient;
+    private final Set<String> pvNames = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean loaded = new AtomicBoolean(false);
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private Thread loaderThread = null;
+
+    public PvNameIndex(MongoQueryClientInterface mongoQueryClient) {
+        this.mongoQueryClient = mongoQueryClient;
+    }
+
+    public boolean init() {
+        logger.info("PvNameIndex init loading PV names from archive");
+        loaderThread = new Thread(this::loadPvNames, "pv-name-index-loader");
+        loaderThread.setDaemon(true);
+        loaderThread.start();
+        return true;
+    }
+
+    public boolean fini() {
+        if (loaderThread != null && loaderThread.isAlive()) {
+            loaderThread.interrupt();
+        }
+        logger.info(
+                "PvNameIndex fini size: {} hits: {} misses: {}", pvNames.size(), hitCount.get(), missCount.get());
+        return true;
+    }
+
+    private void loadPvNames() {
+        final long startNanos = System.nanoTime();
+        try (MongoCursor<String> cursor = mongoQueryClient.executeQueryPvNames()) {
+            while (cursor.hasNext() && !Thread.currentThread().isInterrupted()) {
+                final String pvName = cursor.next();
+                if (pvName != null) {
+                    pvNames.add(pvName);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("PvNameIndex exception loading PV names: {}", e.getMessage());
+            return;
+        }
+        loaded.set(true);
+        logger.info(
+                "PvNameIndex loaded {} PV names in {} ms",
+                pvNames.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Adds PV names known to exist in the archive, e.g., for ingested buckets or names confirmed by the database.
+     */
+    public void addPvNames(Collection<String> names) {
+        pvNames.addAll(names);
+    }
+
+    public void addPvName(String name) {
+        pvNames.add(name);
+    }
+
+    /**
+     * Returns the specified PV names that are not in the index, which must be checked against the database.
+     */
+    public Set<String> unknownPvNames(Collection<String> names) {
+        final Set<String> unknownNames = new HashSet<>();
+        for (String name : names) {
+            if (!pvNames.contains(name)) {
+                unknownNames.add(name);
+            }
+        }
+        if (unknownNames.isEmpty()) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return unknownNames;
+    }
+
+    public boolean isLoaded() {
+        return loaded.get();
+    }
+
+    public int size() {
+        return pvNames.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.ospreydcs.dp.service.common.bson.RequestStatusDocument;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+
+/**
+ * This class provides a write-behind stage for the RequestStatusDocuments created by the ingestion workers for each
+ * ingestion request.  Instead of each worker waiting for an insertOne() of its status document, documents are added
+ * to a bounded queue shared by all workers, and a dedicated writer thread inserts them with insertMany() when either
+ * maxBatchSize documents have accumulated or maxStalenessMillis has elapsed since the first document in the batch was
+ * received.  The requestStatus collection therefore lags the ingestion stream by at most maxStalenessMillis, which
+ * is the staleness window tolerated by queryRequestStatus().
+ *
+ * If the queue is full, the status document is inserted synchronously by the calling worker so that request status
+ * is never dropped.  The fini() method stops the writer thread after draining all queued documents, and must be
+ * called before the mongo client is closed.
+ */
+public class RequestStatusWriter extends WriteBehindWriterBase<RequestStatusDocument> {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // instance variables
+    private final MongoIngestionClientInterface mongoClient;
+
+    public RequestStatusWriter(
+            MongoIngestionClientInterface mongoClient,
+            int maxQueueSize,
+            int maxBatchSize,
+            long maxStalenessMillis
+    ) {
+        super("RequestStatusWriter", "request-status-writer", maxQueueSize, maxBatchSize, maxStalenessMillis);
+        this.mongoClient = mongoClient;
+    }
+
+    /**
+     * Adds a RequestStatusDocument to the write-behind queue.  The document's createdAt time is set here so that it
+     * reflects the time the request was handled rather than the time the batch is written.  Falls back to a
+     * synchronous insert if the queue is full or the writer is shutting down.
+     */
+    public void addRequestStatus(RequestStatusDocument statusDocument) {
+        statusDocument.addCreationTime();
+        enqueue(statusDocument);
+    }
+
+    @Override
+    protected void writeSynchronous(RequestStatusDocument statusDocument) {
+        final InsertOneResult result = mongoClient.insertRequestStatus(statusDocument);
+        if (result == null) {
+            logger.error("error inserting request status");
+        } else if (!result.wasAcknowledged()) {
+            logger.error("insertOne not acknowledged inserting request status");
+        } else {
+            addDocumentsWritten(1);
+        }
+    }
+
+    @Override
+    protected void writeBatch(List<RequestStatusDocument> batch) {
+        final InsertManyResult result = mongoClient.insertRequestStatusBatch(batch);
+        if (result == null) {
+            logger.error("error inserting batch of {} request status documents", batch.size());
+        } else if (!result.wasAcknowledged()) {
+            logger.error("insertMany not acknowledged inserting batch of {} request status documents", batch.size());
+        } else {
+            addDocumentsWritten(result.getInsertedIds().size());
+            incrementBatchesWritten();
+            logger.debug("inserted batch of {} request status documents", result.getInsertedIds().size());
+        }
+    }
+
+}
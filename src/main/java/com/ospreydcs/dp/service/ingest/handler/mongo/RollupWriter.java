@@ -0,0 +1,102 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupUtility;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class maintains the pre-aggregated rollup tiers in the rollups collection for data ingested by the handler.
+ * After the buckets for an ingestion request are inserted, the request is added to a bounded queue, and a dedicated
+ * writer thread computes the request's contribution (count, sum, min, and max) to the bins of each tier.  The
+ * contributions of all requests in a batch are merged by bin and upserted to the rollups collection with a single
+ * unordered bulkWrite() when either maxBatchSize requests have accumulated or maxStalenessMillis has elapsed since the
+ * first request in the batch was received.  Rollups therefore lag the buckets collection by at most
+ * maxStalenessMillis.
+ *
+ * If the queue is full, the rollups for the request are written synchronously by the calling worker so that no
+ * ingested data is missing from the rollups.  The fini() method stops the writer thread after draining all queued
+ * requests, and must be called before the mongo client is closed.
+ */
+public class RollupWriter extends WriteBehindWriterBase<IngestDataRequest> {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // instance variables
+    private final MongoIngestionClientInterface mongoClient;
+    private final long[] tierSeconds;
+
+    public RollupWriter(
+            MongoIngestionClientInterface mongoClient,
+            long[] tierSeconds,
+            int maxQueueSize,
+            int maxBatchSize,
+            long maxStalenessMillis
+    ) {
+        super("RollupWriter", "rollup-writer", maxQueueSize, maxBatchSize, maxStalenessMillis);
+        this.mongoClient = mongoClient;
+        this.tierSeconds = tierSeconds;
+    }
+
+    @Override
+    public boolean init() {
+        if (tierSeconds.length == 0) {
+            logger.error("RollupWriter init no valid rollup tiers configured");
+            return false;
+        }
+        logger.info("RollupWriter init tierSeconds: {}", Arrays.toString(tierSeconds));
+        return super.init();
+    }
+
+    /**
+     * Adds an ingestion request whose buckets were inserted successfully to the rollup queue.  Falls back to writing
+     * the request's rollups synchronously if the queue is full or the writer is shutting down.
+     */
+    public void addRequest(IngestDataRequest request) {
+        enqueue(request);
+    }
+
+    @Override
+    protected void writeSynchronous(IngestDataRequest request) {
+        writeRollups(RollupUtility.rollupsFromRequest(request, tierSeconds));
+    }
+
+    @Override
+    protected void writeBatch(List<IngestDataRequest> batch) {
+
+        // merge the contributions of all requests in the batch so that each bin is updated once
+        final List<RollupDocument> rollupDocuments = new ArrayList<>();
+        for (IngestDataRequest request : batch) {
+            rollupDocuments.addAll(RollupUtility.rollupsFromRequest(request, tierSeconds));
+        }
+        writeRollups(RollupUtility.mergeRollups(rollupDocuments));
+    }
+
+    private void writeRollups(Collection<RollupDocument> rollupDocuments) {
+
+        if (rollupDocuments.isEmpty()) {
+            return;
+        }
+
+        final BulkWriteResult result = mongoClient.upsertRollups(new ArrayList<>(rollupDocuments));
+        if (result == null) {
+            logger.error("error upserting batch of {} rollup documents", rollupDocuments.size());
+        } else if (!result.wasAcknowledged()) {
+            logger.error("bulkWrite not acknowledged upserting batch of {} rollup documents", rollupDocuments.size());
+        } else {
+            addDocumentsWritten(rollupDocuments.size());
+            incrementBatchesWritten();
+            logger.debug("upserted batch of {} rollup documents", rollupDocuments.size());
+        }
+    }
+
+}
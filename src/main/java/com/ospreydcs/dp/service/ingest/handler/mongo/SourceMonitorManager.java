@@ -1,5 +1,6 @@
 package com.ospreydcs.dp.service.ingest.handler.mongo;
 
+import com.google.protobuf.ByteString;
 import com.ospreydcs.dp.grpc.v1.common.*;
 import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
 import com.ospreydcs.dp.service.ingest.model.SourceMonitor;
@@ -7,9 +8,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * This class manages subscriptions made via the subscribeData() API. It publishes data received in the data ingestion
@@ -17,67 +23,166 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  *
  * A SourceMonitor object is created for each PV subscription and added to the subscriptionMap.
  *
- * Concurrency mechanisms are provided to make this class thread safe.
+ * The subscriptionMap is copy-on-write: it is an immutable map of PV name to an immutable array of subscribers, and
+ * adding or removing a subscription builds a new map (under a lock serializing the writers) that replaces the old one
+ * atomically.  Publishing threads read the current map without locking or copying, and return immediately if there are
+ * no subscriptions.  Subscriptions change rarely compared to the rate of ingestion, so the cost of copying the map is
+ * paid by the writers.
  *
  * Methods are provided for adding, removing and terminating SourceMonitors, and for publishing ingested PV data
  * to subscribers.
+ *
+ * If initialized with sender threads, the manager provides the executor used by SourceMonitors with an outbox to send
+ * published data to subscribers, off the ingestion worker threads.
+ *
+ * If initialized with serializeOnce, each published DataBucket is serialized once and its bytes are sent to every
+ * subscriber, instead of gRPC serializing the bucket again in each subscriber's response.  This is opt-in because the
+ * responses carry the bucket bytes as an unknown field, which an in-process client receiving the response object
+ * without serialization can't read through the generated accessors.
  */
 public class SourceMonitorManager {
 
     // static variables
     private static final Logger logger = LogManager.getLogger();
 
+    // constants
+    private static final int FINI_TIMEOUT_SECONDS = 5;
+    private static final SourceMonitor[] NO_SUBSCRIBERS = new SourceMonitor[0];
+
+    /**
+     * Describes how to get the columns of one type from a DataFrame, the PV name for a column, and how to set the
+     * column in DataValues, so that columns of each type are published by the same code.
+     */
+    private record ColumnType<T>(
+            Function<DataFrame, List<T>> columns,
+            Function<T, String> pvName,
+            BiConsumer<DataValues.Builder, T> setDataValues
+    ) {
+    }
+
+    private static final List<ColumnType<?>> COLUMN_TYPES = List.of(
+            new ColumnType<DataColumn>(
+                    DataFrame::getDataColumnsList, DataColumn::getName, DataValues.Builder::setDataColumn),
+            new ColumnType<SerializedDataColumn>(
+                    DataFrame::getSerializedDataColumnsList,
+                    SerializedDataColumn::getName,
+                    DataValues.Builder::setSerializedDataColumn),
+            new ColumnType<DoubleColumn>(
+                    DataFrame::getDoubleColumnsList, DoubleColumn::getName, DataValues.Builder::setDoubleColumn),
+            new ColumnType<FloatColumn>(
+                    DataFrame::getFloatColumnsList, FloatColumn::getName, DataValues.Builder::setFloatColumn),
+            new ColumnType<Int64Column>(
+                    DataFrame::getInt64ColumnsList, Int64Column::getName, DataValues.Builder::setInt64Column),
+            new ColumnType<Int32Column>(
+                    DataFrame::getInt32ColumnsList, Int32Column::getName, DataValues.Builder::setInt32Column),
+            new ColumnType<BoolColumn>(
+                    DataFrame::getBoolColumnsList, BoolColumn::getName, DataValues.Builder::setBoolColumn),
+            new ColumnType<StringColumn>(
+                    DataFrame::getStringColumnsList, StringColumn::getName, DataValues.Builder::setStringColumn),
+            new ColumnType<EnumColumn>(
+                    DataFrame::getEnumColumnsList, EnumColumn::getName, DataValues.Builder::setEnumColumn),
+            new ColumnType<DoubleArrayColumn>(
+                    DataFrame::getDoubleArrayColumnsList,
+                    DoubleArrayColumn::getName,
+                    DataValues.Builder::setDoubleArrayColumn),
+            new ColumnType<FloatArrayColumn>(
+                    DataFrame::getFloatArrayColumnsList,
+                    FloatArrayColumn::getName,
+                    DataValues.Builder::setFloatArrayColumn),
+            new ColumnType<Int32ArrayColumn>(
+                    DataFrame::getInt32ArrayColumnsList,
+                    Int32ArrayColumn::getName,
+                    DataValues.Builder::setInt32ArrayColumn),
+            new ColumnType<Int64ArrayColumn>(
+                    DataFrame::getInt64ArrayColumnsList,
+                    Int64ArrayColumn::getName,
+                    DataValues.Builder::setInt64ArrayColumn),
+            new ColumnType<BoolArrayColumn>(
+                    DataFrame::getBoolArrayColumnsList,
+                    BoolArrayColumn::getName,
+                    DataValues.Builder::setBoolArrayColumn),
+            new ColumnType<StructColumn>(
+                    DataFrame::getStructColumnsList, StructColumn::getName, DataValues.Builder::setStructColumn),
+            new ColumnType<ImageColumn>(
+                    DataFrame::getImageColumnsList, ImageColumn::getName, DataValues.Builder::setImageColumn)
+    );
+
     // instance variables
-    private final Map<String, List<SourceMonitor>> subscriptionMap = new HashMap<>();
+    private volatile Map<String, SourceMonitor[]> subscriptionMap = Map.of();
     public final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
-    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-    private final Lock readLock = rwLock.readLock();
-    private final Lock writeLock = rwLock.writeLock();
-
+    private final Lock writeLock = new ReentrantLock();
+    private ScheduledThreadPoolExecutor senderExecutor = null;
+    private boolean serializeOnce = false;
 
     public boolean init() {
+        return init(0);
+    }
+
+    public boolean init(int numSenderThreads) {
+        return init(numSenderThreads, false);
+    }
+
+    public boolean init(int numSenderThreads, boolean serializeOnce) {
+        this.serializeOnce = serializeOnce;
+        if (numSenderThreads > 0) {
+            logger.debug("SourceMonitorManager init starting {} sender threads", numSenderThreads);
+            senderExecutor = new ScheduledThreadPoolExecutor(numSenderThreads);
+            // don't wait for delayed outbox drains when shutting down, the response streams are already closed
+            senderExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
         return true;
     }
 
+    /**
+     * Returns the executor for sending data from SourceMonitor outboxes, or null if not initialized with sender
+     * threads.
+     */
+    public ScheduledExecutorService getSenderExecutor() {
+        return senderExecutor;
+    }
+
     public boolean fini() {
 
         logger.debug("SourceMonitorManager fini");
 
         if (shutdownRequested.compareAndSet(false, true)) {
 
-            // only acquire readLock to access local data structure, release before shutting down the monitors
-            readLock.lock();
+            logger.debug("SourceMonitorManager fini shutting down SourceMonitors");
 
-            Set<SourceMonitor> sourceMonitors = null;
-            try {
-
-                logger.debug("SourceMonitorManager fini shutting down SourceMonitors");
-
-                // create a set of all SourceMonitors, eliminating duplicates for subscriptions to multiple PVs
-                sourceMonitors = new HashSet<>();
-                for (List<SourceMonitor> monitorList : subscriptionMap.values()) {
-                    sourceMonitors.addAll(monitorList);
-                }
-
-            } finally {
-                // release the lock after accessing data structure but before shutting down monitors
-                readLock.unlock();
+            // create a set of all SourceMonitors from the current map, eliminating duplicates for subscriptions to
+            // multiple PVs
+            final Set<SourceMonitor> sourceMonitors = new HashSet<>();
+            for (SourceMonitor[] monitorArray : subscriptionMap.values()) {
+                sourceMonitors.addAll(Arrays.asList(monitorArray));
             }
-            Objects.requireNonNull(sourceMonitors);
 
-            // after releasing lock, close each response stream in set
+            // close each response stream in set
             for (SourceMonitor monitor : sourceMonitors) {
                 monitor.requestShutdown();
             }
 
+            // stop sender threads after closing response streams, which stops outboxes from draining
+            if (senderExecutor != null) {
+                senderExecutor.shutdown();
+                try {
+                    if (!senderExecutor.awaitTermination(FINI_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        logger.error("SourceMonitorManager fini timed out waiting for sender threads");
+                        senderExecutor.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    senderExecutor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+            }
+
         }
 
         return true;
     }
 
     /**
-     * Add a subscription entry to map data structure.  We use a write lock for thread safety between calling threads
-     * (e.g., threads handling registration of subscriptions).
+     * Add a subscription entry to map data structure.  We use a write lock to serialize updates between calling threads
+     * (e.g., threads handling registration of subscriptions), and replace the map with an updated copy.
      */
     public void addMonitor(SourceMonitor monitor) {
 
@@ -89,10 +194,18 @@ public class SourceMonitorManager {
         try {
             // use try...finally to make sure we unlock
 
+            final Map<String, SourceMonitor[]> updatedMap = new HashMap<>(subscriptionMap);
             for (String pvName : monitor.pvNames) {
-                List<SourceMonitor> sourceMonitors = subscriptionMap.computeIfAbsent(pvName, k -> new ArrayList<>());
-                sourceMonitors.add(monitor);
+                final SourceMonitor[] sourceMonitors = updatedMap.get(pvName);
+                if (sourceMonitors == null) {
+                    updatedMap.put(pvName, new SourceMonitor[] { monitor });
+                } else {
+                    final SourceMonitor[] updatedMonitors = Arrays.copyOf(sourceMonitors, sourceMonitors.length + 1);
+                    updatedMonitors[sourceMonitors.length] = monitor;
+                    updatedMap.put(pvName, updatedMonitors);
+                }
             }
+            subscriptionMap = Collections.unmodifiableMap(updatedMap);
 
         } finally {
             writeLock.unlock();
@@ -100,8 +213,8 @@ public class SourceMonitorManager {
     }
 
     /**
-     * Publish columns from ingestion request whose PVs have subscriptions.
-     * We use a read lock for thread safety between calling threads (e.g., workers processing ingestion requests).
+     * Publish columns from ingestion request whose PVs have subscriptions.  The current subscriptionMap is read once
+     * without locking, so the request is published to the subscriptions that exist when publishing starts.
      *
      * @param request
      */
@@ -111,348 +224,64 @@ public class SourceMonitorManager {
             return;
         }
 
-        final DataTimestamps requestDataTimestamps = request.getIngestionDataFrame().getDataTimestamps();
-
-        // publish DataColumns in request that have subscribers
-        for (DataColumn requestDataColumn : request.getIngestionDataFrame().getDataColumnsList()) {
-            final String pvName = requestDataColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setDataColumn(requestDataColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish SerializedDataColumns in request that have subscribers
-        for (SerializedDataColumn requestColumn : request.getIngestionDataFrame().getSerializedDataColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setSerializedDataColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish DoubleColumns in request that have subscribers
-        for (DoubleColumn requestColumn : request.getIngestionDataFrame().getDoubleColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setDoubleColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish FloatColumns in request that have subscribers
-        for (FloatColumn requestColumn : request.getIngestionDataFrame().getFloatColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setFloatColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish Int64Columns in request that have subscribers
-        for (Int64Column requestColumn : request.getIngestionDataFrame().getInt64ColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setInt64Column(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish Int32Columns in request that have subscribers
-        for (Int32Column requestColumn : request.getIngestionDataFrame().getInt32ColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setInt32Column(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish BoolColumns in request that have subscribers
-        for (BoolColumn requestColumn : request.getIngestionDataFrame().getBoolColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setBoolColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish StringColumns in request that have subscribers
-        for (StringColumn requestColumn : request.getIngestionDataFrame().getStringColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setStringColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish EnumColumns in request that have subscribers
-        for (EnumColumn requestColumn : request.getIngestionDataFrame().getEnumColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setEnumColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish DoubleArrayColumns in request that have subscribers
-        for (DoubleArrayColumn requestColumn : request.getIngestionDataFrame().getDoubleArrayColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setDoubleArrayColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish FloatArrayColumns in request that have subscribers
-        for (FloatArrayColumn requestColumn : request.getIngestionDataFrame().getFloatArrayColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setFloatArrayColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish Int32ArrayColumns in request that have subscribers
-        for (Int32ArrayColumn requestColumn : request.getIngestionDataFrame().getInt32ArrayColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setInt32ArrayColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish Int64ArrayColumns in request that have subscribers
-        for (Int64ArrayColumn requestColumn : request.getIngestionDataFrame().getInt64ArrayColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setInt64ArrayColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
-        }
-
-        // publish BoolArrayColumns in request that have subscribers
-        for (BoolArrayColumn requestColumn : request.getIngestionDataFrame().getBoolArrayColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setBoolArrayColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
+        // nothing to do if there are no subscriptions
+        final Map<String, SourceMonitor[]> subscriptions = subscriptionMap;
+        if (subscriptions.isEmpty()) {
+            return;
         }
 
-        // publish StructColumns in request that have subscribers
-        for (StructColumn requestColumn : request.getIngestionDataFrame().getStructColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
-                // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
-                        .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setStructColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
-                        .setProviderName(providerName)
-                        .build();
-                // publish DataBucket to each subscriber
-                for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
-                }
-            }
+        final DataFrame frame = request.getIngestionDataFrame();
+        for (ColumnType<?> columnType : COLUMN_TYPES) {
+            publishColumns(columnType, frame, subscriptions, request.getProviderId(), providerName, serializeOnce);
         }
+    }
 
-        // publish ImageColumns in request that have subscribers
-        for (ImageColumn requestColumn : request.getIngestionDataFrame().getImageColumnsList()) {
-            final String pvName = requestColumn.getName();
-            final List<SourceMonitor> pvSubscribers = getSubscribersForPv(pvName);
-            if (pvSubscribers.size() > 0) {
+    /**
+     * Publish the request columns of the specified type that have subscribers.  A single DataBucket is built for each
+     * published column and shared by all of its subscribers, and if serializeOnce is set, the bucket is serialized
+     * once for all of them.
+     */
+    private static <T> void publishColumns(
+            ColumnType<T> columnType,
+            DataFrame frame,
+            Map<String, SourceMonitor[]> subscriptions,
+            String providerId,
+            String providerName,
+            boolean serializeOnce
+    ) {
+        for (T requestColumn : columnType.columns().apply(frame)) {
+            final String pvName = columnType.pvName().apply(requestColumn);
+            final SourceMonitor[] pvSubscribers = getSubscribersForPv(subscriptions, pvName);
+            if (pvSubscribers.length > 0) {
                 // create DataBucket for column
-                DataBucket columnBucket = DataBucket.newBuilder()
+                final DataValues.Builder dataValuesBuilder = DataValues.newBuilder();
+                columnType.setDataValues().accept(dataValuesBuilder, requestColumn);
+                final DataBucket columnBucket = DataBucket.newBuilder()
                         .setPvName(pvName)
-                        .setDataTimestamps(requestDataTimestamps)
-                        .setDataValues(DataValues.newBuilder().setImageColumn(requestColumn).build())
-                        .setProviderId(request.getProviderId())
+                        .setDataTimestamps(frame.getDataTimestamps())
+                        .setDataValues(dataValuesBuilder.build())
+                        .setProviderId(providerId)
                         .setProviderName(providerName)
                         .build();
                 // publish DataBucket to each subscriber
+                final ByteString columnBucketBytes = (serializeOnce) ? columnBucket.toByteString() : null;
                 for (SourceMonitor monitor : pvSubscribers) {
-                    monitor.publishDataBucket(pvName, columnBucket);
+                    monitor.publishDataBucket(pvName, columnBucket, columnBucketBytes);
                 }
             }
         }
-
     }
 
-    private List<SourceMonitor> getSubscribersForPv(String pvName) {
-        // acquire readLock only long enough to read local data structure
-        readLock.lock();
-        List<SourceMonitor> sourceMonitorsCopy;
-        try {
-            final List<SourceMonitor> sourceMonitors = subscriptionMap.get(pvName);
-            sourceMonitorsCopy =
-                    (sourceMonitors == null) ? new ArrayList<>() : new ArrayList<>(sourceMonitors);
-        } finally {
-            readLock.unlock();
-        }
-        return sourceMonitorsCopy;
+    private static SourceMonitor[] getSubscribersForPv(Map<String, SourceMonitor[]> subscriptions, String pvName) {
+        // arrays in the map are never modified, so they can be used without copying
+        final SourceMonitor[] sourceMonitors = subscriptions.get(pvName);
+        return (sourceMonitors == null) ? NO_SUBSCRIBERS : sourceMonitors;
     }
 
     /**
      * Remove all subscriptions from map for specified SourceMonitor, and then request shutdown.
-     * We use a write lock for thread safety between calling threads
-     * (e.g., threads handling registration of subscriptions).
+     * We use a write lock to serialize updates between calling threads
+     * (e.g., threads handling registration of subscriptions), and replace the map with an updated copy.
      */
     public void removeMonitor(SourceMonitor monitor) {
 
@@ -464,15 +293,24 @@ public class SourceMonitorManager {
         try {
             // use try...finally to make sure we unlock
 
+            final Map<String, SourceMonitor[]> updatedMap = new HashMap<>(subscriptionMap);
             for (String pvName : monitor.pvNames) {
-                List<SourceMonitor> sourceMonitors = subscriptionMap.get(pvName);
+                final SourceMonitor[] sourceMonitors = updatedMap.get(pvName);
                 if (sourceMonitors != null) {
                     logger.debug(
                             "removing subscription for id: {} pv: {}",
                             monitor.responseObserver.hashCode(), pvName);
-                    sourceMonitors.remove(monitor);
+                    final List<SourceMonitor> updatedMonitors = new ArrayList<>(Arrays.asList(sourceMonitors));
+                    updatedMonitors.remove(monitor);
+                    if (updatedMonitors.isEmpty()) {
+                        // remove PVs without subscribers so an idle map is empty
+                        updatedMap.remove(pvName);
+                    } else {
+                        updatedMap.put(pvName, updatedMonitors.toArray(NO_SUBSCRIBERS));
+                    }
                 }
             }
+            subscriptionMap = Collections.unmodifiableMap(updatedMap);
 
         } finally {
             writeLock.unlock();
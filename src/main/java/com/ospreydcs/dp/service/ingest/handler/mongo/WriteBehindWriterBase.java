@@ -0,0 +1,204 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for the handler's write-behind stages.  Items added by the ingestion workers are placed in a bounded
+ * queue shared by all workers, and a dedicated writer thread collects them into batches that are written when either
+ * maxBatchSize items have accumulated or maxStalenessMillis has elapsed since the first item in the batch was
+ * received.  If the queue is full, or the writer is shutting down, the item is written synchronously by the calling
+ * worker so that nothing is dropped.
+ *
+ * The writer thread wakes at least every SHUTDOWN_POLL_NANOS while waiting for items, so that fini() doesn't wait for
+ * a full staleness window before the queue is drained.  The fini() method stops the writer thread after draining all
+ * queued items, and must be called before the mongo client is closed.
+ *
+ * Subclasses implement writeBatch() and writeSynchronous(), and record the number of documents written using
+ * addDocumentsWritten() and incrementBatchesWritten().
+ */
+public abstract class WriteBehindWriterBase<T> {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // constants
+    private static final int FINI_TIMEOUT_SECONDS = 10;
+    private static final long SHUTDOWN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // instance variables
+    private final String writerName;
+    private final String threadName;
+    private final int maxQueueSize;
+    private final int maxBatchSize;
+    private final long maxStalenessMillis;
+    private final BlockingQueue<T> queue;
+    private final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
+    private final AtomicLong documentsWritten = new AtomicLong(0);
+    private final AtomicLong batchesWritten = new AtomicLong(0);
+    private final AtomicLong synchronousWrites = new AtomicLong(0);
+    private Thread writerThread = null;
+
+    protected WriteBehindWriterBase(
+            String writerName,
+            String threadName,
+            int maxQueueSize,
+            int maxBatchSize,
+            long maxStalenessMillis
+    ) {
+        this.writerName = writerName;
+        this.threadName = threadName;
+        this.maxQueueSize = maxQueueSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.queue = new ArrayBlockingQueue<>(maxQueueSize);
+    }
+
+    /**
+     * Writes a batch of items collected by the writer thread.
+     */
+    protected abstract void writeBatch(List<T> batch);
+
+    /**
+     * Writes a single item on the calling thread, when the queue is full or the writer is shutting down.
+     */
+    protected abstract void writeSynchronous(T item);
+
+    public boolean init() {
+        logger.info(
+                "{} init maxQueueSize: {} maxBatchSize: {} maxStalenessMillis: {}",
+                writerName, maxQueueSize, maxBatchSize, maxStalenessMillis);
+        writerThread = new Thread(this::runWriter, threadName);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        return true;
+    }
+
+    public boolean fini() {
+
+        if (!shutdownRequested.compareAndSet(false, true)) {
+            return true;
+        }
+
+        logger.debug("{} fini draining {} queued items", writerName, queue.size());
+
+        // writer thread drains the queue before exiting
+        if (writerThread != null) {
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(FINI_TIMEOUT_SECONDS));
+            } catch (InterruptedException e) {
+                logger.error("{} fini interrupted waiting for writer thread", writerName);
+                Thread.currentThread().interrupt();
+            }
+            if (writerThread.isAlive()) {
+                logger.error("{} fini timed out with {} items queued", writerName, queue.size());
+            }
+        }
+
+        logger.info(
+                "{} fini completed documents: {} batches: {} synchronous: {}",
+                writerName, documentsWritten.get(), batchesWritten.get(), synchronousWrites.get());
+
+        return true;
+    }
+
+    /**
+     * Adds an item to the write-behind queue.  Falls back to a synchronous write if the queue is full or the writer is
+     * shutting down.
+     */
+    protected void enqueue(T item) {
+        if (shutdownRequested.get() || !queue.offer(item)) {
+            synchronousWrites.incrementAndGet();
+            writeSynchronous(item);
+        }
+    }
+
+    protected void addDocumentsWritten(long count) {
+        documentsWritten.addAndGet(count);
+    }
+
+    protected void incrementBatchesWritten() {
+        batchesWritten.incrementAndGet();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDocumentsWritten() {
+        return documentsWritten.get();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public long getSynchronousWrites() {
+        return synchronousWrites.get();
+    }
+
+    private void runWriter() {
+
+        final List<T> batch = new ArrayList<>(maxBatchSize);
+
+        while (!shutdownRequested.get() || !queue.isEmpty()) {
+
+            try {
+                // wait for the first item in the batch, waking periodically to check for shutdown
+                final T first = queue.poll(
+                        Math.min(TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis), SHUTDOWN_POLL_NANOS),
+                        TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // collect items until the batch is full or the staleness window for the first item expires, or until
+                // shutdown is requested
+                final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    if (batch.size() >= maxBatchSize || shutdownRequested.get()) {
+                        break;
+                    }
+                    final long remainingNanos = deadlineNanos - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        break;
+                    }
+                    final T next = queue.poll(Math.min(remainingNanos, SHUTDOWN_POLL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+
+            } catch (InterruptedException e) {
+                logger.error("{} interrupted, writing {} queued items", writerName, batch.size());
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+                Thread.currentThread().interrupt();
+                return;
+
+            } catch (Exception e) {
+                logger.error("{} exception: {}", writerName, e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+
+        logger.trace("{} writer thread exiting", writerName);
+    }
+
+}
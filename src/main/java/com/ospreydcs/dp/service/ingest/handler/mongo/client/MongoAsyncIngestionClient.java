@@ -1,18 +1,28 @@
 package com.ospreydcs.dp.service.ingest.handler.mongo.client;
 
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.InsertManyResult;
 import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
 import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
 import com.ospreydcs.dp.grpc.v1.ingestion.QueryRequestStatusRequest;
 import com.ospreydcs.dp.grpc.v1.ingestion.RegisterProviderRequest;
 import com.ospreydcs.dp.service.common.bson.DpBsonDocumentBase;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
 import com.ospreydcs.dp.service.common.bson.RequestStatusDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
 import com.ospreydcs.dp.service.common.mongo.MongoAsyncClient;
 import com.ospreydcs.dp.service.common.mongo.UpdateResultWrapper;
 import com.ospreydcs.dp.service.ingest.handler.model.FindProviderResult;
+import com.ospreydcs.dp.service.ingest.model.BucketGroupInsertResult;
 import com.ospreydcs.dp.service.ingest.handler.mongo.ObservableSubscriber;
 import com.ospreydcs.dp.service.ingest.model.IngestionTaskResult;
 import org.apache.logging.log4j.LogManager;
@@ -20,7 +30,9 @@ import org.apache.logging.log4j.Logger;
 import org.reactivestreams.Publisher;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MongoAsyncIngestionClient extends MongoAsyncClient implements MongoIngestionClientInterface {
 
@@ -79,6 +91,57 @@ public class MongoAsyncIngestionClient extends MongoAsyncClient implements Mongo
         return new IngestionTaskResult(false, null, result);
     }
 
+    @Override
+    public BucketGroupInsertResult insertBucketGroup(List<BucketDocument> dataDocumentGroup) {
+
+        logger.debug("inserting group of {} bucket documents to mongo", dataDocumentGroup.size());
+
+        // set createdAt field for each document in group
+        final Instant now = Instant.now();
+        for (DpBsonDocumentBase document : dataDocumentGroup) {
+            document.setCreatedAt(now);
+        }
+
+        // invoke mongodb insertMany unordered for group, create subscriber to handle results
+        Publisher<InsertManyResult> publisher =
+                mongoCollectionBuckets.insertMany(dataDocumentGroup, new InsertManyOptions().ordered(false));
+        var subscriber = new ObservableSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        // wait for insert to complete and handle result
+        try {
+            subscriber.await();
+
+        } catch (MongoBulkWriteException ex) {
+            if (ex.getWriteConcernError() != null) {
+                String errorMsg = "MongoBulkWriteException write concern error: "
+                        + ex.getWriteConcernError().getMessage();
+                logger.error(errorMsg);
+                return new BucketGroupInsertResult(true, errorMsg, null);
+            }
+            final Map<Integer, String> writeErrors = new HashMap<>();
+            for (BulkWriteError writeError : ex.getWriteErrors()) {
+                writeErrors.put(writeError.getIndex(), writeError.getMessage());
+            }
+            logger.error("MongoBulkWriteException write errors: {}", writeErrors.size());
+            return new BucketGroupInsertResult(false, null, writeErrors);
+
+        } catch (MongoException ex) {
+            String errorMsg = "MongoException encountered: " + ex.getMessage();
+            logger.error(errorMsg);
+            return new BucketGroupInsertResult(true, errorMsg, null);
+        }
+
+        var receivedList = subscriber.getReceived();
+        if (receivedList.size() == 0) {
+            String errorMsg = "no response received from insertMany() publisher";
+            logger.error(errorMsg);
+            return new BucketGroupInsertResult(true, errorMsg, null);
+        }
+
+        return new BucketGroupInsertResult(false, null, Map.of());
+    }
+
     @Override
     public InsertOneResult insertRequestStatus(RequestStatusDocument requestStatusDocument) {
 
@@ -115,6 +178,92 @@ public class MongoAsyncIngestionClient extends MongoAsyncClient implements Mongo
         return (InsertOneResult) receivedList.get(0);
     }
 
+    @Override
+    public InsertManyResult insertRequestStatusBatch(List<RequestStatusDocument> requestStatusDocuments) {
+
+        logger.debug("inserting batch of {} RequestStatus documents to mongo", requestStatusDocuments.size());
+
+        // set createdAt field for documents that don't already have it
+        final Instant now = Instant.now();
+        for (RequestStatusDocument document : requestStatusDocuments) {
+            if (document.getCreatedAt() == null) {
+                document.setCreatedAt(now);
+            }
+        }
+
+        // invoke mongodb insertMany, create subscriber to handle results
+        Publisher<InsertManyResult> publisher = mongoCollectionRequestStatus.insertMany(
+                requestStatusDocuments, new InsertManyOptions().ordered(false));
+        var subscriber = new ObservableSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        // wait for insert to complete and handle result
+        try {
+            subscriber.await();
+
+        } catch (MongoException ex) {
+            String errorMsg = "insertRequestStatusBatch MongoException: " + ex.getMessage();
+            logger.error(errorMsg);
+            return null;
+        }
+
+        var receivedList = subscriber.getReceived();
+        if (receivedList.size() == 0) {
+            String errorMsg = "no response received from insertMany() publisher";
+            logger.error(errorMsg);
+            return null;
+        }
+
+        return (InsertManyResult) receivedList.get(0);
+    }
+
+    /**
+     * Executes an unordered bulkWrite() for the collection and waits for the result, returning null if it fails.
+     */
+    private static <TDocument> BulkWriteResult bulkWrite(
+            MongoCollection<TDocument> collection,
+            List<WriteModel<TDocument>> updates,
+            String operation
+    ) {
+        // unordered, so that one failed update doesn't block the rest
+        Publisher<BulkWriteResult> publisher = collection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        var subscriber = new ObservableSubscriber<BulkWriteResult>();
+        publisher.subscribe(subscriber);
+
+        // wait for bulkWrite to complete and handle result
+        try {
+            subscriber.await();
+
+        } catch (MongoException ex) {
+            String errorMsg = operation + " MongoException: " + ex.getMessage();
+            logger.error(errorMsg);
+            return null;
+        }
+
+        var receivedList = subscriber.getReceived();
+        if (receivedList.size() == 0) {
+            String errorMsg = "no response received from bulkWrite() publisher";
+            logger.error(errorMsg);
+            return null;
+        }
+
+        return receivedList.get(0);
+    }
+
+    @Override
+    public BulkWriteResult upsertRollups(List<RollupDocument> rollupDocuments) {
+        logger.debug("upserting batch of {} rollup documents to mongo", rollupDocuments.size());
+        return bulkWrite(
+                mongoCollectionRollups, MongoIngestionUpdates.rollupUpserts(rollupDocuments), "upsertRollups");
+    }
+
+    @Override
+    public BulkWriteResult upsertPvCatalog(List<PvCatalogDocument> catalogDocuments) {
+        logger.debug("upserting batch of {} pvCatalog documents to mongo", catalogDocuments.size());
+        return bulkWrite(
+                mongoCollectionPvCatalog, MongoIngestionUpdates.pvCatalogUpserts(catalogDocuments), "upsertPvCatalog");
+    }
+
     @Override
     public MongoCursor<RequestStatusDocument> executeQueryRequestStatus(QueryRequestStatusRequest request) {
         throw new UnsupportedOperationException("executeQueryRequestStatus method not implemented");
@@ -1,14 +1,19 @@
 package com.ospreydcs.dp.service.ingest.handler.mongo.client;
 
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.result.InsertManyResult;
 import com.mongodb.client.result.InsertOneResult;
 import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
 import com.ospreydcs.dp.grpc.v1.ingestion.QueryRequestStatusRequest;
 import com.ospreydcs.dp.grpc.v1.ingestion.RegisterProviderRequest;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
 import com.ospreydcs.dp.service.common.bson.RequestStatusDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
 import com.ospreydcs.dp.service.common.mongo.UpdateResultWrapper;
 import com.ospreydcs.dp.service.ingest.handler.model.FindProviderResult;
+import com.ospreydcs.dp.service.ingest.model.BucketGroupInsertResult;
 import com.ospreydcs.dp.service.ingest.model.IngestionTaskResult;
 
 import java.util.List;
@@ -24,8 +29,16 @@ public interface MongoIngestionClientInterface {
 
     IngestionTaskResult insertBatch(IngestDataRequest request, List<BucketDocument> dataDocumentBatch);
 
+    BucketGroupInsertResult insertBucketGroup(List<BucketDocument> dataDocumentGroup);
+
     InsertOneResult insertRequestStatus(RequestStatusDocument requestStatusDocument);
 
+    InsertManyResult insertRequestStatusBatch(List<RequestStatusDocument> requestStatusDocuments);
+
+    BulkWriteResult upsertRollups(List<RollupDocument> rollupDocuments);
+
+    BulkWriteResult upsertPvCatalog(List<PvCatalogDocument> catalogDocuments);
+
     MongoCursor<RequestStatusDocument> executeQueryRequestStatus(QueryRequestStatusRequest request);
 
 }
@@ -0,0 +1,151 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo.client;
+
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.ospreydcs.dp.service.common.bson.BsonConstants;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.eq;
+
+/**
+ * Builds the bulkWrite() upserts for the rollups and pvCatalog collections, shared by the sync and async ingestion
+ * clients so that both merge documents with the stored documents in the same way.
+ */
+public class MongoIngestionUpdates {
+
+    // constants
+    private static final String PV_CATALOG_LATER_BUCKET_FIELD = "_laterBucket";
+
+    /**
+     * Returns an upsert for each rollup document that adds its contribution to the stored document for its bin.
+     */
+    public static List<WriteModel<RollupDocument>> rollupUpserts(List<RollupDocument> rollupDocuments) {
+
+        // merge each document with the stored document for its bin, creating the stored document if needed
+        final UpdateOptions upsertOptions = new UpdateOptions().upsert(true);
+        final List<WriteModel<RollupDocument>> updates = new ArrayList<>(rollupDocuments.size());
+        for (RollupDocument document : rollupDocuments) {
+            final Bson update = Updates.combine(
+                    Updates.setOnInsert(BsonConstants.BSON_KEY_PV_NAME, document.getPvName()),
+                    Updates.setOnInsert(
+                            BsonConstants.BSON_KEY_ROLLUP_RESOLUTION_SECONDS, document.getResolutionSeconds()),
+                    Updates.setOnInsert(
+                            BsonConstants.BSON_KEY_ROLLUP_BIN_START_SECONDS, document.getBinStartSeconds()),
+                    Updates.inc(BsonConstants.BSON_KEY_ROLLUP_COUNT, document.getCount()),
+                    Updates.inc(BsonConstants.BSON_KEY_ROLLUP_SUM, document.getSum()),
+                    Updates.min(BsonConstants.BSON_KEY_ROLLUP_MIN, document.getMin()),
+                    Updates.max(BsonConstants.BSON_KEY_ROLLUP_MAX, document.getMax()));
+            updates.add(new UpdateOneModel<>(
+                    eq(BsonConstants.BSON_KEY_ROLLUP_ID, document.getId()), update, upsertOptions));
+        }
+        return updates;
+    }
+
+    /**
+     * Returns an aggregation expression that evaluates to the specified value if the entry's last bucket is being
+     * replaced, otherwise to the stored value of the field.
+     */
+    private static Document lastBucketValue(String fieldName, Object value) {
+        return new Document("$cond", Arrays.asList(
+                "$" + PV_CATALOG_LATER_BUCKET_FIELD, new Document("$literal", value), "$" + fieldName));
+    }
+
+    /**
+     * Returns an upsert for each catalog entry that merges it with the stored entry for its PV and provider.
+     */
+    public static List<WriteModel<PvCatalogDocument>> pvCatalogUpserts(List<PvCatalogDocument> catalogDocuments) {
+
+        // Merge each entry with the stored entry for its PV and provider, creating the stored entry if needed.  Uses
+        // an update pipeline so that the "last" fields are replaced only if the entry's last bucket starts no earlier
+        // than the stored entry's, since buckets are not necessarily ingested in time order.
+        final UpdateOptions upsertOptions = new UpdateOptions().upsert(true);
+        final List<WriteModel<PvCatalogDocument>> updates = new ArrayList<>(catalogDocuments.size());
+        for (PvCatalogDocument document : catalogDocuments) {
+            final List<Bson> pipeline = Arrays.asList(
+                    Aggregates.set(new Field<>(
+                            PV_CATALOG_LATER_BUCKET_FIELD,
+                            new Document("$gte", Arrays.asList(
+                                    new Document("$literal", document.getLastBucketFirstTimestamp()),
+                                    "$" + BsonConstants.BSON_KEY_PV_CATALOG_LAST_BUCKET_FIRST_TIMESTAMP)))),
+                    Aggregates.set(
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_PV_NAME,
+                                    new Document("$literal", document.getPvName())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_ID,
+                                    new Document("$literal", document.getProviderId())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_NUM_BUCKETS,
+                                    new Document("$add", Arrays.asList(
+                                            new Document("$ifNull", Arrays.asList(
+                                                    "$" + BsonConstants.BSON_KEY_PV_METADATA_NUM_BUCKETS, 0)),
+                                            document.getNumBuckets()))),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_FIRST_DATA_TIMESTAMP,
+                                    new Document("$min", Arrays.asList(
+                                            new Document("$literal", document.getFirstDataTimestamp()),
+                                            "$" + BsonConstants.BSON_KEY_PV_METADATA_FIRST_DATA_TIMESTAMP))),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_NAME,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_NAME,
+                                            document.getProviderName())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_ID,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_ID,
+                                            document.getLastBucketId())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TYPE,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TYPE,
+                                            document.getLastBucketDataType())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_CASE,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_CASE,
+                                            document.getLastBucketDataTimestampsCase())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_TYPE,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_TYPE,
+                                            document.getLastBucketDataTimestampsType())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_COUNT,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_COUNT,
+                                            document.getLastBucketSampleCount())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_PERIOD,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_PERIOD,
+                                            document.getLastBucketSamplePeriod())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_CATALOG_LAST_BUCKET_FIRST_TIMESTAMP,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_CATALOG_LAST_BUCKET_FIRST_TIMESTAMP,
+                                            document.getLastBucketFirstTimestamp())),
+                            new Field<>(
+                                    BsonConstants.BSON_KEY_PV_METADATA_LAST_DATA_TIMESTAMP,
+                                    lastBucketValue(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_DATA_TIMESTAMP,
+                                            document.getLastDataTimestamp()))),
+                    Aggregates.unset(PV_CATALOG_LATER_BUCKET_FIELD));
+            updates.add(new UpdateOneModel<>(
+                    eq(BsonConstants.BSON_KEY_PV_CATALOG_ID, document.getId()), pipeline, upsertOptions));
+        }
+        return updates;
+    }
+
+}
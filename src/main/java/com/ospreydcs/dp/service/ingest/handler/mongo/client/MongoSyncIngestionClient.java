@@ -1,10 +1,20 @@
 package com.ospreydcs.dp.service.ingest.handler.mongo.client;
 
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.MergeOptions;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.InsertManyResult;
 import com.mongodb.client.result.InsertOneResult;
 import com.mongodb.client.result.UpdateResult;
@@ -17,22 +27,29 @@ import com.ospreydcs.dp.service.common.bson.BsonConstants;
 import com.ospreydcs.dp.service.common.bson.DpBsonDocumentBase;
 import com.ospreydcs.dp.service.common.bson.ProviderDocument;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
 import com.ospreydcs.dp.service.common.bson.RequestStatusDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
 import com.ospreydcs.dp.service.common.protobuf.AttributesUtility;
 import com.ospreydcs.dp.service.common.protobuf.TimestampUtility;
 import com.ospreydcs.dp.service.common.mongo.MongoSyncClient;
 import com.ospreydcs.dp.service.common.mongo.UpdateResultWrapper;
 import com.ospreydcs.dp.service.ingest.handler.model.FindProviderResult;
+import com.ospreydcs.dp.service.ingest.model.BucketGroupInsertResult;
 import com.ospreydcs.dp.service.ingest.model.IngestionTaskResult;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
@@ -42,6 +59,46 @@ public class MongoSyncIngestionClient extends MongoSyncClient implements MongoIn
 
     private static final Logger logger = LogManager.getLogger();
 
+    // configuration
+    public static final String CFG_KEY_PROVIDER_CACHE_ENABLED = "IngestionHandler.ProviderCache.enabled";
+    public static final boolean DEFAULT_PROVIDER_CACHE_ENABLED = true;
+    public static final String CFG_KEY_PROVIDER_CACHE_MAX_ENTRIES = "IngestionHandler.ProviderCache.maxEntries";
+    public static final int DEFAULT_PROVIDER_CACHE_MAX_ENTRIES = 1000;
+    public static final String CFG_KEY_PROVIDER_CACHE_TTL_SECONDS = "IngestionHandler.ProviderCache.ttlSeconds";
+    public static final long DEFAULT_PROVIDER_CACHE_TTL_SECONDS = 300L;
+
+    // instance variables
+    private final ProviderIdCache providerIdCache = newProviderIdCache();
+
+    private static ProviderIdCache newProviderIdCache() {
+        if ( ! configMgr().getConfigBoolean(CFG_KEY_PROVIDER_CACHE_ENABLED, DEFAULT_PROVIDER_CACHE_ENABLED)) {
+            return null;
+        }
+        final int maxEntries = configMgr().getConfigInteger(
+                CFG_KEY_PROVIDER_CACHE_MAX_ENTRIES, DEFAULT_PROVIDER_CACHE_MAX_ENTRIES);
+        final long ttlSeconds = configMgr().getConfigLong(
+                CFG_KEY_PROVIDER_CACHE_TTL_SECONDS, DEFAULT_PROVIDER_CACHE_TTL_SECONDS);
+        logger.info("provider cache enabled maxEntries: {} ttlSeconds: {}", maxEntries, ttlSeconds);
+        return new ProviderIdCache(maxEntries, ttlSeconds * 1_000_000_000L);
+    }
+
+    public ProviderIdCache getProviderIdCache() {
+        return providerIdCache;
+    }
+
+    @Override
+    public boolean fini() {
+        if (providerIdCache != null) {
+            logger.info(
+                    "provider cache stats hits: {} misses: {} evictions: {} size: {}",
+                    providerIdCache.getHitCount(),
+                    providerIdCache.getMissCount(),
+                    providerIdCache.getEvictionCount(),
+                    providerIdCache.size());
+        }
+        return super.fini();
+    }
+
     @Override
     public UpdateResultWrapper upsertProvider(RegisterProviderRequest request) {
 
@@ -69,6 +126,7 @@ public class MongoSyncIngestionClient extends MongoSyncClient implements MongoIn
 
         try {
             UpdateResult updateResult = mongoCollectionProviders.updateOne(filter, updates, options);
+            invalidateProviderCache(request.getProviderName(), updateResult);
             return new UpdateResultWrapper(updateResult);
         } catch (MongoException e) {
             logger.error(e);
@@ -76,6 +134,16 @@ public class MongoSyncIngestionClient extends MongoSyncClient implements MongoIn
         }
     }
 
+    private void invalidateProviderCache(String providerName, UpdateResult updateResult) {
+        if (providerIdCache == null) {
+            return;
+        }
+        providerIdCache.invalidateProviderName(providerName);
+        if (updateResult.getUpsertedId() != null) {
+            providerIdCache.invalidateProviderId(updateResult.getUpsertedId().asObjectId().getValue().toString());
+        }
+    }
+
     @Override
     public FindProviderResult findProvider(String providerName) {
 
@@ -103,6 +171,14 @@ public class MongoSyncIngestionClient extends MongoSyncClient implements MongoIn
     @Override
     public String providerNameForId(String providerId) {
 
+        // check provider cache before going to the database
+        if (providerIdCache != null) {
+            final String cachedProviderName = providerIdCache.get(providerId);
+            if (cachedProviderName != null) {
+                return cachedProviderName;
+            }
+        }
+
         List<ProviderDocument> matchingDocuments = new ArrayList<>();
 
         // wrap this in a try/catch because otherwise we take out the thread if mongo throws an exception
@@ -118,7 +194,11 @@ public class MongoSyncIngestionClient extends MongoSyncClient implements MongoIn
         if (matchingDocuments.isEmpty()) {
             return null;
         } else {
-            return matchingDocuments.get(0).getName();
+            final String providerName = matchingDocuments.get(0).getName();
+            if (providerIdCache != null) {
+                providerIdCache.put(providerId, providerName);
+            }
+            return providerName;
         }
     }
 
@@ -150,6 +230,48 @@ public class MongoSyncIngestionClient extends MongoSyncClient implements MongoIn
         return new IngestionTaskResult(false, null, result);
     }
 
+    @Override
+    public BucketGroupInsertResult insertBucketGroup(List<BucketDocument> dataDocumentGroup) {
+
+        logger.debug("inserting group of {} bucket documents to mongo", dataDocumentGroup.size());
+
+        // set createdAt time field for each document
+        final Instant now = Instant.now();
+        for (DpBsonDocumentBase document : dataDocumentGroup) {
+            document.setCreatedAt(now);
+        }
+
+        // insert group unordered, so that a failed document doesn't prevent inserting documents for other requests
+        try {
+            final InsertManyResult result =
+                    mongoCollectionBuckets.insertMany(dataDocumentGroup, new InsertManyOptions().ordered(false));
+            if (!result.wasAcknowledged()) {
+                return new BucketGroupInsertResult(true, "insertMany result not acknowledged", null);
+            }
+        } catch (MongoBulkWriteException ex) {
+            // individual documents failed, report errors by index in group
+            if (ex.getWriteConcernError() != null) {
+                final String errorMsg = "MongoBulkWriteException in insertMany write concern error: "
+                        + ex.getWriteConcernError().getMessage();
+                logger.error(errorMsg);
+                return new BucketGroupInsertResult(true, errorMsg, null);
+            }
+            final Map<Integer, String> writeErrors = new HashMap<>();
+            for (BulkWriteError writeError : ex.getWriteErrors()) {
+                writeErrors.put(writeError.getIndex(), writeError.getMessage());
+            }
+            logger.error("MongoBulkWriteException in insertMany write errors: {}", writeErrors.size());
+            return new BucketGroupInsertResult(false, null, writeErrors);
+        } catch (MongoException ex) {
+            // insertMany exception
+            final String errorMsg = "MongoException in insertMany: " + ex.getMessage();
+            logger.error(errorMsg);
+            return new BucketGroupInsertResult(true, errorMsg, null);
+        }
+
+        return new BucketGroupInsertResult(false, null, Map.of());
+    }
+
     @Override
     public InsertOneResult insertRequestStatus(RequestStatusDocument requestStatusDocument) {
 
@@ -173,6 +295,174 @@ public class MongoSyncIngestionClient extends MongoSyncClient implements MongoIn
         return result;
     }
 
+    @Override
+    public InsertManyResult insertRequestStatusBatch(List<RequestStatusDocument> requestStatusDocuments) {
+
+        logger.debug("inserting batch of {} RequestStatus documents to mongo", requestStatusDocuments.size());
+
+        // set createdAt time field for documents that don't already have it
+        final Instant now = Instant.now();
+        for (RequestStatusDocument document : requestStatusDocuments) {
+            if (document.getCreatedAt() == null) {
+                document.setCreatedAt(now);
+            }
+        }
+
+        // insert batch of RequestStatusDocuments to mongodb, unordered so that one failure doesn't block the rest
+        InsertManyResult result = null;
+        try {
+            result = mongoCollectionRequestStatus.insertMany(
+                    requestStatusDocuments, new InsertManyOptions().ordered(false));
+        } catch (MongoException ex) {
+            // insertMany exception
+            final String errorMsg = "insertRequestStatusBatch MongoException: " + ex.getMessage();
+            logger.error(errorMsg);
+            return null;
+        }
+        return result;
+    }
+
+    @Override
+    public BulkWriteResult upsertRollups(List<RollupDocument> rollupDocuments) {
+
+        logger.debug("upserting batch of {} rollup documents to mongo", rollupDocuments.size());
+
+        final List<WriteModel<RollupDocument>> updates = MongoIngestionUpdates.rollupUpserts(rollupDocuments);
+
+        // unordered, so that one failed update doesn't block the rest
+        BulkWriteResult result = null;
+        try {
+            result = mongoCollectionRollups.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (MongoException ex) {
+            final String errorMsg = "upsertRollups MongoException: " + ex.getMessage();
+            logger.error(errorMsg);
+            return null;
+        }
+        return result;
+    }
+
+    @Override
+    public BulkWriteResult upsertPvCatalog(List<PvCatalogDocument> catalogDocuments) {
+
+        logger.debug("upserting batch of {} pvCatalog documents to mongo", catalogDocuments.size());
+
+        final List<WriteModel<PvCatalogDocument>> updates = MongoIngestionUpdates.pvCatalogUpserts(catalogDocuments);
+
+        // unordered, so that one failed update doesn't block the rest
+        BulkWriteResult result = null;
+        try {
+            result = mongoCollectionPvCatalog.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (MongoException ex) {
+            final String errorMsg = "upsertPvCatalog MongoException: " + ex.getMessage();
+            logger.error(errorMsg);
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the contents of the pvCatalog collection with entries aggregated from the buckets collection.  Used
+     * by the PvCatalogRebuilder command, so it is not part of MongoIngestionClientInterface.
+     */
+    public boolean rebuildPvCatalog() {
+
+        logger.info("rebuilding pvCatalog collection from buckets collection");
+
+        // NOTE: PROJECTION MUST INCLUDE KEYS FOR ALL FIELDS USED IN SORTING and GROUPING!!!
+        // If not the values will silently be null and lead to unexpected results!!
+        final Bson bucketFieldProjection = Projections.fields(Projections.include(
+                BsonConstants.BSON_KEY_PV_NAME,
+                BsonConstants.BSON_KEY_BUCKET_ID,
+                BsonConstants.BSON_KEY_BUCKET_DATA_TYPE,
+                BsonConstants.BSON_KEY_BUCKET_DATA_TIMESTAMPS_CASE,
+                BsonConstants.BSON_KEY_BUCKET_DATA_TIMESTAMPS_TYPE,
+                BsonConstants.BSON_KEY_BUCKET_FIRST_TIME,
+                BsonConstants.BSON_KEY_BUCKET_FIRST_TIME_SECS,
+                BsonConstants.BSON_KEY_BUCKET_FIRST_TIME_NANOS,
+                BsonConstants.BSON_KEY_BUCKET_LAST_TIME,
+                BsonConstants.BSON_KEY_BUCKET_SAMPLE_COUNT,
+                BsonConstants.BSON_KEY_BUCKET_SAMPLE_PERIOD,
+                BsonConstants.BSON_KEY_BUCKET_PROVIDER_ID,
+                BsonConstants.BSON_KEY_BUCKET_PROVIDER_NAME
+        ));
+
+        // Sort fields must appear in projection.
+        final Bson bucketSort = ascending(
+                BsonConstants.BSON_KEY_PV_NAME,
+                BsonConstants.BSON_KEY_BUCKET_FIRST_TIME_SECS,
+                BsonConstants.BSON_KEY_BUCKET_FIRST_TIME_NANOS);
+
+        // group id matches PvCatalogDocument.catalogId()
+        final Document catalogId = new Document("$concat", Arrays.asList(
+                "$" + BsonConstants.BSON_KEY_PV_NAME, "-", "$" + BsonConstants.BSON_KEY_BUCKET_PROVIDER_ID));
+
+        try {
+            mongoCollectionPvCatalog.deleteMany(new Document());
+
+            mongoCollectionBuckets.aggregate(
+                    Arrays.asList(
+                            Aggregates.project(bucketFieldProjection),
+                            Aggregates.sort(bucketSort), // sort buckets so that records are ordered for group operator
+                            Aggregates.group(
+                                    catalogId,
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_PV_NAME,
+                                            "$" + BsonConstants.BSON_KEY_PV_NAME),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_ID,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_PROVIDER_ID),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_NAME,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_PROVIDER_NAME),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_ID,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_ID),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TYPE,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_DATA_TYPE),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_CASE,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_DATA_TIMESTAMPS_CASE),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_TYPE,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_DATA_TIMESTAMPS_TYPE),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_COUNT,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_SAMPLE_COUNT),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_PERIOD,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_SAMPLE_PERIOD),
+                                    Accumulators.first(
+                                            BsonConstants.BSON_KEY_PV_METADATA_FIRST_DATA_TIMESTAMP,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_FIRST_TIME),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_CATALOG_LAST_BUCKET_FIRST_TIMESTAMP,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_FIRST_TIME),
+                                    Accumulators.last(
+                                            BsonConstants.BSON_KEY_PV_METADATA_LAST_DATA_TIMESTAMP,
+                                            "$" + BsonConstants.BSON_KEY_BUCKET_LAST_TIME),
+                                    Accumulators.sum(
+                                            BsonConstants.BSON_KEY_PV_METADATA_NUM_BUCKETS,
+                                            1)
+                            ),
+                            Aggregates.merge(
+                                    getCollectionNamePvCatalog(),
+                                    new MergeOptions()
+                                            .whenMatched(MergeOptions.WhenMatched.REPLACE)
+                                            .whenNotMatched(MergeOptions.WhenNotMatched.INSERT))
+                    ))
+                    .allowDiskUse(true)
+                    .toCollection();
+
+        } catch (MongoException ex) {
+            logger.error("rebuildPvCatalog MongoException: {}", ex.getMessage());
+            return false;
+        }
+
+        logger.info("rebuilt pvCatalog collection with {} entries", mongoCollectionPvCatalog.countDocuments());
+        return true;
+    }
+
     @Override
     public MongoCursor<RequestStatusDocument> executeQueryRequestStatus(QueryRequestStatusRequest request) {
 
@@ -0,0 +1,160 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo.client;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class provides an in-process cache mapping providerId to providerName, used by the ingestion client to avoid a
+ * database lookup in the providers collection for every ingestion request.  The cache is bounded by maxEntries, with
+ * least recently used entries evicted first, and each entry expires after ttlNanos so that changes made to the
+ * providers collection outside of this process are eventually picked up.  Only successful lookups are cached, so an
+ * unknown providerId always results in a database lookup.
+ *
+ * Entries are invalidated by the ingestion client when a provider is registered via upsertProvider().  A reverse index
+ * from providerName to the cached providerIds is maintained alongside the entries, so that invalidating a providerName
+ * doesn't scan the cache.  Hit, miss, and eviction counters are maintained for monitoring cache effectiveness.
+ */
+public class ProviderIdCache {
+
+    private static class CacheEntry {
+
+        private final String providerName;
+        private final long expirationNanos;
+
+        private CacheEntry(String providerName, long expirationNanos) {
+            this.providerName = providerName;
+            this.expirationNanos = expirationNanos;
+        }
+    }
+
+    // instance variables
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, CacheEntry> entries;
+    private final Map<String, Set<String>> providerIdsByName = new HashMap<>();
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong evictionCount = new AtomicLong(0);
+
+    public ProviderIdCache(int maxEntries, long ttlNanos) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+
+        // access-ordered map so that removeEldestEntry() evicts the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > ProviderIdCache.this.maxEntries) {
+                    evictionCount.incrementAndGet();
+                    removeFromNameIndex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached providerName for the specified providerId, or null if there is no entry or the entry has
+     * expired.  Updates hit / miss counters.
+     */
+    public synchronized String get(String providerId) {
+        final CacheEntry entry = entries.get(providerId);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (System.nanoTime() - entry.expirationNanos >= 0) {
+            removeEntry(providerId);
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.providerName;
+    }
+
+    public synchronized void put(String providerId, String providerName) {
+        if (providerId == null || providerName == null) {
+            return;
+        }
+        final CacheEntry previousEntry = entries.put(
+                providerId, new CacheEntry(providerName, System.nanoTime() + ttlNanos));
+        if (previousEntry != null) {
+            removeFromNameIndex(providerId, previousEntry);
+        }
+        providerIdsByName.computeIfAbsent(providerName, k -> new HashSet<>()).add(providerId);
+    }
+
+    public synchronized void invalidateProviderId(String providerId) {
+        removeEntry(providerId);
+    }
+
+    /**
+     * Removes all entries mapping to the specified providerName, using the reverse index to find them.  Used when a
+     * provider is registered, since the registerProvider() API identifies the provider by name and we don't know its
+     * id without a database lookup.
+     */
+    public synchronized void invalidateProviderName(String providerName) {
+        final Set<String> providerIds = providerIdsByName.remove(providerName);
+        if (providerIds == null) {
+            return;
+        }
+        for (String providerId : providerIds) {
+            entries.remove(providerId);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        providerIdsByName.clear();
+    }
+
+    private void removeEntry(String providerId) {
+        final CacheEntry entry = entries.remove(providerId);
+        if (entry != null) {
+            removeFromNameIndex(providerId, entry);
+        }
+    }
+
+    private void removeFromNameIndex(String providerId, CacheEntry entry) {
+        final Set<String> providerIds = providerIdsByName.get(entry.providerName);
+        if (providerIds != null) {
+            providerIds.remove(providerId);
+            if (providerIds.isEmpty()) {
+                providerIdsByName.remove(entry.providerName);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct providerNames in the reverse index, which always matches the cached entries.
+     */
+    public synchronized int nameIndexSize() {
+        return providerIdsByName.size();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+}
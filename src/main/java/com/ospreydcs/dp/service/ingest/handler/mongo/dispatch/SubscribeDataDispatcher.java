@@ -1,34 +1,33 @@
 package com.ospreydcs.dp.service.ingest.handler.mongo.dispatch;
 
 import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataRequest;
-import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
-import com.ospreydcs.dp.service.ingest.service.IngestionServiceImpl;
-import io.grpc.stub.StreamObserver;
+import com.ospreydcs.dp.service.ingest.model.SourceMonitor;
 
 public class SubscribeDataDispatcher {
     
     // instance variables
     private final SubscribeDataRequest request;
-    private final StreamObserver<SubscribeDataResponse> responseObserver;
+    private final SourceMonitor monitor;
 
     public SubscribeDataDispatcher(
-            StreamObserver<SubscribeDataResponse> responseObserver,
+            SourceMonitor monitor,
             SubscribeDataRequest request
     ) {
-        this.responseObserver = responseObserver;
+        // send responses via the SourceMonitor so they are serialized with published data
+        this.monitor = monitor;
         this.request = request;
     }
 
     public void sendReject(String errorMsg) {
-        IngestionServiceImpl.sendSubscribeDataResponseReject(errorMsg, responseObserver);
+        monitor.handleReject(errorMsg);
     }
 
     public void sendError(String errorMsg) {
-        IngestionServiceImpl.sendSubscribeDataResponseError(errorMsg, responseObserver);
+        monitor.handleError(errorMsg);
     }
 
     public void sendAck() {
-        IngestionServiceImpl.sendSubscribeDataResponseAck(responseObserver);
+        monitor.handleAck();
     }
 
 }
@@ -10,7 +10,12 @@ import com.ospreydcs.dp.service.common.handler.HandlerJob;
 import com.ospreydcs.dp.service.ingest.handler.model.HandlerIngestionRequest;
 import com.ospreydcs.dp.service.ingest.handler.model.HandlerIngestionResult;
 import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import com.ospreydcs.dp.service.ingest.handler.mongo.BucketGroupCommitWriter;
 import com.ospreydcs.dp.service.ingest.handler.mongo.MongoIngestionHandler;
+import com.ospreydcs.dp.service.ingest.handler.mongo.PvCatalogWriter;
+import com.ospreydcs.dp.service.ingest.handler.mongo.PvNameIndex;
+import com.ospreydcs.dp.service.ingest.handler.mongo.RequestStatusWriter;
+import com.ospreydcs.dp.service.ingest.handler.mongo.RollupWriter;
 import com.ospreydcs.dp.service.ingest.model.IngestionRequestStatus;
 import com.ospreydcs.dp.service.ingest.model.IngestionTaskResult;
 import org.apache.logging.log4j.LogManager;
@@ -51,7 +56,11 @@ public class IngestDataJob extends HandlerJob {
      * Handles an IngestDataRequest received by one of the data ingestion API methods.  Checks that specified providerId
      * is valid by database lookup. Generates a batch of BSON BucketDocuments, one for each data column in the request.
      * Inserts the batch of documents to MongoDB, and verifies handling. Inserts a RequestStatusDocument in MongoDB for
-     * checking the status of the request asynchronously.  Publishes data columns for subscribed PVs.
+     * checking the status of the request asynchronously, either directly or via the handler's RequestStatusWriter if
+     * write-behind is enabled.  Adds the inserted buckets to the handler's PvCatalogWriter, if enabled, to update the
+     * pvCatalog collection, and the request's PV names to the handler's PvNameIndex, if enabled.  Adds the request to
+     * the handler's RollupWriter, if enabled, to update the rollup tiers for the request's numeric columns.  Publishes
+     * data columns for subscribed PVs.
      *
      * @param handlerIngestionRequest
      * @return
@@ -89,7 +98,8 @@ public class IngestDataJob extends HandlerJob {
                 // generate batch of bucket documents for request
                 List<BucketDocument> dataDocumentBatch = null;
                 try {
-                    dataDocumentBatch = BucketDocument.generateBucketsFromRequest(request, providerName);
+                    dataDocumentBatch = BucketDocument.generateBucketsFromRequest(
+                            request, providerName, handler.getPackScalarColumns());
                 } catch (DpException e) {
                     isError = true;
                     errorMsg = e.getMessage();
@@ -97,9 +107,11 @@ public class IngestDataJob extends HandlerJob {
                 }
 
                 if (dataDocumentBatch != null) {
-                    // add the batch to mongo and handle result
-                    IngestionTaskResult ingestionTaskResult =
-                            mongoClient.insertBatch(request, dataDocumentBatch);
+                    // add the batch to mongo (directly or via group commit with other requests) and handle result
+                    final BucketGroupCommitWriter groupCommitWriter = handler.getBucketGroupCommitWriter();
+                    IngestionTaskResult ingestionTaskResult = (groupCommitWriter != null)
+                            ? groupCommitWriter.insertBatch(request, dataDocumentBatch)
+                            : mongoClient.insertBatch(request, dataDocumentBatch);
 
                     if (ingestionTaskResult.isError) {
                         isError = true;
@@ -133,6 +145,20 @@ public class IngestDataJob extends HandlerJob {
                                 for (var entry : insertManyResult.getInsertedIds().entrySet()) {
                                     idsCreated.add(entry.getValue().asString().getValue());
                                 }
+
+                                // update PV catalog for inserted buckets
+                                final PvCatalogWriter pvCatalogWriter = handler.getPvCatalogWriter();
+                                if (pvCatalogWriter != null) {
+                                    pvCatalogWriter.addBuckets(dataDocumentBatch);
+                                }
+
+                                // add ingested PVs to index used for subscribeData() validation
+                                final PvNameIndex pvNameIndex = handler.getPvNameIndex();
+                                if (pvNameIndex != null) {
+                                    for (BucketDocument bucket : dataDocumentBatch) {
+                                        pvNameIndex.addPvName(bucket.getPvName());
+                                    }
+                                }
                             }
                         }
                     }
@@ -156,17 +182,29 @@ public class IngestDataJob extends HandlerJob {
                 status,
                 errorMsg,
                 idsCreated);
-        InsertOneResult insertRequestStatusResult = mongoClient.insertRequestStatus(statusDocument);
-        if (insertRequestStatusResult == null) {
-            logger.error("error inserting request status");
+        final RequestStatusWriter requestStatusWriter = handler.getRequestStatusWriter();
+        if (requestStatusWriter != null) {
+            // hand off to write-behind stage, inserted in batch with status for other requests
+            requestStatusWriter.addRequestStatus(statusDocument);
         } else {
-            if (!insertRequestStatusResult.wasAcknowledged()) {
-                logger.error("insertOne not acknowledged inserting request status");
+            InsertOneResult insertRequestStatusResult = mongoClient.insertRequestStatus(statusDocument);
+            if (insertRequestStatusResult == null) {
+                logger.error("error inserting request status");
             } else {
-                logger.debug("inserted request status id:" + insertRequestStatusResult.getInsertedId());
+                if (!insertRequestStatusResult.wasAcknowledged()) {
+                    logger.error("insertOne not acknowledged inserting request status");
+                } else {
+                    logger.debug("inserted request status id:" + insertRequestStatusResult.getInsertedId());
+                }
             }
         }
 
+        // update rollup tiers for request data
+        final RollupWriter rollupWriter = handler.getRollupWriter();
+        if (! isError && rollupWriter != null) {
+            rollupWriter.addRequest(request);
+        }
+
         // publish request PV data to subscribeData() subscribers
         if (! isError) {
             handler.getSourceMonitorPublisher().publishDataSubscriptions(request, providerName);
@@ -6,6 +6,8 @@ import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
 import com.ospreydcs.dp.service.common.bson.PvMetadataQueryResultDocument;
 import com.ospreydcs.dp.service.common.config.ConfigurationManager;
 import com.ospreydcs.dp.service.common.handler.HandlerJob;
+import com.ospreydcs.dp.service.common.mongo.MongoClientBase;
+import com.ospreydcs.dp.service.ingest.handler.mongo.PvNameIndex;
 import com.ospreydcs.dp.service.ingest.handler.mongo.SourceMonitorManager;
 import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
 import com.ospreydcs.dp.service.ingest.handler.mongo.dispatch.SubscribeDataDispatcher;
@@ -30,6 +32,7 @@ public class SubscribeDataJob extends HandlerJob {
     private final SourceMonitorManager manager;
     private final MongoIngestionClientInterface mongoIngestionClient;
     private final MongoQueryClientInterface mongoQueryClient;
+    private final PvNameIndex pvNameIndex;
     private final SubscribeDataDispatcher dispatcher;
 
     // configuration constants
@@ -42,7 +45,8 @@ public class SubscribeDataJob extends HandlerJob {
             SourceMonitor monitor,
             SourceMonitorManager manager,
             MongoIngestionClientInterface mongoIngestionClient,
-            MongoQueryClientInterface mongoQueryClient
+            MongoQueryClientInterface mongoQueryClient,
+            PvNameIndex pvNameIndex
     ) {
         this.request = request;
         this.responseObserver = responseObserver;
@@ -50,7 +54,8 @@ public class SubscribeDataJob extends HandlerJob {
         this.manager = manager;
         this.mongoIngestionClient = mongoIngestionClient;
         this.mongoQueryClient = mongoQueryClient;
-        this.dispatcher = new SubscribeDataDispatcher(responseObserver, request);
+        this.pvNameIndex = pvNameIndex;
+        this.dispatcher = new SubscribeDataDispatcher(monitor, request);
     }
 
     protected static ConfigurationManager configMgr() {
@@ -61,31 +66,70 @@ public class SubscribeDataJob extends HandlerJob {
         return configMgr().getConfigBoolean(CFG_KEY_VALIDATE_PVS, DEFAULT_VALIDATE_PVS);
     }
 
+    protected boolean getConfigPvCatalogEnabled() {
+        return MongoClientBase.getPvCatalogEnabled();
+    }
+
     @Override
     public void execute() {
         
         logger.debug("executing SubscribeDataJob id: {}", this.responseObserver.hashCode());
 
         if (getConfigValidatePvs()) {
-            // validate that request PVs exist in archive
-            final Set<String> uniquePvNames = new HashSet<>(request.getNewSubscription().getPvNamesList());
-            final MongoCursor<PvMetadataQueryResultDocument> pvMetadata = mongoQueryClient.executeQueryPvStats(uniquePvNames);
-
-            // check for error executing mongo query
-            if (pvMetadata == null) {
-                final String errorMsg = "database error looking up metadata for PV names: " + uniquePvNames.toString();
-                logger.debug(errorMsg + " sending error response id: " + this.responseObserver.hashCode());
-                dispatcher.sendError(errorMsg);
-                return;
+            // validate that request PVs exist in archive, checking the in-memory index first if enabled
+            Set<String> uniquePvNames = new HashSet<>(request.getNewSubscription().getPvNamesList());
+            if (pvNameIndex != null) {
+                uniquePvNames = pvNameIndex.unknownPvNames(uniquePvNames);
+                if (uniquePvNames.isEmpty()) {
+                    // all PVs found in index
+                    dispatcher.sendAck();
+                    return;
+                }
+            }
+
+            // query database for PVs not found in index
+            try (MongoCursor<PvMetadataQueryResultDocument> pvMetadata =
+                         mongoQueryClient.executeQueryPvStats(uniquePvNames)) {
+
+                // check for error executing mongo query
+                if (pvMetadata == null) {
+                    final String errorMsg = "database error looking up metadata for PV names: " + uniquePvNames;
+                    logger.debug(errorMsg + " sending error response id: " + this.responseObserver.hashCode());
+                    dispatcher.sendError(errorMsg);
+                    return;
+                }
+
+                // check that metadata is returned for each pv (try to remove each metadata from the set,
+                // and make sure set ends up empty)
+                while (pvMetadata.hasNext()) {
+                    final PvMetadataQueryResultDocument pvMetadataDocument = pvMetadata.next();
+                    final String pvName = pvMetadataDocument.getPvName();
+                    if (pvName != null) {
+                        uniquePvNames.remove(pvName);
+                        if (pvNameIndex != null) {
+                            pvNameIndex.addPvName(pvName);
+                        }
+                    }
+                }
             }
 
-            // check that metadata is returned for each pv (try to remove each metadata from the set,
-            // and make sure set ends up empty)
-            while (pvMetadata.hasNext()) {
-                final PvMetadataQueryResultDocument pvMetadataDocument = pvMetadata.next();
-                final String pvName = pvMetadataDocument.getPvName();
-                if (pvName != null) {
-                    uniquePvNames.remove(pvName);
+            // the pvCatalog collection lags ingestion by the PvCatalogWriter staleness window, so check the buckets
+            // collection for PVs that were ingested for the first time but aren't yet in the catalog
+            if (!uniquePvNames.isEmpty() && getConfigPvCatalogEnabled()) {
+                try (MongoCursor<String> bucketPvNames = mongoQueryClient.executeQueryBucketPvNames(uniquePvNames)) {
+                    if (bucketPvNames == null) {
+                        final String errorMsg = "database error looking up buckets for PV names: " + uniquePvNames;
+                        logger.debug(errorMsg + " sending error response id: " + this.responseObserver.hashCode());
+                        dispatcher.sendError(errorMsg);
+                        return;
+                    }
+                    while (bucketPvNames.hasNext()) {
+                        final String pvName = bucketPvNames.next();
+                        uniquePvNames.remove(pvName);
+                        if (pvNameIndex != null) {
+                            pvNameIndex.addPvName(pvName);
+                        }
+                    }
                 }
             }
 
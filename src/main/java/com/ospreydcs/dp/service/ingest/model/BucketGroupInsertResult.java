@@ -0,0 +1,22 @@
+package com.ospreydcs.dp.service.ingest.model;
+
+import java.util.Map;
+
+/**
+ * Result of an unordered insert of a group of BucketDocuments that may span multiple ingestion requests.  If isError
+ * is set, the insert failed as a whole.  Otherwise, writeErrors contains an entry for each document in the group that
+ * was not inserted, keyed by the document's index in the group, and all other documents were inserted.
+ */
+public class BucketGroupInsertResult {
+
+    public final boolean isError;
+    public final String msg;
+    public final Map<Integer, String> writeErrors;
+
+    public BucketGroupInsertResult(boolean isError, String msg, Map<Integer, String> writeErrors) {
+        this.isError = isError;
+        this.msg = msg;
+        this.writeErrors = writeErrors;
+    }
+
+}
@@ -1,19 +1,25 @@
 package com.ospreydcs.dp.service.ingest.model;
 
+import com.google.protobuf.ByteString;
 import com.ospreydcs.dp.grpc.v1.common.*;
 import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
 import com.ospreydcs.dp.service.ingest.handler.interfaces.IngestionHandlerInterface;
 import com.ospreydcs.dp.service.ingest.service.IngestionServiceImpl;
-import com.ospreydcs.dp.service.ingestionstream.service.IngestionStreamServiceImpl;
 import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class handles an individual subscription made via the subscribeData() API method.  The PV names for the
@@ -21,41 +27,365 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * Methods are provided for publishing a DataBucket in the response stream, handling rejects and errors, and requesting
  * shutdown.
  *
+ * If the SourceMonitor is created with an outbox, publishDataBucket() adds the bucket to a bounded queue instead of
+ * sending it on the calling (ingestion worker) thread.  The outbox is drained on the sender executor while the response
+ * stream is ready, and draining resumes from the stream's onReady handler, so a slow subscriber doesn't block
+ * ingestion.  The overflow policy determines what happens when the outbox is full.  All messages in the response
+ * stream are sent under a lock, since StreamObserver is not thread safe.
+ *
+ * Buckets sent from the outbox are coalesced into a single SubscribeDataResponse, up to the configured maximum number
+ * of buckets and serialized bytes per response.  If a maximum delay is configured, sending a partial batch waits until
+ * the oldest queued bucket reaches that age, so buckets published in quick succession (e.g., the columns of one
+ * ingestion request) are sent together.
+ *
+ * A DataBucket may be published with its serialized bytes, when the SourceMonitorManager serializes a bucket shared by
+ * several subscribers once instead of once for each subscriber's response.  Responses containing such buckets carry
+ * the bytes without parsing them, see IngestionServiceImpl.sendSubscribeDataResponseBytes().
  */
 public class SourceMonitor {
 
     // static variables
     private static final Logger logger = LogManager.getLogger();
 
+    // constants
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        DISCONNECT
+    }
+
+    /**
+     * Outbox settings for a SourceMonitor, see the IngestionHandler.SourceMonitor configuration.
+     */
+    public record OutboxConfig(
+            int capacity,
+            OverflowPolicy overflowPolicy,
+            int batchMaxBuckets,
+            long batchMaxBytes,
+            long batchMaxDelayMillis
+    ) {
+    }
+
     // instance variables
     private final IngestionHandlerInterface handler;
     public final List<String> pvNames;
     public final StreamObserver<SubscribeDataResponse> responseObserver;
     public final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
+    private final Object sendLock = new Object();
+
+    // outbox, null if data buckets are sent on the publishing thread
+    private final BlockingQueue<OutboxEntry> outbox;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchMaxBuckets;
+    private final long batchMaxBytes;
+    private final long batchMaxDelayNanos;
+    private final ScheduledExecutorService senderExecutor;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private volatile OutboxEntry carryOverEntry = null;
+    private final AtomicBoolean overflowDisconnect = new AtomicBoolean(false);
+
+    // outbox gauges and counters
+    private final AtomicLong publishedCount = new AtomicLong(0);
+    private final AtomicLong sentCount = new AtomicLong(0);
+    private final AtomicLong responseCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicInteger maxOutboxDepth = new AtomicInteger(0);
+    private final AtomicLong maxLagNanos = new AtomicLong(0);
+
+    /**
+     * Wraps a DataBucket in the outbox with its serialized bytes (null if not serialized by the publisher) and its
+     * enqueue time, for measuring subscriber lag.
+     */
+    private record OutboxEntry(DataBucket dataBucket, ByteString dataBucketBytes, long enqueueNanos) {
+
+        private int serializedSize() {
+            return (dataBucketBytes != null) ? dataBucketBytes.size() : dataBucket.getSerializedSize();
+        }
+    }
 
     public SourceMonitor(
             IngestionHandlerInterface handler,
             List<String> pvNames,
             StreamObserver<SubscribeDataResponse> responseObserver
+    ) {
+        this(handler, pvNames, responseObserver, null, null);
+    }
+
+    public SourceMonitor(
+            IngestionHandlerInterface handler,
+            List<String> pvNames,
+            StreamObserver<SubscribeDataResponse> responseObserver,
+            OutboxConfig outboxConfig,
+            ScheduledExecutorService senderExecutor
     ) {
         this.handler = handler;
         this.pvNames = pvNames;
         this.responseObserver = responseObserver;
+        this.senderExecutor = senderExecutor;
+        if (outboxConfig != null && outboxConfig.capacity() > 0 && senderExecutor != null) {
+            this.outbox = new ArrayBlockingQueue<>(outboxConfig.capacity());
+            this.overflowPolicy = outboxConfig.overflowPolicy();
+            this.batchMaxBuckets = Math.max(1, outboxConfig.batchMaxBuckets());
+            this.batchMaxBytes = outboxConfig.batchMaxBytes();
+            this.batchMaxDelayNanos = TimeUnit.MILLISECONDS.toNanos(outboxConfig.batchMaxDelayMillis());
+        } else {
+            this.outbox = null;
+            this.overflowPolicy = OverflowPolicy.DROP_OLDEST;
+            this.batchMaxBuckets = 1;
+            this.batchMaxBytes = 0;
+            this.batchMaxDelayNanos = 0;
+        }
     }
 
     public void publishDataBucket(
             final String pvName,
             DataBucket dataBucket
+    ) {
+        publishDataBucket(pvName, dataBucket, null);
+    }
+
+    /**
+     * Publishes a DataBucket with its serialized bytes, which are sent in the response instead of serializing the
+     * bucket again.  If dataBucketBytes is null, the bucket is serialized when the response is sent.
+     */
+    public void publishDataBucket(
+            final String pvName,
+            DataBucket dataBucket,
+            ByteString dataBucketBytes
     ) {
         if (!safeToSendResponse()) {
             return;
         }
 
+        publishedCount.incrementAndGet();
+
+        if (outbox == null) {
+            logger.debug(
+                    "publishing DataBucket for id: {} pv: {}",
+                    responseObserver.hashCode(),
+                    pvName);
+            synchronized (sendLock) {
+                if (dataBucketBytes != null) {
+                    IngestionServiceImpl.sendSubscribeDataResponseBytes(List.of(dataBucketBytes), responseObserver);
+                } else {
+                    IngestionServiceImpl.sendSubscribeDataResponse(dataBucket, responseObserver);
+                }
+            }
+            sentCount.incrementAndGet();
+            responseCount.incrementAndGet();
+            return;
+        }
+
         logger.debug(
-                "publishing DataBucket for id: {} pv: {}",
+                "adding DataBucket to outbox for id: {} pv: {}",
                 responseObserver.hashCode(),
                 pvName);
-        IngestionServiceImpl.sendSubscribeDataResponse(dataBucket, responseObserver);
+        enqueue(new OutboxEntry(dataBucket, dataBucketBytes, System.nanoTime()));
+        scheduleDrain();
+    }
+
+    private void enqueue(OutboxEntry entry) {
+
+        switch (overflowPolicy) {
+
+            case DROP_OLDEST -> {
+                while (!outbox.offer(entry)) {
+                    if (outbox.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+            }
+
+            case DROP_NEWEST -> {
+                if (!outbox.offer(entry)) {
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+            }
+
+            case DISCONNECT -> {
+                if (!outbox.offer(entry)) {
+                    droppedCount.incrementAndGet();
+                    disconnectOnOverflow();
+                    return;
+                }
+            }
+        }
+
+        maxOutboxDepth.accumulateAndGet(outbox.size(), Math::max);
+    }
+
+    /**
+     * Sends an error and closes the subscription when the outbox overflows.  This is done on the sender executor,
+     * since terminating the subscription removes it from the SourceMonitorManager.
+     */
+    private void disconnectOnOverflow() {
+        if (overflowDisconnect.compareAndSet(false, true)) {
+            logger.debug("outbox full, disconnecting id: {}", responseObserver.hashCode());
+            try {
+                senderExecutor.execute(() -> {
+                    handleError("subscription outbox full, subscriber is not keeping up with published data");
+                    handler.terminateSourceMonitor(this);
+                });
+            } catch (RejectedExecutionException e) {
+                logger.debug("sender executor rejected disconnect id: {}", responseObserver.hashCode());
+            }
+        }
+    }
+
+    /**
+     * Called from the response stream's onReady handler when the stream can accept more messages.
+     */
+    public void handleReady() {
+        if (outbox != null && hasQueuedBuckets()) {
+            scheduleDrain();
+        }
+    }
+
+    private boolean hasQueuedBuckets() {
+        return carryOverEntry != null || !outbox.isEmpty();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                senderExecutor.execute(this::drainOutbox);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+                logger.debug("sender executor rejected drain id: {}", responseObserver.hashCode());
+            }
+        }
+    }
+
+    /**
+     * Sends batches of buckets from the outbox while the response stream is ready.  Only one drain runs at a time for
+     * each SourceMonitor, so buckets are sent in order.  If the stream is not ready, draining stops and is rescheduled
+     * by handleReady().  If a partial batch should wait for more buckets, a delayed drain is scheduled that keeps the
+     * drainScheduled flag until it runs.  The final check after clearing the flag covers buckets added, or the stream
+     * becoming ready, while the flag was still set.
+     */
+    private void drainOutbox() {
+        do {
+            while (safeToSendResponse() && isReady() && hasQueuedBuckets()) {
+
+                final long delayNanos = batchDelayNanos();
+                if (delayNanos > 0) {
+                    try {
+                        senderExecutor.schedule(this::drainOutbox, delayNanos, TimeUnit.NANOSECONDS);
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        logger.debug("sender executor rejected delayed drain id: {}", responseObserver.hashCode());
+                    }
+                }
+
+                final List<OutboxEntry> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                sendBatch(batch);
+                sentCount.addAndGet(batch.size());
+                responseCount.incrementAndGet();
+            }
+            drainScheduled.set(false);
+        } while (safeToSendResponse()
+                && hasQueuedBuckets()
+                && isReady()
+                && drainScheduled.compareAndSet(false, true));
+    }
+
+    /**
+     * Returns the time to wait before sending a partial batch, until the oldest queued bucket reaches the maximum
+     * batch delay, or zero to send now.
+     */
+    private long batchDelayNanos() {
+        if (batchMaxDelayNanos <= 0 || carryOverEntry != null || outbox.size() >= batchMaxBuckets) {
+            return 0;
+        }
+        final OutboxEntry oldest = outbox.peek();
+        if (oldest == null) {
+            return 0;
+        }
+        return Math.max(0, batchMaxDelayNanos - (System.nanoTime() - oldest.enqueueNanos()));
+    }
+
+    /**
+     * Sends a batch of buckets from the outbox in a single response.  If any bucket in the batch was published with
+     * its serialized bytes, the response is built from the bytes of each bucket, serializing those published without
+     * them.
+     */
+    private void sendBatch(List<OutboxEntry> batch) {
+        boolean serialized = false;
+        for (OutboxEntry entry : batch) {
+            if (entry.dataBucketBytes() != null) {
+                serialized = true;
+                break;
+            }
+        }
+        if (serialized) {
+            final List<ByteString> batchBytes = new ArrayList<>(batch.size());
+            for (OutboxEntry entry : batch) {
+                batchBytes.add(
+                        (entry.dataBucketBytes() != null)
+                                ? entry.dataBucketBytes()
+                                : entry.dataBucket().toByteString());
+            }
+            synchronized (sendLock) {
+                IngestionServiceImpl.sendSubscribeDataResponseBytes(batchBytes, responseObserver);
+            }
+        } else {
+            final List<DataBucket> batchBuckets = new ArrayList<>(batch.size());
+            for (OutboxEntry entry : batch) {
+                batchBuckets.add(entry.dataBucket());
+            }
+            synchronized (sendLock) {
+                IngestionServiceImpl.sendSubscribeDataResponse(batchBuckets, responseObserver);
+            }
+        }
+    }
+
+    /**
+     * Removes the next batch of buckets from the outbox, up to batchMaxBuckets and batchMaxBytes (a single bucket
+     * larger than batchMaxBytes is sent by itself).  A bucket that doesn't fit in the batch is held for the next one,
+     * since the outbox head may be removed concurrently by the DROP_OLDEST overflow policy.
+     */
+    private List<OutboxEntry> nextBatch() {
+        final List<OutboxEntry> batch = new ArrayList<>();
+        long batchBytes = 0;
+        while (batch.size() < batchMaxBuckets) {
+            final OutboxEntry entry = (carryOverEntry != null) ? carryOverEntry : outbox.poll();
+            carryOverEntry = null;
+            if (entry == null) {
+                break;
+            }
+            final int bucketBytes = entry.serializedSize();
+            if (!batch.isEmpty() && batchBytes + bucketBytes > batchMaxBytes) {
+                carryOverEntry = entry;
+                break;
+            }
+            maxLagNanos.accumulateAndGet(System.nanoTime() - entry.enqueueNanos(), Math::max);
+            batch.add(entry);
+            batchBytes += bucketBytes;
+        }
+        return batch;
+    }
+
+    private boolean isReady() {
+        ServerCallStreamObserver<SubscribeDataResponse> serverCallStreamObserver =
+                (ServerCallStreamObserver<SubscribeDataResponse>) responseObserver;
+        return serverCallStreamObserver.isReady();
+    }
+
+    public void handleAck() {
+
+        logger.debug("handleAck id: {}", responseObserver.hashCode());
+
+        if (!safeToSendResponse()) {
+            return;
+        }
+
+        synchronized (sendLock) {
+            IngestionServiceImpl.sendSubscribeDataResponseAck(responseObserver);
+        }
     }
 
     public void handleReject(String errorMsg) {
@@ -70,7 +400,9 @@ public class SourceMonitor {
         }
 
         // dispatch error message but don't close response stream with onCompleted()
-        IngestionServiceImpl.sendSubscribeDataResponseReject(errorMsg, responseObserver);
+        synchronized (sendLock) {
+            IngestionServiceImpl.sendSubscribeDataResponseReject(errorMsg, responseObserver);
+        }
     }
 
     public void handleError(String errorMsg) {
@@ -85,7 +417,9 @@ public class SourceMonitor {
         }
 
         // dispatch error message but don't close response stream with onCompleted()
-        IngestionServiceImpl.sendSubscribeDataResponseError(errorMsg, responseObserver);
+        synchronized (sendLock) {
+            IngestionServiceImpl.sendSubscribeDataResponseError(errorMsg, responseObserver);
+        }
     }
 
     private boolean safeToSendResponse() {
@@ -105,6 +439,21 @@ public class SourceMonitor {
         // use AtomicBoolean flag to control cancel, we only need one caller thread cleaning things up
         if (shutdownRequested.compareAndSet(false, true)) {
 
+            if (outbox != null) {
+                outbox.clear();
+                carryOverEntry = null;
+                logger.debug(
+                        "SourceMonitor outbox id: {} published: {} sent: {} responses: {} dropped: {} maxDepth: {}"
+                                + " maxLagMillis: {}",
+                        responseObserver.hashCode(),
+                        publishedCount.get(),
+                        sentCount.get(),
+                        responseCount.get(),
+                        droppedCount.get(),
+                        maxOutboxDepth.get(),
+                        maxLagNanos.get() / 1_000_000);
+            }
+
             // close API response stream
             ServerCallStreamObserver<SubscribeDataResponse> serverCallStreamObserver =
                     (ServerCallStreamObserver<SubscribeDataResponse>) responseObserver;
@@ -112,7 +461,9 @@ public class SourceMonitor {
                 logger.debug(
                         "SourceMonitor.close() calling responseObserver.onCompleted id: {}",
                         responseObserver.hashCode());
-                responseObserver.onCompleted();
+                synchronized (sendLock) {
+                    responseObserver.onCompleted();
+                }
             } else {
                 logger.debug(
                         "SourceMonitor.close() responseObserver already closed id: {}",
@@ -120,4 +471,48 @@ public class SourceMonitor {
             }
         }
     }
+
+    public int getOutboxDepth() {
+        if (outbox == null) {
+            return 0;
+        }
+        return outbox.size() + ((carryOverEntry != null) ? 1 : 0);
+    }
+
+    /**
+     * Returns the time the oldest bucket in the outbox has been waiting to be sent, in nanoseconds.
+     */
+    public long getOutboxLagNanos() {
+        if (outbox == null) {
+            return 0;
+        }
+        final OutboxEntry carryOver = carryOverEntry;
+        final OutboxEntry oldest = (carryOver != null) ? carryOver : outbox.peek();
+        return (oldest == null) ? 0 : System.nanoTime() - oldest.enqueueNanos();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getResponseCount() {
+        return responseCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getMaxOutboxDepth() {
+        return maxOutboxDepth.get();
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos.get();
+    }
+
 }
@@ -10,6 +10,8 @@ import com.ospreydcs.dp.service.ingest.handler.interfaces.IngestionHandlerInterf
 import com.ospreydcs.dp.service.ingest.service.request.IngestDataBidiStreamRequestObserver;
 import com.ospreydcs.dp.service.ingest.service.request.IngestDataStreamRequestObserver;
 import com.ospreydcs.dp.service.ingest.service.request.SubscribeDataRequestObserver;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnknownFieldSet;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -271,22 +273,32 @@ public class IngestionServiceImpl extends DpIngestionServiceGrpc.DpIngestionServ
         String validationMsg = "";
 
         if (resultStatus.isError) {
-            // send error reject
             validationError = true;
             validationMsg = resultStatus.msg;
+        }
+
+        // handle the request, even if rejected, before sending the ack so that we don't acknowledge a request that
+        // is not accepted by the handler's request queue
+        final HandlerIngestionRequest handlerIngestionRequest =
+                new HandlerIngestionRequest(request, validationError, validationMsg);
+        final boolean accepted = handler.handleIngestionRequest(handlerIngestionRequest);
+
+        if (validationError) {
+            // send error reject
             final IngestDataResponse rejectResponse = ingestionResponseReject(request, validationMsg);
             responseObserver.onNext(rejectResponse);
 
+        } else if (!accepted) {
+            // send reject for overloaded handler, client may retry the request
+            final IngestDataResponse rejectResponse =
+                    ingestionResponseReject(request, "RESOURCE_EXHAUSTED: ingestion handler queue full");
+            responseObserver.onNext(rejectResponse);
+
         } else {
             // send ack response
             final IngestDataResponse ackResponse = ingestionResponseAck(request);
             responseObserver.onNext(ackResponse);
         }
-
-        // handle the request, even if rejected
-        final HandlerIngestionRequest handlerIngestionRequest =
-                new HandlerIngestionRequest(request, validationError, validationMsg);
-        handler.handleIngestionRequest(handlerIngestionRequest);
     }
 
     public void sendIngestDataStreamResponse(
@@ -523,7 +535,12 @@ public class IngestionServiceImpl extends DpIngestionServiceGrpc.DpIngestionServ
     private static SubscribeDataResponse subscribeDataResponse(
             DataBucket dataBucket
     ) {
-        final List<DataBucket> responseDataBuckets = List.of(dataBucket);
+        return subscribeDataResponse(List.of(dataBucket));
+    }
+
+    private static SubscribeDataResponse subscribeDataResponse(
+            List<DataBucket> responseDataBuckets
+    ) {
         final SubscribeDataResponse.SubscribeDataResult result =
                 SubscribeDataResponse.SubscribeDataResult.newBuilder()
                         .addAllDataBuckets(responseDataBuckets)
@@ -531,6 +548,29 @@ public class IngestionServiceImpl extends DpIngestionServiceGrpc.DpIngestionServ
         return subscribeDataResponse(result);
     }
 
+    /**
+     * Builds a SubscribeDataResponse containing data buckets that are already serialized, without parsing them.  The
+     * bytes are carried as an unknown field whose number is that of the SubscribeDataResult dataBuckets field, so the
+     * response serializes exactly as if the buckets had been added normally, but within this process
+     * getDataBucketsList() is empty.
+     */
+    private static SubscribeDataResponse subscribeDataResponseFromBytes(
+            List<ByteString> responseDataBucketBytes
+    ) {
+        final UnknownFieldSet.Field.Builder dataBucketsField = UnknownFieldSet.Field.newBuilder();
+        for (ByteString dataBucketBytes : responseDataBucketBytes) {
+            dataBucketsField.addLengthDelimited(dataBucketBytes);
+        }
+        final UnknownFieldSet resultFields = UnknownFieldSet.newBuilder()
+                .addField(SubscribeDataResponse.SubscribeDataResult.DATABUCKETS_FIELD_NUMBER, dataBucketsField.build())
+                .build();
+        final SubscribeDataResponse.SubscribeDataResult result =
+                SubscribeDataResponse.SubscribeDataResult.newBuilder()
+                        .setUnknownFields(resultFields)
+                        .build();
+        return subscribeDataResponse(result);
+    }
+
     public static void sendSubscribeDataResponseReject(
             String msg, StreamObserver<SubscribeDataResponse> responseObserver
     ) {
@@ -560,6 +600,22 @@ public class IngestionServiceImpl extends DpIngestionServiceGrpc.DpIngestionServ
         responseObserver.onNext(response);
     }
 
+    public static void sendSubscribeDataResponse(
+            List<DataBucket> dataBuckets,
+            StreamObserver<SubscribeDataResponse> responseObserver
+    ) {
+        final SubscribeDataResponse response = subscribeDataResponse(dataBuckets);
+        responseObserver.onNext(response);
+    }
+
+    public static void sendSubscribeDataResponseBytes(
+            List<ByteString> dataBucketBytes,
+            StreamObserver<SubscribeDataResponse> responseObserver
+    ) {
+        final SubscribeDataResponse response = subscribeDataResponseFromBytes(dataBucketBytes);
+        responseObserver.onNext(response);
+    }
+
     @Override
     public StreamObserver<SubscribeDataRequest> subscribeData(
             StreamObserver<SubscribeDataResponse> responseObserver
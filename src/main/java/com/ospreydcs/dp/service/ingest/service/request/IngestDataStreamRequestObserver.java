@@ -57,7 +57,12 @@ public class IngestDataStreamRequestObserver extends IngestionStreamRequestObser
         // handle the request, even if rejected (to update request status database)
         final HandlerIngestionRequest handlerIngestionRequest =
                 new HandlerIngestionRequest(request, validationError, validationMsg);
-        handler.handleIngestionRequest(handlerIngestionRequest);
+        final boolean accepted = handler.handleIngestionRequest(handlerIngestionRequest);
+
+        // report request not accepted by the handler's request queue as rejected
+        if (!accepted && !validationError) {
+            this.rejectedIdList.add(request.getClientRequestId());
+        }
     }
 
     @Override
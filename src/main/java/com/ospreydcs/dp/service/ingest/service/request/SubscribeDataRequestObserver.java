@@ -5,6 +5,7 @@ import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
 import com.ospreydcs.dp.service.ingest.handler.interfaces.IngestionHandlerInterface;
 import com.ospreydcs.dp.service.ingest.model.SourceMonitor;
 import com.ospreydcs.dp.service.ingest.service.IngestionServiceImpl;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -19,7 +20,7 @@ public class SubscribeDataRequestObserver implements StreamObserver<SubscribeDat
     // instance variables
     private final StreamObserver<SubscribeDataResponse> responseObserver;
     private final IngestionHandlerInterface handler;
-    private SourceMonitor monitor = null;
+    private volatile SourceMonitor monitor = null;
 
     public SubscribeDataRequestObserver(
             StreamObserver<SubscribeDataResponse> responseObserver,
@@ -27,6 +28,19 @@ public class SubscribeDataRequestObserver implements StreamObserver<SubscribeDat
     ) {
         this.responseObserver = responseObserver;
         this.handler = handler;
+
+        // the onReady handler must be registered before returning from the subscribeData() API method, it resumes
+        // sending data from the SourceMonitor's outbox when the response stream can accept more messages
+        if (responseObserver instanceof ServerCallStreamObserver<SubscribeDataResponse> serverCallStreamObserver) {
+            serverCallStreamObserver.setOnReadyHandler(this::onReady);
+        }
+    }
+
+    private void onReady() {
+        final SourceMonitor readyMonitor = monitor;
+        if (readyMonitor != null) {
+            readyMonitor.handleReady();
+        }
     }
 
     @Override
@@ -89,9 +103,11 @@ public class SubscribeDataRequestObserver implements StreamObserver<SubscribeDat
                 logger.debug(
                         "id: {} " + errorMsg,
                         responseObserver.hashCode());
-                IngestionServiceImpl.sendSubscribeDataResponseReject(errorMsg, responseObserver);
                 if (monitor == null) {
+                    IngestionServiceImpl.sendSubscribeDataResponseReject(errorMsg, responseObserver);
                     responseObserver.onCompleted();
+                } else {
+                    monitor.handleReject(errorMsg);
                 }
                 initiateShutdown();
             }
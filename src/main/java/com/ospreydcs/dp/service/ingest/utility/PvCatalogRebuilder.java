@@ -0,0 +1,36 @@
+package com.ospreydcs.dp.service.ingest.utility;
+
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoSyncIngestionClient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Command for rebuilding the pvCatalog collection from the buckets collection, used to populate the catalog for an
+ * existing database before enabling MongoClient.pvCatalogEnabled, or to repair it.  The catalog is replaced by a
+ * single aggregation over the buckets collection, so ingestion should be stopped while the command runs, otherwise
+ * buckets inserted during the rebuild may be counted twice or not at all.
+ */
+public class PvCatalogRebuilder {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    public static void main(final String[] args) {
+
+        final MongoSyncIngestionClient mongoClient = new MongoSyncIngestionClient();
+        if (!mongoClient.init()) {
+            logger.error("error in mongoClient.init");
+            System.exit(1);
+        }
+
+        final boolean success = mongoClient.rebuildPvCatalog();
+        mongoClient.fini();
+
+        if (!success) {
+            logger.error("pvCatalog rebuild failed");
+            System.exit(1);
+        }
+        logger.info("pvCatalog rebuild complete");
+    }
+
+}
@@ -7,12 +7,20 @@ import com.ospreydcs.dp.service.ingest.utility.IngestionServiceClientUtility;
 import com.ospreydcs.dp.service.ingestionstream.handler.interfaces.IngestionStreamHandlerInterface;
 import com.ospreydcs.dp.service.ingestionstream.handler.job.EventMonitorSubscribeDataResponseJob;
 import com.ospreydcs.dp.service.ingestionstream.handler.job.SubscribeDataEventJob;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.ColumnTriggerUtility;
 import com.ospreydcs.dp.service.ingestionstream.handler.monitor.EventMonitor;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.EventMonitorMailbox;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.SubscribeDataMultiplexer;
 import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 public class IngestionStreamHandler extends QueueHandlerBase implements IngestionStreamHandlerInterface {
 
     // static variables
@@ -21,10 +29,36 @@ public class IngestionStreamHandler extends QueueHandlerBase implements Ingestio
     // configuration
     public static final String CFG_KEY_NUM_WORKERS = "IngestionStreamHandler.numWorkers";
     public static final int DEFAULT_NUM_WORKERS = 7;
+    public static final String CFG_KEY_QUEUE_CAPACITY = "IngestionStreamHandler.queueCapacity";
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+    public static final String CFG_KEY_OVERLOAD_POLICY = "IngestionStreamHandler.overloadPolicy";
+    public static final String CFG_KEY_VIRTUAL_THREADS = "IngestionStreamHandler.virtualThreads";
+    public static final boolean DEFAULT_VIRTUAL_THREADS = false;
+    public static final String CFG_KEY_MAX_CONCURRENT_JOBS = "IngestionStreamHandler.maxConcurrentJobs";
+    public static final int DEFAULT_MAX_CONCURRENT_JOBS = 100;
+    public static final String CFG_KEY_NUM_SCHEDULER_THREADS = "IngestionStreamHandler.numSchedulerThreads";
+    public static final int DEFAULT_NUM_SCHEDULER_THREADS = 2;
+    public static final String CFG_KEY_NUM_FLUSH_THREADS = "IngestionStreamHandler.numFlushThreads";
+    public static final int DEFAULT_NUM_FLUSH_THREADS = 4;
+    public static final String CFG_KEY_MULTIPLEX_SUBSCRIPTIONS = "IngestionStreamHandler.multiplexSubscriptions";
+    public static final boolean DEFAULT_MULTIPLEX_SUBSCRIPTIONS = false;
+    public static final String CFG_KEY_MONITOR_MAILBOXES = "IngestionStreamHandler.monitorMailboxes";
+    public static final boolean DEFAULT_MONITOR_MAILBOXES = false;
+    public static final String CFG_KEY_NUM_MAILBOX_THREADS = "IngestionStreamHandler.numMailboxThreads";
+    public static final int DEFAULT_NUM_MAILBOX_THREADS = 7;
+    public static final String CFG_KEY_MAILBOX_CAPACITY = "IngestionStreamHandler.mailboxCapacity";
+    public static final int DEFAULT_MAILBOX_CAPACITY = 100;
+    public static final String CFG_KEY_MAILBOX_OVERFLOW_POLICY = "IngestionStreamHandler.mailboxOverflowPolicy";
+    public static final EventMonitorMailbox.OverflowPolicy DEFAULT_MAILBOX_OVERFLOW_POLICY =
+            EventMonitorMailbox.OverflowPolicy.DROP_OLDEST;
 
     // instance variables
 
     private EventMonitorManager eventMonitorManager = null;
+    private ScheduledThreadPoolExecutor monitorScheduler = null;
+    private ExecutorService flushExecutor = null;
+    private ExecutorService mailboxExecutor = null;
+    private SubscribeDataMultiplexer subscribeDataMultiplexer = null;
     private final IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient;
 
     public IngestionStreamHandler() {
@@ -41,11 +75,45 @@ public class IngestionStreamHandler extends QueueHandlerBase implements Ingestio
 
     private void initializeSubscriptionManager(IngestionServiceClientUtility.IngestionServiceGrpcClient client) {
         this.eventMonitorManager = new EventMonitorManager(this);
+        if (configMgr().getConfigBoolean(CFG_KEY_MULTIPLEX_SUBSCRIPTIONS, DEFAULT_MULTIPLEX_SUBSCRIPTIONS)) {
+            this.subscribeDataMultiplexer = new SubscribeDataMultiplexer(this, client);
+        }
     }
 
     @Override
     protected boolean init_() {
         logger.trace("init_");
+
+        // create the scheduler shared by all EventMonitors for buffer flush checks and triggered event cleanup, so
+        // that the number of threads doesn't grow with the number of subscriptions
+        monitorScheduler = new ScheduledThreadPoolExecutor(
+                configMgr().getConfigInteger(CFG_KEY_NUM_SCHEDULER_THREADS, DEFAULT_NUM_SCHEDULER_THREADS));
+        monitorScheduler.setRemoveOnCancelPolicy(true);
+
+        // create the pool shared by all EventMonitors for flushing buffered data and sending it in the response
+        // stream, keeping that work off the scheduler so a slow EventMonitor doesn't delay the others' flush checks
+        flushExecutor = Executors.newFixedThreadPool(
+                configMgr().getConfigInteger(CFG_KEY_NUM_FLUSH_THREADS, DEFAULT_NUM_FLUSH_THREADS));
+
+        // create the pool shared by EventMonitor mailboxes for executing subscribeData() responses in order for each
+        // monitor, instead of via the request queue.  Mailboxes are required when triggers use state (EDGE mode or a
+        // minimum re-arm interval), since the state must be updated with each trigger PV's data in timestamp order.
+        final boolean monitorMailboxes =
+                configMgr().getConfigBoolean(CFG_KEY_MONITOR_MAILBOXES, DEFAULT_MONITOR_MAILBOXES);
+        final boolean statefulTriggers = !EventMonitor.getTriggerStateConfig().isStateless();
+        if (statefulTriggers && !monitorMailboxes) {
+            logger.info("enabling monitorMailboxes for ordered delivery of trigger PV data to stateful triggers");
+        }
+        if (monitorMailboxes || statefulTriggers) {
+            mailboxExecutor = Executors.newFixedThreadPool(
+                    configMgr().getConfigInteger(CFG_KEY_NUM_MAILBOX_THREADS, DEFAULT_NUM_MAILBOX_THREADS));
+        }
+
+        // use the Vector API to scan DoubleColumn trigger values if configured and the incubator module is available
+        if (ColumnTriggerUtility.enableVectorScan(EventMonitor.getTriggerVectorScanConfig())) {
+            logger.info("using Vector API scan of DoubleColumn trigger values");
+        }
+
         return true;
     }
 
@@ -53,24 +121,82 @@ public class IngestionStreamHandler extends QueueHandlerBase implements Ingestio
     protected boolean fini_() {
         logger.trace("fini_");
         this.eventMonitorManager.shutdown();
+        shutdownExecutor(mailboxExecutor);
+        shutdownExecutor(monitorScheduler);
+        shutdownExecutor(flushExecutor);
         logger.debug("IngestionStreamHandler fini complete");
         return true;
     }
 
+    private static void shutdownExecutor(ExecutorService executor) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     protected int getNumWorkers_() {
         return configMgr().getConfigInteger(CFG_KEY_NUM_WORKERS, DEFAULT_NUM_WORKERS);
     }
 
-    public void addJob(EventMonitorSubscribeDataResponseJob job) {
+    @Override
+    protected int getQueueCapacity_() {
+        return configMgr().getConfigInteger(CFG_KEY_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @Override
+    protected OverloadPolicy getOverloadPolicy_() {
+        return overloadPolicyFromConfig(configMgr().getConfigString(CFG_KEY_OVERLOAD_POLICY));
+    }
+
+    @Override
+    protected boolean getUseVirtualThreads_() {
+        return configMgr().getConfigBoolean(CFG_KEY_VIRTUAL_THREADS, DEFAULT_VIRTUAL_THREADS);
+    }
+
+    @Override
+    protected int getMaxConcurrentJobs_() {
+        return configMgr().getConfigInteger(CFG_KEY_MAX_CONCURRENT_JOBS, DEFAULT_MAX_CONCURRENT_JOBS);
+    }
+
+    private static EventMonitorMailbox.OverflowPolicy mailboxOverflowPolicyFromConfig(String configValue) {
+        if (configValue == null || configValue.isBlank()) {
+            return DEFAULT_MAILBOX_OVERFLOW_POLICY;
+        }
         try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
+            return EventMonitorMailbox.OverflowPolicy.valueOf(configValue.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error(
+                    "invalid mailbox overflow policy: {}, using default: {}",
+                    configValue, DEFAULT_MAILBOX_OVERFLOW_POLICY);
+            return DEFAULT_MAILBOX_OVERFLOW_POLICY;
         }
     }
 
+    public void addJob(EventMonitorSubscribeDataResponseJob job) {
+
+        // execute in the EventMonitor's mailbox if enabled, preserving the order of its subscribeData() responses.
+        // This is called on the response stream's callback thread, so the mailbox never blocks, and only data
+        // responses may be dropped when it is full.
+        final EventMonitorMailbox mailbox = job.getEventMonitor().getMailbox();
+        if (mailbox != null) {
+            mailbox.submit(job, job.isDataResult());
+            return;
+        }
+
+        // subscription data for an existing EventMonitor is not subject to the handler's overload policy
+        submitJobBlocking(job);
+    }
+
     @Override
     public EventMonitor handleSubscribeDataEvent(
             SubscribeDataEventRequest request,
@@ -81,7 +207,13 @@ public class IngestionStreamHandler extends QueueHandlerBase implements Ingestio
                 request.getNewSubscription(),
                 responseObserver,
                 this,
-                this.ingestionServiceGrpcClient);
+                this.ingestionServiceGrpcClient,
+                this.monitorScheduler,
+                this.flushExecutor,
+                this.subscribeDataMultiplexer,
+                this.mailboxExecutor,
+                configMgr().getConfigInteger(CFG_KEY_MAILBOX_CAPACITY, DEFAULT_MAILBOX_CAPACITY),
+                mailboxOverflowPolicyFromConfig(configMgr().getConfigString(CFG_KEY_MAILBOX_OVERFLOW_POLICY)));
 
         // add EventMonitor to manager
         eventMonitorManager.addEventMonitor(eventMonitor);
@@ -91,13 +223,9 @@ public class IngestionStreamHandler extends QueueHandlerBase implements Ingestio
 
         logger.debug("id: {} adding SubscribeDataEventJob to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error(
-                    "id: {} InterruptedException waiting for requestQueue.put",
-                    responseObserver.hashCode());
-            Thread.currentThread().interrupt();
+        if (!submitJob(job, null)) {
+            // send reject and close subscription if the job is not accepted by the request queue
+            eventMonitor.handleReject("ingestion stream handler queue full, subscribeDataEvent request rejected");
         }
 
         return eventMonitor;
@@ -40,6 +40,18 @@ public class EventMonitorSubscribeDataResponseJob extends HandlerJob {
         this.isCompleted = isCompleted;
     }
 
+    public EventMonitor getEventMonitor() {
+        return eventMonitor;
+    }
+
+    /**
+     * Returns true if the job handles a subscribeData() response containing data, as opposed to an ack, reject,
+     * error, or the end of the response stream.
+     */
+    public boolean isDataResult() {
+        return subscribeDataResponse != null && subscribeDataResponse.hasSubscribeDataResult();
+    }
+
     @Override
     public void execute() {
 
@@ -5,6 +5,8 @@ import com.ospreydcs.dp.grpc.v1.common.*;
 import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
 import com.ospreydcs.dp.service.common.protobuf.DataTimestampsUtility;
 import com.ospreydcs.dp.service.common.protobuf.TimestampUtility;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -16,18 +18,99 @@ import java.util.List;
  * corresponding subscription's PvConditionTriggers.  The primary (public) checkColumnTrigger() variant includes a
  * DataBucket parameter and invokes the appropriate checkColumnTrigger() private variant for the concrete protobuf
  * column data type.
+ *
+ * The variants for columns of primitive values validate the trigger value type and condition once per column, then
+ * compare unboxed values in a scalar loop, producing the same events as checking an equivalent DataColumn value by
+ * value.  If enabled by enableVectorScan(), DoubleColumn values are copied to a primitive array and scanned with the
+ * incubating Vector API by VectorTriggerScanner, to skip values that can't trigger the event or re-arm a disarmed
+ * trigger, with the scalar loop checking the remaining values.  The scan is disabled by default, and when the
+ * jdk.incubator.vector module isn't available at run time.  ColumnTriggerBenchmark compares the two paths with JMH.
  */
 public class ColumnTriggerUtility {
 
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+    private static volatile boolean vectorScanEnabled = false;
+
+    // constants
+    private static final String VECTOR_MODULE_NAME = "jdk.incubator.vector";
+
     private static record ValueTriggerResult(
             boolean isTriggered,
             boolean isError,
             String errorMsg
     ) {}
 
+    /**
+     * Enables or disables the Vector API scan of DoubleColumn trigger values, returning true if the scan is enabled.
+     * The scan stays disabled if the jdk.incubator.vector module isn't available, in which case the scalar loop is
+     * used.
+     *
+     * @param enable
+     * @return
+     */
+    public static boolean enableVectorScan(boolean enable) {
+        if (enable && ModuleLayer.boot().findModule(VECTOR_MODULE_NAME).isEmpty()) {
+            logger.warn(
+                    "vector scan of trigger values requires JVM option \"--add-modules {}\", using scalar checks",
+                    VECTOR_MODULE_NAME);
+            enable = false;
+        }
+        vectorScanEnabled = enable;
+        return enable;
+    }
+
+    public static boolean isVectorScanEnabled() {
+        return vectorScanEnabled;
+    }
+
+    /**
+     * Returns the index of the first value at or after fromIndex that might trigger the event, or re-arm the trigger
+     * if the trigger state is disarmed, using VectorTriggerScanner.  The caller checks each value returned with the
+     * scalar code.  Re-arming with PV_CONDITION_EQUAL_TO depends on the distance from the trigger value, which isn't
+     * scanned, so fromIndex is returned.
+     *
+     * @param values
+     * @param fromIndex
+     * @param triggerState
+     * @param triggerValue
+     * @param triggerCondition
+     * @return
+     */
+    private static int nextCandidateIndex(
+            double[] values,
+            int fromIndex,
+            PvTriggerState triggerState,
+            double triggerValue,
+            PvConditionTrigger.PvCondition triggerCondition
+    ) {
+        if (triggerState == null || triggerState.isArmed()) {
+            return VectorTriggerScanner.nextCandidateIndex(values, fromIndex, triggerValue, triggerCondition);
+        }
+
+        // a disarmed trigger is re-armed by a value that doesn't satisfy the condition for the hysteresis band edge
+        final double hysteresis = triggerState.getHysteresis();
+        return switch (triggerCondition) {
+            case PV_CONDITION_GREATER -> VectorTriggerScanner.nextCandidateIndex(
+                    values, fromIndex, triggerValue - hysteresis, PvConditionTrigger.PvCondition.PV_CONDITION_LESS_EQ);
+            case PV_CONDITION_GREATER_EQ -> VectorTriggerScanner.nextCandidateIndex(
+                    values, fromIndex, triggerValue - hysteresis, PvConditionTrigger.PvCondition.PV_CONDITION_LESS);
+            case PV_CONDITION_LESS -> VectorTriggerScanner.nextCandidateIndex(
+                    values,
+                    fromIndex,
+                    triggerValue + hysteresis,
+                    PvConditionTrigger.PvCondition.PV_CONDITION_GREATER_EQ);
+            case PV_CONDITION_LESS_EQ -> VectorTriggerScanner.nextCandidateIndex(
+                    values, fromIndex, triggerValue + hysteresis, PvConditionTrigger.PvCondition.PV_CONDITION_GREATER);
+            default -> fromIndex;
+        };
+    }
+
     /**
      * This generic method can be used to evaluate relational operators for any Java Comparable type, and is used for
-     * various protobuf column data types to check if an individual data value triggers the condition.
+     * the DataColumn and StringColumn types to check if an individual data value triggers the condition.  Columns of
+     * primitive values are instead checked by comparing unboxed values read by index, with the condition validated
+     * once per column.
      *
      * @param typedDataValue
      * @param typedTriggerValue
@@ -40,36 +123,151 @@ public class ColumnTriggerUtility {
             T typedTriggerValue,
             PvConditionTrigger.PvCondition triggerCondition
     ) {
+        final String conditionErrorMsg = conditionErrorMsg(triggerCondition);
+        if (conditionErrorMsg != null) {
+            return new ValueTriggerResult(false, true, conditionErrorMsg);
+        }
+
         final int compareResult = typedDataValue.compareTo(typedTriggerValue);
+        return new ValueTriggerResult(isConditionTriggered(compareResult, triggerCondition), false, "");
+    }
 
+    /**
+     * Returns an error message if the trigger condition cannot be evaluated, or null if it is a valid relational
+     * operator.
+     *
+     * @param triggerCondition
+     * @return
+     */
+    private static String conditionErrorMsg(PvConditionTrigger.PvCondition triggerCondition) {
         switch (triggerCondition) {
-            case PV_CONDITION_UNSPECIFIED -> {
-                final String errorMsg = "PvConditionTrigger.condition must be specified";
-                return new ValueTriggerResult(false, true, errorMsg);
-            }
-            case PV_CONDITION_EQUAL_TO -> {
-                return new ValueTriggerResult(compareResult == 0, false, "");
-            }
-            case PV_CONDITION_GREATER -> {
-                return new ValueTriggerResult(compareResult > 0, false, "");
+            case PV_CONDITION_EQUAL_TO, PV_CONDITION_GREATER, PV_CONDITION_GREATER_EQ,
+                    PV_CONDITION_LESS, PV_CONDITION_LESS_EQ -> {
+                return null;
             }
-            case PV_CONDITION_GREATER_EQ -> {
-                return new ValueTriggerResult(compareResult >= 0, false, "");
-            }
-            case PV_CONDITION_LESS -> {
-                return new ValueTriggerResult(compareResult < 0, false, "");
-            }
-            case PV_CONDITION_LESS_EQ -> {
-                return new ValueTriggerResult(compareResult <= 0, false, "");
+            case PV_CONDITION_UNSPECIFIED -> {
+                return "PvConditionTrigger.condition must be specified";
             }
             case UNRECOGNIZED -> {
-                final String errorMsg = "PvConditionTrigger.condition unrecognized enum value";
-                return new ValueTriggerResult(false, true, errorMsg);
+                return "PvConditionTrigger.condition unrecognized enum value";
             }
         }
+        return "PvConditionTrigger.condition unhandled condition: " + triggerCondition;
+    }
+
+    /**
+     * Evaluates a valid trigger condition for the result of comparing a data value to the trigger value, as returned
+     * by compareTo() or the primitive compare() methods.
+     *
+     * @param compareResult
+     * @param triggerCondition
+     * @return
+     */
+    private static boolean isConditionTriggered(int compareResult, PvConditionTrigger.PvCondition triggerCondition) {
+        return switch (triggerCondition) {
+            case PV_CONDITION_EQUAL_TO -> compareResult == 0;
+            case PV_CONDITION_GREATER -> compareResult > 0;
+            case PV_CONDITION_GREATER_EQ -> compareResult >= 0;
+            case PV_CONDITION_LESS -> compareResult < 0;
+            case PV_CONDITION_LESS_EQ -> compareResult <= 0;
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks the trigger condition once for a column of primitive values, returning an error result if the column
+     * contains values to check and the condition cannot be evaluated, otherwise null.  This matches the result of
+     * checking each value with checkValueTrigger().
+     *
+     * @param columnPvName
+     * @param triggerCondition
+     * @param valueCount
+     * @return
+     */
+    private static ColumnTriggerResult checkTriggerCondition(
+            String columnPvName,
+            PvConditionTrigger.PvCondition triggerCondition,
+            int valueCount
+    ) {
+        final String conditionErrorMsg = conditionErrorMsg(triggerCondition);
+        if (valueCount <= 0 || conditionErrorMsg == null) {
+            return null;
+        }
+        final String errorMsg = "PvConditionTrigger error comparing data value for PV name: "
+                + columnPvName
+                + " msg: " + conditionErrorMsg;
+        return new ColumnTriggerResult(true, errorMsg, null);
+    }
 
-        final String errorMsg = "PvConditionTrigger.condition unhandled condition: " + triggerCondition;
-        return new ValueTriggerResult(false, true, errorMsg);
+    /**
+     * Determines if a value is checked further as a trigger for the event, given the supplied trigger state.  Without
+     * trigger state, or while the trigger is armed, this is the case if the value satisfies the condition.  While the
+     * trigger is disarmed, no value triggers the event, and a value that doesn't satisfy the condition re-arms it.
+     *
+     * @param triggerState
+     * @param isTriggered
+     * @return
+     */
+    private static boolean isTriggerCandidate(PvTriggerState triggerState, boolean isTriggered) {
+        if (triggerState == null || triggerState.isArmed()) {
+            return isTriggered;
+        }
+        if ( ! isTriggered) {
+            triggerState.rearm();
+        }
+        return false;
+    }
+
+    /**
+     * Variant of isTriggerCandidate() for numeric values, where a disarmed trigger is re-armed by a value beyond the
+     * trigger value by the hysteresis band, on the side that doesn't satisfy the condition.  For
+     * PV_CONDITION_EQUAL_TO, that is a value differing from the trigger value by more than the band.
+     *
+     * @param triggerState
+     * @param isTriggered
+     * @param value
+     * @param triggerValue
+     * @param triggerCondition
+     * @return
+     */
+    private static boolean isTriggerCandidate(
+            PvTriggerState triggerState,
+            boolean isTriggered,
+            double value,
+            double triggerValue,
+            PvConditionTrigger.PvCondition triggerCondition
+    ) {
+        if (triggerState == null || triggerState.isArmed()) {
+            return isTriggered;
+        }
+        final double hysteresis = triggerState.getHysteresis();
+        final boolean isRearmed = switch (triggerCondition) {
+            case PV_CONDITION_GREATER, PV_CONDITION_GREATER_EQ ->
+                    !isConditionTriggered(Double.compare(value, triggerValue - hysteresis), triggerCondition);
+            case PV_CONDITION_LESS, PV_CONDITION_LESS_EQ ->
+                    !isConditionTriggered(Double.compare(value, triggerValue + hysteresis), triggerCondition);
+            default -> Math.abs(value - triggerValue) > hysteresis;
+        };
+        if (isRearmed) {
+            triggerState.rearm();
+        }
+        return false;
+    }
+
+    /**
+     * Records a value triggering the event in the supplied trigger state, returning false if the event is suppressed
+     * by the minimum re-arm interval.
+     *
+     * @param triggerState
+     * @param triggerTimestamp
+     * @return
+     */
+    private static boolean acceptTrigger(PvTriggerState triggerState, Timestamp triggerTimestamp) {
+        if (triggerState == null) {
+            return true;
+        }
+        triggerState.disarm();
+        return triggerState.checkRearmInterval(triggerTimestamp);
     }
 
     /**
@@ -83,10 +281,63 @@ public class ColumnTriggerUtility {
     public static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             DataBucket dataBucket
+    ) {
+        return checkColumnTrigger(trigger, dataBucket, null);
+    }
+
+    /**
+     * Checks if the condition for the specified PvConditionTrigger is triggered by data in the dataBucket's column
+     * payload, using and updating the supplied trigger state to filter the triggered events.  Values at or before the
+     * last value checked with the trigger state are skipped, and counted as late values in the trigger state.  The
+     * trigger state may be null, in which case each value satisfying the condition triggers an event.
+     *
+     * @param trigger
+     * @param dataBucket
+     * @param triggerState
+     * @return
+     */
+    public static ColumnTriggerResult checkColumnTrigger(
+            PvConditionTrigger trigger,
+            DataBucket dataBucket,
+            PvTriggerState triggerState
+    ) {
+        if (triggerState == null) {
+            return checkBucketTrigger(trigger, dataBucket, null, 0);
+        }
+
+        // skip values at or before the last value checked with the trigger state, which were received out of order
+        final int startIndex = triggerState.firstUncheckedIndex(dataBucket.getDataTimestamps());
+        final ColumnTriggerResult result = checkBucketTrigger(trigger, dataBucket, triggerState, startIndex);
+        if ( ! result.isError()) {
+            triggerState.addLateValues(startIndex);
+            triggerState.recordCheckedValues(dataBucket.getDataTimestamps());
+        }
+        return result;
+    }
+
+    /**
+     * Invokes the checkColumnTrigger() variant for the dataBucket's column type, checking the values from startIndex.
+     *
+     * @param trigger
+     * @param dataBucket
+     * @param triggerState
+     * @param startIndex
+     * @return
+     */
+    private static ColumnTriggerResult checkBucketTrigger(
+            PvConditionTrigger trigger,
+            DataBucket dataBucket,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         switch (dataBucket.getDataValues().getValuesCase()) {
             case DATACOLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getDataColumn(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getDataColumn(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case SERIALIZEDDATACOLUMN -> {
                 final DataColumn dataColumn;
@@ -96,28 +347,64 @@ public class ColumnTriggerUtility {
                     final String errorMsg = "InvalidProtocolBufferException msg: " + e.getMessage();
                     return new ColumnTriggerResult(true, errorMsg, null);
                 }
-                return checkColumnTrigger(trigger, dataColumn, dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger, dataColumn, dataBucket.getDataTimestamps(), triggerState, startIndex);
             }
             case DOUBLECOLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getDoubleColumn(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getDoubleColumn(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case FLOATCOLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getFloatColumn(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getFloatColumn(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case INT64COLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getInt64Column(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getInt64Column(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case INT32COLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getInt32Column(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getInt32Column(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case BOOLCOLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getBoolColumn(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getBoolColumn(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case STRINGCOLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getStringColumn(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getStringColumn(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case ENUMCOLUMN -> {
-                return checkColumnTrigger(trigger, dataBucket.getDataValues().getEnumColumn(), dataBucket.getDataTimestamps());
+                return checkColumnTrigger(
+                        trigger,
+                        dataBucket.getDataValues().getEnumColumn(),
+                        dataBucket.getDataTimestamps(),
+                        triggerState,
+                        startIndex);
             }
             case IMAGECOLUMN -> {
             }
@@ -163,16 +450,19 @@ public class ColumnTriggerUtility {
     private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             DataColumn column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
         final DataValue triggerValue = trigger.getValue();
 
         // check if each column data value triggers the event
-        int columnValueIndex = 0;
         List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (DataValue dataValue : column.getDataValuesList()) {
+        for (int columnValueIndex = startIndex ; columnValueIndex < column.getDataValuesCount() ; ++columnValueIndex) {
+
+            final DataValue dataValue = column.getDataValues(columnValueIndex);
 
             // check for type mismatch between column data value and trigger value
             if (dataValue.getValueCase() != triggerValue.getValueCase()) {
@@ -268,31 +558,32 @@ public class ColumnTriggerUtility {
                 }
             }
 
-            if (isTriggered) {
+            if (isTriggerCandidate(triggerState, isTriggered)) {
                 final Timestamp triggerTimestamp =
                         DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
                 if (triggerTimestamp == null) {
                     final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
                     return new ColumnTriggerResult(true, errorMsg, null);
                 }
-
-                // Add details for triggered event to result.
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, dataValue));
+                if (acceptTrigger(triggerState, triggerTimestamp)) {
+                    // Add details for triggered event to result.
+                    columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, dataValue));
+                }
             }
-
-            columnValueIndex = columnValueIndex + 1;
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
     }
 
-/**
- * Checks if the contents of the supplied DoubleColumn trigger the condition of the supplied PvConditionTrigger.
- */
- private static ColumnTriggerResult checkColumnTrigger(
+    /**
+     * Checks if the contents of the supplied DoubleColumn trigger the condition of the supplied PvConditionTrigger.
+     */
+    private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             DoubleColumn column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
@@ -305,40 +596,56 @@ public class ColumnTriggerUtility {
             return new ColumnTriggerResult(true, errorMsg, null);
         }
 
-        // check if each column data value triggers the event
-        int columnValueIndex = 0;
-        List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (double doubleValue : column.getValuesList()) {
+        // validate the condition once for the column, then compare primitive values without boxing
+        final int valueCount = column.getValuesCount();
+        final ColumnTriggerResult conditionErrorResult =
+                checkTriggerCondition(columnPvName, triggerCondition, valueCount - startIndex);
+        if (conditionErrorResult != null) {
+            return conditionErrorResult;
+        }
 
-            ValueTriggerResult valueTriggerResult = checkValueTrigger(doubleValue, typedTriggerValue, triggerCondition);
+        // copy the values to a primitive array for the vector scan, if enabled
+        double[] scanValues = null;
+        if (vectorScanEnabled) {
+            scanValues = new double[valueCount];
+            for (int columnValueIndex = 0 ; columnValueIndex < valueCount ; ++columnValueIndex) {
+                scanValues[columnValueIndex] = column.getValues(columnValueIndex);
+            }
+        }
 
-            boolean isError = false;
-            boolean isTriggered = false;
-            if (valueTriggerResult != null) {
-                isTriggered = valueTriggerResult.isTriggered();
-                isError = valueTriggerResult.isError();
-                if (isError) {
-                    final String errorMsg = "PvConditionTrigger error comparing data value for PV name: "
-                            + columnPvName
-                            + " msg: " + valueTriggerResult.errorMsg();
-                    return new ColumnTriggerResult(true, errorMsg, null);
+        // check if each column data value triggers the event
+        List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
+        for (int columnValueIndex = startIndex ; columnValueIndex < valueCount ; ++columnValueIndex) {
+
+            // skip to the next value the scalar check might not reject
+            if (scanValues != null) {
+                columnValueIndex = nextCandidateIndex(
+                        scanValues, columnValueIndex, triggerState, typedTriggerValue, triggerCondition);
+                if (columnValueIndex >= valueCount) {
+                    break;
                 }
             }
 
-            if (isTriggered) {
-                final Timestamp triggerTimestamp =
-                        DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
-                if (triggerTimestamp == null) {
-                    final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
+            final double doubleValue = column.getValues(columnValueIndex);
+            final boolean isTriggered =
+                    isConditionTriggered(Double.compare(doubleValue, typedTriggerValue), triggerCondition);
+            if ( ! isTriggerCandidate(triggerState, isTriggered, doubleValue, typedTriggerValue, triggerCondition)) {
+                continue;
+            }
 
-                // Add details for triggered event to result.
-                DataValue doubleDataValue = DataValue.newBuilder().setDoubleValue(doubleValue).build();
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, doubleDataValue));
+            final Timestamp triggerTimestamp =
+                    DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
+            if (triggerTimestamp == null) {
+                final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
+                return new ColumnTriggerResult(true, errorMsg, null);
+            }
+            if ( ! acceptTrigger(triggerState, triggerTimestamp)) {
+                continue;
             }
 
-            columnValueIndex = columnValueIndex + 1;
+            // Add details for triggered event to result.
+            DataValue doubleDataValue = DataValue.newBuilder().setDoubleValue(doubleValue).build();
+            columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, doubleDataValue));
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
@@ -355,7 +662,9 @@ public class ColumnTriggerUtility {
     private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             FloatColumn column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
@@ -368,40 +677,38 @@ public class ColumnTriggerUtility {
             return new ColumnTriggerResult(true, errorMsg, null);
         }
 
+        // validate the condition once for the column, then compare primitive values without boxing
+        final int valueCount = column.getValuesCount();
+        final ColumnTriggerResult conditionErrorResult =
+                checkTriggerCondition(columnPvName, triggerCondition, valueCount - startIndex);
+        if (conditionErrorResult != null) {
+            return conditionErrorResult;
+        }
+
         // check if each column data value triggers the event
-        int columnValueIndex = 0;
         List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (float floatValue : column.getValuesList()) {
-
-            ValueTriggerResult valueTriggerResult = checkValueTrigger(floatValue, typedTriggerValue, triggerCondition);
+        for (int columnValueIndex = startIndex ; columnValueIndex < valueCount ; ++columnValueIndex) {
 
-            boolean isError = false;
-            boolean isTriggered = false;
-            if (valueTriggerResult != null) {
-                isTriggered = valueTriggerResult.isTriggered();
-                isError = valueTriggerResult.isError();
-                if (isError) {
-                    final String errorMsg = "PvConditionTrigger error comparing data value for PV name: "
-                            + columnPvName
-                            + " msg: " + valueTriggerResult.errorMsg();
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
+            final float floatValue = column.getValues(columnValueIndex);
+            final boolean isTriggered =
+                    isConditionTriggered(Float.compare(floatValue, typedTriggerValue), triggerCondition);
+            if ( ! isTriggerCandidate(triggerState, isTriggered, floatValue, typedTriggerValue, triggerCondition)) {
+                continue;
             }
 
-            if (isTriggered) {
-                final Timestamp triggerTimestamp =
-                        DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
-                if (triggerTimestamp == null) {
-                    final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
-
-                // Add details for triggered event to result.
-                DataValue floatDataValue = DataValue.newBuilder().setFloatValue(floatValue).build();
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, floatDataValue));
+            final Timestamp triggerTimestamp =
+                    DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
+            if (triggerTimestamp == null) {
+                final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
+                return new ColumnTriggerResult(true, errorMsg, null);
+            }
+            if ( ! acceptTrigger(triggerState, triggerTimestamp)) {
+                continue;
             }
 
-            columnValueIndex = columnValueIndex + 1;
+            // Add details for triggered event to result.
+            DataValue floatDataValue = DataValue.newBuilder().setFloatValue(floatValue).build();
+            columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, floatDataValue));
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
@@ -418,7 +725,9 @@ public class ColumnTriggerUtility {
     private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             Int64Column column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
@@ -431,40 +740,38 @@ public class ColumnTriggerUtility {
             return new ColumnTriggerResult(true, errorMsg, null);
         }
 
+        // validate the condition once for the column, then compare primitive values without boxing
+        final int valueCount = column.getValuesCount();
+        final ColumnTriggerResult conditionErrorResult =
+                checkTriggerCondition(columnPvName, triggerCondition, valueCount - startIndex);
+        if (conditionErrorResult != null) {
+            return conditionErrorResult;
+        }
+
         // check if each column data value triggers the event
-        int columnValueIndex = 0;
         List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (long longValue : column.getValuesList()) {
+        for (int columnValueIndex = startIndex ; columnValueIndex < valueCount ; ++columnValueIndex) {
 
-            ValueTriggerResult valueTriggerResult = checkValueTrigger(longValue, typedTriggerValue, triggerCondition);
-
-            boolean isError = false;
-            boolean isTriggered = false;
-            if (valueTriggerResult != null) {
-                isTriggered = valueTriggerResult.isTriggered();
-                isError = valueTriggerResult.isError();
-                if (isError) {
-                    final String errorMsg = "PvConditionTrigger error comparing data value for PV name: "
-                            + columnPvName
-                            + " msg: " + valueTriggerResult.errorMsg();
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
+            final long longValue = column.getValues(columnValueIndex);
+            final boolean isTriggered =
+                    isConditionTriggered(Long.compare(longValue, typedTriggerValue), triggerCondition);
+            if ( ! isTriggerCandidate(triggerState, isTriggered, longValue, typedTriggerValue, triggerCondition)) {
+                continue;
             }
 
-            if (isTriggered) {
-                final Timestamp triggerTimestamp =
-                        DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
-                if (triggerTimestamp == null) {
-                    final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
-
-                // Add details for triggered event to result.
-                DataValue longDataValue = DataValue.newBuilder().setLongValue(longValue).build();
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, longDataValue));
+            final Timestamp triggerTimestamp =
+                    DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
+            if (triggerTimestamp == null) {
+                final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
+                return new ColumnTriggerResult(true, errorMsg, null);
+            }
+            if ( ! acceptTrigger(triggerState, triggerTimestamp)) {
+                continue;
             }
 
-            columnValueIndex = columnValueIndex + 1;
+            // Add details for triggered event to result.
+            DataValue longDataValue = DataValue.newBuilder().setLongValue(longValue).build();
+            columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, longDataValue));
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
@@ -481,7 +788,9 @@ public class ColumnTriggerUtility {
     private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             Int32Column column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
@@ -494,40 +803,38 @@ public class ColumnTriggerUtility {
             return new ColumnTriggerResult(true, errorMsg, null);
         }
 
+        // validate the condition once for the column, then compare primitive values without boxing
+        final int valueCount = column.getValuesCount();
+        final ColumnTriggerResult conditionErrorResult =
+                checkTriggerCondition(columnPvName, triggerCondition, valueCount - startIndex);
+        if (conditionErrorResult != null) {
+            return conditionErrorResult;
+        }
+
         // check if each column data value triggers the event
-        int columnValueIndex = 0;
         List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (int intValue : column.getValuesList()) {
-
-            ValueTriggerResult valueTriggerResult = checkValueTrigger(intValue, typedTriggerValue, triggerCondition);
+        for (int columnValueIndex = startIndex ; columnValueIndex < valueCount ; ++columnValueIndex) {
 
-            boolean isError = false;
-            boolean isTriggered = false;
-            if (valueTriggerResult != null) {
-                isTriggered = valueTriggerResult.isTriggered();
-                isError = valueTriggerResult.isError();
-                if (isError) {
-                    final String errorMsg = "PvConditionTrigger error comparing data value for PV name: "
-                            + columnPvName
-                            + " msg: " + valueTriggerResult.errorMsg();
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
+            final int intValue = column.getValues(columnValueIndex);
+            final boolean isTriggered =
+                    isConditionTriggered(Integer.compare(intValue, typedTriggerValue), triggerCondition);
+            if ( ! isTriggerCandidate(triggerState, isTriggered, intValue, typedTriggerValue, triggerCondition)) {
+                continue;
             }
 
-            if (isTriggered) {
-                final Timestamp triggerTimestamp =
-                        DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
-                if (triggerTimestamp == null) {
-                    final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
-
-                // Add details for triggered event to result.
-                DataValue intDataValue = DataValue.newBuilder().setIntValue(intValue).build();
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, intDataValue));
+            final Timestamp triggerTimestamp =
+                    DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
+            if (triggerTimestamp == null) {
+                final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
+                return new ColumnTriggerResult(true, errorMsg, null);
+            }
+            if ( ! acceptTrigger(triggerState, triggerTimestamp)) {
+                continue;
             }
 
-            columnValueIndex = columnValueIndex + 1;
+            // Add details for triggered event to result.
+            DataValue intDataValue = DataValue.newBuilder().setIntValue(intValue).build();
+            columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, intDataValue));
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
@@ -544,7 +851,9 @@ public class ColumnTriggerUtility {
     private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             BoolColumn column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
@@ -557,40 +866,38 @@ public class ColumnTriggerUtility {
             return new ColumnTriggerResult(true, errorMsg, null);
         }
 
+        // validate the condition once for the column, then compare primitive values without boxing
+        final int valueCount = column.getValuesCount();
+        final ColumnTriggerResult conditionErrorResult =
+                checkTriggerCondition(columnPvName, triggerCondition, valueCount - startIndex);
+        if (conditionErrorResult != null) {
+            return conditionErrorResult;
+        }
+
         // check if each column data value triggers the event
-        int columnValueIndex = 0;
         List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (boolean boolValue : column.getValuesList()) {
+        for (int columnValueIndex = startIndex ; columnValueIndex < valueCount ; ++columnValueIndex) {
 
-            ValueTriggerResult valueTriggerResult = checkValueTrigger(boolValue, typedTriggerValue, triggerCondition);
-
-            boolean isError = false;
-            boolean isTriggered = false;
-            if (valueTriggerResult != null) {
-                isTriggered = valueTriggerResult.isTriggered();
-                isError = valueTriggerResult.isError();
-                if (isError) {
-                    final String errorMsg = "PvConditionTrigger error comparing data value for PV name: "
-                            + columnPvName
-                            + " msg: " + valueTriggerResult.errorMsg();
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
+            final boolean boolValue = column.getValues(columnValueIndex);
+            final boolean isTriggered =
+                    isConditionTriggered(Boolean.compare(boolValue, typedTriggerValue), triggerCondition);
+            if ( ! isTriggerCandidate(triggerState, isTriggered)) {
+                continue;
             }
 
-            if (isTriggered) {
-                final Timestamp triggerTimestamp =
-                        DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
-                if (triggerTimestamp == null) {
-                    final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
-
-                // Add details for triggered event to result.
-                DataValue boolDataValue = DataValue.newBuilder().setBooleanValue(boolValue).build();
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, boolDataValue));
+            final Timestamp triggerTimestamp =
+                    DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
+            if (triggerTimestamp == null) {
+                final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
+                return new ColumnTriggerResult(true, errorMsg, null);
+            }
+            if ( ! acceptTrigger(triggerState, triggerTimestamp)) {
+                continue;
             }
 
-            columnValueIndex = columnValueIndex + 1;
+            // Add details for triggered event to result.
+            DataValue boolDataValue = DataValue.newBuilder().setBooleanValue(boolValue).build();
+            columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, boolDataValue));
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
@@ -607,7 +914,9 @@ public class ColumnTriggerUtility {
     private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             StringColumn column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
@@ -621,9 +930,10 @@ public class ColumnTriggerUtility {
         }
 
         // check if each column data value triggers the event
-        int columnValueIndex = 0;
         List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (String stringValue : column.getValuesList()) {
+        for (int columnValueIndex = startIndex ; columnValueIndex < column.getValuesCount() ; ++columnValueIndex) {
+
+            final String stringValue = column.getValues(columnValueIndex);
 
             ValueTriggerResult valueTriggerResult = checkValueTrigger(stringValue, typedTriggerValue, triggerCondition);
 
@@ -640,20 +950,19 @@ public class ColumnTriggerUtility {
                 }
             }
 
-            if (isTriggered) {
+            if (isTriggerCandidate(triggerState, isTriggered)) {
                 final Timestamp triggerTimestamp =
                         DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
                 if (triggerTimestamp == null) {
                     final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
                     return new ColumnTriggerResult(true, errorMsg, null);
                 }
-
-                // Add details for triggered event to result.
-                DataValue stringDataValue = DataValue.newBuilder().setStringValue(stringValue).build();
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, stringDataValue));
+                if (acceptTrigger(triggerState, triggerTimestamp)) {
+                    // Add details for triggered event to result.
+                    DataValue stringDataValue = DataValue.newBuilder().setStringValue(stringValue).build();
+                    columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, stringDataValue));
+                }
             }
-
-            columnValueIndex = columnValueIndex + 1;
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
@@ -670,7 +979,9 @@ public class ColumnTriggerUtility {
     private static ColumnTriggerResult checkColumnTrigger(
             PvConditionTrigger trigger,
             EnumColumn column,
-            DataTimestamps dataTimestamps
+            DataTimestamps dataTimestamps,
+            PvTriggerState triggerState,
+            int startIndex
     ) {
         final String columnPvName = column.getName();
         final PvConditionTrigger.PvCondition triggerCondition = trigger.getCondition();
@@ -683,40 +994,38 @@ public class ColumnTriggerUtility {
             return new ColumnTriggerResult(true, errorMsg, null);
         }
 
+        // validate the condition once for the column, then compare primitive values without boxing
+        final int valueCount = column.getValuesCount();
+        final ColumnTriggerResult conditionErrorResult =
+                checkTriggerCondition(columnPvName, triggerCondition, valueCount - startIndex);
+        if (conditionErrorResult != null) {
+            return conditionErrorResult;
+        }
+
         // check if each column data value triggers the event
-        int columnValueIndex = 0;
         List<ColumnTriggerEvent> columnTriggerEvents = new ArrayList<>();
-        for (int enumValue : column.getValuesList()) {
-
-            ValueTriggerResult valueTriggerResult = checkValueTrigger(enumValue, typedTriggerValue, triggerCondition);
+        for (int columnValueIndex = startIndex ; columnValueIndex < valueCount ; ++columnValueIndex) {
 
-            boolean isError = false;
-            boolean isTriggered = false;
-            if (valueTriggerResult != null) {
-                isTriggered = valueTriggerResult.isTriggered();
-                isError = valueTriggerResult.isError();
-                if (isError) {
-                    final String errorMsg = "PvConditionTrigger error comparing data value for PV name: "
-                            + columnPvName
-                            + " msg: " + valueTriggerResult.errorMsg();
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
+            final int enumValue = column.getValues(columnValueIndex);
+            final boolean isTriggered =
+                    isConditionTriggered(Integer.compare(enumValue, typedTriggerValue), triggerCondition);
+            if ( ! isTriggerCandidate(triggerState, isTriggered)) {
+                continue;
             }
 
-            if (isTriggered) {
-                final Timestamp triggerTimestamp =
-                        DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
-                if (triggerTimestamp == null) {
-                    final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
-                    return new ColumnTriggerResult(true, errorMsg, null);
-                }
-
-                // Add details for triggered event to result.
-                DataValue enumDataValue = DataValue.newBuilder().setIntValue(enumValue).build();
-                columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, enumDataValue));
+            final Timestamp triggerTimestamp =
+                    DataTimestampsUtility.timestampForIndex(dataTimestamps, columnValueIndex);
+            if (triggerTimestamp == null) {
+                final String errorMsg = "PvConditionTrigger error getting timestamp for PV: " + columnPvName;
+                return new ColumnTriggerResult(true, errorMsg, null);
+            }
+            if ( ! acceptTrigger(triggerState, triggerTimestamp)) {
+                continue;
             }
 
-            columnValueIndex = columnValueIndex + 1;
+            // Add details for triggered event to result.
+            DataValue enumDataValue = DataValue.newBuilder().setIntValue(enumValue).build();
+            columnTriggerEvents.add(new ColumnTriggerEvent(triggerTimestamp, trigger, enumDataValue));
         }
 
         return new ColumnTriggerResult(false, "", columnTriggerEvents);
@@ -6,7 +6,6 @@ import com.ospreydcs.dp.service.common.protobuf.TimestampUtility;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,24 +15,38 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This class manages buffered data for a single target PV associated with a subscribeDataEvent() handler's
- * EventMonitor.  It maintains a list of BufferedDataItems, with the policy for aging and flushing buffered data
- * specified by the DataBufferConfig.
+ * EventMonitor.  It maintains a ring buffer of BufferedDataItems in the order they are added, with the policy for aging
+ * and flushing buffered data specified by the DataBufferConfig.
  *
  * Each BufferedDataItem contains a protobuf DataBucket message received via the subscribeData() API response
  * stream. Each item also includes a timestamp for use in aging buffered data, and an estimated size in bytes for use in
  * checking response stream message size limits.
+ *
+ * Items are aged using System.nanoTime() when they are added, so the ring buffer is ordered by age and the items that
+ * have reached the configured age are always a prefix of the buffer.  Checking for and flushing aged items therefore
+ * only examines the head of the buffer, and flushing removes items from the head in constant time.
+ *
+ * Buffered items are not looked up by data time.  Flushed items are matched against the time windows of triggered
+ * events by TriggeredEventManager.groupDataByTargetedEvent(), which scans its index of active events by begin time.
  */
 public class DataBuffer {
 
     private static final Logger logger = LogManager.getLogger();
 
+    // constants
+    private static final int INITIAL_CAPACITY = 16;
+
     private final String pvName;
     private final DataBufferConfig config;
-    private final List<BufferedDataItem> bufferedItems = new ArrayList<>();
     private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
     private final Lock readLock = rwLock.readLock();
     private final Lock writeLock = rwLock.writeLock();
-    
+
+    // ring buffer of items in the order they were added, with the oldest at index head
+    private BufferedDataItem[] bufferedItems = new BufferedDataItem[INITIAL_CAPACITY];
+    private int head = 0;
+    private int itemCount = 0;
+
     private long currentBufferSizeBytes = 0;
     private Instant lastFlushTime = Instant.now();
 
@@ -70,33 +83,30 @@ public class DataBuffer {
     }
 
     /**
-     * Encapsulates a DataBucket in the DataBuffer.  Uses the bucket's dataTimestamps for determining if
-     * the buffered data overlaps the time window of a triggered event.  Includes a timestamp for aging the item in the
-     * buffer, and an estimated size for use in checking response stream message size limits.
+     * Encapsulates the BufferedData for a DataBucket in the DataBuffer, with a System.nanoTime() timestamp for aging
+     * the item in the buffer.
      */
     private static class BufferedDataItem {
 
-        private final DataBucket dataBucket;
-        private final Instant timestamp;
-        private final long estimatedSizeBytes;
+        private final BufferedData bufferedData;
+        private final long addedNanos;
 
         private BufferedDataItem(
-                DataBucket dataBucket,
-                long estimatedSizeBytes
+                BufferedData bufferedData
         ) {
-            this.dataBucket = dataBucket;
-            this.estimatedSizeBytes = estimatedSizeBytes;
-            this.timestamp = Instant.now();
+            this.bufferedData = bufferedData;
+            this.addedNanos = System.nanoTime();
         }
 
-        public DataBucket getDataBucket() { return dataBucket; }
-        public Instant getTimestamp() { return timestamp; }
-        public long getEstimatedSizeBytes() { return estimatedSizeBytes; }
+        public BufferedData getBufferedData() { return bufferedData; }
+        public long getAddedNanos() { return addedNanos; }
     }
 
     /**
      * Used to deliver BufferedDataItems flushed from the buffer via the DataBufferManager's DataProcessor interface
-     * to the consumer of flushed data for dispatching in the subscribeDataEvent() response stream.
+     * to the consumer of flushed data for dispatching in the subscribeDataEvent() response stream.  Uses the bucket's
+     * dataTimestamps for determining if the buffered data overlaps the time window of a triggered event.  Includes
+     * an estimated size for use in checking response stream message size limits.
      */
     public static class BufferedData {
 
@@ -105,10 +115,10 @@ public class DataBuffer {
         private final Instant firstInstant;
         private final Instant lastInstant;
 
-        public BufferedData(BufferedDataItem bufferedDataItem) {
+        private BufferedData(DataBucket dataBucket, long estimatedSize) {
 
-            this.dataBucket = bufferedDataItem.getDataBucket();
-            this.estimatedSize = bufferedDataItem.getEstimatedSizeBytes();
+            this.dataBucket = dataBucket;
+            this.estimatedSize = estimatedSize;
 
             // set begin / end times from dataTimestamps
             final DataTimestampsUtility.DataTimestampsModel dataTimestampsModel =
@@ -128,6 +138,61 @@ public class DataBuffer {
         this.config = config;
     }
 
+    /**
+     * Returns the item at the specified position in the buffer, where position 0 is the oldest item.
+     */
+    private BufferedDataItem itemAt(int position) {
+        return bufferedItems[(head + position) % bufferedItems.length];
+    }
+
+    private void addLast(BufferedDataItem item) {
+        if (itemCount == bufferedItems.length) {
+            // grow the ring buffer, moving the items to the start of the new array
+            final BufferedDataItem[] newItems = new BufferedDataItem[bufferedItems.length * 2];
+            for (int position = 0 ; position < itemCount ; ++position) {
+                newItems[position] = itemAt(position);
+            }
+            bufferedItems = newItems;
+            head = 0;
+        }
+        bufferedItems[(head + itemCount) % bufferedItems.length] = item;
+        itemCount++;
+    }
+
+    private BufferedDataItem removeFirst() {
+        final BufferedDataItem item = bufferedItems[head];
+        bufferedItems[head] = null;
+        head = (head + 1) % bufferedItems.length;
+        itemCount--;
+        currentBufferSizeBytes -= item.getBufferedData().getEstimatedSize();
+        if (itemCount == 0) {
+            head = 0;
+        }
+        return item;
+    }
+
+    private boolean isAged(BufferedDataItem item, long nowNanos) {
+        return nowNanos - item.getAddedNanos() >= config.getMaxItemAgeNanos();
+    }
+
+    /**
+     * Returns the number of items at the head of the buffer that have reached the configured age, using binary search
+     * since the items are ordered by age.
+     */
+    private int agedItemCount(long nowNanos) {
+        int low = 0;
+        int high = itemCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (isAged(itemAt(mid), nowNanos)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Adds entry for dataBucket to the DataBuffer's list of items.
      */
@@ -144,13 +209,13 @@ public class DataBuffer {
                                 + dataBucket.getDataValues().getValuesCase());
             }
 
-            BufferedDataItem item = new BufferedDataItem(dataBucket, estimatedSize);
-            
-            bufferedItems.add(item);
+            BufferedDataItem item = new BufferedDataItem(new BufferedData(dataBucket, estimatedSize));
+
+            addLast(item);
             currentBufferSizeBytes += estimatedSize;
             
             logger.debug("Added DataColumn to buffer for PV: {}, buffer size: {} bytes, {} items",
-                        pvName, currentBufferSizeBytes, bufferedItems.size());
+                        pvName, currentBufferSizeBytes, itemCount);
         } finally {
             writeLock.unlock();
         }
@@ -159,30 +224,24 @@ public class DataBuffer {
     /**
      * Determines when it's time to flush the DataBuffer by checking if 1) items have exceeded the maximum age,
      * 2) if the flush time interval has passed, 3) if the buffer size limit in bytes or number of items is surpassed.
+     * Only the oldest item is checked for age, since it is the first to expire.
      *
      * @return
      */
     public boolean shouldFlush() {
         readLock.lock();
         try {
-            if (bufferedItems.isEmpty()) {
+            if (itemCount == 0) {
                 return false;
             }
 
             Instant now = Instant.now();
             long timeSinceLastFlush = now.toEpochMilli() - lastFlushTime.toEpochMilli();
-            
-            // Check if any items have exceeded max age
-            boolean hasExpiredItems = bufferedItems.stream()
-                .anyMatch(item -> {
-                    Duration itemAge = Duration.between(item.getTimestamp(), now);
-                    return itemAge.toNanos() >= config.getMaxItemAgeNanos();
-                });
-            
+
             return timeSinceLastFlush >= config.getFlushIntervalMs() ||
                    currentBufferSizeBytes >= config.getMaxBufferSizeBytes() ||
-                   bufferedItems.size() >= config.getMaxBufferItems() ||
-                   hasExpiredItems;
+                   itemCount >= config.getMaxBufferItems() ||
+                   isAged(itemAt(0), System.nanoTime());
         } finally {
             readLock.unlock();
         }
@@ -196,35 +255,23 @@ public class DataBuffer {
     public List<BufferedData> flush() {
         writeLock.lock();
         try {
-            if (bufferedItems.isEmpty()) {
+            if (itemCount == 0) {
                 return new ArrayList<>();
             }
 
-            Instant now = Instant.now();
+            // Only flush items that have reached the configured age, which are at the head of the buffer
+            final long nowNanos = System.nanoTime();
             List<BufferedData> results = new ArrayList<>();
-            List<BufferedDataItem> itemsToRemove = new ArrayList<>();
-            
-            // Only flush items that have reached the configured age
-            for (BufferedDataItem item : bufferedItems) {
-                Duration itemAge = Duration.between(item.getTimestamp(), now);
-                if (itemAge.toNanos() >= config.getMaxItemAgeNanos()) {
-                    results.add(new BufferedData(item));
-                    itemsToRemove.add(item);
-                }
-            }
-
-            // Remove flushed items and update buffer size
-            for (BufferedDataItem item : itemsToRemove) {
-                bufferedItems.remove(item);
-                currentBufferSizeBytes -= item.getEstimatedSizeBytes();
+            while (itemCount > 0 && isAged(itemAt(0), nowNanos)) {
+                results.add(removeFirst().getBufferedData());
             }
 
             if (!results.isEmpty()) {
                 logger.debug("Flushing {} aged items from buffer for PV: {}, {} items remaining, {} bytes remaining", 
-                            results.size(), pvName, bufferedItems.size(), currentBufferSizeBytes);
+                            results.size(), pvName, itemCount, currentBufferSizeBytes);
             }
 
-            lastFlushTime = now;
+            lastFlushTime = Instant.now();
             return results;
         } finally {
             writeLock.unlock();
@@ -234,7 +281,7 @@ public class DataBuffer {
     public int getBufferedItemCount() {
         readLock.lock();
         try {
-            return bufferedItems.size();
+            return itemCount;
         } finally {
             readLock.unlock();
         }
@@ -403,20 +450,17 @@ public class DataBuffer {
     public List<BufferedData> forceFlushAll() {
         writeLock.lock();
         try {
-            if (bufferedItems.isEmpty()) {
+            if (itemCount == 0) {
                 return new ArrayList<>();
             }
 
-            List<BufferedData> results = new ArrayList<>();
-            for (BufferedDataItem item : bufferedItems) {
-                results.add(new BufferedData(item));
-            }
-
             logger.debug("Force flushing all {} items from buffer for PV: {}, {} bytes", 
-                        bufferedItems.size(), pvName, currentBufferSizeBytes);
+                        itemCount, pvName, currentBufferSizeBytes);
 
-            bufferedItems.clear();
-            currentBufferSizeBytes = 0;
+            List<BufferedData> results = new ArrayList<>(itemCount);
+            while (itemCount > 0) {
+                results.add(removeFirst().getBufferedData());
+            }
             lastFlushTime = Instant.now();
 
             return results;
@@ -428,19 +472,13 @@ public class DataBuffer {
     public int getItemsReadyToFlush() {
         readLock.lock();
         try {
-            if (bufferedItems.isEmpty()) {
+            if (itemCount == 0) {
                 return 0;
             }
 
-            Instant now = Instant.now();
-            return (int) bufferedItems.stream()
-                .filter(item -> {
-                    Duration itemAge = Duration.between(item.getTimestamp(), now);
-                    return itemAge.toNanos() >= config.getMaxItemAgeNanos();
-                })
-                .count();
+            return agedItemCount(System.nanoTime());
         } finally {
             readLock.unlock();
         }
     }
-}
\ No newline at end of file
+}
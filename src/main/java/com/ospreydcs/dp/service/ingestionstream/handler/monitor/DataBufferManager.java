@@ -4,20 +4,28 @@ import com.ospreydcs.dp.grpc.v1.common.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.xml.crypto.Data;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class is used to buffer target PV data for the EventMonitor created to manage a subscribeDataEvent()
  * subscription.
  *
  * It uses a DataBuffer for each target PV specified in the subscription, with the pvBuffers map containing an entry
- * for each.  It uses the flushScheduler thread pool to manage flushing the data buffers at the configured interval.
+ * for each.  It registers a periodic task with the flushScheduler, which is shared by all EventMonitors, to check
+ * the data buffers at the configured interval, and cancels the task on shutdown.  The check only determines whether
+ * any buffer is due, and hands the flush to the flushExecutor, so that an EventMonitor that is slow to process flushed
+ * data (e.g., sending to a slow response stream) doesn't delay the checks for other EventMonitors.  At most one flush
+ * task is pending for the manager at a time, so a slow EventMonitor occupies at most one flushExecutor thread.
+ * On shutdown, the final flush waits for a flush task that is already running, so that data isn't delivered to the
+ * EventMonitor concurrently or out of order.
  * It defines the DataProcessor interface, which is implemented by the client EventMonitor to receive data flushed
  * from buffers.
  */
@@ -32,12 +40,24 @@ public class DataBufferManager {
 
     private final DataBuffer.DataBufferConfig config;
     private final Map<String, DataBuffer> pvBuffers = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService flushScheduler = Executors.newScheduledThreadPool(2);
+    private final ScheduledExecutorService flushScheduler;
+    private final Executor flushExecutor;
     private final DataProcessor dataProcessor;
-
-    public DataBufferManager(DataProcessor dataProcessor, DataBuffer.DataBufferConfig config) {
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+    private volatile boolean shutdown = false;
+    private ScheduledFuture<?> flushCheckTask = null;
+
+    public DataBufferManager(
+            DataProcessor dataProcessor,
+            DataBuffer.DataBufferConfig config,
+            ScheduledExecutorService flushScheduler,
+            Executor flushExecutor
+    ) {
         this.dataProcessor = dataProcessor;
         this.config = config;
+        this.flushScheduler = flushScheduler;
+        this.flushExecutor = flushExecutor;
         startPeriodicFlush();
     }
 
@@ -79,41 +99,81 @@ public class DataBufferManager {
 
     public void shutdown() {
         logger.info("Shutting down DataBufferManager");
-        
-        forceFlushAll();
-        
-        flushScheduler.shutdown();
-        try {
-            if (!flushScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                flushScheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            flushScheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+        shutdown = true;
+
+        // deregister the periodic flush check from the shared scheduler
+        if (flushCheckTask != null) {
+            flushCheckTask.cancel(false);
+        }
+
+        // wait for a flush task already running on the flushExecutor before the final flush
+        synchronized (flushLock) {
+            forceFlushAll();
         }
     }
 
     private void startPeriodicFlush() {
         long flushCheckInterval = Math.max(config.getFlushIntervalMs() / 4, 100);
         
-        flushScheduler.scheduleWithFixedDelay(this::checkAndFlushBuffers, 
+        flushCheckTask = flushScheduler.scheduleWithFixedDelay(this::checkAndFlushBuffers,
                                             flushCheckInterval, 
                                             flushCheckInterval, 
                                             TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Executed by the shared flushScheduler.  Submits a flush task to the flushExecutor if any buffer is due to be
+     * flushed and no flush task is already pending for this manager.  Data becoming due while a flush task is
+     * running is picked up by the next check.
+     */
     private void checkAndFlushBuffers() {
         try {
-            pvBuffers.forEach((pvName, buffer) -> {
-                if (buffer.shouldFlush()) {
-                    flushBuffer(pvName, buffer);
-                }
-            });
+            if (!hasBufferToFlush() || !flushPending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                flushExecutor.execute(this::flushDueBuffers);
+            } catch (RejectedExecutionException e) {
+                flushPending.set(false);
+                logger.error("Error submitting buffer flush task: {}", e.getMessage());
+            }
         } catch (Exception e) {
             logger.error("Error during periodic buffer flush check", e);
         }
     }
 
+    private boolean hasBufferToFlush() {
+        for (DataBuffer buffer : pvBuffers.values()) {
+            if (buffer.shouldFlush()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Executed by the flushExecutor to flush the buffers that are due and deliver their data to the DataProcessor.
+     * Holds the flushLock so that shutdown() waits for the flush to complete.
+     */
+    private void flushDueBuffers() {
+        try {
+            synchronized (flushLock) {
+                if (shutdown) {
+                    return;
+                }
+                pvBuffers.forEach((pvName, buffer) -> {
+                    if (buffer.shouldFlush()) {
+                        flushBuffer(pvName, buffer);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            logger.error("Error during periodic buffer flush", e);
+        } finally {
+            flushPending.set(false);
+        }
+    }
+
     private void flushBuffer(String pvName, DataBuffer buffer) {
         try {
             List<DataBuffer.BufferedData> results = buffer.flush();
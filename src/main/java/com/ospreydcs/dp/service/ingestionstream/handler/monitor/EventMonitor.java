@@ -22,6 +22,10 @@ import org.apache.logging.log4j.Logger;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -40,8 +44,13 @@ import java.util.function.Function;
  * trigger or target PVs.
  *
  * Data arriving for trigger PVs is sent to ColumnTriggerUtility.checkColumnTrigger() to check if a column data vector
- * triggers the event defined by the corresponding PvConditionTrigger. The TriggeredEventManager tracks active events
- * that are triggered for the subscription.
+ * triggers the event defined by the corresponding PvConditionTrigger. If the configured trigger mode requires it, a
+ * PvTriggerState is maintained for each PvConditionTrigger to suppress repeated events while the PV remains in the
+ * triggering condition.  Data for a PV may be received out of order across ingestion requests, so if a reorder window
+ * is configured, trigger PV data is held in the PvTriggerState for that window and checked in timestamp order, with
+ * the pending data released as more data arrives and by a periodic task on the shared scheduler.  Trigger PV values
+ * received after later values were checked are skipped, counted, and logged.  The TriggeredEventManager tracks active
+ * events that are triggered for the subscription.
  *
  * Data arriving for target PVs is buffered via the DataBufferManager.  When an event is triggered for the subscription,
  * the data that is buffered for the target PVs is dispatched in the subscribeDataEvent() response stream.  Data flushed
@@ -73,6 +82,20 @@ public class EventMonitor {
     private static final long DEFAULT_EVENT_CLEANUP_INTERVAL_MILLIS = 5000L;
     private static final String CFG_KEY_EVENT_CLEANUP_INTERVAL_MILLIS = "IngestionStreamHandler.EventMonitor.TriggeredEventManager.eventCleanupIntervalMillis";
 
+    // PvTriggerState constants
+    private static final PvTriggerState.TriggerMode DEFAULT_TRIGGER_MODE = PvTriggerState.TriggerMode.LEVEL;
+    private static final String CFG_KEY_TRIGGER_MODE = "IngestionStreamHandler.EventMonitor.Trigger.mode";
+    private static final double DEFAULT_TRIGGER_HYSTERESIS = 0.0;
+    private static final String CFG_KEY_TRIGGER_HYSTERESIS = "IngestionStreamHandler.EventMonitor.Trigger.hysteresis";
+    private static final long DEFAULT_TRIGGER_MIN_REARM_INTERVAL_NANOS = 0L;
+    private static final String CFG_KEY_TRIGGER_MIN_REARM_INTERVAL_NANOS = "IngestionStreamHandler.EventMonitor.Trigger.minRearmIntervalNanos";
+    private static final long DEFAULT_TRIGGER_REORDER_WINDOW_NANOS = 100_000_000L; // 100ms
+    private static final String CFG_KEY_TRIGGER_REORDER_WINDOW_NANOS =
+            "IngestionStreamHandler.EventMonitor.Trigger.reorderWindowNanos";
+    private static final long MIN_TRIGGER_RELEASE_INTERVAL_MILLIS = 10L;
+    private static final boolean DEFAULT_TRIGGER_VECTOR_SCAN = false;
+    private static final String CFG_KEY_TRIGGER_VECTOR_SCAN = "IngestionStreamHandler.EventMonitor.Trigger.vectorScan";
+
     // static variables
     private static final Logger logger = LogManager.getLogger();
 
@@ -81,11 +104,14 @@ public class EventMonitor {
     public final StreamObserver<SubscribeDataEventResponse> responseObserver;
     private final IngestionStreamHandlerInterface handler;
     protected final Map<String, PvConditionTrigger> pvTriggerMap = new HashMap<>();
+    protected final Map<String, PvTriggerState> pvTriggerStateMap = new HashMap<>();
     protected final Set<String> targetPvNames = new HashSet<>();
     protected final DataBufferManager bufferManager;
     protected final TriggeredEventManager triggeredEventManager;
     protected final SubscribeDataCallManager subscribeDataCallManager;
     private final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
+    private final EventMonitorMailbox mailbox;
+    private ScheduledFuture<?> triggerReleaseTask = null;
 
     // configuration accessors
     protected static ConfigurationManager configMgr() {
@@ -124,16 +150,59 @@ public class EventMonitor {
         return configMgr().getConfigLong(CFG_KEY_EVENT_CLEANUP_INTERVAL_MILLIS, DEFAULT_EVENT_CLEANUP_INTERVAL_MILLIS);
     }
 
+    /**
+     * Returns true if the configuration enables the Vector API scan of DoubleColumn trigger values, which the handler
+     * passes to ColumnTriggerUtility.enableVectorScan().
+     */
+    public static boolean getTriggerVectorScanConfig() {
+        return configMgr().getConfigBoolean(CFG_KEY_TRIGGER_VECTOR_SCAN, DEFAULT_TRIGGER_VECTOR_SCAN);
+    }
+
+    /**
+     * Returns the trigger state configuration shared by all EventMonitors.  The handler uses it to determine whether
+     * subscribeData() responses must be delivered to each monitor in order.
+     */
+    public static PvTriggerState.TriggerStateConfig getTriggerStateConfig() {
+        final PvTriggerState.TriggerMode mode =
+                triggerModeFromConfig(configMgr().getConfigString(CFG_KEY_TRIGGER_MODE, DEFAULT_TRIGGER_MODE.name()));
+        final double hysteresis =
+                Math.max(0.0, configMgr().getConfigDouble(CFG_KEY_TRIGGER_HYSTERESIS, DEFAULT_TRIGGER_HYSTERESIS));
+        final long minRearmIntervalNanos = configMgr().getConfigLong(
+                CFG_KEY_TRIGGER_MIN_REARM_INTERVAL_NANOS, DEFAULT_TRIGGER_MIN_REARM_INTERVAL_NANOS);
+        final long reorderWindowNanos = Math.max(0L, configMgr().getConfigLong(
+                CFG_KEY_TRIGGER_REORDER_WINDOW_NANOS, DEFAULT_TRIGGER_REORDER_WINDOW_NANOS));
+        return new PvTriggerState.TriggerStateConfig(mode, hysteresis, minRearmIntervalNanos, reorderWindowNanos);
+    }
+
+    private static PvTriggerState.TriggerMode triggerModeFromConfig(String configValue) {
+        if (configValue == null || configValue.isBlank()) {
+            return DEFAULT_TRIGGER_MODE;
+        }
+        try {
+            return PvTriggerState.TriggerMode.valueOf(configValue.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("invalid trigger mode: {}, using default: {}", configValue, DEFAULT_TRIGGER_MODE);
+            return DEFAULT_TRIGGER_MODE;
+        }
+    }
+
     public EventMonitor(
             SubscribeDataEventRequest.NewSubscription requestSubscription,
             StreamObserver<SubscribeDataEventResponse> responseObserver,
             IngestionStreamHandler handler,
-            IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient
+            IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient,
+            ScheduledExecutorService monitorScheduler,
+            ExecutorService flushExecutor,
+            SubscribeDataMultiplexer subscribeDataMultiplexer,
+            ExecutorService mailboxExecutor,
+            int mailboxCapacity,
+            EventMonitorMailbox.OverflowPolicy mailboxOverflowPolicy
     ) {
         this.requestSubscription = requestSubscription;
         this.responseObserver = responseObserver;
         this.handler = handler;
-        this.subscribeDataCallManager = new SubscribeDataCallManager(this, handler, ingestionServiceGrpcClient);
+        this.subscribeDataCallManager = new SubscribeDataCallManager(
+                this, handler, ingestionServiceGrpcClient, subscribeDataMultiplexer);
 
         // use negative offset value from request to determine buffer data age limit (plus a cushion)
         long negativeOffset = 0L;
@@ -164,17 +233,36 @@ public class EventMonitor {
                 bufferAgeLimit);
 
         // Create buffer manager with callback to process data
-        this.bufferManager = new DataBufferManager(this::processBufferedData, dataBufferConfig);
+        this.bufferManager = new DataBufferManager(
+                this::processBufferedData, dataBufferConfig, monitorScheduler, flushExecutor);
 
         // Create and start triggered event manager
         TriggeredEventManager.TriggeredEventManagerConfig eventManagerConfig =
             new TriggeredEventManager.TriggeredEventManagerConfig(
                     getEventExpirationNanos(),
                     getCleanupIntervalMillis());
-        this.triggeredEventManager = new TriggeredEventManager(eventManagerConfig);
+        this.triggeredEventManager = new TriggeredEventManager(eventManagerConfig, monitorScheduler);
         this.triggeredEventManager.start();
 
+        // create mailbox for executing subscribeData() responses in order on the shared pool, if one is provided
+        this.mailbox = (mailboxExecutor == null)
+                ? null
+                : new EventMonitorMailbox(mailboxExecutor, mailboxCapacity, mailboxOverflowPolicy);
+
         this.initialize(requestSubscription);
+
+        // release trigger PV data held for reordering when no further data arrives for the PV
+        final PvTriggerState.TriggerStateConfig triggerStateConfig = getTriggerStateConfig();
+        if ( ! pvTriggerStateMap.isEmpty() && triggerStateConfig.reorderWindowNanos() > 0) {
+            final long releaseIntervalMillis = Math.max(
+                    MIN_TRIGGER_RELEASE_INTERVAL_MILLIS,
+                    TimeUnit.NANOSECONDS.toMillis(triggerStateConfig.reorderWindowNanos()) / 2);
+            this.triggerReleaseTask = monitorScheduler.scheduleWithFixedDelay(
+                    this::releasePendingTriggerData,
+                    releaseIntervalMillis,
+                    releaseIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
     }
 
     private void initialize(SubscribeDataEventRequest.NewSubscription request) {
@@ -184,6 +272,14 @@ public class EventMonitor {
             pvTriggerMap.put(trigger.getPvName(), trigger);
         }
 
+        // initialize pvTriggerStateMap if configured trigger mode requires state for each trigger
+        final PvTriggerState.TriggerStateConfig triggerStateConfig = getTriggerStateConfig();
+        if ( ! triggerStateConfig.isStateless()) {
+            for (String pvName : pvTriggerMap.keySet()) {
+                pvTriggerStateMap.put(pvName, new PvTriggerState(triggerStateConfig));
+            }
+        }
+
         // initialize targetPvNames from request
         targetPvNames.addAll(request.getOperation().getTargetPvsList());
     }
@@ -340,21 +436,20 @@ public class EventMonitor {
             return;
         }
 
-        // iterate through each triggered event, dispatching messages in the response stream for data targeting that event
-        List<TriggeredEvent> activeEvents = this.triggeredEventManager.getActiveEvents();
-        for (TriggeredEvent triggeredEvent : activeEvents) {
+        // group data items by the active triggered events they target, using the event manager's time index
+        final Map<TriggeredEvent, List<DataBuffer.BufferedData>> eventDataMap =
+                this.triggeredEventManager.groupDataByTargetedEvent(bufferedDataList);
 
+        // iterate through each targeted event, dispatching messages in the response stream for its data
+        for (Map.Entry<TriggeredEvent, List<DataBuffer.BufferedData>> eventDataEntry : eventDataMap.entrySet()) {
+
+            final TriggeredEvent triggeredEvent = eventDataEntry.getKey();
             final List<DataBucket> currentDataBuckets = new ArrayList<>();
             long currentMessageSize = 0;
             final long baseMessageOverhead = 200; // Base overhead for EventData message structure
 
-            // iterate through each data item, check if the data time targets the triggeredEvent
-            for (DataBuffer.BufferedData bufferedData : bufferedDataList) {
-
-                // only dispatch bufferedData in response stream if the data time targets this TriggeredEvent
-                if ( ! triggeredEvent.isTargetedByData(bufferedData)) {
-                    continue;
-                }
+            // iterate through each data item targeting the triggeredEvent
+            for (DataBuffer.BufferedData bufferedData : eventDataEntry.getValue()) {
 
                 final DataBucket dataBucket = bufferedData.getDataBucket();
                 final long bucketSize = bufferedData.getEstimatedSize();
@@ -424,15 +519,7 @@ public class EventMonitor {
             // handle trigger PV buckets
             final PvConditionTrigger pvConditionTrigger = pvTriggerMap.get(pvName);
             if (pvConditionTrigger != null) {
-                ColumnTriggerResult columnTriggerResult =
-                        ColumnTriggerUtility.checkColumnTrigger(pvConditionTrigger, dataBucket);
-                if (columnTriggerResult.isError()) {
-                    handleError(columnTriggerResult.errorMsg());
-                }
-                // handle events triggered by column, list might be empty
-                for (ColumnTriggerEvent event : columnTriggerResult.columnTriggerEvents()) {
-                    handleTriggeredEvent(event.triggerTimestamp(), event.trigger(), event.dataValue());
-                }
+                handleTriggerPvData(pvName, pvConditionTrigger, dataBucket);
             }
 
             // handle target PV buckets
@@ -443,6 +530,111 @@ public class EventMonitor {
         }
     }
 
+    /**
+     * Checks a bucket of trigger PV data against the PV's PvConditionTrigger, using the PV's trigger state if there is
+     * one.  If the trigger state has a reorder window, the bucket is added to its pending buckets, and the pending
+     * buckets that have been held for the window are checked in timestamp order.
+     *
+     * @param pvName
+     * @param pvConditionTrigger
+     * @param dataBucket
+     */
+    private void handleTriggerPvData(String pvName, PvConditionTrigger pvConditionTrigger, DataBucket dataBucket) {
+
+        final PvTriggerState triggerState = pvTriggerStateMap.get(pvName);
+        if (triggerState == null) {
+            handleColumnTriggerResult(ColumnTriggerUtility.checkColumnTrigger(pvConditionTrigger, dataBucket));
+            return;
+        }
+
+        // trigger state must be updated by one column at a time, events are handled after releasing it
+        final List<ColumnTriggerResult> columnTriggerResults = new ArrayList<>();
+        synchronized (triggerState) {
+            if (triggerState.isReordering()) {
+                final long nowNanos = System.nanoTime();
+                triggerState.addPendingBucket(dataBucket, nowNanos);
+                for (DataBucket releasedBucket : triggerState.releasePendingBuckets(nowNanos)) {
+                    columnTriggerResults.add(
+                            checkStatefulTrigger(pvName, pvConditionTrigger, releasedBucket, triggerState));
+                }
+            } else {
+                columnTriggerResults.add(checkStatefulTrigger(pvName, pvConditionTrigger, dataBucket, triggerState));
+            }
+        }
+        for (ColumnTriggerResult columnTriggerResult : columnTriggerResults) {
+            handleColumnTriggerResult(columnTriggerResult);
+        }
+    }
+
+    /**
+     * Checks a bucket of trigger PV data using the PV's trigger state, which the caller synchronizes on, and logs any
+     * values skipped because they were received after later values were checked.  The first late values for the PV
+     * are logged as a warning.
+     */
+    private ColumnTriggerResult checkStatefulTrigger(
+            String pvName,
+            PvConditionTrigger pvConditionTrigger,
+            DataBucket dataBucket,
+            PvTriggerState triggerState
+    ) {
+        final long previousLateValueCount = triggerState.getLateValueCount();
+        final ColumnTriggerResult columnTriggerResult =
+                ColumnTriggerUtility.checkColumnTrigger(pvConditionTrigger, dataBucket, triggerState);
+        final long lateValueCount = triggerState.getLateValueCount();
+        if (lateValueCount > previousLateValueCount) {
+            if (previousLateValueCount == 0) {
+                logger.warn(
+                        "id: {} skipped {} trigger values for PV: {} received after later values were checked,"
+                                + " consider increasing the trigger reorder window",
+                        responseObserver.hashCode(), lateValueCount, pvName);
+            } else {
+                logger.debug(
+                        "id: {} skipped {} late trigger values for PV: {} total: {}",
+                        responseObserver.hashCode(), lateValueCount - previousLateValueCount, pvName, lateValueCount);
+            }
+        }
+        return columnTriggerResult;
+    }
+
+    private void handleColumnTriggerResult(ColumnTriggerResult columnTriggerResult) {
+        if (columnTriggerResult.isError()) {
+            handleError(columnTriggerResult.errorMsg());
+        }
+        // handle events triggered by column, list might be empty
+        for (ColumnTriggerEvent event : columnTriggerResult.columnTriggerEvents()) {
+            handleTriggeredEvent(event.triggerTimestamp(), event.trigger(), event.dataValue());
+        }
+    }
+
+    /**
+     * Executed periodically by the shared scheduler when trigger states have a reorder window, to check the pending
+     * trigger PV data that has been held for the window when no further data has arrived for the PV.
+     */
+    private void releasePendingTriggerData() {
+        try {
+            if (shutdownRequested.get()) {
+                return;
+            }
+            for (Map.Entry<String, PvTriggerState> entry : pvTriggerStateMap.entrySet()) {
+                final String pvName = entry.getKey();
+                final PvTriggerState triggerState = entry.getValue();
+                final PvConditionTrigger pvConditionTrigger = pvTriggerMap.get(pvName);
+                final List<ColumnTriggerResult> columnTriggerResults = new ArrayList<>();
+                synchronized (triggerState) {
+                    for (DataBucket releasedBucket : triggerState.releasePendingBuckets(System.nanoTime())) {
+                        columnTriggerResults.add(
+                                checkStatefulTrigger(pvName, pvConditionTrigger, releasedBucket, triggerState));
+                    }
+                }
+                for (ColumnTriggerResult columnTriggerResult : columnTriggerResults) {
+                    handleColumnTriggerResult(columnTriggerResult);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("id: {} error releasing pending trigger data", responseObserver.hashCode(), e);
+        }
+    }
+
     /**
      * Handles data flushed from the DataBufferManager by dispatching it to handleTargetPvData().
      *
@@ -462,12 +654,50 @@ public class EventMonitor {
         }
     }
 
+    /**
+     * Returns the mailbox for executing this monitor's subscribeData() responses, or null if responses are executed via
+     * the handler's request queue.
+     */
+    public EventMonitorMailbox getMailbox() {
+        return mailbox;
+    }
+
     public void requestShutdown() {
 
         // use AtomicBoolean flag to control cancel, we only need one caller thread cleaning things up
         if (shutdownRequested.compareAndSet(false, true)) {
 
             logger.debug("requestShutdown id: {}", responseObserver.hashCode());
+            if (mailbox != null) {
+                logger.debug(
+                        "requestShutdown id: {} mailbox depth: {} max depth: {} submitted: {} executed: {} failed: {}"
+                                + " overflow: {}",
+                        responseObserver.hashCode(),
+                        mailbox.getDepth(),
+                        mailbox.getMaxDepth(),
+                        mailbox.getSubmittedJobCount(),
+                        mailbox.getExecutedJobCount(),
+                        mailbox.getFailedJobCount(),
+                        mailbox.getOverflowCount());
+            }
+
+            // stop releasing pending trigger data, and report late trigger values
+            if (triggerReleaseTask != null) {
+                triggerReleaseTask.cancel(false);
+            }
+            for (Map.Entry<String, PvTriggerState> entry : pvTriggerStateMap.entrySet()) {
+                final PvTriggerState triggerState = entry.getValue();
+                synchronized (triggerState) {
+                    if (triggerState.getLateValueCount() > 0 || triggerState.getPendingBucketCount() > 0) {
+                        logger.debug(
+                                "requestShutdown id: {} trigger PV: {} late values skipped: {} pending buckets: {}",
+                                responseObserver.hashCode(),
+                                entry.getKey(),
+                                triggerState.getLateValueCount(),
+                                triggerState.getPendingBucketCount());
+                    }
+                }
+            }
 
             // terminate subscribeData() subscription
             subscribeDataCallManager.terminateSubscription();
@@ -0,0 +1,204 @@
+package com.ospreydcs.dp.service.ingestionstream.handler.monitor;
+
+import com.ospreydcs.dp.service.common.handler.HandlerJob;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded mailbox of subscribeData() response jobs for a single EventMonitor, executed one at a time in the order they
+ * are submitted using a thread pool shared by all EventMonitors.  At most one drain task per mailbox is scheduled on
+ * the pool, so a monitor's responses are never processed concurrently or out of order, while different monitors'
+ * responses are processed in parallel without contending for the handler's request queue.
+ *
+ * A drain task executes at most DRAIN_BATCH_SIZE jobs before rescheduling itself behind other monitors' tasks, so a
+ * busy monitor doesn't monopolize a pool thread.
+ *
+ * Submitting a job never blocks, since jobs are submitted from the gRPC callback thread of a subscribeData() response
+ * stream that may be shared by other monitors (see SubscribeDataMultiplexer), and one slow monitor must not stall
+ * delivery to the others.  When the mailbox contains capacity droppable jobs (i.e., jobs for data responses), the
+ * overflow policy determines whether the oldest queued data job or the new one is dropped.  Jobs that aren't
+ * droppable, such as those reporting an error or the end of the response stream, are always queued.  Each dropped job
+ * is counted, and the first overflow is logged as a warning.
+ */
+public class EventMonitorMailbox {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // constants
+    private static final int DRAIN_BATCH_SIZE = 32;
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+
+    /**
+     * Wraps a job in the mailbox with whether it may be dropped when the mailbox is full.
+     */
+    private record MailboxEntry(HandlerJob job, boolean droppable) {
+    }
+
+    // instance variables
+    private final ExecutorService executor;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<MailboxEntry> jobs = new LinkedBlockingQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final AtomicInteger maxDepth = new AtomicInteger(0);
+    private final AtomicLong submittedJobCount = new AtomicLong(0);
+    private final AtomicLong executedJobCount = new AtomicLong(0);
+    private final AtomicLong failedJobCount = new AtomicLong(0);
+    private final AtomicLong overflowCount = new AtomicLong(0);
+
+    public EventMonitorMailbox(ExecutorService executor, int capacity) {
+        this(executor, capacity, OverflowPolicy.DROP_OLDEST);
+    }
+
+    public EventMonitorMailbox(ExecutorService executor, int capacity, OverflowPolicy overflowPolicy) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Adds a droppable job to the mailbox, see submit(HandlerJob, boolean).
+     */
+    public void submit(HandlerJob job) {
+        submit(job, true);
+    }
+
+    /**
+     * Adds the job to the mailbox without blocking, and schedules a drain task if one isn't already scheduled.  If the
+     * job is droppable and the mailbox is full, the overflow policy is applied.  The job is dropped if the shared pool
+     * has been shut down.
+     */
+    public void submit(HandlerJob job, boolean droppable) {
+
+        if (executor.isShutdown()) {
+            logger.debug("EventMonitorMailbox executor shut down, dropping job");
+            return;
+        }
+
+        if (droppable && jobs.size() >= capacity) {
+            final boolean oldestDropped = (overflowPolicy == OverflowPolicy.DROP_OLDEST) && removeOldestDroppable();
+            handleOverflow();
+            if (!oldestDropped) {
+                return;
+            }
+        }
+
+        jobs.add(new MailboxEntry(job, droppable));
+        submittedJobCount.incrementAndGet();
+        maxDepth.accumulateAndGet(jobs.size(), Math::max);
+        scheduleDrain();
+    }
+
+    /**
+     * Removes the oldest droppable job from the mailbox, returning false if there is none (e.g., because a drain task
+     * removed the queued jobs concurrently).
+     */
+    private boolean removeOldestDroppable() {
+        final Iterator<MailboxEntry> iterator = jobs.iterator();
+        while (iterator.hasNext()) {
+            final MailboxEntry entry = iterator.next();
+            if (entry.droppable() && jobs.remove(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handleOverflow() {
+        final long count = overflowCount.incrementAndGet();
+        if (count == 1) {
+            logger.warn(
+                    "EventMonitorMailbox full with capacity: {}, dropping {} job, monitor is not keeping up",
+                    capacity,
+                    (overflowPolicy == OverflowPolicy.DROP_OLDEST) ? "oldest" : "newest");
+        } else {
+            logger.debug("EventMonitorMailbox full, dropped job count: {}", count);
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+                logger.debug("EventMonitorMailbox drain rejected by executor: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Executes queued jobs in order, up to DRAIN_BATCH_SIZE, then releases the drain flag and reschedules if jobs
+     * remain, including jobs submitted after the last poll that saw the drain flag set.
+     */
+    private void drain() {
+        try {
+            for (int i = 0 ; i < DRAIN_BATCH_SIZE ; ++i) {
+                final MailboxEntry entry = jobs.poll();
+                if (entry == null) {
+                    break;
+                }
+                try {
+                    entry.job().execute();
+                    executedJobCount.incrementAndGet();
+                } catch (Exception e) {
+                    failedJobCount.incrementAndGet();
+                    logger.error("EventMonitorMailbox exception executing job", e);
+                }
+            }
+        } finally {
+            drainScheduled.set(false);
+        }
+        if (!jobs.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    public int getDepth() {
+        return jobs.size();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getSubmittedJobCount() {
+        return submittedJobCount.get();
+    }
+
+    /**
+     * Returns the number of jobs that completed without throwing an exception.
+     */
+    public long getExecutedJobCount() {
+        return executedJobCount.get();
+    }
+
+    /**
+     * Returns the number of jobs that threw an exception, which are logged and skipped.
+     */
+    public long getFailedJobCount() {
+        return failedJobCount.get();
+    }
+
+    /**
+     * Returns the number of jobs dropped because the mailbox was full.
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+}
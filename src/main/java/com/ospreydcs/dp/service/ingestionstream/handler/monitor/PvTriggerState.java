@@ -0,0 +1,230 @@
+package com.ospreydcs.dp.service.ingestionstream.handler.monitor;
+
+import com.ospreydcs.dp.grpc.v1.common.DataBucket;
+import com.ospreydcs.dp.grpc.v1.common.DataTimestamps;
+import com.ospreydcs.dp.grpc.v1.common.Timestamp;
+import com.ospreydcs.dp.service.common.protobuf.DataTimestampsUtility;
+import com.ospreydcs.dp.service.common.protobuf.TimestampUtility;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Maintains the state of a PvConditionTrigger across the data received for its PV, for use by
+ * ColumnTriggerUtility.checkColumnTrigger() in reducing the events triggered while a PV remains in the triggering
+ * condition.  The TriggerStateConfig specifies 1) the trigger mode, 2) a hysteresis band, and 3) a minimum interval
+ * between triggered events.
+ *
+ * In LEVEL mode, each value satisfying the condition triggers an event, as without trigger state.  In EDGE mode, an
+ * event is triggered only by a value satisfying the condition after a value that doesn't, e.g., rising above the
+ * trigger value for PV_CONDITION_GREATER or falling below it for PV_CONDITION_LESS.  After triggering, the state is
+ * disarmed until a value crosses back beyond the trigger value by the hysteresis band, so noise around the trigger
+ * value doesn't re-trigger the event.  The hysteresis band applies to numeric columns, for other columns the trigger
+ * re-arms when a value doesn't satisfy the condition.  The state also starts disarmed in EDGE mode, so a PV that is
+ * already in the triggering condition when the subscription starts doesn't trigger an event until it re-arms.
+ *
+ * In either mode, a value that would trigger an event is ignored if its timestamp is less than the minimum re-arm
+ * interval after that of the last triggered event.
+ *
+ * Values must be checked in timestamp order, so callers synchronize on the state while checking a column.  The
+ * EventMonitor delivers the data for a monitor in the order it is received via its mailbox, but the order in which
+ * data for a PV is received is not guaranteed across ingestion requests, since the Ingestion Service publishes
+ * requests handled by its workers in parallel.  If the configuration specifies a reorder window, the EventMonitor adds
+ * each bucket for the PV to the state's pending buckets, ordered by the time of their first value, and releases them
+ * for checking in that order once they have been pending for the reorder window, so that data received up to the
+ * window late is checked in timestamp order.
+ *
+ * The state records the timestamp of the last value checked, and values at or before it (i.e., values received after
+ * later values were checked) are not checked.  These late values are counted, for the EventMonitor to report.
+ */
+public class PvTriggerState {
+
+    public enum TriggerMode {
+        LEVEL,
+        EDGE
+    }
+
+    public record TriggerStateConfig(
+            TriggerMode mode,
+            double hysteresis,
+            long minRearmIntervalNanos,
+            long reorderWindowNanos
+    ) {
+        /**
+         * Returns true if the configuration doesn't change the default behavior of triggering an event for each value
+         * satisfying the condition, so no trigger state is needed.
+         */
+        public boolean isStateless() {
+            return mode == TriggerMode.LEVEL && minRearmIntervalNanos <= 0;
+        }
+    }
+
+    /**
+     * A bucket waiting in the reorder window, with the time of its first value and the System.nanoTime() it was
+     * received.  The sequence number keeps buckets with the same first value time in the order received.
+     */
+    private record PendingBucket(DataBucket dataBucket, Instant firstInstant, long receivedNanos, long sequence) {
+    }
+
+    private static final Comparator<PendingBucket> PENDING_BUCKET_ORDER =
+            Comparator.comparing(PendingBucket::firstInstant).thenComparingLong(PendingBucket::sequence);
+
+    // instance variables
+    private final TriggerStateConfig config;
+    private boolean armed;
+    private Instant lastTriggerInstant = null;
+    private Instant lastCheckedInstant = null;
+    private long lateValueCount = 0;
+    private final PriorityQueue<PendingBucket> pendingBuckets = new PriorityQueue<>(PENDING_BUCKET_ORDER);
+    private long pendingSequence = 0;
+
+    public PvTriggerState(TriggerStateConfig config) {
+        this.config = config;
+        this.armed = config.mode() != TriggerMode.EDGE;
+    }
+
+    public double getHysteresis() {
+        return config.hysteresis();
+    }
+
+    /**
+     * Returns true if a value satisfying the condition can trigger an event.  Always true in LEVEL mode.
+     */
+    public boolean isArmed() {
+        return armed;
+    }
+
+    public void rearm() {
+        armed = true;
+    }
+
+    /**
+     * Records that a value satisfied the condition, disarming the trigger in EDGE mode.
+     */
+    public void disarm() {
+        if (config.mode() == TriggerMode.EDGE) {
+            armed = false;
+        }
+    }
+
+    /**
+     * Checks the minimum re-arm interval for a value satisfying the condition, returning true and recording the
+     * trigger time if the event should be triggered.
+     */
+    public boolean checkRearmInterval(Timestamp triggerTimestamp) {
+        if (config.minRearmIntervalNanos() <= 0) {
+            return true;
+        }
+        final Instant triggerInstant = TimestampUtility.instantFromTimestamp(triggerTimestamp);
+        if (lastTriggerInstant != null
+                && triggerInstant.isBefore(lastTriggerInstant.plusNanos(config.minRearmIntervalNanos()))) {
+            return false;
+        }
+        lastTriggerInstant = triggerInstant;
+        return true;
+    }
+
+    /**
+     * Returns the index of the first value in a column with the supplied timestamps that is later than the last value
+     * checked with this state.  Values within a column are in timestamp order, so the index is found by binary search.
+     */
+    public int firstUncheckedIndex(DataTimestamps dataTimestamps) {
+        if (lastCheckedInstant == null) {
+            return 0;
+        }
+        int low = 0;
+        int high = sampleCount(dataTimestamps);
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final Instant midInstant =
+                    TimestampUtility.instantFromTimestamp(DataTimestampsUtility.timestampForIndex(dataTimestamps, mid));
+            if (midInstant.isAfter(lastCheckedInstant)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Records the timestamp of the last value in a column with the supplied timestamps as checked.
+     */
+    public void recordCheckedValues(DataTimestamps dataTimestamps) {
+        final int sampleCount = sampleCount(dataTimestamps);
+        if (sampleCount == 0) {
+            return;
+        }
+        final Instant lastInstant = TimestampUtility.instantFromTimestamp(
+                DataTimestampsUtility.timestampForIndex(dataTimestamps, sampleCount - 1));
+        if (lastCheckedInstant == null || lastInstant.isAfter(lastCheckedInstant)) {
+            lastCheckedInstant = lastInstant;
+        }
+    }
+
+    /**
+     * Adds the supplied count of values skipped because they were at or before the last value checked.
+     */
+    public void addLateValues(int count) {
+        lateValueCount += count;
+    }
+
+    /**
+     * Returns the number of values that were not checked because they were received after later values were checked.
+     */
+    public long getLateValueCount() {
+        return lateValueCount;
+    }
+
+    /**
+     * Returns true if the configuration specifies a reorder window, so buckets are added to the pending buckets
+     * instead of being checked when received.
+     */
+    public boolean isReordering() {
+        return config.reorderWindowNanos() > 0;
+    }
+
+    /**
+     * Adds a bucket for the PV to the pending buckets, to be released by releasePendingBuckets() once it has been
+     * pending for the reorder window.
+     */
+    public void addPendingBucket(DataBucket dataBucket, long receivedNanos) {
+        final DataTimestamps dataTimestamps = dataBucket.getDataTimestamps();
+        final Instant firstInstant = (sampleCount(dataTimestamps) == 0)
+                ? Instant.MIN
+                : TimestampUtility.instantFromTimestamp(DataTimestampsUtility.timestampForIndex(dataTimestamps, 0));
+        pendingBuckets.add(new PendingBucket(dataBucket, firstInstant, receivedNanos, pendingSequence++));
+    }
+
+    /**
+     * Removes and returns the pending buckets to check, in order of the time of their first value.  Buckets are
+     * released from the head of that order while the head bucket has been pending for the reorder window, so a bucket
+     * received late but within the window is released before buckets with later values.
+     */
+    public List<DataBucket> releasePendingBuckets(long nowNanos) {
+        final List<DataBucket> releasedBuckets = new ArrayList<>();
+        PendingBucket head = pendingBuckets.peek();
+        while (head != null && nowNanos - head.receivedNanos() >= config.reorderWindowNanos()) {
+            releasedBuckets.add(pendingBuckets.poll().dataBucket());
+            head = pendingBuckets.peek();
+        }
+        return releasedBuckets;
+    }
+
+    public int getPendingBucketCount() {
+        return pendingBuckets.size();
+    }
+
+    private static int sampleCount(DataTimestamps dataTimestamps) {
+        if (dataTimestamps.hasSamplingClock()) {
+            return dataTimestamps.getSamplingClock().getCount();
+        } else if (dataTimestamps.hasTimestampList()) {
+            return dataTimestamps.getTimestampList().getTimestampsCount();
+        }
+        return 0;
+    }
+
+}
@@ -23,6 +23,7 @@ public class SubscribeDataCallManager {
     private final EventMonitor eventMonitor;
     private final IngestionStreamHandler handler;
     private IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient;
+    private final SubscribeDataMultiplexer multiplexer;
     private SubscribeDataUtility.SubscribeDataCall subscribeDataCall = null;
 
     private record CallSubscribeDataResult(
@@ -35,11 +36,13 @@ public class SubscribeDataCallManager {
     public SubscribeDataCallManager(
             EventMonitor eventMonitor,
             IngestionStreamHandler handler,
-            IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient
+            IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient,
+            SubscribeDataMultiplexer multiplexer
     ) {
         this.eventMonitor = eventMonitor;
         this.handler = handler;
         this.ingestionServiceGrpcClient = ingestionServiceGrpcClient;
+        this.multiplexer = multiplexer;
     }
 
     private CallSubscribeDataResult callSubscribeData(List<String> pvNames) {
@@ -81,6 +84,11 @@ public class SubscribeDataCallManager {
 
         logger.debug("initiating subscribeData() subscription for monitor: {}", eventMonitor.hashCode());
 
+        // share upstream subscriptions with other monitors if multiplexing is enabled
+        if (multiplexer != null) {
+            return multiplexer.subscribe(eventMonitor, eventMonitor.getPvNames());
+        }
+
         // create observer for subscribeData() API method response stream
         final CallSubscribeDataResult result = callSubscribeData(new ArrayList<>(eventMonitor.getPvNames()));
         if (result.isError()) {
@@ -97,7 +105,9 @@ public class SubscribeDataCallManager {
         logger.debug("terminating subscribeData() subscription for monitor: {}", eventMonitor.hashCode());
 
         // terminate subscribeData() subscription
-        if (this.subscribeDataCall != null) {
+        if (multiplexer != null) {
+            multiplexer.unsubscribe(eventMonitor, eventMonitor.getPvNames());
+        } else if (this.subscribeDataCall != null) {
             this.subscribeDataCall.requestObserver().onCompleted();
         }
     }
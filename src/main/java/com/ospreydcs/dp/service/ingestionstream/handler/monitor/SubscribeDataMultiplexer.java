@@ -0,0 +1,304 @@
+package com.ospreydcs.dp.service.ingestionstream.handler.monitor;
+
+import com.ospreydcs.dp.grpc.v1.ingestion.DpIngestionServiceGrpc;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataRequest;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
+import com.ospreydcs.dp.service.common.model.ResultStatus;
+import com.ospreydcs.dp.service.ingest.utility.IngestionServiceClientUtility;
+import com.ospreydcs.dp.service.ingest.utility.SubscribeDataUtility;
+import com.ospreydcs.dp.service.ingestionstream.handler.IngestionStreamHandler;
+import com.ospreydcs.dp.service.ingestionstream.handler.job.EventMonitorSubscribeDataResponseJob;
+import io.grpc.stub.StreamObserver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multiplexes the subscribeData() subscriptions of all EventMonitors over a single upstream subscription to the
+ * Ingestion Service for each PV.  Upstream subscriptions are reference counted by the EventMonitors interested in each
+ * PV: the first monitor for a PV opens the upstream subscription, later monitors share it, and the last monitor to
+ * unsubscribe closes it.  Data received for a PV is fanned out locally to each interested monitor by adding a job to
+ * the handler queue, as for a monitor's own subscription, so the Ingestion Service publishes each PV's data to the
+ * Ingestion Stream Service once regardless of the number of event subscriptions using it.
+ */
+public class SubscribeDataMultiplexer {
+
+    // static variables
+    private static final Logger logger = LogManager.getLogger();
+
+    // constants
+    private static final long ACK_TIMEOUT_MINUTES = 1;
+
+    // instance variables
+    private final IngestionStreamHandler handler;
+    private final IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient;
+    private final Map<String, PvSubscription> pvSubscriptions = new HashMap<>();
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Upstream subscribeData() subscription for a single PV, and the EventMonitors receiving its data.  The set of
+     * monitors is copy-on-write so that data is fanned out without locking.  Membership in pvSubscriptions and the
+     * closed flag are guarded by the multiplexer lock.
+     */
+    private class PvSubscription implements StreamObserver<SubscribeDataResponse> {
+
+        private final String pvName;
+        private final Set<EventMonitor> monitors = new CopyOnWriteArraySet<>();
+        private final CompletableFuture<ResultStatus> ackFuture = new CompletableFuture<>();
+        private final AtomicBoolean upstreamClosed = new AtomicBoolean(false);
+        private volatile StreamObserver<SubscribeDataRequest> requestObserver = null;
+        private boolean closed = false;
+
+        private PvSubscription(String pvName) {
+            this.pvName = pvName;
+        }
+
+        private void open() {
+            logger.debug("opening upstream subscribeData() subscription for pv: {}", pvName);
+            final DpIngestionServiceGrpc.DpIngestionServiceStub stub = ingestionServiceGrpcClient.newStub();
+            requestObserver = stub.subscribeData(this);
+            requestObserver.onNext(SubscribeDataUtility.buildSubscribeDataRequest(List.of(pvName)));
+        }
+
+        /**
+         * Waits until the subscription is acknowledged or the deadline, a System.nanoTime() value, is reached.
+         */
+        private ResultStatus awaitAck(long deadlineNanos) {
+            try {
+                final long remainingNanos = Math.max(deadlineNanos - System.nanoTime(), 0);
+                return ackFuture.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (ackFuture.complete(
+                        new ResultStatus(true, "time out waiting for subscribeData() ack response"))) {
+                    remove();
+                    closeUpstream();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new ResultStatus(true, "InterruptedException waiting for subscribeData() ack response");
+            } catch (ExecutionException e) {
+                return new ResultStatus(true, "exception waiting for subscribeData() ack response");
+            }
+            return ackFuture.join();
+        }
+
+        private boolean isAcknowledged() {
+            return ackFuture.isDone() && !ackFuture.join().isError;
+        }
+
+        /**
+         * Removes the subscription from the multiplexer so that later subscribers for the PV open a new one.
+         */
+        private void remove() {
+            lock.lock();
+            try {
+                closed = true;
+                if (pvSubscriptions.get(pvName) == this) {
+                    pvSubscriptions.remove(pvName);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void closeUpstream() {
+            if (requestObserver != null && upstreamClosed.compareAndSet(false, true)) {
+                logger.debug("closing upstream subscribeData() subscription for pv: {}", pvName);
+                requestObserver.onCompleted();
+            }
+        }
+
+        @Override
+        public void onNext(SubscribeDataResponse subscribeDataResponse) {
+
+            logger.debug(
+                    "received SubscribeDataResponse type: {} pv: {}",
+                    subscribeDataResponse.getResultCase().name(),
+                    pvName);
+
+            switch (subscribeDataResponse.getResultCase()) {
+                case EXCEPTIONALRESULT -> {
+                    // a reject or error for the initial request fails the subscribers waiting for the ack
+                    final String errorMsg = subscribeDataResponse.getExceptionalResult().getMessage();
+                    if (ackFuture.complete(new ResultStatus(true, errorMsg))) {
+                        remove();
+                        closeUpstream();
+                        return;
+                    }
+                }
+                case ACKRESULT -> {
+                    ackFuture.complete(new ResultStatus(false, ""));
+                    return;
+                }
+                default -> {
+                    // treat data received before the ack as confirmation of the subscription
+                    ackFuture.complete(new ResultStatus(false, ""));
+                }
+            }
+
+            // dispatch response to each EventMonitor for handling
+            for (EventMonitor monitor : monitors) {
+                handler.addJob(new EventMonitorSubscribeDataResponseJob(monitor, subscribeDataResponse));
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            logger.debug(
+                    "onError unexpected grpc error for pv: {} msg: {}",
+                    pvName,
+                    throwable.getMessage());
+            handleClosed(true);
+        }
+
+        @Override
+        public void onCompleted() {
+            logger.debug("onCompleted() response stream closed for pv: {}", pvName);
+            handleClosed(false);
+        }
+
+        /**
+         * Handles the upstream response stream closing.  If the subscription was not closed by the multiplexer, the
+         * monitors using it are notified so they terminate, as for the failure of a monitor's own subscription.
+         */
+        private void handleClosed(boolean isError) {
+
+            final boolean wasAcknowledged = isAcknowledged();
+            ackFuture.complete(new ResultStatus(true, "subscribeData() response stream closed before ack response"));
+
+            final List<EventMonitor> closedMonitors;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (pvSubscriptions.get(pvName) == this) {
+                    pvSubscriptions.remove(pvName);
+                }
+                closedMonitors = new ArrayList<>(monitors);
+                monitors.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            if (wasAcknowledged) {
+                for (EventMonitor monitor : closedMonitors) {
+                    handler.addJob(new EventMonitorSubscribeDataResponseJob(monitor, isError, !isError));
+                }
+            }
+        }
+    }
+
+    public SubscribeDataMultiplexer(
+            IngestionStreamHandler handler,
+            IngestionServiceClientUtility.IngestionServiceGrpcClient ingestionServiceGrpcClient
+    ) {
+        this.handler = handler;
+        this.ingestionServiceGrpcClient = ingestionServiceGrpcClient;
+    }
+
+    /**
+     * Subscribes the EventMonitor to data for the specified PVs, opening an upstream subscription for each PV that
+     * doesn't already have one.  All upstream subscriptions are opened before waiting for any acknowledgement, and the
+     * acknowledgements are awaited against a single deadline, so the wait is bounded by the slowest PV rather than the
+     * sum over all PVs.  If any PV subscription fails, the monitor is unsubscribed from all of the PVs and the error is
+     * returned.
+     */
+    public ResultStatus subscribe(EventMonitor monitor, Collection<String> pvNames) {
+
+        logger.debug("subscribe monitor: {} pvs: {}", monitor.hashCode(), pvNames);
+
+        // add the monitor to the subscription for each PV, creating subscriptions for PVs that don't have one
+        final List<PvSubscription> subscriptions = new ArrayList<>();
+        final List<PvSubscription> newSubscriptions = new ArrayList<>();
+        lock.lock();
+        try {
+            for (String pvName : pvNames) {
+                PvSubscription subscription = pvSubscriptions.get(pvName);
+                if (subscription == null) {
+                    subscription = new PvSubscription(pvName);
+                    pvSubscriptions.put(pvName, subscription);
+                    newSubscriptions.add(subscription);
+                }
+                subscription.monitors.add(monitor);
+                subscriptions.add(subscription);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // open new upstream subscriptions after releasing the lock
+        for (PvSubscription subscription : newSubscriptions) {
+            subscription.open();
+        }
+
+        // wait for all subscriptions to be acknowledged
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(ACK_TIMEOUT_MINUTES);
+        for (PvSubscription subscription : subscriptions) {
+            final ResultStatus status = subscription.awaitAck(deadlineNanos);
+            if (status.isError) {
+                unsubscribe(monitor, pvNames);
+                return status;
+            }
+        }
+
+        return new ResultStatus(false, "");
+    }
+
+    /**
+     * Unsubscribes the EventMonitor from data for the specified PVs, closing the upstream subscription for each PV
+     * that has no remaining monitors.
+     */
+    public void unsubscribe(EventMonitor monitor, Collection<String> pvNames) {
+
+        logger.debug("unsubscribe monitor: {} pvs: {}", monitor.hashCode(), pvNames);
+
+        for (String pvName : pvNames) {
+
+            PvSubscription unusedSubscription = null;
+            lock.lock();
+            try {
+                final PvSubscription subscription = pvSubscriptions.get(pvName);
+                if (subscription != null
+                        && subscription.monitors.remove(monitor)
+                        && subscription.monitors.isEmpty()) {
+                    subscription.closed = true;
+                    pvSubscriptions.remove(pvName);
+                    unusedSubscription = subscription;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // close upstream subscription after releasing the lock
+            if (unusedSubscription != null) {
+                unusedSubscription.closeUpstream();
+            }
+        }
+    }
+
+    public int getUpstreamSubscriptionCount() {
+        lock.lock();
+        try {
+            return pvSubscriptions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
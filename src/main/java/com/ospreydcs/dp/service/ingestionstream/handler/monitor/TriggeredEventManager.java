@@ -3,19 +3,47 @@ package com.ospreydcs.dp.service.ingestionstream.handler.monitor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Tracks the active TriggeredEvents for an EventMonitor until they expire.  Active events are indexed by the begin
+ * time of their time window, so that the events whose windows overlap a buffered data item are found by a range scan
+ * over the index instead of checking every active event.  Since the window of any event begins no more than the
+ * longest window duration before it ends, the events overlapping an item are those beginning between the item's first
+ * time minus that duration and the item's last time.  The events for an EventMonitor share a single window duration,
+ * so the range contains only overlapping events.
+ */
 public class TriggeredEventManager {
 
     private static final Logger logger = LogManager.getLogger();
 
+    /**
+     * Index key ordering events by window begin time, with a sequence number distinguishing events with the same
+     * begin time.
+     */
+    private record EventKey(Instant beginTime, long sequence) {
+    }
+
+    private record TargetedEventData(TriggeredEvent event, List<DataBuffer.BufferedData> bufferedDataList) {
+    }
+
+    private static final Comparator<EventKey> EVENT_KEY_ORDER =
+            Comparator.comparing(EventKey::beginTime).thenComparingLong(EventKey::sequence);
+
     public static class TriggeredEventManagerConfig {
         private final long expirationDelayNanos;
         private final long cleanupIntervalMs;
@@ -35,13 +63,21 @@ public class TriggeredEventManager {
     }
 
     private final TriggeredEventManagerConfig config;
-    private final ConcurrentLinkedDeque<TriggeredEvent> activeEvents = new ConcurrentLinkedDeque<>();
-    private final ScheduledExecutorService cleanupScheduler = Executors.newScheduledThreadPool(1);
+    private final ConcurrentSkipListMap<EventKey, TriggeredEvent> activeEvents =
+            new ConcurrentSkipListMap<>(EVENT_KEY_ORDER);
+    private final ScheduledExecutorService cleanupScheduler;
     private final AtomicLong eventCounter = new AtomicLong(0);
+    private final AtomicLong maxWindowDurationNanos = new AtomicLong(0);
     private volatile boolean isRunning = false;
+    private ScheduledFuture<?> cleanupTask = null;
 
-    public TriggeredEventManager(TriggeredEventManagerConfig config) {
+    /**
+     * Creates a manager whose periodic cleanup of expired events runs on the specified scheduler, which is shared by
+     * all EventMonitors.
+     */
+    public TriggeredEventManager(TriggeredEventManagerConfig config, ScheduledExecutorService cleanupScheduler) {
         this.config = config;
+        this.cleanupScheduler = cleanupScheduler;
     }
 
     public void start() {
@@ -65,14 +101,9 @@ public class TriggeredEventManager {
         logger.info("Shutting down TriggeredEventManager");
         isRunning = false;
 
-        cleanupScheduler.shutdown();
-        try {
-            if (!cleanupScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                cleanupScheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            cleanupScheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+        // deregister the periodic cleanup from the shared scheduler
+        if (cleanupTask != null) {
+            cleanupTask.cancel(false);
         }
 
         // Clear all active events
@@ -88,23 +119,73 @@ public class TriggeredEventManager {
             return;
         }
 
-        activeEvents.add(event);
+        // track the longest window so that index range scans include every overlapping event
+        final long windowDurationNanos =
+                Duration.between(event.getBeginTime(), event.getEndTime()).toNanos();
+        maxWindowDurationNanos.accumulateAndGet(windowDurationNanos, Math::max);
+
         long eventId = eventCounter.incrementAndGet();
-        
-        logger.debug("Added triggered event #{}, active events count: {}, expiration time: {}", 
-                    eventId, activeEvents.size(), event.getExpirationTime());
+        activeEvents.put(new EventKey(event.getBeginTime(), eventId), event);
+
+        logger.debug("Added triggered event #{}, begin time: {}, expiration time: {}",
+                    eventId, event.getBeginTime(), event.getExpirationTime());
     }
 
+    /**
+     * Returns the active events ordered by window begin time.
+     */
     public List<TriggeredEvent> getActiveEvents() {
-        return new ArrayList<>(activeEvents);
+        return new ArrayList<>(activeEvents.values());
     }
 
     public int getActiveEventCount() {
         return activeEvents.size();
     }
 
+    /**
+     * Groups the buffered data items by the active events they target, as determined by
+     * TriggeredEvent.isTargetedByData().  The map is ordered by event window begin time, and each event's items are in
+     * the order of the supplied list.  Items targeting no active event are omitted.
+     */
+    public Map<TriggeredEvent, List<DataBuffer.BufferedData>> groupDataByTargetedEvent(
+            List<DataBuffer.BufferedData> bufferedDataList
+    ) {
+        final TreeMap<EventKey, TargetedEventData> targetedEventMap = new TreeMap<>(EVENT_KEY_ORDER);
+        for (DataBuffer.BufferedData bufferedData : bufferedDataList) {
+            for (Map.Entry<EventKey, TriggeredEvent> entry : candidateEvents(bufferedData).entrySet()) {
+                final TriggeredEvent event = entry.getValue();
+                if (event.isTargetedByData(bufferedData)) {
+                    targetedEventMap.computeIfAbsent(
+                            entry.getKey(), k -> new TargetedEventData(event, new ArrayList<>()))
+                            .bufferedDataList().add(bufferedData);
+                }
+            }
+        }
+
+        final Map<TriggeredEvent, List<DataBuffer.BufferedData>> eventDataMap = new LinkedHashMap<>();
+        for (TargetedEventData targetedEventData : targetedEventMap.values()) {
+            eventDataMap.put(targetedEventData.event(), targetedEventData.bufferedDataList());
+        }
+        return eventDataMap;
+    }
+
+    /**
+     * Returns the index range containing the events that might overlap the buffered data item, i.e., events beginning
+     * no earlier than the longest window duration before the item's first time and no later than its last time.
+     */
+    private NavigableMap<EventKey, TriggeredEvent> candidateEvents(DataBuffer.BufferedData bufferedData) {
+        final Instant fromBeginTime = bufferedData.getFirstInstant().minusNanos(maxWindowDurationNanos.get());
+        final Instant toBeginTime = bufferedData.getLastInstant();
+        if (toBeginTime.isBefore(fromBeginTime)) {
+            return Collections.emptyNavigableMap();
+        }
+        return activeEvents.subMap(
+                new EventKey(fromBeginTime, Long.MIN_VALUE), true,
+                new EventKey(toBeginTime, Long.MAX_VALUE), true);
+    }
+
     private void startPeriodicCleanup() {
-        cleanupScheduler.scheduleWithFixedDelay(
+        cleanupTask = cleanupScheduler.scheduleWithFixedDelay(
             this::cleanupExpiredEvents,
             config.getCleanupIntervalMs(),
             config.getCleanupIntervalMs(),
@@ -122,23 +203,25 @@ public class TriggeredEventManager {
             int removedCount = 0;
             int totalChecked = 0;
 
-            // Remove expired events from the front of the deque
-            // Note: We assume events are generally added in chronological order
+            // Remove expired events from the front of the index
+            // Note: expiration time follows window begin time for events sharing a window duration, so we stop at
+            // the first event that hasn't expired
             while (!activeEvents.isEmpty()) {
-                TriggeredEvent event = activeEvents.peekFirst();
-                if (event == null) {
+                Map.Entry<EventKey, TriggeredEvent> entry = activeEvents.firstEntry();
+                if (entry == null) {
                     break;
                 }
 
                 totalChecked++;
+                TriggeredEvent event = entry.getValue();
                 if (event.isExpired()) {
-                    activeEvents.removeFirst();
+                    activeEvents.remove(entry.getKey());
                     removedCount++;
                     logger.debug("Removed expired triggered event, expiration time: {}, current time: {}", 
                                event.getExpirationTime(), now);
                 } else {
                     // If the first event hasn't expired, subsequent events likely haven't either
-                    // (assuming chronological order), so we can break early
+                    // (assuming a common window duration), so we can break early
                     break;
                 }
             }
@@ -0,0 +1,71 @@
+package com.ospreydcs.dp.service.ingestionstream.handler.monitor;
+
+import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scans a column of double values with the incubating Vector API for the next value that might satisfy a trigger
+ * condition, so that ColumnTriggerUtility can skip runs of values that don't need to be checked.  This class is only
+ * loaded when ColumnTriggerUtility.enableVectorScan() finds the jdk.incubator.vector module, which must be added to the
+ * JVM with "--add-modules jdk.incubator.vector".
+ *
+ * Trigger conditions are evaluated with Double.compare(), which orders NaN above all other values and -0.0 below 0.0,
+ * while the Vector API comparisons use IEEE semantics.  The two agree except for NaN values and values equal to the
+ * compare value, so the scan also stops at those, and the caller checks each value returned by the scan with the same
+ * scalar code used when the scan is disabled.  A lane is never skipped unless the scalar check would reject it.
+ */
+final class VectorTriggerScanner {
+
+    // constants
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorTriggerScanner() {
+    }
+
+    /**
+     * Returns the index of the first value at or after fromIndex that might satisfy the condition when compared to
+     * compareValue, or values.length if there is none.  Values in the tail that doesn't fill a vector are not scanned,
+     * so the first tail index is returned for the caller to check.
+     *
+     * @param values
+     * @param fromIndex
+     * @param compareValue
+     * @param condition
+     * @return
+     */
+    static int nextCandidateIndex(
+            double[] values,
+            int fromIndex,
+            double compareValue,
+            PvConditionTrigger.PvCondition condition
+    ) {
+        final VectorOperators.Comparison comparison = switch (condition) {
+            case PV_CONDITION_EQUAL_TO -> VectorOperators.EQ;
+            case PV_CONDITION_GREATER -> VectorOperators.GT;
+            case PV_CONDITION_GREATER_EQ -> VectorOperators.GE;
+            case PV_CONDITION_LESS -> VectorOperators.LT;
+            case PV_CONDITION_LESS_EQ -> VectorOperators.LE;
+            default -> null;
+        };
+        if (comparison == null || Double.isNaN(compareValue)) {
+            return fromIndex;
+        }
+
+        int index = fromIndex;
+        final int upperBound = fromIndex + SPECIES.loopBound(values.length - fromIndex);
+        for ( ; index < upperBound ; index += SPECIES.length()) {
+            final DoubleVector vector = DoubleVector.fromArray(SPECIES, values, index);
+            final VectorMask<Double> candidates = vector.compare(comparison, compareValue)
+                    .or(vector.compare(VectorOperators.EQ, compareValue))
+                    .or(vector.test(VectorOperators.IS_NAN));
+            if (candidates.anyTrue()) {
+                return index + candidates.firstTrue();
+            }
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.ospreydcs.dp.service.query.handler.mongo;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Returns the BucketDocuments from each of a list of cursors in turn, so that a queryData request answered partly
+ * from raw buckets and partly from rollup tiers is sent by the dispatchers as a single result.  Each cursor must
+ * return the buckets for a disjoint set of PVs, so the buckets for each PV remain in time order.  Closing the cursor
+ * closes all of the underlying cursors.
+ */
+public class ConcatenatedBucketCursor implements MongoCursor<BucketDocument> {
+
+    // instance variables
+    private final List<MongoCursor<BucketDocument>> cursors;
+    private int cursorIndex = 0;
+
+    public ConcatenatedBucketCursor(List<MongoCursor<BucketDocument>> cursors) {
+        this.cursors = cursors;
+    }
+
+    /**
+     * Returns the first cursor, starting with the current one, that has more results, or null if all are exhausted.
+     */
+    private MongoCursor<BucketDocument> currentCursor() {
+        while (cursorIndex < cursors.size()) {
+            final MongoCursor<BucketDocument> cursor = cursors.get(cursorIndex);
+            if (cursor.hasNext()) {
+                return cursor;
+            }
+            cursorIndex++;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        for (MongoCursor<BucketDocument> cursor : cursors) {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return currentCursor() != null;
+    }
+
+    @Override
+    public BucketDocument next() {
+        final MongoCursor<BucketDocument> cursor = currentCursor();
+        if (cursor == null) {
+            throw new NoSuchElementException();
+        }
+        return cursor.next();
+    }
+
+    @Override
+    public int available() {
+        return (cursorIndex < cursors.size()) ? cursors.get(cursorIndex).available() : 0;
+    }
+
+    @Override
+    public BucketDocument tryNext() {
+        return hasNext() ? next() : null;
+    }
+
+    @Override
+    public ServerCursor getServerCursor() {
+        return (cursorIndex < cursors.size()) ? cursors.get(cursorIndex).getServerCursor() : null;
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+        return (cursorIndex < cursors.size()) ? cursors.get(cursorIndex).getServerAddress() : null;
+    }
+
+}
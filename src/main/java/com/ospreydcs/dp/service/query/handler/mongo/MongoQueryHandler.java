@@ -1,8 +1,11 @@
 package com.ospreydcs.dp.service.query.handler.mongo;
 
 import com.ospreydcs.dp.grpc.v1.query.*;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupUtility;
 import com.ospreydcs.dp.service.common.handler.QueueHandlerBase;
 import com.ospreydcs.dp.service.common.model.ResultStatus;
+import com.ospreydcs.dp.service.common.mongo.MongoClientBase;
+import com.ospreydcs.dp.service.common.protobuf.DataBucketDecimationUtility;
 import com.ospreydcs.dp.service.query.handler.QueryHandlerUtility;
 import com.ospreydcs.dp.service.query.handler.interfaces.QueryHandlerInterface;
 import com.ospreydcs.dp.service.query.handler.mongo.client.MongoQueryClientInterface;
@@ -21,6 +24,22 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
     // configuration
     public static final String CFG_KEY_NUM_WORKERS = "QueryHandler.numWorkers";
     public static final int DEFAULT_NUM_WORKERS = 7;
+    public static final String CFG_KEY_QUEUE_CAPACITY = "QueryHandler.queueCapacity";
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+    public static final String CFG_KEY_OVERLOAD_POLICY = "QueryHandler.overloadPolicy";
+    public static final String CFG_KEY_VIRTUAL_THREADS = "QueryHandler.virtualThreads";
+    public static final boolean DEFAULT_VIRTUAL_THREADS = false;
+    public static final String CFG_KEY_MAX_CONCURRENT_JOBS = "QueryHandler.maxConcurrentJobs";
+    public static final int DEFAULT_MAX_CONCURRENT_JOBS = 100;
+    public static final String CFG_KEY_SPLICE_STORED_BYTES = "QueryHandler.spliceStoredBytes";
+    public static final boolean DEFAULT_SPLICE_STORED_BYTES = false;
+    public static final String CFG_KEY_TRIM_TO_TIME_RANGE = "QueryHandler.trimToTimeRange";
+    public static final boolean DEFAULT_TRIM_TO_TIME_RANGE = false;
+    public static final String CFG_KEY_DECIMATION_MODE = "QueryHandler.decimationMode";
+    public static final String CFG_KEY_DECIMATION_TARGET_POINTS = "QueryHandler.decimationTargetPoints";
+    public static final int DEFAULT_DECIMATION_TARGET_POINTS = 1000;
+    public static final String CFG_KEY_ROLLUP_QUERIES_ENABLED = "QueryHandler.rollupQueriesEnabled";
+    public static final boolean DEFAULT_ROLLUP_QUERIES_ENABLED = false;
     private static final String CFG_KEY_OUTGOING_MESSAGE_SIZE_LIMIT_BYTES = "GrpcServer.incomingMessageSizeLimitBytes";
     private static final int DEFAULT_OUTGOING_MESSAGE_SIZE_LIMIT_BYTES = 4_096_000;
 
@@ -39,12 +58,68 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
         return configMgr().getConfigInteger(CFG_KEY_NUM_WORKERS, DEFAULT_NUM_WORKERS);
     }
 
+    protected int getQueueCapacity_() {
+        return configMgr().getConfigInteger(CFG_KEY_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    protected OverloadPolicy getOverloadPolicy_() {
+        return overloadPolicyFromConfig(configMgr().getConfigString(CFG_KEY_OVERLOAD_POLICY));
+    }
+
+    protected boolean getUseVirtualThreads_() {
+        return configMgr().getConfigBoolean(CFG_KEY_VIRTUAL_THREADS, DEFAULT_VIRTUAL_THREADS);
+    }
+
+    protected int getMaxConcurrentJobs_() {
+        return configMgr().getConfigInteger(CFG_KEY_MAX_CONCURRENT_JOBS, DEFAULT_MAX_CONCURRENT_JOBS);
+    }
+
     public static int getOutgoingMessageSizeLimitBytes() {
         return configMgr().getConfigInteger(
                 CFG_KEY_OUTGOING_MESSAGE_SIZE_LIMIT_BYTES,
                 DEFAULT_OUTGOING_MESSAGE_SIZE_LIMIT_BYTES);
     }
 
+    public static boolean getSpliceStoredBytes() {
+        return configMgr().getConfigBoolean(CFG_KEY_SPLICE_STORED_BYTES, DEFAULT_SPLICE_STORED_BYTES);
+    }
+
+    public static boolean getTrimToTimeRange() {
+        return configMgr().getConfigBoolean(CFG_KEY_TRIM_TO_TIME_RANGE, DEFAULT_TRIM_TO_TIME_RANGE);
+    }
+
+    public static DataBucketDecimationUtility.DecimationMode getDecimationMode() {
+        return DataBucketDecimationUtility.decimationModeFromConfig(
+                configMgr().getConfigString(CFG_KEY_DECIMATION_MODE));
+    }
+
+    public static int getDecimationTargetPoints() {
+        return configMgr().getConfigInteger(CFG_KEY_DECIMATION_TARGET_POINTS, DEFAULT_DECIMATION_TARGET_POINTS);
+    }
+
+    public static boolean getRollupQueriesEnabled() {
+        return configMgr().getConfigBoolean(CFG_KEY_ROLLUP_QUERIES_ENABLED, DEFAULT_ROLLUP_QUERIES_ENABLED);
+    }
+
+    /**
+     * Returns the resolution of the rollup tier that should be used to answer the query, or 0 if the query should be
+     * answered from raw buckets.  A tier is used if rollup queries and decimation are enabled, and the query time
+     * range is long enough that the spacing of decimationTargetPoints points over the range is at least the tier's
+     * resolution.  The coarsest such tier is selected.  Rollups are not used for MINMAX decimation, since bins don't
+     * record when their minimum and maximum values occurred.
+     */
+    public static long rollupResolutionSeconds(QueryDataRequest.QuerySpec querySpec) {
+        final DataBucketDecimationUtility.DecimationMode decimationMode = getDecimationMode();
+        if ( ! getRollupQueriesEnabled()
+                || decimationMode == DataBucketDecimationUtility.DecimationMode.NONE
+                || decimationMode == DataBucketDecimationUtility.DecimationMode.MINMAX) {
+            return 0;
+        }
+        final long querySeconds = querySpec.getEndTime().getEpochSeconds() - querySpec.getBeginTime().getEpochSeconds();
+        final long pointSpacingSeconds = querySeconds / Math.max(1, getDecimationTargetPoints());
+        return RollupUtility.nearestTier(MongoClientBase.getRollupTierSeconds(), pointSpacingSeconds);
+    }
+
     @Override
     protected boolean init_() {
         logger.trace("init_");
@@ -84,12 +159,7 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
                 "handleQueryDataStream() adding QueryDataJob id: {}",
                 responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -105,12 +175,7 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
                 "handleQueryDataBidiStream() adding QueryDataJob id: {}",
                 responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
 
         return resultCursor;
     }
@@ -126,12 +191,7 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
                 "handleQueryData() adding QueryDataJob id: {}",
                 responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -142,12 +202,7 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
 
         logger.debug("adding queryResponseTable job id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -160,12 +215,7 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
 
         logger.debug("adding QueryPvStatsJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -178,12 +228,7 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
 
         logger.debug("adding QueryProvidersJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
     @Override
@@ -196,12 +241,7 @@ public class MongoQueryHandler extends QueueHandlerBase implements QueryHandlerI
 
         logger.debug("adding QueryProviderStatsJob id: {} to queue", responseObserver.hashCode());
 
-        try {
-            requestQueue.put(job);
-        } catch (InterruptedException e) {
-            logger.error("InterruptedException waiting for requestQueue.put");
-            Thread.currentThread().interrupt();
-        }
+        submitJob(job, responseObserver);
     }
 
 }
@@ -0,0 +1,121 @@
+package com.ospreydcs.dp.service.query.handler.mongo;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import com.ospreydcs.dp.grpc.v1.common.DataTimestamps;
+import com.ospreydcs.dp.grpc.v1.common.DoubleColumn;
+import com.ospreydcs.dp.grpc.v1.common.Timestamp;
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.bson.column.DoubleColumnDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
+import com.ospreydcs.dp.service.common.protobuf.DataTimestampsUtility;
+import com.ospreydcs.dp.service.common.protobuf.TimestampUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Adapts a cursor over RollupDocuments, sorted by PV name and bin start time, to a cursor over BucketDocuments so that
+ * rollup query results are sent by the same queryData dispatchers as raw buckets.  Consecutive bins for a PV are
+ * combined into a BucketDocument, with up to MAX_BINS_PER_BUCKET bins per bucket.
+ *
+ * Each bin contributes its mean value, timestamped with the bin start time, so the result for a PV is a series of
+ * bin averages on the tier's bin boundaries rather than samples.  Rollups store aggregates as doubles, so the values
+ * are always returned in a DoubleColumn regardless of the PV's ingested column type (e.g. an Int32Column PV's bin
+ * averages are returned as doubles).
+ */
+public class RollupBucketCursor implements MongoCursor<BucketDocument> {
+
+    // constants
+    private static final int MAX_BINS_PER_BUCKET = 1000;
+
+    // instance variables
+    private final MongoCursor<RollupDocument> rollupCursor;
+    private final long resolutionSeconds;
+    private RollupDocument pendingRollup = null;
+
+    public RollupBucketCursor(MongoCursor<RollupDocument> rollupCursor, long resolutionSeconds) {
+        this.rollupCursor = rollupCursor;
+        this.resolutionSeconds = resolutionSeconds;
+    }
+
+    private RollupDocument peekRollup() {
+        if (pendingRollup == null && rollupCursor.hasNext()) {
+            pendingRollup = rollupCursor.next();
+        }
+        return pendingRollup;
+    }
+
+    private BucketDocument bucketDocument(String pvName, List<RollupDocument> bins) {
+
+        final List<Timestamp> timestamps = new ArrayList<>();
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName(pvName);
+        for (RollupDocument bin : bins) {
+            timestamps.add(TimestampUtility.timestampFromSeconds(bin.getBinStartSeconds(), 0));
+            columnBuilder.addValues(bin.mean());
+        }
+        final DataTimestamps dataTimestamps = DataTimestampsUtility.dataTimestampsWithTimestampList(timestamps);
+
+        final BucketDocument bucket = new BucketDocument();
+        bucket.setId(pvName + "-rollup-" + resolutionSeconds + "-" + bins.get(0).getBinStartSeconds());
+        bucket.setPvName(pvName);
+        bucket.setDataColumn(DoubleColumnDocument.fromDoubleColumn(columnBuilder.build()));
+        bucket.setDataTimestamps(DataTimestampsDocument.fromDataTimestamps(dataTimestamps));
+        return bucket;
+    }
+
+    @Override
+    public void close() {
+        rollupCursor.close();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return peekRollup() != null;
+    }
+
+    @Override
+    public BucketDocument next() {
+
+        final RollupDocument firstRollup = peekRollup();
+        if (firstRollup == null) {
+            throw new NoSuchElementException();
+        }
+
+        // collect consecutive bins for the PV
+        final String pvName = firstRollup.getPvName();
+        final List<RollupDocument> bins = new ArrayList<>();
+        RollupDocument rollup = firstRollup;
+        while (rollup != null && rollup.getPvName().equals(pvName) && bins.size() < MAX_BINS_PER_BUCKET) {
+            bins.add(rollup);
+            pendingRollup = null;
+            rollup = peekRollup();
+        }
+
+        return bucketDocument(pvName, bins);
+    }
+
+    @Override
+    public int available() {
+        return (pendingRollup != null ? 1 : 0) + rollupCursor.available();
+    }
+
+    @Override
+    public BucketDocument tryNext() {
+        return hasNext() ? next() : null;
+    }
+
+    @Override
+    public ServerCursor getServerCursor() {
+        return rollupCursor.getServerCursor();
+    }
+
+    @Override
+    public ServerAddress getServerAddress() {
+        return rollupCursor.getServerAddress();
+    }
+
+}
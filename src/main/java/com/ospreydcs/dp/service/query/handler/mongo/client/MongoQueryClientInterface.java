@@ -7,8 +7,10 @@ import com.ospreydcs.dp.service.common.bson.ProviderDocument;
 import com.ospreydcs.dp.service.common.bson.ProviderMetadataQueryResultDocument;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
 import com.ospreydcs.dp.service.common.bson.dataset.DataBlockDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface MongoQueryClientInterface {
 
@@ -19,6 +21,10 @@ public interface MongoQueryClientInterface {
 
     MongoCursor<BucketDocument> executeQueryData(QueryDataRequest.QuerySpec querySpec);
 
+    MongoCursor<RollupDocument> executeQueryRollups(QueryDataRequest.QuerySpec querySpec, long resolutionSeconds);
+
+    List<String> executeQueryRollupCoveredPvNames(QueryDataRequest.QuerySpec querySpec, long resolutionSeconds);
+
     MongoCursor<BucketDocument> executeQueryTable(QueryTableRequest request);
 
     MongoCursor<PvMetadataQueryResultDocument> executeQueryPvStats(QueryPvStatsRequest request);
@@ -27,6 +33,10 @@ public interface MongoQueryClientInterface {
 
     MongoCursor<PvMetadataQueryResultDocument> executeQueryPvStats(String pvNamePatternString);
 
+    MongoCursor<String> executeQueryPvNames();
+
+    MongoCursor<String> executeQueryBucketPvNames(Collection<String> pvNameList);
+
     MongoCursor<ProviderDocument> executeQueryProviders(QueryProvidersRequest request);
 
     MongoCursor<ProviderMetadataQueryResultDocument> executeQueryProviderStats(QueryProviderStatsRequest request);
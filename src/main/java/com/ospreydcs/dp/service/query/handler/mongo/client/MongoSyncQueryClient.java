@@ -12,9 +12,12 @@ import com.ospreydcs.dp.service.common.bson.ProviderDocument;
 import com.ospreydcs.dp.service.common.bson.ProviderMetadataQueryResultDocument;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
 import com.ospreydcs.dp.service.common.bson.dataset.DataBlockDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupUtility;
 import com.ospreydcs.dp.service.common.mongo.MongoSyncClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
@@ -31,6 +34,10 @@ public class MongoSyncQueryClient extends MongoSyncClient implements MongoQueryC
 
     private static final Logger logger = LogManager.getLogger();
 
+    // field names for the rollup coverage aggregation result
+    private static final String EARLIEST_BIN_START_SECONDS = "earliestBinStartSeconds";
+    private static final String EARLIEST_SAMPLE_SECONDS = "earliestSampleSeconds";
+
     public MongoCursor<BucketDocument> executeBucketDocumentQuery(
             Bson columnNameFilter,
             long startTimeSeconds,
@@ -93,6 +100,100 @@ public class MongoSyncQueryClient extends MongoSyncClient implements MongoQueryC
                 columnNameFilter, startTimeSeconds, startTimeNanos, endTimeSeconds, endTimeNanos);
     }
 
+    @Override
+    public MongoCursor<RollupDocument> executeQueryRollups(
+            QueryDataRequest.QuerySpec querySpec,
+            long resolutionSeconds
+    ) {
+        // bins overlapping [beginTime, endTime), where a bin covers [binStartSeconds, binStartSeconds + resolution)
+        final long firstBinStartSeconds =
+                Math.floorDiv(querySpec.getBeginTime().getEpochSeconds(), resolutionSeconds) * resolutionSeconds;
+        final long endTimeSeconds = querySpec.getEndTime().getEpochSeconds();
+        final Bson binStartFilter = (querySpec.getEndTime().getNanoseconds() > 0)
+                ? lte(BsonConstants.BSON_KEY_ROLLUP_BIN_START_SECONDS, endTimeSeconds)
+                : lt(BsonConstants.BSON_KEY_ROLLUP_BIN_START_SECONDS, endTimeSeconds);
+        final Bson filter = and(
+                in(BsonConstants.BSON_KEY_PV_NAME, querySpec.getPvNamesList()),
+                eq(BsonConstants.BSON_KEY_ROLLUP_RESOLUTION_SECONDS, resolutionSeconds),
+                gte(BsonConstants.BSON_KEY_ROLLUP_BIN_START_SECONDS, firstBinStartSeconds),
+                binStartFilter);
+
+        logger.debug("executing rollup query columns: " + querySpec.getPvNamesList()
+                + " resolutionSeconds: " + resolutionSeconds
+                + " startSeconds: " + firstBinStartSeconds
+                + " endSeconds: " + endTimeSeconds);
+
+        return mongoCollectionRollups
+                .find(filter)
+                .sort(ascending(
+                        BsonConstants.BSON_KEY_PV_NAME,
+                        BsonConstants.BSON_KEY_ROLLUP_BIN_START_SECONDS
+                ))
+                .cursor();
+    }
+
+    @Override
+    public List<String> executeQueryRollupCoveredPvNames(
+            QueryDataRequest.QuerySpec querySpec,
+            long resolutionSeconds
+    ) {
+        // Find each PV's earliest bin in the tier and earliest raw bucket with a single aggregation over all requested
+        // PVs, using $unionWith to add the bucket results to the rollup results.  Each branch sorts on its compound
+        // index prefix so that the $sort and $first stages for each PV can use the index instead of scanning the
+        // PV's documents.
+        final List<String> pvNames = querySpec.getPvNamesList();
+        final List<Bson> bucketPipeline = Arrays.asList(
+                Aggregates.match(in(BsonConstants.BSON_KEY_PV_NAME, pvNames)),
+                Aggregates.sort(ascending(
+                        BsonConstants.BSON_KEY_PV_NAME,
+                        BsonConstants.BSON_KEY_BUCKET_FIRST_TIME_SECS,
+                        BsonConstants.BSON_KEY_BUCKET_FIRST_TIME_NANOS)),
+                Aggregates.group(
+                        "$" + BsonConstants.BSON_KEY_PV_NAME,
+                        Accumulators.first(
+                                EARLIEST_SAMPLE_SECONDS, "$" + BsonConstants.BSON_KEY_BUCKET_FIRST_TIME_SECS)));
+        final List<Bson> pipeline = Arrays.asList(
+                Aggregates.match(and(
+                        in(BsonConstants.BSON_KEY_PV_NAME, pvNames),
+                        eq(BsonConstants.BSON_KEY_ROLLUP_RESOLUTION_SECONDS, resolutionSeconds))),
+                Aggregates.sort(ascending(
+                        BsonConstants.BSON_KEY_PV_NAME,
+                        BsonConstants.BSON_KEY_ROLLUP_RESOLUTION_SECONDS,
+                        BsonConstants.BSON_KEY_ROLLUP_BIN_START_SECONDS)),
+                Aggregates.group(
+                        "$" + BsonConstants.BSON_KEY_PV_NAME,
+                        Accumulators.first(
+                                EARLIEST_BIN_START_SECONDS, "$" + BsonConstants.BSON_KEY_ROLLUP_BIN_START_SECONDS)),
+                Aggregates.unionWith(mongoCollectionBuckets.getNamespace().getCollectionName(), bucketPipeline),
+                // $max ignores the field missing from the other branch's document for the same PV
+                Aggregates.group(
+                        "$_id",
+                        Accumulators.max(EARLIEST_BIN_START_SECONDS, "$" + EARLIEST_BIN_START_SECONDS),
+                        Accumulators.max(EARLIEST_SAMPLE_SECONDS, "$" + EARLIEST_SAMPLE_SECONDS)));
+
+        final List<String> coveredPvNames = new ArrayList<>();
+        try (MongoCursor<Document> cursor =
+                     mongoCollectionRollups.withDocumentClass(Document.class).aggregate(pipeline).cursor()) {
+            while (cursor.hasNext()) {
+                final Document pvDocument = cursor.next();
+                final Number earliestBinStartSeconds = pvDocument.get(EARLIEST_BIN_START_SECONDS, Number.class);
+                final Number earliestSampleSeconds = pvDocument.get(EARLIEST_SAMPLE_SECONDS, Number.class);
+                if (RollupUtility.rollupsCoverQuery(
+                        (earliestBinStartSeconds == null) ? null : earliestBinStartSeconds.longValue(),
+                        (earliestSampleSeconds == null) ? null : earliestSampleSeconds.longValue(),
+                        querySpec.getBeginTime().getEpochSeconds(),
+                        resolutionSeconds)) {
+                    coveredPvNames.add(pvDocument.getString("_id"));
+                }
+            }
+        }
+
+        logger.debug("rollup tier resolutionSeconds: {} covers columns: {} of: {}",
+                resolutionSeconds, coveredPvNames, querySpec.getPvNamesList());
+
+        return coveredPvNames;
+    }
+
     @Override
     public MongoCursor<BucketDocument> executeQueryTable(QueryTableRequest request) {
         
@@ -122,8 +223,79 @@ public class MongoSyncQueryClient extends MongoSyncClient implements MongoQueryC
                 columnNameFilter, startTimeSeconds, startTimeNanos, endTimeSeconds, endTimeNanos);
     }
 
+    /**
+     * Computes PV statistics from the pvCatalog collection, which contains an entry for each combination of PV and
+     * provider.  Entries for a PV are combined so that the result matches the aggregation over the buckets
+     * collection in executeQueryPvMetadata(), with the "last" fields taken from the entry whose last bucket starts
+     * latest.
+     */
+    private MongoCursor<PvMetadataQueryResultDocument> executeQueryPvCatalog(Bson columnNameFilter) {
+
+        // sort entries so that records are ordered for group operator
+        Bson catalogSort = ascending(
+                BsonConstants.BSON_KEY_PV_METADATA_PV_NAME,
+                BsonConstants.BSON_KEY_PV_CATALOG_LAST_BUCKET_FIRST_TIMESTAMP);
+
+        Bson metadataSort = ascending(BsonConstants.BSON_KEY_PV_METADATA_PV_NAME);
+
+        logger.debug("executeQueryPvCatalog query: {}", columnNameFilter.toString());
+
+        var aggregateIterable = mongoCollectionPvCatalog.withDocumentClass(PvMetadataQueryResultDocument.class)
+                .aggregate(
+                        Arrays.asList(
+                                Aggregates.match(columnNameFilter),
+                                Aggregates.sort(catalogSort),
+                                Aggregates.group(
+                                        "$" + BsonConstants.BSON_KEY_PV_METADATA_PV_NAME,
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_PV_NAME,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_PV_NAME),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_ID,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_ID),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TYPE,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TYPE),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_CASE,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_CASE),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_TYPE,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_DATA_TIMESTAMPS_TYPE),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_COUNT,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_COUNT),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_PERIOD,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_LAST_BUCKET_SAMPLE_PERIOD),
+                                        Accumulators.min(
+                                                BsonConstants.BSON_KEY_PV_METADATA_FIRST_DATA_TIMESTAMP,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_FIRST_DATA_TIMESTAMP),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_DATA_TIMESTAMP,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_LAST_DATA_TIMESTAMP),
+                                        Accumulators.sum(
+                                                BsonConstants.BSON_KEY_PV_METADATA_NUM_BUCKETS,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_NUM_BUCKETS),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_PROVIDER_ID,
+                                                "$" + BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_ID),
+                                        Accumulators.last(
+                                                BsonConstants.BSON_KEY_PV_METADATA_LAST_PROVIDER_NAME,
+                                                "$" + BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_NAME)
+                                ),
+                                Aggregates.sort(metadataSort) // sort metadata documents so result is sorted
+                        ));
+
+        return aggregateIterable.cursor();
+    }
+
     private MongoCursor<PvMetadataQueryResultDocument> executeQueryPvMetadata(Bson columnNameFilter) {
 
+        if (getPvCatalogEnabled()) {
+            return executeQueryPvCatalog(columnNameFilter);
+        }
+
         // NOTE: PROJECTION MUST INCLUDE KEYS FOR ALL FIELDS USED IN SORTING and GROUPING!!!
         // If not the values will silently be null and lead to unexpected results!!
 
@@ -235,6 +407,36 @@ public class MongoSyncQueryClient extends MongoSyncClient implements MongoQueryC
         }
     }
 
+    @Override
+    public MongoCursor<String> executeQueryPvNames() {
+
+        // group by name after sorting so that the server can use the pvName index instead of scanning documents
+        final Bson nameSort = ascending(BsonConstants.BSON_KEY_PV_NAME);
+        final Bson nameGroup = Aggregates.group("$" + BsonConstants.BSON_KEY_PV_NAME);
+
+        logger.debug("executeQueryPvNames pvCatalogEnabled: {}", getPvCatalogEnabled());
+
+        final var collection = getPvCatalogEnabled()
+                ? mongoCollectionPvCatalog.withDocumentClass(Document.class)
+                : mongoCollectionBuckets.withDocumentClass(Document.class);
+        return collection
+                .aggregate(Arrays.asList(Aggregates.sort(nameSort), nameGroup))
+                .allowDiskUse(true)
+                .map(document -> document.getString("_id")) // group key is the PV name
+                .cursor();
+    }
+
+    @Override
+    public MongoCursor<String> executeQueryBucketPvNames(Collection<String> pvNameList) {
+
+        // checks the buckets collection directly, which doesn't lag ingestion like the pvCatalog collection
+        logger.debug("executeQueryBucketPvNames pvNames: {}", pvNameList);
+
+        return mongoCollectionBuckets
+                .distinct(BsonConstants.BSON_KEY_PV_NAME, in(BsonConstants.BSON_KEY_PV_NAME, pvNameList), String.class)
+                .cursor();
+    }
+
     @Override
     public MongoCursor<ProviderDocument> executeQueryProviders(QueryProvidersRequest request) {
         
@@ -339,9 +541,47 @@ public class MongoSyncQueryClient extends MongoSyncClient implements MongoQueryC
         return executeQueryProviderStats(request.getProviderId());
     }
 
+    /**
+     * Computes provider statistics from the pvCatalog collection, combining the entries for each PV written by the
+     * provider.
+     */
+    private MongoCursor<ProviderMetadataQueryResultDocument> executeQueryProviderCatalog(String providerId) {
+
+        final Bson providerIdFilter = eq(BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_ID, providerId);
+
+        logger.debug("executeQueryProviderCatalog query: {}", providerIdFilter.toString());
+
+        var aggregateIterable = mongoCollectionPvCatalog.withDocumentClass(ProviderMetadataQueryResultDocument.class)
+                .aggregate(
+                        Arrays.asList(
+                                Aggregates.match(providerIdFilter),
+                                Aggregates.group(
+                                        "$" + BsonConstants.BSON_KEY_PV_CATALOG_PROVIDER_ID,
+                                        Accumulators.addToSet(
+                                                BsonConstants.BSON_KEY_PROVIDER_METADATA_PV_NAMES,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_PV_NAME),
+                                        Accumulators.min(
+                                                BsonConstants.BSON_KEY_PROVIDER_METADATA_FIRST_BUCKET_TIMESTAMP,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_FIRST_DATA_TIMESTAMP),
+                                        Accumulators.max(
+                                                BsonConstants.BSON_KEY_PROVIDER_METADATA_LAST_BUCKET_TIMESTAMP,
+                                                "$" + BsonConstants.BSON_KEY_PV_CATALOG_LAST_BUCKET_FIRST_TIMESTAMP),
+                                        Accumulators.sum(
+                                                BsonConstants.BSON_KEY_PROVIDER_METADATA_NUM_BUCKETS,
+                                                "$" + BsonConstants.BSON_KEY_PV_METADATA_NUM_BUCKETS)
+                                )
+                        ));
+
+        return aggregateIterable.cursor();
+    }
+
     @Override
     public MongoCursor<ProviderMetadataQueryResultDocument> executeQueryProviderStats(String providerid) {
 
+        if (getPvCatalogEnabled()) {
+            return executeQueryProviderCatalog(providerid);
+        }
+
         // generate filter for buckets query by providerId
         final Bson providerIdFilter = eq(BsonConstants.BSON_KEY_BUCKET_PROVIDER_ID, providerid);
 
@@ -1,10 +1,16 @@
 package com.ospreydcs.dp.service.query.handler.mongo.dispatch;
 
 import com.mongodb.client.MongoCursor;
+import com.ospreydcs.dp.grpc.v1.common.DataBucket;
+import com.ospreydcs.dp.grpc.v1.common.DataTimestamps;
 import com.ospreydcs.dp.grpc.v1.query.QueryDataRequest;
 import com.ospreydcs.dp.grpc.v1.query.QueryDataResponse;
 import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.exception.DpException;
 import com.ospreydcs.dp.service.common.handler.Dispatcher;
+import com.ospreydcs.dp.service.common.protobuf.DataBucketDecimationUtility;
+import com.ospreydcs.dp.service.common.protobuf.DecimationPointBudget;
+import com.ospreydcs.dp.service.query.handler.mongo.MongoQueryHandler;
 import com.ospreydcs.dp.service.query.service.QueryServiceImpl;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
@@ -18,6 +24,10 @@ public abstract class QueryDataAbstractDispatcher extends Dispatcher {
     // instance variables
     protected final StreamObserver<QueryDataResponse> responseObserver;
     protected final QueryDataRequest.QuerySpec querySpec;
+    private final boolean spliceStoredBytes;
+    private final boolean trimToTimeRange;
+    private final DataBucketDecimationUtility.DecimationMode decimationMode;
+    private final DecimationPointBudget decimationPointBudget;
 
     public QueryDataAbstractDispatcher(
             StreamObserver<QueryDataResponse> responseObserver,
@@ -25,6 +35,14 @@ public abstract class QueryDataAbstractDispatcher extends Dispatcher {
     ) {
         this.responseObserver = responseObserver;
         this.querySpec = querySpec;
+        this.spliceStoredBytes = MongoQueryHandler.getSpliceStoredBytes();
+        this.trimToTimeRange = MongoQueryHandler.getTrimToTimeRange();
+        this.decimationMode = MongoQueryHandler.getDecimationMode();
+        this.decimationPointBudget = new DecimationPointBudget(
+                decimationMode,
+                MongoQueryHandler.getDecimationTargetPoints(),
+                querySpec.getBeginTime(),
+                querySpec.getEndTime());
     }
 
     protected abstract void handleResult_(MongoCursor<BucketDocument> cursor);
@@ -37,6 +55,33 @@ public abstract class QueryDataAbstractDispatcher extends Dispatcher {
         return this.querySpec;
     }
 
+    /**
+     * Builds the query result DataBucket for a BucketDocument, applying the handler's configured stored bytes fast
+     * path, time range trimming, and decimation.  Returns null if trimming left no samples in the bucket, or if the
+     * bucket is allotted no points from the PV's decimation target.
+     *
+     * @param document
+     * @return
+     * @throws DpException
+     */
+    protected DataBucket dataBucketFromDocument(BucketDocument document) throws DpException {
+
+        final boolean decimate = decimationMode != DataBucketDecimationUtility.DecimationMode.NONE;
+
+        // decimation requires the parsed bucket contents, so stored bytes can't be spliced
+        final DataBucket bucket = BucketDocument.dataBucketFromDocument(
+                document, querySpec, spliceStoredBytes && ! decimate, trimToTimeRange);
+
+        if (bucket == null || ! decimate) {
+            return bucket;
+        }
+        final DataTimestamps dataTimestamps = bucket.getDataTimestamps();
+        if ( ! dataTimestamps.hasSamplingClock() && ! dataTimestamps.hasTimestampList()) {
+            return bucket;
+        }
+        return decimationPointBudget.decimate(bucket);
+    }
+
     public void handleResult(MongoCursor<BucketDocument> cursor) {
 
         // send error response and close response stream if cursor is null
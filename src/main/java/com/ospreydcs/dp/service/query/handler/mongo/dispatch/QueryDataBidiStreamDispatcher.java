@@ -12,7 +12,6 @@ import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class QueryDataBidiStreamDispatcher extends QueryDataAbstractDispatcher {
@@ -77,7 +76,7 @@ public class QueryDataBidiStreamDispatcher extends QueryDataAbstractDispatcher {
                 // build DataBucket from BucketDocument
                 DataBucket bucket = null;
                 try {
-                    bucket = BucketDocument.dataBucketFromDocument(document, querySpec);
+                    bucket = dataBucketFromDocument(document);
                 } catch (DpException e) {
                     // exception deserialzing BucketDocument contents, so send error response
                     errorMsg =
@@ -87,7 +86,10 @@ public class QueryDataBidiStreamDispatcher extends QueryDataAbstractDispatcher {
                     isError = true;
                     break;
                 }
-                Objects.requireNonNull(bucket);
+                if (bucket == null) {
+                    // trimming to the query time range or decimation left no samples in the bucket
+                    continue;
+                }
 
                 // determine bucket size
                 int bucketSerializedSize = bucket.getSerializedSize();
@@ -12,8 +12,6 @@ import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Objects;
-
 public class QueryDataDispatcher extends QueryDataAbstractDispatcher {
 
     // static variables
@@ -41,7 +39,7 @@ public class QueryDataDispatcher extends QueryDataAbstractDispatcher {
             final BucketDocument document = cursor.next();
             DataBucket bucket = null;
             try {
-                bucket = BucketDocument.dataBucketFromDocument(document, querySpec);
+                bucket = dataBucketFromDocument(document);
             } catch (DpException e) {
                 // exception deserializing BucketDocument contents, so send error response
                 isError = true;
@@ -52,7 +50,10 @@ public class QueryDataDispatcher extends QueryDataAbstractDispatcher {
                 logger.error(errorMsg);
                 break;
             }
-            Objects.requireNonNull(bucket);
+            if (bucket == null) {
+                // trimming to the query time range or decimation left no samples in the bucket
+                continue;
+            }
 
             // determine bucket size
             int bucketSerializedSize = bucket.getSerializedSize();
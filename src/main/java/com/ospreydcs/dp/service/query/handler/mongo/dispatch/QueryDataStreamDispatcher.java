@@ -12,8 +12,6 @@ import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Objects;
-
 public class QueryDataStreamDispatcher extends QueryDataAbstractDispatcher {
 
     // static variables
@@ -39,14 +37,13 @@ public class QueryDataStreamDispatcher extends QueryDataAbstractDispatcher {
         boolean isError = false;
         String errorMsg = "";
         while (cursor.hasNext()) {
-            emptyResponse = false;
 
             final BucketDocument document = cursor.next();
 
             // create result DataBucket from BucketDocument
             DataBucket bucket = null;
             try {
-                bucket = BucketDocument.dataBucketFromDocument(document, querySpec);
+                bucket = dataBucketFromDocument(document);
             } catch (DpException e) {
                 // exception deserialzing BucketDocument contents, so send error response
                 isError = true;
@@ -56,7 +53,11 @@ public class QueryDataStreamDispatcher extends QueryDataAbstractDispatcher {
                 logger.error(errorMsg);
                 break;
             }
-            Objects.requireNonNull(bucket);
+            if (bucket == null) {
+                // trimming to the query time range or decimation left no samples in the bucket
+                continue;
+            }
+            emptyResponse = false;
 
             // determine bucket size
             int bucketSerializedSize = bucket.getSerializedSize();
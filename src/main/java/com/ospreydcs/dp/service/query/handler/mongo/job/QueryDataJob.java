@@ -1,14 +1,23 @@
 package com.ospreydcs.dp.service.query.handler.mongo.job;
 
+import com.mongodb.client.MongoCursor;
 import com.ospreydcs.dp.grpc.v1.query.QueryDataRequest;
 import com.ospreydcs.dp.grpc.v1.query.QueryDataResponse;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
 import com.ospreydcs.dp.service.common.handler.HandlerJob;
+import com.ospreydcs.dp.service.query.handler.mongo.ConcatenatedBucketCursor;
+import com.ospreydcs.dp.service.query.handler.mongo.MongoQueryHandler;
+import com.ospreydcs.dp.service.query.handler.mongo.RollupBucketCursor;
 import com.ospreydcs.dp.service.query.handler.mongo.client.MongoQueryClientInterface;
 import com.ospreydcs.dp.service.query.handler.mongo.dispatch.QueryDataAbstractDispatcher;
 import io.grpc.stub.StreamObserver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class QueryDataJob extends HandlerJob {
 
     // static variables
@@ -33,9 +42,48 @@ public class QueryDataJob extends HandlerJob {
 
     public void execute() {
         logger.debug("executing QueryJob id: {}", this.responseObserver.hashCode());
-        final var cursor = this.mongoClient.executeQueryData(this.querySpec);
+        final long rollupResolutionSeconds = MongoQueryHandler.rollupResolutionSeconds(this.querySpec);
+        final MongoCursor<BucketDocument> cursor = (rollupResolutionSeconds > 0)
+                ? executeQueryRollups(rollupResolutionSeconds)
+                : this.mongoClient.executeQueryData(this.querySpec);
         logger.debug("dispatching QueryJob id: {}", this.responseObserver.hashCode());
         dispatcher.handleResult(cursor);
     }
 
+    /**
+     * Answers a coarse resolution query from the rollup tier for the PVs whose data over the query time range is
+     * covered by the tier, and from raw buckets for the remaining PVs (non-numeric PVs, and PVs with data ingested
+     * before rollups were enabled).  Returns null if either query fails.
+     */
+    private MongoCursor<BucketDocument> executeQueryRollups(long rollupResolutionSeconds) {
+
+        final List<String> rollupPvNames =
+                this.mongoClient.executeQueryRollupCoveredPvNames(this.querySpec, rollupResolutionSeconds);
+        final List<String> rawPvNames = new ArrayList<>(this.querySpec.getPvNamesList());
+        rawPvNames.removeAll(rollupPvNames);
+        logger.debug("using rollup tier resolutionSeconds: {} for columns: {} QueryJob id: {}",
+                rollupResolutionSeconds, rollupPvNames, this.responseObserver.hashCode());
+
+        final List<MongoCursor<BucketDocument>> cursors = new ArrayList<>();
+        if ( ! rawPvNames.isEmpty()) {
+            final MongoCursor<BucketDocument> rawCursor = this.mongoClient.executeQueryData(
+                    this.querySpec.toBuilder().clearPvNames().addAllPvNames(rawPvNames).build());
+            if (rawCursor == null) {
+                return null;
+            }
+            cursors.add(rawCursor);
+        }
+        if ( ! rollupPvNames.isEmpty()) {
+            final MongoCursor<RollupDocument> rollupCursor = this.mongoClient.executeQueryRollups(
+                    this.querySpec.toBuilder().clearPvNames().addAllPvNames(rollupPvNames).build(),
+                    rollupResolutionSeconds);
+            if (rollupCursor == null) {
+                cursors.forEach(MongoCursor::close);
+                return null;
+            }
+            cursors.add(new RollupBucketCursor(rollupCursor, rollupResolutionSeconds));
+        }
+        return (cursors.size() == 1) ? cursors.get(0) : new ConcatenatedBucketCursor(cursors);
+    }
+
 }
@@ -0,0 +1,161 @@
+package com.ospreydcs.dp.service.common.bson.bucket;
+
+import com.ospreydcs.dp.service.common.bson.*;
+import com.ospreydcs.dp.service.common.bson.column.*;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static com.mongodb.MongoClientSettings.getDefaultCodecRegistry;
+import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that the hand-written BucketDocument codecs produce the same BSON as the POJO codecs, and that documents
+ * written by either can be decoded by the other.
+ */
+public class BucketDocumentCodecTest {
+
+    private static final CodecRegistry POJO_REGISTRY = fromRegistries(
+            getDefaultCodecRegistry(),
+            fromProviders(PojoCodecProvider.builder().register(
+                    BucketDocument.class,
+                    DataTimestampsDocument.class,
+                    TimestampDocument.class,
+                    ColumnMetadataDocument.class,
+                    ColumnProvenanceDocument.class,
+                    ColumnDocumentBase.class,
+                    DoubleColumnDocument.class,
+                    Int64ColumnDocument.class,
+                    StringColumnDocument.class,
+                    EnumColumnDocument.class,
+                    StorageDocument.class,
+                    BinaryColumnDocumentBase.class,
+                    ImageColumnDocument.class
+            ).build()));
+
+    private static final CodecRegistry CUSTOM_REGISTRY =
+            fromRegistries(fromProviders(new BucketCodecProvider(POJO_REGISTRY)), POJO_REGISTRY);
+
+    private static BsonDocument encode(CodecRegistry registry, BucketDocument document) {
+        final BsonDocument bsonDocument = new BsonDocument();
+        registry.get(BucketDocument.class).encode(
+                new BsonDocumentWriter(bsonDocument), document, EncoderContext.builder().build());
+        return bsonDocument;
+    }
+
+    private static BucketDocument decode(CodecRegistry registry, BsonDocument bsonDocument) {
+        return registry.get(BucketDocument.class).decode(
+                new BsonDocumentReader(bsonDocument), DecoderContext.builder().build());
+    }
+
+    private static BucketDocument bucketDocument(ColumnDocumentBase column) {
+
+        final BucketDocument document = new BucketDocument();
+        document.setId("pv1-10-20");
+        document.setPvName("pv1");
+        document.setDataColumn(column);
+        document.setProviderId("provider1");
+        document.setProviderName("providerName1");
+        document.setClientRequestId("request1");
+        document.setTags(List.of("tag1"));
+        document.setAttributes(Map.of("key1", "value1"));
+        document.setCreatedAt(Instant.ofEpochMilli(1_700_000_000_123L));
+
+        final TimestampDocument firstTime = new TimestampDocument();
+        firstTime.setSeconds(10);
+        firstTime.setNanos(20);
+        firstTime.setDateTime(new Date(10_000));
+        final TimestampDocument lastTime = new TimestampDocument();
+        lastTime.setSeconds(11);
+        lastTime.setNanos(0);
+        lastTime.setDateTime(new Date(11_000));
+
+        final DataTimestampsDocument dataTimestamps = new DataTimestampsDocument();
+        dataTimestamps.setValueCase(1);
+        dataTimestamps.setValueType("SAMPLINGCLOCK");
+        dataTimestamps.setBytes(new byte[] {1, 2, 3});
+        dataTimestamps.setSamplePeriod(1_000_000L);
+        dataTimestamps.setSampleCount(2);
+        dataTimestamps.setFirstTime(firstTime);
+        dataTimestamps.setLastTime(lastTime);
+        document.setDataTimestamps(dataTimestamps);
+
+        return document;
+    }
+
+    private static void verifyCompatible(BucketDocument document) {
+
+        final BsonDocument pojoBson = encode(POJO_REGISTRY, document);
+        final BsonDocument customBson = encode(CUSTOM_REGISTRY, document);
+        assertEquals(pojoBson, customBson);
+
+        // each codec reads what the other wrote
+        assertEquals(pojoBson, encode(POJO_REGISTRY, decode(CUSTOM_REGISTRY, pojoBson)));
+        assertEquals(customBson, encode(CUSTOM_REGISTRY, decode(POJO_REGISTRY, customBson)));
+    }
+
+    @Test
+    public void testScalarColumns() {
+
+        final DoubleColumnDocument doubleColumn = new DoubleColumnDocument();
+        doubleColumn.setName("pv1");
+        doubleColumn.setValues(Arrays.asList(1.0, 2.5));
+        final ColumnMetadataDocument columnMetadata = new ColumnMetadataDocument();
+        columnMetadata.setTags(List.of("columnTag"));
+        doubleColumn.setColumnMetadata(columnMetadata);
+        verifyCompatible(bucketDocument(doubleColumn));
+
+        final Int64ColumnDocument packedColumn = new Int64ColumnDocument();
+        packedColumn.setName("pv1");
+        packedColumn.setPackedValues(new byte[] {1, 0, 0, 0, 0, 0, 0, 0});
+        verifyCompatible(bucketDocument(packedColumn));
+
+        final StringColumnDocument stringColumn = new StringColumnDocument();
+        stringColumn.setName("pv1");
+        stringColumn.setValues(Arrays.asList("a", "b"));
+        verifyCompatible(bucketDocument(stringColumn));
+
+        final EnumColumnDocument enumColumn = new EnumColumnDocument();
+        enumColumn.setName("pv1");
+        enumColumn.setEnumId("enum1");
+        enumColumn.setValues(Arrays.asList(1, 2));
+        verifyCompatible(bucketDocument(enumColumn));
+    }
+
+    @Test
+    public void testDelegatedColumn() {
+
+        // binary column types are delegated to the POJO codec
+        final ImageColumnDocument imageColumn = new ImageColumnDocument();
+        imageColumn.setName("pv1");
+        imageColumn.setStorage(StorageDocument.inline(new byte[] {9, 8, 7}));
+        verifyCompatible(bucketDocument(imageColumn));
+    }
+
+    @Test
+    public void testDecodeLenient() {
+
+        // discriminator not first, extra fields, int32 value in double column
+        final BsonDocument bsonDocument = BsonDocument.parse(
+                "{_id: 'pv1-1-0', pvName: 'pv1', extra: 5, "
+                        + "dataColumn: {name: 'pv1', _t: 'doubleColumn', values: [1.5, 2]}}");
+        final BucketDocument document = decode(CUSTOM_REGISTRY, bsonDocument);
+        assertEquals("pv1-1-0", document.getId());
+        assertEquals("pv1", document.getPvName());
+        assertEquals(Arrays.asList(1.5, 2.0), ((DoubleColumnDocument) document.getDataColumn()).getValues());
+    }
+
+}
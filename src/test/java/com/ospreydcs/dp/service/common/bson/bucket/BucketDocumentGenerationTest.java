@@ -0,0 +1,107 @@
+package com.ospreydcs.dp.service.common.bson.bucket;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
+import com.ospreydcs.dp.service.common.bson.column.DoubleColumnDocument;
+import com.ospreydcs.dp.service.common.bson.column.Int32ColumnDocument;
+import com.ospreydcs.dp.service.common.bson.column.StringColumnDocument;
+import com.ospreydcs.dp.service.common.exception.DpException;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Provides unit test coverage for BucketDocument.generateBucketsFromRequest(), covering sharing a single
+ * DataTimestampsDocument across all the buckets generated for a request, and the request-level fields set on each
+ * bucket.
+ */
+public class BucketDocumentGenerationTest {
+
+    private static final long START_SECONDS = 1_700_000_000L;
+    private static final long START_NANOS = 500L;
+    private static final int NUM_ROWS = 3;
+
+    private static IngestDataRequest buildRequest(DataTimestamps dataTimestamps) {
+        final DataFrame dataFrame = DataFrame.newBuilder()
+                .setDataTimestamps(dataTimestamps)
+                .addDoubleColumns(DoubleColumn.newBuilder().setName("pv_double").addValues(1.0).addValues(2.0)
+                        .addValues(3.0))
+                .addInt32Columns(Int32Column.newBuilder().setName("pv_int32").addValues(1).addValues(2).addValues(3))
+                .addStringColumns(StringColumn.newBuilder().setName("pv_string").addValues("a").addValues("b")
+                        .addValues("c"))
+                .build();
+        return IngestDataRequest.newBuilder()
+                .setProviderId("provider1")
+                .setClientRequestId("request1")
+                .setIngestionDataFrame(dataFrame)
+                .build();
+    }
+
+    private static DataTimestamps samplingClock() {
+        return DataTimestamps.newBuilder()
+                .setSamplingClock(SamplingClock.newBuilder()
+                        .setStartTime(Timestamp.newBuilder().setEpochSeconds(START_SECONDS).setNanoseconds(START_NANOS))
+                        .setPeriodNanos(1_000_000L)
+                        .setCount(NUM_ROWS))
+                .build();
+    }
+
+    private static DataTimestamps timestampList() {
+        final TimestampList.Builder timestampListBuilder = TimestampList.newBuilder();
+        for (int i = 0 ; i < NUM_ROWS ; ++i) {
+            timestampListBuilder.addTimestamps(
+                    Timestamp.newBuilder().setEpochSeconds(START_SECONDS + i).setNanoseconds(START_NANOS));
+        }
+        return DataTimestamps.newBuilder().setTimestampList(timestampListBuilder).build();
+    }
+
+    private static void verifyBuckets(DataTimestamps dataTimestamps) throws DpException {
+
+        final IngestDataRequest request = buildRequest(dataTimestamps);
+        final List<BucketDocument> buckets = BucketDocument.generateBucketsFromRequest(request, "providerName1");
+        assertEquals(3, buckets.size());
+
+        // each bucket has the request-level fields, and an id from its PV name and the request's first timestamp
+        final List<String> pvNames = List.of("pv_double", "pv_int32", "pv_string");
+        for (int i = 0 ; i < buckets.size() ; ++i) {
+            final BucketDocument bucket = buckets.get(i);
+            assertEquals(pvNames.get(i), bucket.getPvName());
+            assertEquals(pvNames.get(i) + "-" + START_SECONDS + "-" + START_NANOS, bucket.getId());
+            assertEquals("provider1", bucket.getProviderId());
+            assertEquals("providerName1", bucket.getProviderName());
+            assertEquals("request1", bucket.getClientRequestId());
+        }
+        assertTrue(buckets.get(0).getDataColumn() instanceof DoubleColumnDocument);
+        assertTrue(buckets.get(1).getDataColumn() instanceof Int32ColumnDocument);
+        assertTrue(buckets.get(2).getDataColumn() instanceof StringColumnDocument);
+
+        // all buckets share one DataTimestampsDocument, matching one created for the request's timestamps
+        final DataTimestampsDocument sharedDocument = buckets.get(0).getDataTimestamps();
+        for (BucketDocument bucket : buckets) {
+            assertSame(sharedDocument, bucket.getDataTimestamps());
+        }
+        final DataTimestampsDocument expectedDocument = DataTimestampsDocument.fromDataTimestamps(dataTimestamps);
+        assertEquals(expectedDocument.getSampleCount(), sharedDocument.getSampleCount());
+        assertEquals(expectedDocument.getSamplePeriod(), sharedDocument.getSamplePeriod());
+        assertEquals(expectedDocument.getFirstTime().getSeconds(), sharedDocument.getFirstTime().getSeconds());
+        assertEquals(expectedDocument.getFirstTime().getNanos(), sharedDocument.getFirstTime().getNanos());
+        assertEquals(expectedDocument.getLastTime().getSeconds(), sharedDocument.getLastTime().getSeconds());
+        assertEquals(expectedDocument.getLastTime().getNanos(), sharedDocument.getLastTime().getNanos());
+        assertEquals(expectedDocument.getValueCase(), sharedDocument.getValueCase());
+        assertEquals(dataTimestamps, sharedDocument.toDataTimestamps());
+    }
+
+    @Test
+    public void testSharedSamplingClockDocument() throws DpException {
+        verifyBuckets(samplingClock());
+    }
+
+    @Test
+    public void testSharedTimestampListDocument() throws DpException {
+        verifyBuckets(timestampList());
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.ospreydcs.dp.service.common.bson.catalog;
+
+import com.ospreydcs.dp.service.common.bson.DataTimestampsDocument;
+import com.ospreydcs.dp.service.common.bson.TimestampDocument;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.bson.column.DoubleColumnDocument;
+import com.ospreydcs.dp.service.common.bson.column.Int32ColumnDocument;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class PvCatalogUtilityTest {
+
+    private static final long START_SECONDS = 1_700_000_000L;
+
+    private static TimestampDocument timestampDocument(long seconds) {
+        final TimestampDocument timestampDocument = new TimestampDocument();
+        timestampDocument.setSeconds(seconds);
+        timestampDocument.setNanos(0);
+        timestampDocument.setDateTime(new Date(seconds * 1000));
+        return timestampDocument;
+    }
+
+    private static BucketDocument bucketDocument(
+            String pvName,
+            String providerId,
+            long firstSeconds,
+            boolean doubleColumn
+    ) {
+        final DataTimestampsDocument dataTimestamps = new DataTimestampsDocument();
+        dataTimestamps.setSampleCount(10);
+        dataTimestamps.setSamplePeriod(100_000_000L);
+        dataTimestamps.setFirstTime(timestampDocument(firstSeconds));
+        dataTimestamps.setLastTime(timestampDocument(firstSeconds + 1));
+
+        final BucketDocument bucket = new BucketDocument();
+        bucket.setId(pvName + "-" + firstSeconds);
+        bucket.setPvName(pvName);
+        bucket.setProviderId(providerId);
+        bucket.setProviderName(providerId + "-name");
+        bucket.setDataColumn(doubleColumn ? new DoubleColumnDocument() : new Int32ColumnDocument());
+        bucket.setDataTimestamps(dataTimestamps);
+        return bucket;
+    }
+
+    private static Map<String, PvCatalogDocument> entryMap(Collection<PvCatalogDocument> entries) {
+        final Map<String, PvCatalogDocument> entryMap = new HashMap<>();
+        for (PvCatalogDocument entry : entries) {
+            assertNull(entryMap.put(entry.getId(), entry));
+        }
+        return entryMap;
+    }
+
+    @Test
+    public void testCatalogEntriesFromBuckets() {
+
+        // buckets for pv1 out of time order, and for pv1 from a second provider
+        final List<BucketDocument> buckets = new ArrayList<>();
+        buckets.add(bucketDocument("pv1", "provider1", START_SECONDS + 10, true));
+        buckets.add(bucketDocument("pv1", "provider1", START_SECONDS + 20, false));
+        buckets.add(bucketDocument("pv1", "provider1", START_SECONDS, true));
+        buckets.add(bucketDocument("pv1", "provider2", START_SECONDS + 5, true));
+
+        final Map<String, PvCatalogDocument> entryMap = entryMap(PvCatalogUtility.catalogEntriesFromBuckets(buckets));
+        assertEquals(2, entryMap.size());
+
+        final PvCatalogDocument entry = entryMap.get(PvCatalogDocument.catalogId("pv1", "provider1"));
+        assertEquals("pv1", entry.getPvName());
+        assertEquals("provider1", entry.getProviderId());
+        assertEquals(3, entry.getNumBuckets());
+        assertEquals(new Date(START_SECONDS * 1000), entry.getFirstDataTimestamp());
+
+        // last fields come from the bucket with the latest first time, not the last bucket in the batch
+        assertEquals("pv1-" + (START_SECONDS + 20), entry.getLastBucketId());
+        assertEquals(new Date((START_SECONDS + 20) * 1000), entry.getLastBucketFirstTimestamp());
+        assertEquals(new Date((START_SECONDS + 21) * 1000), entry.getLastDataTimestamp());
+        assertEquals("int32Column", entry.getLastBucketDataType());
+        assertEquals(10, entry.getLastBucketSampleCount());
+        assertEquals(100_000_000L, entry.getLastBucketSamplePeriod());
+
+        final PvCatalogDocument otherEntry = entryMap.get(PvCatalogDocument.catalogId("pv1", "provider2"));
+        assertEquals(1, otherEntry.getNumBuckets());
+        assertEquals("provider2-name", otherEntry.getProviderName());
+        assertEquals("doubleColumn", otherEntry.getLastBucketDataType());
+    }
+
+    @Test
+    public void testMergeCatalogEntries() {
+
+        final List<PvCatalogDocument> entries = new ArrayList<>();
+        entries.add(PvCatalogUtility.catalogEntryFromBucket(bucketDocument("pv1", "provider1", START_SECONDS, true)));
+        entries.add(PvCatalogUtility.catalogEntryFromBucket(bucketDocument("pv2", "provider1", START_SECONDS, true)));
+        entries.add(
+                PvCatalogUtility.catalogEntryFromBucket(bucketDocument("pv1", "provider1", START_SECONDS - 60, true)));
+
+        final Map<String, PvCatalogDocument> entryMap = entryMap(PvCatalogUtility.mergeCatalogEntries(entries));
+        assertEquals(2, entryMap.size());
+
+        final PvCatalogDocument merged = entryMap.get(PvCatalogDocument.catalogId("pv1", "provider1"));
+        assertEquals(2, merged.getNumBuckets());
+        assertEquals(new Date((START_SECONDS - 60) * 1000), merged.getFirstDataTimestamp());
+        assertEquals("pv1-" + START_SECONDS, merged.getLastBucketId());
+    }
+
+}
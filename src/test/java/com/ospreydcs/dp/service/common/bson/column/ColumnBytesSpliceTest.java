@@ -0,0 +1,155 @@
+package com.ospreydcs.dp.service.common.bson.column;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.exception.DpException;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests verifying that query result buckets built from spliced stored bytes serialize identically to buckets
+ * built by parsing the stored bytes into protobuf messages.
+ */
+public class ColumnBytesSpliceTest {
+
+    private static final ArrayDimensions DIMENSIONS = ArrayDimensions.newBuilder().addDims(3).build();
+
+    /**
+     * Adds the column to a bucket using both addColumnToBucket() and addColumnBytesToBucket(), and checks that the
+     * spliced bucket parses to the same DataBucket on the receiving end.
+     */
+    private static void verifySplice(ColumnDocumentBase document)
+            throws DpException, InvalidProtocolBufferException {
+
+        final DataBucket.Builder expectedBuilder = DataBucket.newBuilder().setPvName("pv1");
+        document.addColumnToBucket(expectedBuilder);
+        final DataBucket expectedBucket = expectedBuilder.build();
+
+        final DataBucket.Builder splicedBuilder = DataBucket.newBuilder().setPvName("pv1");
+        assertTrue(document.addColumnBytesToBucket(splicedBuilder));
+        final DataBucket splicedBucket = splicedBuilder.build();
+
+        assertEquals(expectedBucket.getSerializedSize(), splicedBucket.getSerializedSize());
+        assertEquals(expectedBucket, DataBucket.parseFrom(splicedBucket.toByteArray()));
+    }
+
+    @Test
+    public void testDataColumn() throws DpException, InvalidProtocolBufferException {
+        final DataColumn column = DataColumn.newBuilder()
+                .setName("pv1")
+                .addDataValues(DataValue.newBuilder().setDoubleValue(1.5))
+                .addDataValues(DataValue.newBuilder().setDoubleValue(2.5))
+                .build();
+        verifySplice(DataColumnDocument.fromDataColumn(column));
+    }
+
+    @Test
+    public void testArrayColumns() throws DpException, InvalidProtocolBufferException {
+
+        final DoubleArrayColumn doubleArrayColumn = DoubleArrayColumn.newBuilder()
+                .setName("pv1")
+                .setDimensions(DIMENSIONS)
+                .addValues(1.0).addValues(-2.5).addValues(Double.MAX_VALUE)
+                .build();
+        verifySplice(DoubleArrayColumnDocument.fromDoubleArrayColumn(doubleArrayColumn));
+
+        final FloatArrayColumn floatArrayColumn = FloatArrayColumn.newBuilder()
+                .setName("pv1")
+                .setDimensions(DIMENSIONS)
+                .addValues(1.0f).addValues(-2.5f).addValues(Float.MIN_VALUE)
+                .build();
+        verifySplice(FloatArrayColumnDocument.fromFloatArrayColumn(floatArrayColumn));
+
+        final BoolArrayColumn boolArrayColumn = BoolArrayColumn.newBuilder()
+                .setName("pv1")
+                .setDimensions(DIMENSIONS)
+                .addValues(true).addValues(false).addValues(true)
+                .build();
+        verifySplice(BoolArrayColumnDocument.fromBoolArrayColumn(boolArrayColumn));
+    }
+
+    @Test
+    public void testBinaryColumns() throws DpException, InvalidProtocolBufferException {
+
+        final ImageColumn imageColumn = ImageColumn.newBuilder()
+                .setName("pv1")
+                .setImageDescriptor(ImageDescriptor.newBuilder()
+                        .setWidth(2).setHeight(2).setChannels(1).setEncoding("gray8"))
+                .addImages(ByteString.copyFrom(new byte[]{1, 2, 3, 4}))
+                .build();
+        verifySplice(ImageColumnDocument.fromImageColumn(imageColumn));
+
+        final StructColumn structColumn = StructColumn.newBuilder()
+                .setName("pv1")
+                .setSchemaId("schema-1")
+                .addValues(ByteString.copyFrom(new byte[]{1, 2, 3}))
+                .build();
+        verifySplice(StructColumnDocument.fromStructColumn(structColumn));
+
+        final SerializedDataColumn serializedDataColumn = SerializedDataColumn.newBuilder()
+                .setName("pv1")
+                .setEncoding("proto:DataColumn")
+                .setPayload(ByteString.copyFrom(new byte[]{9, 8, 7}))
+                .build();
+        verifySplice(SerializedDataColumnDocument.fromSerializedDataColumn(serializedDataColumn));
+    }
+
+    @Test
+    public void testUnsupportedColumns() throws DpException {
+
+        // column metadata must be applied to the column, so stored bytes can't be used
+        final ImageColumn imageColumn = ImageColumn.newBuilder()
+                .setName("pv1")
+                .addImages(ByteString.copyFrom(new byte[]{1, 2, 3, 4}))
+                .setMetadata(ColumnMetadata.newBuilder().addTags("tag1"))
+                .build();
+        assertFalse(ImageColumnDocument.fromImageColumn(imageColumn)
+                .addColumnBytesToBucket(DataBucket.newBuilder()));
+
+        // int32 array values are varint encoded in protobuf, so the stored fixed width values can't be spliced
+        final Int32ArrayColumn int32ArrayColumn = Int32ArrayColumn.newBuilder()
+                .setName("pv1")
+                .setDimensions(DIMENSIONS)
+                .addValues(1).addValues(2).addValues(3)
+                .build();
+        assertFalse(Int32ArrayColumnDocument.fromInt32ArrayColumn(int32ArrayColumn)
+                .addColumnBytesToBucket(DataBucket.newBuilder()));
+    }
+
+    @Test
+    public void testDataBucketFromDocument() throws DpException, InvalidProtocolBufferException {
+
+        final DataTimestamps dataTimestamps = DataTimestamps.newBuilder()
+                .setSamplingClock(SamplingClock.newBuilder()
+                        .setStartTime(Timestamp.newBuilder().setEpochSeconds(1_700_000_000L))
+                        .setPeriodNanos(1_000_000L)
+                        .setCount(1))
+                .build();
+        final IngestDataRequest request = IngestDataRequest.newBuilder()
+                .setProviderId("provider1")
+                .setClientRequestId("request1")
+                .setIngestionDataFrame(DataFrame.newBuilder()
+                        .setDataTimestamps(dataTimestamps)
+                        .addDoubleArrayColumns(DoubleArrayColumn.newBuilder()
+                                .setName("pv1")
+                                .setDimensions(DIMENSIONS)
+                                .addValues(1.0).addValues(2.0).addValues(3.0))
+                        .addDoubleColumns(DoubleColumn.newBuilder().setName("pv2").addValues(4.0)))
+                .build();
+
+        final List<BucketDocument> documents = BucketDocument.generateBucketsFromRequest(request, "providerName1");
+        assertEquals(2, documents.size());
+        for (BucketDocument document : documents) {
+            final DataBucket expectedBucket = BucketDocument.dataBucketFromDocument(document, null, false);
+            final DataBucket splicedBucket = BucketDocument.dataBucketFromDocument(document, null, true);
+            assertEquals(expectedBucket, DataBucket.parseFrom(splicedBucket.toByteArray()));
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.ospreydcs.dp.service.common.bson.column;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.service.common.bson.ColumnMetadataDocument;
+import com.ospreydcs.dp.service.common.bson.ColumnProvenanceDocument;
+import com.ospreydcs.dp.service.common.exception.DpException;
+import org.bson.*;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test coverage for packed binary storage of scalar column values, including BSON encoding and decoding of both packed
+ * documents and legacy documents containing a "values" array.
+ */
+public class PackedScalarColumnDocumentTest {
+
+    private static final CodecRegistry CODEC_REGISTRY = CodecRegistries.fromRegistries(
+            com.mongodb.MongoClientSettings.getDefaultCodecRegistry(),
+            CodecRegistries.fromProviders(PojoCodecProvider.builder().register(
+                    ColumnDocumentBase.class,
+                    ColumnMetadataDocument.class,
+                    ColumnProvenanceDocument.class,
+                    DoubleColumnDocument.class,
+                    FloatColumnDocument.class,
+                    Int32ColumnDocument.class,
+                    Int64ColumnDocument.class,
+                    BoolColumnDocument.class,
+                    EnumColumnDocument.class
+            ).build()));
+
+    private static BsonDocument encode(ColumnDocumentBase document) {
+        final BsonDocument bsonDocument = new BsonDocument();
+        final Codec<ColumnDocumentBase> codec = CODEC_REGISTRY.get(ColumnDocumentBase.class);
+        codec.encode(new BsonDocumentWriter(bsonDocument), document, EncoderContext.builder().build());
+        return bsonDocument;
+    }
+
+    private static ColumnDocumentBase decode(BsonDocument bsonDocument) {
+        final Codec<ColumnDocumentBase> codec = CODEC_REGISTRY.get(ColumnDocumentBase.class);
+        return codec.decode(new BsonDocumentReader(bsonDocument), DecoderContext.builder().build());
+    }
+
+    @Test
+    public void testDoubleColumnPacked() throws DpException {
+
+        final DoubleColumn column = DoubleColumn.newBuilder()
+                .setName("pv_double")
+                .addAllValues(Arrays.asList(1.5, -2.25, Double.MAX_VALUE, Double.NaN))
+                .build();
+        final DoubleColumnDocument document = DoubleColumnDocument.fromDoubleColumn(column, true);
+        assertNull(document.getValues());
+        assertEquals(4 * Double.BYTES, document.getPackedValues().length);
+
+        // values are stored as binary, not an array
+        final BsonDocument bsonDocument = encode(document);
+        assertTrue(bsonDocument.get("packedValues").isBinary());
+        assertFalse(bsonDocument.containsKey("values"));
+
+        final DoubleColumnDocument decoded = (DoubleColumnDocument) decode(bsonDocument);
+        assertEquals(column, decoded.toProtobufColumn());
+        final DataColumn dataColumn = decoded.toDataColumn();
+        assertEquals(4, dataColumn.getDataValuesCount());
+        assertEquals(-2.25, dataColumn.getDataValues(1).getDoubleValue(), 0);
+    }
+
+    @Test
+    public void testIntegerColumnsPacked() {
+
+        final Int32Column int32Column = Int32Column.newBuilder()
+                .setName("pv_int32").addAllValues(Arrays.asList(1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE)).build();
+        assertEquals(
+                int32Column,
+                decode(encode(Int32ColumnDocument.fromInt32Column(int32Column, true))).toProtobufColumn());
+
+        final Int64Column int64Column = Int64Column.newBuilder()
+                .setName("pv_int64").addAllValues(Arrays.asList(1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE)).build();
+        assertEquals(
+                int64Column,
+                decode(encode(Int64ColumnDocument.fromInt64Column(int64Column, true))).toProtobufColumn());
+
+        final EnumColumn enumColumn = EnumColumn.newBuilder()
+                .setName("pv_enum").setEnumId("enum1").addAllValues(Arrays.asList(0, 3, 2)).build();
+        assertEquals(
+                enumColumn,
+                decode(encode(EnumColumnDocument.fromEnumColumn(enumColumn, true))).toProtobufColumn());
+    }
+
+    @Test
+    public void testFloatAndBoolColumnsPacked() {
+
+        final FloatColumn floatColumn = FloatColumn.newBuilder()
+                .setName("pv_float").addAllValues(Arrays.asList(0.5f, -1.25f, Float.MIN_VALUE)).build();
+        assertEquals(
+                floatColumn,
+                decode(encode(FloatColumnDocument.fromFloatColumn(floatColumn, true))).toProtobufColumn());
+
+        final BoolColumn boolColumn = BoolColumn.newBuilder()
+                .setName("pv_bool").addAllValues(Arrays.asList(true, false, false, true)).build();
+        final BoolColumnDocument boolDocument = BoolColumnDocument.fromBoolColumn(boolColumn, true);
+        assertEquals(4, boolDocument.getPackedValues().length);
+        assertEquals(boolColumn, decode(encode(boolDocument)).toProtobufColumn());
+    }
+
+    @Test
+    public void testLegacyArrayEncoding() {
+
+        // document written before packed storage was added
+        final BsonDocument legacyDocument = new BsonDocument()
+                .append("_t", new BsonString("doubleColumn"))
+                .append("name", new BsonString("pv_legacy"))
+                .append("values", new BsonArray(Arrays.asList(new BsonDouble(1.0), new BsonDouble(2.0))));
+
+        final DoubleColumnDocument decoded = (DoubleColumnDocument) decode(legacyDocument);
+        assertNull(decoded.getPackedValues());
+        assertEquals(Arrays.asList(1.0, 2.0), decoded.getValues());
+
+        final DoubleColumn column = (DoubleColumn) decoded.toProtobufColumn();
+        assertEquals("pv_legacy", column.getName());
+        assertEquals(2, column.getValuesCount());
+        assertEquals(2.0, column.getValues(1), 0);
+    }
+
+}
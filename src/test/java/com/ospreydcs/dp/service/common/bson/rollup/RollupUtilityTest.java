@@ -0,0 +1,133 @@
+package com.ospreydcs.dp.service.common.bson.rollup;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.protobuf.DataTimestampsUtility;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RollupUtilityTest {
+
+    private static final long START_SECONDS = 1_699_999_980L; // divisible by 60
+
+    private static Map<String, RollupDocument> rollupMap(Collection<RollupDocument> rollups) {
+        final Map<String, RollupDocument> rollupMap = new HashMap<>();
+        for (RollupDocument rollup : rollups) {
+            assertNull(rollupMap.put(rollup.getId(), rollup));
+        }
+        return rollupMap;
+    }
+
+    @Test
+    public void testParseTierSeconds() {
+        assertArrayEquals(new long[]{1, 60, 3600}, RollupUtility.parseTierSeconds("3600, 1,60"));
+        assertArrayEquals(new long[]{60}, RollupUtility.parseTierSeconds("junk,60,-1"));
+        assertArrayEquals(new long[0], RollupUtility.parseTierSeconds(null));
+    }
+
+    @Test
+    public void testNearestTier() {
+        final long[] tiers = new long[]{1, 60, 3600};
+        assertEquals(0, RollupUtility.nearestTier(tiers, 0));
+        assertEquals(1, RollupUtility.nearestTier(tiers, 59));
+        assertEquals(60, RollupUtility.nearestTier(tiers, 60));
+        assertEquals(3600, RollupUtility.nearestTier(tiers, 86400));
+    }
+
+    @Test
+    public void testRollupsCoverQuery() {
+
+        // no bins in tier, or no raw data
+        assertFalse(RollupUtility.rollupsCoverQuery(null, START_SECONDS, START_SECONDS, 60));
+        assertFalse(RollupUtility.rollupsCoverQuery(START_SECONDS, null, START_SECONDS, 60));
+
+        // earliest bin contains the query begin time
+        assertTrue(RollupUtility.rollupsCoverQuery(START_SECONDS, START_SECONDS - 3600, START_SECONDS + 59, 60));
+
+        // rollups enabled after the query begin time, with earlier raw data
+        assertFalse(RollupUtility.rollupsCoverQuery(START_SECONDS + 60, START_SECONDS - 3600, START_SECONDS, 60));
+
+        // PV data begins after the query begin time, and rollups cover it from its first sample
+        assertTrue(RollupUtility.rollupsCoverQuery(START_SECONDS + 60, START_SECONDS + 90, START_SECONDS, 60));
+
+        // PV data begins after the query begin time, but before rollups were enabled
+        assertFalse(RollupUtility.rollupsCoverQuery(START_SECONDS + 120, START_SECONDS + 90, START_SECONDS, 60));
+    }
+
+    @Test
+    public void testRollupsFromRequest() {
+
+        // 120 samples at 1 Hz spanning two 60 second bins
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, 1_000_000_000L, 120);
+        final DoubleColumn.Builder doubleColumnBuilder = DoubleColumn.newBuilder().setName("pv1");
+        final Int32Column.Builder int32ColumnBuilder = Int32Column.newBuilder().setName("pv2");
+        for (int i = 0 ; i < 120 ; i++) {
+            doubleColumnBuilder.addValues(i);
+            int32ColumnBuilder.addValues(-i);
+        }
+        final IngestDataRequest request = IngestDataRequest.newBuilder()
+                .setProviderId("provider1")
+                .setClientRequestId("request1")
+                .setIngestionDataFrame(DataFrame.newBuilder()
+                        .setDataTimestamps(dataTimestamps)
+                        .addDoubleColumns(doubleColumnBuilder)
+                        .addInt32Columns(int32ColumnBuilder)
+                        .addStringColumns(StringColumn.newBuilder().setName("pv3").addValues("a")))
+                .build();
+
+        final Map<String, RollupDocument> rollupMap =
+                rollupMap(RollupUtility.rollupsFromRequest(request, new long[]{60, 3600}));
+
+        // two 60 second bins and one 3600 second bin for each numeric PV, none for the string PV
+        assertEquals(6, rollupMap.size());
+
+        final RollupDocument firstMinute = rollupMap.get(RollupDocument.rollupId("pv1", 60, START_SECONDS));
+        assertEquals(60, firstMinute.getCount());
+        assertEquals(0.0, firstMinute.getMin(), 0);
+        assertEquals(59.0, firstMinute.getMax(), 0);
+        assertEquals(29.5, firstMinute.mean(), 0);
+
+        final RollupDocument secondMinute = rollupMap.get(RollupDocument.rollupId("pv2", 60, START_SECONDS + 60));
+        assertEquals(60, secondMinute.getCount());
+        assertEquals(-119.0, secondMinute.getMin(), 0);
+        assertEquals(-60.0, secondMinute.getMax(), 0);
+
+        final long hourStart = Math.floorDiv(START_SECONDS, 3600) * 3600;
+        final RollupDocument hour = rollupMap.get(RollupDocument.rollupId("pv1", 3600, hourStart));
+        assertEquals(120, hour.getCount());
+        assertEquals(119.0 * 120 / 2, hour.getSum(), 0);
+    }
+
+    @Test
+    public void testMergeRollups() {
+
+        final List<RollupDocument> rollups = new ArrayList<>();
+        final RollupDocument first = new RollupDocument("pv1", 60, START_SECONDS);
+        first.addValue(1.0);
+        first.addValue(5.0);
+        rollups.add(first);
+        final RollupDocument second = new RollupDocument("pv1", 60, START_SECONDS);
+        second.addValue(-2.0);
+        rollups.add(second);
+        final RollupDocument other = new RollupDocument("pv1", 60, START_SECONDS + 60);
+        other.addValue(10.0);
+        rollups.add(other);
+
+        final Map<String, RollupDocument> rollupMap = rollupMap(RollupUtility.mergeRollups(rollups));
+        assertEquals(2, rollupMap.size());
+        final RollupDocument merged = rollupMap.get(first.getId());
+        assertEquals(3, merged.getCount());
+        assertEquals(4.0, merged.getSum(), 0);
+        assertEquals(-2.0, merged.getMin(), 0);
+        assertEquals(5.0, merged.getMax(), 0);
+    }
+
+}
@@ -0,0 +1,389 @@
+package com.ospreydcs.dp.service.common.handler;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Provides unit test coverage for the bounded request queue, OverloadPolicy handling, virtual thread execution mode,
+ * and handling of queued jobs at shutdown in QueueHandlerBase.
+ */
+public class QueueHandlerBaseTest {
+
+    private static final int QUEUE_CAPACITY = 2;
+    private static final int MAX_CONCURRENT_JOBS = 2;
+
+    private static class TestHandler extends QueueHandlerBase {
+
+        private final OverloadPolicy policy;
+        private final boolean useVirtualThreads;
+
+        private TestHandler(OverloadPolicy policy) {
+            this(policy, false);
+        }
+
+        private TestHandler(OverloadPolicy policy, boolean useVirtualThreads) {
+            this.policy = policy;
+            this.useVirtualThreads = useVirtualThreads;
+        }
+
+        @Override
+        protected boolean init_() {
+            return true;
+        }
+
+        @Override
+        protected boolean fini_() {
+            return true;
+        }
+
+        @Override
+        protected int getNumWorkers_() {
+            return 1;
+        }
+
+        @Override
+        protected int getQueueCapacity_() {
+            return QUEUE_CAPACITY;
+        }
+
+        @Override
+        protected OverloadPolicy getOverloadPolicy_() {
+            return policy;
+        }
+
+        @Override
+        protected boolean getUseVirtualThreads_() {
+            return useVirtualThreads;
+        }
+
+        @Override
+        protected int getMaxConcurrentJobs_() {
+            return MAX_CONCURRENT_JOBS;
+        }
+    }
+
+    private static class BlockingJob extends HandlerJob {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void execute() {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class CountingJob extends HandlerJob {
+
+        private final AtomicInteger executeCount;
+
+        private CountingJob(AtomicInteger executeCount) {
+            this.executeCount = executeCount;
+        }
+
+        @Override
+        public void execute() {
+            executeCount.incrementAndGet();
+        }
+    }
+
+    private static class TestObserver implements StreamObserver<Object> {
+
+        private volatile Throwable error = null;
+
+        @Override
+        public void onNext(Object value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+
+    /**
+     * Initializes handler and occupies its single worker with a BlockingJob so that subsequent jobs remain queued.
+     */
+    private static BlockingJob occupyWorker(TestHandler handler) throws InterruptedException {
+        assertTrue(handler.init());
+        final BlockingJob blockingJob = new BlockingJob();
+        assertTrue(handler.submitJob(blockingJob, new TestObserver()));
+        assertTrue(blockingJob.started.await(5, TimeUnit.SECONDS));
+        return blockingJob;
+    }
+
+    @Test
+    public void testOverloadPolicyFromConfig() {
+        assertEquals(QueueHandlerBase.OverloadPolicy.BLOCK, QueueHandlerBase.overloadPolicyFromConfig(null));
+        assertEquals(QueueHandlerBase.OverloadPolicy.REJECT, QueueHandlerBase.overloadPolicyFromConfig("reject"));
+        assertEquals(QueueHandlerBase.OverloadPolicy.SHED, QueueHandlerBase.overloadPolicyFromConfig(" SHED "));
+        assertEquals(QueueHandlerBase.OverloadPolicy.BLOCK, QueueHandlerBase.overloadPolicyFromConfig("junk"));
+    }
+
+    @Test
+    public void testRejectPolicy() throws InterruptedException {
+
+        final TestHandler handler = new TestHandler(QueueHandlerBase.OverloadPolicy.REJECT);
+        final BlockingJob blockingJob = occupyWorker(handler);
+        final AtomicInteger executeCount = new AtomicInteger(0);
+
+        // fill queue
+        final TestObserver observer1 = new TestObserver();
+        final TestObserver observer2 = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer1));
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer2));
+        assertEquals(QUEUE_CAPACITY, handler.getQueueDepth());
+
+        // new job is rejected with RESOURCE_EXHAUSTED
+        final TestObserver observer3 = new TestObserver();
+        assertFalse(handler.submitJob(new CountingJob(executeCount), observer3));
+        assertNotNull(observer3.error);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(observer3.error).getCode());
+        assertEquals(1, handler.getRejectedJobCount());
+
+        // queued jobs run once worker is released
+        blockingJob.release.countDown();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (executeCount.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, executeCount.get());
+        assertNull(observer1.error);
+        assertNull(observer2.error);
+        assertEquals(QUEUE_CAPACITY, handler.getMaxQueueDepth());
+
+        handler.fini();
+    }
+
+    @Test
+    public void testShedPolicy() throws InterruptedException {
+
+        final TestHandler handler = new TestHandler(QueueHandlerBase.OverloadPolicy.SHED);
+        final BlockingJob blockingJob = occupyWorker(handler);
+        final AtomicInteger executeCount = new AtomicInteger(0);
+
+        // fill queue
+        final TestObserver observer1 = new TestObserver();
+        final TestObserver observer2 = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer1));
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer2));
+
+        // new job is accepted, oldest queued job is shed
+        final TestObserver observer3 = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer3));
+        assertNotNull(observer1.error);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(observer1.error).getCode());
+        assertNull(observer2.error);
+        assertNull(observer3.error);
+        assertEquals(1, handler.getShedJobCount());
+        assertEquals(0, handler.getRejectedJobCount());
+        assertEquals(QUEUE_CAPACITY, handler.getQueueDepth());
+
+        blockingJob.release.countDown();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (executeCount.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, executeCount.get());
+
+        handler.fini();
+    }
+
+    @Test
+    public void testShedPolicySkipsJobWithoutObserver() throws InterruptedException {
+
+        final TestHandler handler = new TestHandler(QueueHandlerBase.OverloadPolicy.SHED);
+        final BlockingJob blockingJob = occupyWorker(handler);
+        final AtomicInteger executeCount = new AtomicInteger(0);
+
+        // oldest queued job has no observer, so it can't be rejected once queued
+        final TestObserver observer2 = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), null));
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer2));
+
+        // oldest job with an observer is shed instead, the job without an observer stays queued
+        final TestObserver observer3 = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer3));
+        assertNotNull(observer2.error);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(observer2.error).getCode());
+        assertNull(observer3.error);
+        assertEquals(QUEUE_CAPACITY, handler.getQueueDepth());
+
+        // new job is rejected if no queued job can be shed
+        final TestObserver observer4 = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), null));
+        assertFalse(handler.submitJob(new CountingJob(executeCount), null));
+        assertFalse(handler.submitJob(new CountingJob(executeCount), observer4));
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(observer4.error).getCode());
+        assertEquals(2, handler.getShedJobCount());
+        assertEquals(2, handler.getRejectedJobCount());
+
+        // both queued jobs without observers execute
+        blockingJob.release.countDown();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (executeCount.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, executeCount.get());
+
+        handler.fini();
+    }
+
+    @Test
+    public void testConcurrentShedAnswersEveryJob() throws Exception {
+
+        final TestHandler handler = new TestHandler(QueueHandlerBase.OverloadPolicy.SHED);
+        final BlockingJob blockingJob = occupyWorker(handler);
+        final AtomicInteger executeCount = new AtomicInteger(0);
+
+        // concurrent submitters contend for the full queue
+        final int numSubmitters = 8;
+        final int jobsPerSubmitter = 200;
+        final List<TestObserver> observers = new CopyOnWriteArrayList<>();
+        final ExecutorService submitters = Executors.newFixedThreadPool(numSubmitters);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0 ; i < numSubmitters ; ++i) {
+            futures.add(submitters.submit(() -> {
+                startLatch.await();
+                for (int j = 0 ; j < jobsPerSubmitter ; ++j) {
+                    final TestObserver observer = new TestObserver();
+                    observers.add(observer);
+                    handler.submitJob(new CountingJob(executeCount), observer);
+                }
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        submitters.shutdown();
+        assertEquals(QUEUE_CAPACITY, handler.getQueueDepth());
+
+        // every job is either rejected or executed, none is lost
+        blockingJob.release.countDown();
+        final int totalJobs = numSubmitters * jobsPerSubmitter;
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (executeCount.get() < QUEUE_CAPACITY && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(QUEUE_CAPACITY, executeCount.get());
+        final long errorCount = observers.stream().filter(observer -> observer.error != null).count();
+        assertEquals(totalJobs - QUEUE_CAPACITY, errorCount);
+        assertEquals(errorCount, handler.getShedJobCount() + handler.getRejectedJobCount());
+
+        handler.fini();
+    }
+
+    @Test
+    public void testFiniExecutesQueuedJobs() throws InterruptedException {
+
+        final TestHandler handler = new TestHandler(QueueHandlerBase.OverloadPolicy.REJECT);
+        final BlockingJob blockingJob = occupyWorker(handler);
+        final AtomicInteger executeCount = new AtomicInteger(0);
+
+        final TestObserver observer1 = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer1));
+        assertTrue(handler.submitJob(new CountingJob(executeCount), null));
+
+        // release the worker shortly after shutdown starts
+        final Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            blockingJob.release.countDown();
+        });
+        releaser.start();
+
+        // queued jobs execute before fini completes
+        assertTrue(handler.fini());
+        assertEquals(2, executeCount.get());
+        assertNull(observer1.error);
+        assertEquals(0, handler.getQueueDepth());
+
+        // jobs submitted after shutdown are rejected with UNAVAILABLE
+        final TestObserver observer2 = new TestObserver();
+        assertFalse(handler.submitJob(new CountingJob(executeCount), observer2));
+        assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(observer2.error).getCode());
+        assertFalse(handler.submitJobBlocking(new CountingJob(executeCount)));
+        assertEquals(2, executeCount.get());
+    }
+
+    @Test
+    public void testVirtualThreadConcurrencyLimit() throws InterruptedException {
+
+        final TestHandler handler = new TestHandler(QueueHandlerBase.OverloadPolicy.BLOCK, true);
+        assertTrue(handler.init());
+        assertTrue(handler.getUseVirtualThreads());
+
+        // occupy all permits
+        final BlockingJob blockingJob1 = new BlockingJob();
+        final BlockingJob blockingJob2 = new BlockingJob();
+        assertTrue(handler.submitJob(blockingJob1, new TestObserver()));
+        assertTrue(handler.submitJob(blockingJob2, new TestObserver()));
+        assertTrue(blockingJob1.started.await(5, TimeUnit.SECONDS));
+        assertTrue(blockingJob2.started.await(5, TimeUnit.SECONDS));
+        assertEquals(MAX_CONCURRENT_JOBS, handler.getActiveJobCount());
+
+        // additional jobs wait for a permit
+        final AtomicInteger executeCount = new AtomicInteger(0);
+        assertTrue(handler.submitJob(new CountingJob(executeCount), new TestObserver()));
+        assertTrue(handler.submitJob(new CountingJob(executeCount), new TestObserver()));
+        Thread.sleep(100);
+        assertEquals(0, executeCount.get());
+
+        // waiting jobs run once permits are released
+        blockingJob1.release.countDown();
+        blockingJob2.release.countDown();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (executeCount.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, executeCount.get());
+
+        handler.fini();
+    }
+
+    @Test
+    public void testVirtualThreadDispatchRejectedByExecutor() throws InterruptedException {
+
+        final TestHandler handler = new TestHandler(QueueHandlerBase.OverloadPolicy.BLOCK, true);
+        assertTrue(handler.init());
+
+        // a job the dispatcher can't hand to the executor is rejected with UNAVAILABLE instead of left unanswered
+        handler.executorService.shutdown();
+        final AtomicInteger executeCount = new AtomicInteger(0);
+        final TestObserver observer = new TestObserver();
+        assertTrue(handler.submitJob(new CountingJob(executeCount), observer));
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (observer.error == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(observer.error).getCode());
+        assertEquals(0, executeCount.get());
+        assertEquals(0, handler.getActiveJobCount());
+
+        handler.fini();
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.ospreydcs.dp.service.common.protobuf;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DataBucketDecimationUtilityTest {
+
+    private static final long START_SECONDS = 1_700_000_000L;
+    private static final long PERIOD_NANOS = 1_000_000L;
+
+    private static DataBucket doubleBucket(DataTimestamps dataTimestamps, List<Double> values) {
+        return DataBucket.newBuilder()
+                .setPvName("pv1")
+                .setDataTimestamps(dataTimestamps)
+                .setDataValues(DataValues.newBuilder().setDoubleColumn(
+                        DoubleColumn.newBuilder().setName("pv1").addAllValues(values)))
+                .build();
+    }
+
+    private static List<Double> rampValues(int numSamples) {
+        final List<Double> values = new ArrayList<>();
+        for (int i = 0 ; i < numSamples ; i++) {
+            values.add((double) i);
+        }
+        return values;
+    }
+
+    @Test
+    public void testStride() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 100);
+        final DataBucket bucket = doubleBucket(dataTimestamps, rampValues(100));
+
+        final DataBucket decimatedBucket =
+                DataBucketDecimationUtility.decimate(bucket, DataBucketDecimationUtility.DecimationMode.STRIDE, 10);
+        assertEquals(List.of(0.0, 10.0, 20.0, 30.0, 40.0, 50.0, 60.0, 70.0, 80.0, 90.0),
+                decimatedBucket.getDataValues().getDoubleColumn().getValuesList());
+
+        // stride of a sampling clock is a sampling clock with a longer period
+        final SamplingClock samplingClock = decimatedBucket.getDataTimestamps().getSamplingClock();
+        assertEquals(dataTimestamps.getSamplingClock().getStartTime(), samplingClock.getStartTime());
+        assertEquals(10 * PERIOD_NANOS, samplingClock.getPeriodNanos());
+        assertEquals(10, samplingClock.getCount());
+    }
+
+    @Test
+    public void testMinMax() {
+
+        final List<Double> values = new ArrayList<>();
+        for (int i = 0 ; i < 100 ; i++) {
+            values.add(0.0);
+        }
+        values.set(37, 5.0);
+        values.set(62, -5.0);
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 100);
+        final DataBucket bucket = doubleBucket(dataTimestamps, values);
+
+        final DataBucket decimatedBucket =
+                DataBucketDecimationUtility.decimate(bucket, DataBucketDecimationUtility.DecimationMode.MINMAX, 10);
+        final List<Double> decimatedValues = decimatedBucket.getDataValues().getDoubleColumn().getValuesList();
+        assertTrue(decimatedValues.size() <= 10);
+        assertTrue(decimatedValues.contains(5.0));
+        assertTrue(decimatedValues.contains(-5.0));
+
+        // timestamps of the selected samples are preserved
+        final List<Timestamp> timestamps =
+                decimatedBucket.getDataTimestamps().getTimestampList().getTimestampsList();
+        assertEquals(decimatedValues.size(), timestamps.size());
+        assertEquals(
+                DataTimestampsUtility.timestampForIndex(dataTimestamps, 37),
+                timestamps.get(decimatedValues.indexOf(5.0)));
+    }
+
+    @Test
+    public void testLttb() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 100);
+        final List<Double> values = rampValues(100);
+        values.set(50, 1000.0);
+        final DataBucket bucket = doubleBucket(dataTimestamps, values);
+
+        final DataBucket decimatedBucket =
+                DataBucketDecimationUtility.decimate(bucket, DataBucketDecimationUtility.DecimationMode.LTTB, 10);
+        final List<Double> decimatedValues = decimatedBucket.getDataValues().getDoubleColumn().getValuesList();
+        assertEquals(10, decimatedValues.size());
+        assertEquals(0.0, decimatedValues.get(0), 0);
+        assertEquals(99.0, decimatedValues.get(9), 0);
+        assertTrue(decimatedValues.contains(1000.0));
+    }
+
+    @Test
+    public void testNoDecimationNeeded() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 10);
+        final DataBucket bucket = doubleBucket(dataTimestamps, rampValues(10));
+
+        assertSame(bucket, DataBucketDecimationUtility.decimate(
+                bucket, DataBucketDecimationUtility.DecimationMode.LTTB, 10));
+        assertSame(bucket, DataBucketDecimationUtility.decimate(
+                bucket, DataBucketDecimationUtility.DecimationMode.NONE, 2));
+    }
+
+    @Test
+    public void testNonNumericColumn() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 6);
+        final DataBucket bucket = DataBucket.newBuilder()
+                .setPvName("pv1")
+                .setDataTimestamps(dataTimestamps)
+                .setDataValues(DataValues.newBuilder().setStringColumn(StringColumn.newBuilder()
+                        .setName("pv1")
+                        .addAllValues(List.of("a", "b", "c", "d", "e", "f"))))
+                .build();
+
+        // MINMAX falls back to STRIDE for non-numeric values
+        final DataBucket decimatedBucket =
+                DataBucketDecimationUtility.decimate(bucket, DataBucketDecimationUtility.DecimationMode.MINMAX, 3);
+        assertEquals(List.of("a", "c", "e"), decimatedBucket.getDataValues().getStringColumn().getValuesList());
+        assertEquals(3, decimatedBucket.getDataTimestamps().getSamplingClock().getCount());
+    }
+
+    @Test
+    public void testDecimationModeFromConfig() {
+        assertEquals(DataBucketDecimationUtility.DecimationMode.NONE,
+                DataBucketDecimationUtility.decimationModeFromConfig(null));
+        assertEquals(DataBucketDecimationUtility.DecimationMode.LTTB,
+                DataBucketDecimationUtility.decimationModeFromConfig("lttb"));
+        assertEquals(DataBucketDecimationUtility.DecimationMode.NONE,
+                DataBucketDecimationUtility.decimationModeFromConfig("bogus"));
+    }
+
+}
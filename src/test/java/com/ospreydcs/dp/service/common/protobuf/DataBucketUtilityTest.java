@@ -0,0 +1,198 @@
+package com.ospreydcs.dp.service.common.protobuf;
+
+import com.google.protobuf.ByteString;
+import com.ospreydcs.dp.grpc.v1.common.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DataBucketUtilityTest {
+
+    private static final long START_SECONDS = 1_700_000_000L;
+    private static final long PERIOD_NANOS = 100_000_000L; // 10 samples per second
+
+    private static Timestamp timestamp(long seconds, long nanos) {
+        return TimestampUtility.timestampFromSeconds(seconds, nanos);
+    }
+
+    private static DataBucket doubleBucket(DataTimestamps dataTimestamps, int numSamples) {
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName("pv1");
+        for (int i = 0 ; i < numSamples ; i++) {
+            columnBuilder.addValues(i);
+        }
+        return DataBucket.newBuilder()
+                .setPvName("pv1")
+                .setDataTimestamps(dataTimestamps)
+                .setDataValues(DataValues.newBuilder().setDoubleColumn(columnBuilder))
+                .build();
+    }
+
+    @Test
+    public void testTrimSamplingClock() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 10);
+        final DataBucket bucket = doubleBucket(dataTimestamps, 10);
+
+        // [0.25, 0.55) contains samples at 0.3, 0.4, 0.5
+        final DataBucket trimmedBucket = DataBucketUtility.trimToTimeRange(
+                bucket, timestamp(START_SECONDS, 250_000_000L), timestamp(START_SECONDS, 550_000_000L));
+        assertNotNull(trimmedBucket);
+        final SamplingClock samplingClock = trimmedBucket.getDataTimestamps().getSamplingClock();
+        assertEquals(timestamp(START_SECONDS, 300_000_000L), samplingClock.getStartTime());
+        assertEquals(PERIOD_NANOS, samplingClock.getPeriodNanos());
+        assertEquals(3, samplingClock.getCount());
+        assertEquals(List.of(3.0, 4.0, 5.0), trimmedBucket.getDataValues().getDoubleColumn().getValuesList());
+        assertEquals("pv1", trimmedBucket.getPvName());
+
+        // end time is exclusive
+        final DataBucket endTrimmedBucket = DataBucketUtility.trimToTimeRange(
+                bucket, timestamp(START_SECONDS - 1, 0), timestamp(START_SECONDS, 200_000_000L));
+        assertNotNull(endTrimmedBucket);
+        assertEquals(List.of(0.0, 1.0), endTrimmedBucket.getDataValues().getDoubleColumn().getValuesList());
+        assertEquals(2, endTrimmedBucket.getDataTimestamps().getSamplingClock().getCount());
+    }
+
+    @Test
+    public void testTrimTimestampList() {
+
+        final List<Timestamp> timestamps = new ArrayList<>();
+        for (int i = 0 ; i < 5 ; i++) {
+            timestamps.add(timestamp(START_SECONDS + i, 0));
+        }
+        final DataTimestamps dataTimestamps = DataTimestampsUtility.dataTimestampsWithTimestampList(timestamps);
+        final DataBucket bucket = doubleBucket(dataTimestamps, 5);
+
+        final DataBucket trimmedBucket = DataBucketUtility.trimToTimeRange(
+                bucket, timestamp(START_SECONDS + 1, 0), timestamp(START_SECONDS + 3, 0));
+        assertNotNull(trimmedBucket);
+        assertEquals(
+                timestamps.subList(1, 3), trimmedBucket.getDataTimestamps().getTimestampList().getTimestampsList());
+        assertEquals(List.of(1.0, 2.0), trimmedBucket.getDataValues().getDoubleColumn().getValuesList());
+    }
+
+    @Test
+    public void testTrimArrayColumn() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 3);
+        final DoubleArrayColumn column = DoubleArrayColumn.newBuilder()
+                .setName("pv1")
+                .setDimensions(ArrayDimensions.newBuilder().addDims(2))
+                .addValues(0.0).addValues(0.5)
+                .addValues(1.0).addValues(1.5)
+                .addValues(2.0).addValues(2.5)
+                .build();
+        final DataBucket bucket = DataBucket.newBuilder()
+                .setPvName("pv1")
+                .setDataTimestamps(dataTimestamps)
+                .setDataValues(DataValues.newBuilder().setDoubleArrayColumn(column))
+                .build();
+
+        final DataBucket trimmedBucket = DataBucketUtility.trimToTimeRange(
+                bucket, timestamp(START_SECONDS, 100_000_000L), timestamp(START_SECONDS + 1, 0));
+        assertNotNull(trimmedBucket);
+        final DoubleArrayColumn trimmedColumn = trimmedBucket.getDataValues().getDoubleArrayColumn();
+        assertEquals(List.of(1.0, 1.5, 2.0, 2.5), trimmedColumn.getValuesList());
+        assertEquals(column.getDimensions(), trimmedColumn.getDimensions());
+    }
+
+    @Test
+    public void testNoTrimNeeded() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 10);
+        final DataBucket bucket = doubleBucket(dataTimestamps, 10);
+
+        // bucket entirely within range is returned unchanged
+        assertSame(bucket, DataBucketUtility.trimToTimeRange(
+                bucket, timestamp(START_SECONDS, 0), timestamp(START_SECONDS + 1, 0)));
+
+        // bucket with no samples in range
+        assertNull(DataBucketUtility.trimToTimeRange(
+                bucket, timestamp(START_SECONDS, 910_000_000L), timestamp(START_SECONDS, 990_000_000L)));
+
+        // serialized column payload is opaque, so can't be trimmed
+        final DataBucket serializedBucket = DataBucket.newBuilder()
+                .setPvName("pv1")
+                .setDataTimestamps(dataTimestamps)
+                .setDataValues(DataValues.newBuilder().setSerializedDataColumn(SerializedDataColumn.newBuilder()
+                        .setName("pv1")
+                        .setPayload(ByteString.copyFrom(new byte[]{1, 2, 3}))))
+                .build();
+        assertSame(serializedBucket, DataBucketUtility.trimToTimeRange(
+                serializedBucket, timestamp(START_SECONDS, 250_000_000L), timestamp(START_SECONDS, 550_000_000L)));
+    }
+
+    private static DataBucket bucket(DataTimestamps dataTimestamps, DataValues dataValues) {
+        return DataBucket.newBuilder()
+                .setPvName("pv1")
+                .setDataTimestamps(dataTimestamps)
+                .setDataValues(dataValues)
+                .build();
+    }
+
+    @Test
+    public void testTrimTypedColumns() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 4);
+        final Timestamp beginTime = timestamp(START_SECONDS, 100_000_000L);
+        final Timestamp endTime = timestamp(START_SECONDS, 300_000_000L);
+
+        final DataBucket int64Bucket = bucket(dataTimestamps, DataValues.newBuilder().setInt64Column(
+                Int64Column.newBuilder().setName("pv1").addAllValues(List.of(10L, 11L, 12L, 13L))).build());
+        assertEquals(
+                List.of(11L, 12L),
+                DataBucketUtility.trimToTimeRange(int64Bucket, beginTime, endTime)
+                        .getDataValues().getInt64Column().getValuesList());
+
+        final DataBucket boolBucket = bucket(dataTimestamps, DataValues.newBuilder().setBoolColumn(
+                BoolColumn.newBuilder().setName("pv1").addAllValues(List.of(true, false, true, true))).build());
+        assertEquals(
+                List.of(false, true),
+                DataBucketUtility.trimToTimeRange(boolBucket, beginTime, endTime)
+                        .getDataValues().getBoolColumn().getValuesList());
+
+        final DataBucket enumBucket = bucket(dataTimestamps, DataValues.newBuilder().setEnumColumn(
+                EnumColumn.newBuilder().setName("pv1").setEnumId("enum1").addAllValues(List.of(0, 1, 2, 3))).build());
+        final EnumColumn trimmedEnumColumn =
+                DataBucketUtility.trimToTimeRange(enumBucket, beginTime, endTime).getDataValues().getEnumColumn();
+        assertEquals(List.of(1, 2), trimmedEnumColumn.getValuesList());
+        assertEquals("enum1", trimmedEnumColumn.getEnumId());
+
+        final DataBucket stringBucket = bucket(dataTimestamps, DataValues.newBuilder().setStringColumn(
+                StringColumn.newBuilder().setName("pv1").addAllValues(List.of("a", "b", "c", "d"))).build());
+        assertEquals(
+                List.of("b", "c"),
+                DataBucketUtility.trimToTimeRange(stringBucket, beginTime, endTime)
+                        .getDataValues().getStringColumn().getValuesList());
+    }
+
+    @Test
+    public void testTrimValueCountMismatch() {
+
+        final DataTimestamps dataTimestamps =
+                DataTimestampsUtility.dataTimestampsWithSamplingClock(START_SECONDS, 0, PERIOD_NANOS, 10);
+        final Timestamp beginTime = timestamp(START_SECONDS, 250_000_000L);
+        final Timestamp endTime = timestamp(START_SECONDS, 550_000_000L);
+
+        // a column with fewer or more values than timestamps is left as is
+        final DataBucket shortBucket = doubleBucket(dataTimestamps, 4);
+        assertSame(shortBucket, DataBucketUtility.trimToTimeRange(shortBucket, beginTime, endTime));
+        final DataBucket longBucket = doubleBucket(dataTimestamps, 12);
+        assertSame(longBucket, DataBucketUtility.trimToTimeRange(longBucket, beginTime, endTime));
+
+        // an array column whose values don't match the dimensions for each timestamp is left as is
+        final DataBucket arrayBucket = bucket(dataTimestamps, DataValues.newBuilder().setInt32ArrayColumn(
+                Int32ArrayColumn.newBuilder()
+                        .setName("pv1")
+                        .setDimensions(ArrayDimensions.newBuilder().addDims(2))
+                        .addAllValues(List.of(1, 2, 3))).build());
+        assertSame(arrayBucket, DataBucketUtility.trimToTimeRange(arrayBucket, beginTime, endTime));
+    }
+
+}
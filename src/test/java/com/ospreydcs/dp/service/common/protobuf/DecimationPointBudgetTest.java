@@ -0,0 +1,175 @@
+package com.ospreydcs.dp.service.common.protobuf;
+
+import com.google.protobuf.ByteString;
+import com.ospreydcs.dp.grpc.v1.common.*;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DecimationPointBudgetTest {
+
+    private static final long START_SECONDS = 1_700_000_000L;
+    private static final long SAMPLE_PERIOD_NANOS = 100_000_000L; // 100 ms
+    private static final int SAMPLES_PER_BUCKET = 20;
+    private static final long BUCKET_SECONDS = 2;
+
+    private static Timestamp timestamp(long epochSeconds) {
+        return Timestamp.newBuilder().setEpochSeconds(epochSeconds).build();
+    }
+
+    private static DataBucket doubleBucket(String pvName, long startSeconds, int numSamples) {
+        return doubleBucket(pvName, startSeconds, numSamples, SAMPLE_PERIOD_NANOS);
+    }
+
+    private static DataBucket doubleBucket(String pvName, long startSeconds, int numSamples, long periodNanos) {
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName(pvName);
+        for (int i = 0 ; i < numSamples ; i++) {
+            columnBuilder.addValues(Math.sin(i));
+        }
+        return DataBucket.newBuilder()
+                .setPvName(pvName)
+                .setDataTimestamps(DataTimestampsUtility.dataTimestampsWithSamplingClock(
+                        startSeconds, 0, periodNanos, numSamples))
+                .setDataValues(DataValues.newBuilder().setDoubleColumn(columnBuilder))
+                .build();
+    }
+
+    private static int sampleCount(DataBucket bucket) {
+        return (bucket == null) ? 0 : DataBucketDecimationUtility.sampleCount(bucket.getDataTimestamps());
+    }
+
+    /**
+     * Decimates consecutive buckets for the PV covering the query time range, returning the total number of points.
+     */
+    private static int decimateBuckets(DecimationPointBudget budget, String pvName, int numBuckets) {
+        int totalPoints = 0;
+        for (int i = 0 ; i < numBuckets ; i++) {
+            totalPoints += sampleCount(
+                    budget.decimate(doubleBucket(pvName, START_SECONDS + i * BUCKET_SECONDS, SAMPLES_PER_BUCKET)));
+        }
+        return totalPoints;
+    }
+
+    @Test
+    public void testMoreBucketsThanTargetPoints() {
+
+        // 50 buckets over a 100 second query with a target of 10 points
+        final int numBuckets = 50;
+        final int targetPoints = 10;
+        for (DataBucketDecimationUtility.DecimationMode mode : new DataBucketDecimationUtility.DecimationMode[]{
+                DataBucketDecimationUtility.DecimationMode.STRIDE,
+                DataBucketDecimationUtility.DecimationMode.MINMAX,
+                DataBucketDecimationUtility.DecimationMode.LTTB}) {
+
+            final DecimationPointBudget budget = new DecimationPointBudget(
+                    mode,
+                    targetPoints,
+                    timestamp(START_SECONDS),
+                    timestamp(START_SECONDS + numBuckets * BUCKET_SECONDS));
+
+            // most buckets return no points, and the total is bounded by the target
+            int nullBuckets = 0;
+            int totalPoints = 0;
+            for (int i = 0 ; i < numBuckets ; i++) {
+                final DataBucket decimatedBucket = budget.decimate(
+                        doubleBucket("pv1", START_SECONDS + i * BUCKET_SECONDS, SAMPLES_PER_BUCKET));
+                if (decimatedBucket == null) {
+                    nullBuckets++;
+                } else {
+                    assertTrue(sampleCount(decimatedBucket) <= 1);
+                }
+                totalPoints += sampleCount(decimatedBucket);
+            }
+            assertTrue(mode + " totalPoints: " + totalPoints, totalPoints <= targetPoints);
+            assertTrue(mode + " totalPoints: " + totalPoints, totalPoints >= targetPoints - 1);
+            assertEquals(numBuckets - totalPoints, nullBuckets);
+        }
+    }
+
+    @Test
+    public void testTargetSplitAcrossBuckets() {
+
+        // 10 buckets of 20 samples over a 20 second query, target of 100 points gives each bucket about 10
+        final DecimationPointBudget budget = new DecimationPointBudget(
+                DataBucketDecimationUtility.DecimationMode.STRIDE,
+                100,
+                timestamp(START_SECONDS),
+                timestamp(START_SECONDS + 10 * BUCKET_SECONDS));
+        final int totalPoints = decimateBuckets(budget, "pv1", 10);
+        assertTrue("totalPoints: " + totalPoints, totalPoints <= 100);
+        assertTrue("totalPoints: " + totalPoints, totalPoints >= 90);
+    }
+
+    @Test
+    public void testBudgetPerPv() {
+
+        // each PV has its own target
+        final DecimationPointBudget budget = new DecimationPointBudget(
+                DataBucketDecimationUtility.DecimationMode.MINMAX,
+                10,
+                timestamp(START_SECONDS),
+                timestamp(START_SECONDS + 50 * BUCKET_SECONDS));
+        final int pv1Points = decimateBuckets(budget, "pv1", 50);
+        final int pv2Points = decimateBuckets(budget, "pv2", 50);
+        assertTrue(pv1Points <= 10 && pv1Points >= 9);
+        assertEquals(pv1Points, pv2Points);
+    }
+
+    @Test
+    public void testUnusedPointsCarriedOver() {
+
+        // 2.5 points per second, first bucket is allotted 5 points for 2 seconds but contains only 2 samples
+        final DecimationPointBudget budget = new DecimationPointBudget(
+                DataBucketDecimationUtility.DecimationMode.STRIDE,
+                20,
+                timestamp(START_SECONDS),
+                timestamp(START_SECONDS + 8));
+        final DataBucket firstBucket = budget.decimate(doubleBucket("pv1", START_SECONDS, 2, 2_000_000_000L));
+        assertEquals(2, sampleCount(firstBucket));
+
+        // second bucket is allotted 4.75 points for 1.9 seconds plus the 3 unused by the first bucket
+        final DataBucket secondBucket = budget.decimate(doubleBucket("pv1", START_SECONDS + 2, SAMPLES_PER_BUCKET));
+        assertEquals(7, sampleCount(secondBucket));
+    }
+
+    @Test
+    public void testUndecimatedBucketDoesNotStarveLaterBuckets() {
+
+        // 2.5 points per second over 3 buckets, the first of which has a serialized column that can't be decimated
+        final DecimationPointBudget budget = new DecimationPointBudget(
+                DataBucketDecimationUtility.DecimationMode.STRIDE,
+                15,
+                timestamp(START_SECONDS),
+                timestamp(START_SECONDS + 3 * BUCKET_SECONDS));
+        final DataBucket serializedBucket = DataBucket.newBuilder()
+                .setPvName("pv1")
+                .setDataTimestamps(DataTimestampsUtility.dataTimestampsWithSamplingClock(
+                        START_SECONDS, 0, SAMPLE_PERIOD_NANOS, SAMPLES_PER_BUCKET))
+                .setDataValues(DataValues.newBuilder().setSerializedDataColumn(SerializedDataColumn.newBuilder()
+                        .setName("pv1")
+                        .setPayload(ByteString.copyFrom(new byte[]{1, 2, 3}))))
+                .build();
+
+        // the serialized bucket is allotted 4.75 points for 1.9 seconds but is returned with all of its samples
+        assertSame(serializedBucket, budget.decimate(serializedBucket));
+
+        // the excess isn't taken from the following decimatable buckets, which each get 5 points for 2 seconds
+        assertEquals(5, sampleCount(
+                budget.decimate(doubleBucket("pv1", START_SECONDS + BUCKET_SECONDS, SAMPLES_PER_BUCKET))));
+        assertEquals(5, sampleCount(
+                budget.decimate(doubleBucket("pv1", START_SECONDS + 2 * BUCKET_SECONDS, SAMPLES_PER_BUCKET))));
+    }
+
+    @Test
+    public void testSingleBucketGetsTarget() {
+
+        // a bucket spanning the whole query gets the whole target
+        final DecimationPointBudget budget = new DecimationPointBudget(
+                DataBucketDecimationUtility.DecimationMode.STRIDE,
+                10,
+                timestamp(START_SECONDS),
+                timestamp(START_SECONDS + 1));
+        assertEquals(10, sampleCount(budget.decimate(doubleBucket("pv1", START_SECONDS, SAMPLES_PER_BUCKET))));
+    }
+
+}
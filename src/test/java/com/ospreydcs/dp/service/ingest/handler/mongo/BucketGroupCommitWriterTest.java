@@ -0,0 +1,281 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import com.ospreydcs.dp.service.ingest.model.BucketGroupInsertResult;
+import com.ospreydcs.dp.service.ingest.model.IngestionTaskResult;
+import org.bson.BsonString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for BucketGroupCommitWriter, covering coalescing batches from concurrent submitters into
+ * a single group insert, and splitting the group result back into a result for each submitter, including attributing
+ * a partial insert failure to the submitter whose document failed.  Also covers inserting directly when the pending
+ * queue is full, and timing out a submitter whose group insert has stalled.
+ */
+public class BucketGroupCommitWriterTest {
+
+    private static final int NUM_SUBMITTERS = 4;
+    private static final int BATCH_SIZE = 3;
+    private static final long LINGER_MILLIS = 1_000;
+    private static final int MAX_PENDING_BATCHES = 100;
+    private static final long RESULT_TIMEOUT_MILLIS = 10_000;
+
+    private MongoIngestionClientInterface mongoClient;
+    private BucketGroupCommitWriter writer;
+    private ExecutorService submitterExecutor;
+    private final List<Integer> groupSizes = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        mongoClient = mock(MongoIngestionClientInterface.class);
+        writer = new BucketGroupCommitWriter(
+                mongoClient, 1, 1000, Long.MAX_VALUE, LINGER_MILLIS, MAX_PENDING_BATCHES, RESULT_TIMEOUT_MILLIS);
+        writer.init();
+        submitterExecutor = Executors.newFixedThreadPool(NUM_SUBMITTERS);
+    }
+
+    /**
+     * Replaces the default writer with one that writes each batch by itself after a short linger, so that the
+     * writer can be stalled in insertBatch() for a specific request.
+     */
+    private void restartWriter(int maxPendingBatches, long resultTimeoutMillis) {
+        writer.fini();
+        writer = new BucketGroupCommitWriter(
+                mongoClient, 1, 1, Long.MAX_VALUE, 1, maxPendingBatches, resultTimeoutMillis);
+        writer.init();
+    }
+
+    /**
+     * Mocks the single-batch insert, blocking the insert for the stalled request id until the latch is released.
+     */
+    private void mockStalledBatchInsert(
+            String stalledRequestId, CountDownLatch stalledEntered, CountDownLatch release
+    ) {
+        when(mongoClient.insertBatch(any(), anyList())).thenAnswer(invocation -> {
+            final IngestDataRequest request = invocation.getArgument(0);
+            if (request.getClientRequestId().equals(stalledRequestId)) {
+                stalledEntered.countDown();
+                release.await();
+            }
+            return new IngestionTaskResult(false, null, null);
+        });
+    }
+
+    private static IngestDataRequest request(String requestId) {
+        return IngestDataRequest.newBuilder().setClientRequestId(requestId).build();
+    }
+
+    @After
+    public void tearDown() {
+        submitterExecutor.shutdownNow();
+        writer.fini();
+    }
+
+    private static List<BucketDocument> documentBatch(String requestId) {
+        final List<BucketDocument> batch = new ArrayList<>();
+        for (int i = 0 ; i < BATCH_SIZE ; ++i) {
+            final BucketDocument document = new BucketDocument();
+            document.setId(requestId + "-" + i);
+            batch.add(document);
+        }
+        return batch;
+    }
+
+    /**
+     * Mocks the group insert, failing the documents with the specified ids, which are located by id since the order
+     * of batches in the group depends on the order they were submitted.
+     */
+    private void mockGroupInsert(Set<String> failedDocumentIds) {
+        when(mongoClient.insertBucketGroup(anyList())).thenAnswer(invocation -> {
+            final List<BucketDocument> groupDocuments = invocation.getArgument(0);
+            groupSizes.add(groupDocuments.size());
+            final Map<Integer, String> writeErrors = new HashMap<>();
+            for (int i = 0 ; i < groupDocuments.size() ; ++i) {
+                if (failedDocumentIds.contains(groupDocuments.get(i).getId())) {
+                    writeErrors.put(i, "E11000 duplicate key error: " + groupDocuments.get(i).getId());
+                }
+            }
+            return new BucketGroupInsertResult(false, null, writeErrors);
+        });
+    }
+
+    /**
+     * Submits a batch for each request id concurrently, released together by a latch, and returns each submitter's
+     * result keyed by request id.
+     */
+    private Map<String, IngestionTaskResult> submitConcurrently() throws Exception {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Map<String, Future<IngestionTaskResult>> futures = new HashMap<>();
+        for (int i = 0 ; i < NUM_SUBMITTERS ; ++i) {
+            final String requestId = "request" + i;
+            final IngestDataRequest request = IngestDataRequest.newBuilder().setClientRequestId(requestId).build();
+            futures.put(requestId, submitterExecutor.submit(() -> {
+                startLatch.await();
+                return writer.insertBatch(request, documentBatch(requestId));
+            }));
+        }
+        startLatch.countDown();
+        final Map<String, IngestionTaskResult> results = new HashMap<>();
+        for (Map.Entry<String, Future<IngestionTaskResult>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private static void verifyInsertedIds(String requestId, IngestionTaskResult result) {
+        assertFalse(result.msg, result.isError);
+        assertNotNull(result.insertManyResult);
+        assertTrue(result.insertManyResult.wasAcknowledged());
+        assertEquals(BATCH_SIZE, result.insertManyResult.getInsertedIds().size());
+        for (int i = 0 ; i < BATCH_SIZE ; ++i) {
+            assertEquals(new BsonString(requestId + "-" + i), result.insertManyResult.getInsertedIds().get(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentSubmittersCoalesced() throws Exception {
+
+        mockGroupInsert(Collections.emptySet());
+
+        final Map<String, IngestionTaskResult> results = submitConcurrently();
+
+        // batches are written with a single group insert, never individually
+        verify(mongoClient, times(1)).insertBucketGroup(anyList());
+        verify(mongoClient, never()).insertBatch(any(), anyList());
+        assertEquals(List.of(NUM_SUBMITTERS * BATCH_SIZE), groupSizes);
+        assertEquals(1, writer.getGroupsWritten());
+        assertEquals(NUM_SUBMITTERS, writer.getBatchesWritten());
+
+        // each submitter gets a result containing the ids of its own documents
+        assertEquals(NUM_SUBMITTERS, results.size());
+        for (Map.Entry<String, IngestionTaskResult> entry : results.entrySet()) {
+            verifyInsertedIds(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Test
+    public void testPartialFailureAttributedToSubmitter() throws Exception {
+
+        mockGroupInsert(Set.of("request2-1"));
+
+        final Map<String, IngestionTaskResult> results = submitConcurrently();
+        verify(mongoClient, times(1)).insertBucketGroup(anyList());
+
+        // only the submitter whose document failed gets an error
+        for (Map.Entry<String, IngestionTaskResult> entry : results.entrySet()) {
+            final IngestionTaskResult result = entry.getValue();
+            if (entry.getKey().equals("request2")) {
+                assertTrue(result.isError);
+                assertNull(result.insertManyResult);
+                assertTrue(result.msg, result.msg.contains("write errors: 1"));
+                assertTrue(result.msg, result.msg.contains("request2-1"));
+            } else {
+                verifyInsertedIds(entry.getKey(), result);
+            }
+        }
+    }
+
+    @Test
+    public void testGroupFailureReturnedToEachSubmitter() throws Exception {
+
+        when(mongoClient.insertBucketGroup(anyList())).thenReturn(
+                new BucketGroupInsertResult(true, "insertMany failed", null));
+
+        final Map<String, IngestionTaskResult> results = submitConcurrently();
+        verify(mongoClient, times(1)).insertBucketGroup(anyList());
+
+        assertEquals(NUM_SUBMITTERS, results.size());
+        for (IngestionTaskResult result : results.values()) {
+            assertTrue(result.isError);
+            assertEquals("insertMany failed", result.msg);
+        }
+    }
+
+    @Test
+    public void testFullQueueInsertsDirectly() throws Exception {
+
+        restartWriter(1, RESULT_TIMEOUT_MILLIS);
+        final CountDownLatch stalledEntered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        mockStalledBatchInsert("stalled", stalledEntered, release);
+
+        try {
+            // stall the writer, then fill the pending queue
+            final Future<IngestionTaskResult> stalledFuture =
+                    submitterExecutor.submit(() -> writer.insertBatch(request("stalled"), documentBatch("stalled")));
+            assertTrue(stalledEntered.await(10, TimeUnit.SECONDS));
+            final Future<IngestionTaskResult> queuedFuture =
+                    submitterExecutor.submit(() -> writer.insertBatch(request("queued"), documentBatch("queued")));
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (writer.getPendingBatchCount() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, writer.getPendingBatchCount());
+
+            // a submitter finding the queue full inserts its batch directly instead of waiting
+            final IngestionTaskResult overflowResult =
+                    writer.insertBatch(request("overflow"), documentBatch("overflow"));
+            assertFalse(overflowResult.isError);
+            assertEquals(1, writer.getOverflowCount());
+            assertFalse(stalledFuture.isDone());
+            assertFalse(queuedFuture.isDone());
+
+            // the stalled and queued batches complete once the write is released
+            release.countDown();
+            assertFalse(stalledFuture.get(10, TimeUnit.SECONDS).isError);
+            assertFalse(queuedFuture.get(10, TimeUnit.SECONDS).isError);
+            verify(mongoClient, times(3)).insertBatch(any(), anyList());
+
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testResultTimeout() throws Exception {
+
+        restartWriter(MAX_PENDING_BATCHES, 200);
+        final CountDownLatch stalledEntered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        mockStalledBatchInsert("stalled", stalledEntered, release);
+
+        try {
+            // the submitter whose write stalls gets an error when the timeout expires
+            final Future<IngestionTaskResult> stalledFuture =
+                    submitterExecutor.submit(() -> writer.insertBatch(request("stalled"), documentBatch("stalled")));
+            assertTrue(stalledEntered.await(10, TimeUnit.SECONDS));
+
+            // a submitter whose batch is still queued behind the stalled write times out and its batch is withdrawn
+            final IngestionTaskResult queuedResult = writer.insertBatch(request("queued"), documentBatch("queued"));
+            assertTrue(queuedResult.isError);
+            assertTrue(queuedResult.msg, queuedResult.msg.contains("batch not written"));
+            assertEquals(0, writer.getPendingBatchCount());
+
+            final IngestionTaskResult stalledResult = stalledFuture.get(10, TimeUnit.SECONDS);
+            assertTrue(stalledResult.isError);
+            assertTrue(stalledResult.msg, stalledResult.msg.contains("timed out"));
+            assertEquals(2, writer.getTimeoutCount());
+
+            // the withdrawn batch is never written after the stall clears
+            release.countDown();
+            Thread.sleep(100);
+            verify(mongoClient, times(1)).insertBatch(any(), anyList());
+
+        } finally {
+            release.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import com.ospreydcs.dp.service.common.bson.catalog.PvCatalogDocument;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for the PvCatalogWriter write-behind stage, covering merging the catalog entries for
+ * the requests in a batch so that each PV and provider is upserted once, draining queued requests on shutdown without
+ * waiting for the staleness window, and writing synchronously after shutdown.
+ */
+public class PvCatalogWriterTest {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 5_000;
+
+    private MongoIngestionClientInterface mongoClient;
+    private final List<List<PvCatalogDocument>> upsertBatches = new CopyOnWriteArrayList<>();
+    private PvCatalogWriter writer = null;
+
+    @Before
+    public void setUp() {
+        mongoClient = mock(MongoIngestionClientInterface.class);
+        final BulkWriteResult acknowledgedResult = mock(BulkWriteResult.class);
+        when(acknowledgedResult.wasAcknowledged()).thenReturn(true);
+        when(mongoClient.upsertPvCatalog(anyList())).thenAnswer(invocation -> {
+            final List<PvCatalogDocument> batch = invocation.getArgument(0);
+            upsertBatches.add(new ArrayList<>(batch));
+            return acknowledgedResult;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.fini();
+        }
+    }
+
+    private static BucketDocument bucket(String pvName, String providerId, String bucketId) {
+        final BucketDocument bucket = new BucketDocument();
+        bucket.setId(bucketId);
+        bucket.setPvName(pvName);
+        bucket.setProviderId(providerId);
+        return bucket;
+    }
+
+    private void awaitBatchesWritten(long expectedCount) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (writer.getBatchesWritten() < expectedCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expectedCount, writer.getBatchesWritten());
+    }
+
+    @Test
+    public void testBatchMergedByPvAndProvider() throws InterruptedException {
+
+        // staleness window longer than the test, so only full batches are written
+        writer = new PvCatalogWriter(mongoClient, 100, 3, 60_000);
+        assertTrue(writer.init());
+
+        // two requests for pv1 from the same provider, and one for pv1 from another provider
+        writer.addBuckets(List.of(bucket("pv1", "provider1", "bucket1")));
+        writer.addBuckets(List.of(bucket("pv1", "provider1", "bucket2")));
+        writer.addBuckets(List.of(bucket("pv1", "provider2", "bucket3")));
+        awaitBatchesWritten(1);
+
+        // one entry is upserted for each PV and provider
+        assertEquals(1, upsertBatches.size());
+        final List<PvCatalogDocument> batch = upsertBatches.get(0);
+        assertEquals(2, batch.size());
+        for (PvCatalogDocument entry : batch) {
+            assertEquals("pv1", entry.getPvName());
+            final int expectedNumBuckets = entry.getProviderId().equals("provider1") ? 2 : 1;
+            assertEquals(expectedNumBuckets, entry.getNumBuckets());
+        }
+        assertEquals(2, writer.getDocumentsWritten());
+        assertEquals(0, writer.getSynchronousWrites());
+    }
+
+    @Test
+    public void testDrainOnShutdown() {
+
+        // neither batch size nor staleness window triggers a write before shutdown
+        writer = new PvCatalogWriter(mongoClient, 100, 100, 60_000);
+        assertTrue(writer.init());
+
+        writer.addBuckets(List.of(bucket("pv1", "provider1", "bucket1"), bucket("pv2", "provider1", "bucket2")));
+        final long startMillis = System.currentTimeMillis();
+        assertTrue(writer.fini());
+
+        // fini doesn't wait for the staleness window
+        assertTrue(System.currentTimeMillis() - startMillis < WAIT_TIMEOUT_MILLIS);
+        assertEquals(2, writer.getDocumentsWritten());
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(0, writer.getSynchronousWrites());
+
+        // buckets added after shutdown are written synchronously
+        writer.addBuckets(List.of(bucket("pv3", "provider1", "bucket3")));
+        assertEquals(1, writer.getSynchronousWrites());
+        assertEquals(3, writer.getDocumentsWritten());
+        verify(mongoClient, times(2)).upsertPvCatalog(anyList());
+    }
+
+}
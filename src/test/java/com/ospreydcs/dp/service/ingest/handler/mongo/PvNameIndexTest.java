@@ -0,0 +1,104 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.client.MongoCursor;
+import com.ospreydcs.dp.service.query.handler.mongo.client.MongoQueryClientInterface;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for PvNameIndex, covering loading the index from the archive, lookups that hit and miss
+ * the index, and adding names for ingested PVs and PVs confirmed by the database.
+ */
+public class PvNameIndexTest {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 5_000;
+
+    private PvNameIndex index = null;
+
+    @After
+    public void tearDown() {
+        if (index != null) {
+            index.fini();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoQueryClientInterface mockQueryClient(List<String> archivePvNames) {
+        final Iterator<String> iterator = archivePvNames.iterator();
+        final MongoCursor<String> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        final MongoQueryClientInterface queryClient = mock(MongoQueryClientInterface.class);
+        when(queryClient.executeQueryPvNames()).thenReturn(cursor);
+        return queryClient;
+    }
+
+    private void initIndex(MongoQueryClientInterface queryClient) throws InterruptedException {
+        index = new PvNameIndex(queryClient);
+        assertTrue(index.init());
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (!index.isLoaded() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testLookupLoadedNames() throws InterruptedException {
+
+        initIndex(mockQueryClient(List.of("pv1", "pv2", "pv3")));
+        assertTrue(index.isLoaded());
+        assertEquals(3, index.size());
+
+        // all names in index
+        assertEquals(Set.of(), index.unknownPvNames(List.of("pv1", "pv3")));
+        assertEquals(1, index.getHitCount());
+        assertEquals(0, index.getMissCount());
+
+        // only names missing from index are returned
+        assertEquals(Set.of("pv4", "pv5"), index.unknownPvNames(List.of("pv1", "pv4", "pv5")));
+        assertEquals(1, index.getHitCount());
+        assertEquals(1, index.getMissCount());
+    }
+
+    @Test
+    public void testAddNames() throws InterruptedException {
+
+        initIndex(mockQueryClient(List.of()));
+        assertTrue(index.isLoaded());
+        assertEquals(Set.of("pv1", "pv2", "pv3"), index.unknownPvNames(List.of("pv1", "pv2", "pv3")));
+
+        // names added for ingested buckets and database lookups are found by later lookups
+        index.addPvName("pv1");
+        index.addPvNames(List.of("pv2", "pv3"));
+        assertEquals(3, index.size());
+        assertEquals(Set.of(), index.unknownPvNames(List.of("pv1", "pv2", "pv3")));
+
+        // adding an existing name doesn't change the index
+        index.addPvName("pv1");
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testLoadFailure() throws InterruptedException {
+
+        final MongoQueryClientInterface queryClient = mock(MongoQueryClientInterface.class);
+        when(queryClient.executeQueryPvNames()).thenThrow(new RuntimeException("database unavailable"));
+        index = new PvNameIndex(queryClient);
+        assertTrue(index.init());
+        verify(queryClient, timeout(WAIT_TIMEOUT_MILLIS)).executeQueryPvNames();
+
+        // index isn't loaded, so every name must be checked against the database, but names can still be added
+        assertFalse(index.isLoaded());
+        assertEquals(Set.of("pv1"), index.unknownPvNames(List.of("pv1")));
+        index.addPvName("pv1");
+        assertEquals(Set.of(), index.unknownPvNames(List.of("pv1")));
+    }
+
+}
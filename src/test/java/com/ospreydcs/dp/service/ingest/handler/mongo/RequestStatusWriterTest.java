@@ -0,0 +1,127 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.ospreydcs.dp.service.common.bson.RequestStatusDocument;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for the RequestStatusWriter write-behind stage, covering writing a batch when it reaches
+ * the maximum batch size, writing a partial batch when the staleness window expires, and draining queued documents
+ * on shutdown.
+ */
+public class RequestStatusWriterTest {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 5_000;
+
+    private MongoIngestionClientInterface mongoClient;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private RequestStatusWriter writer = null;
+
+    @Before
+    public void setUp() {
+        mongoClient = mock(MongoIngestionClientInterface.class);
+        when(mongoClient.insertRequestStatusBatch(anyList())).thenAnswer(invocation -> {
+            final List<RequestStatusDocument> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            final Map<Integer, BsonValue> insertedIds = new HashMap<>();
+            for (int i = 0 ; i < batch.size() ; ++i) {
+                insertedIds.put(i, new BsonObjectId());
+            }
+            return InsertManyResult.acknowledged(insertedIds);
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.fini();
+        }
+    }
+
+    private void addDocuments(int count) {
+        for (int i = 0 ; i < count ; ++i) {
+            writer.addRequestStatus(new RequestStatusDocument());
+        }
+    }
+
+    private void awaitDocumentsWritten(long expectedCount) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (writer.getDocumentsWritten() < expectedCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expectedCount, writer.getDocumentsWritten());
+    }
+
+    @Test
+    public void testFlushOnBatchSize() throws InterruptedException {
+
+        // staleness window longer than the test, so only full batches are written
+        writer = new RequestStatusWriter(mongoClient, 100, 5, 60_000);
+        writer.init();
+
+        addDocuments(10);
+        awaitDocumentsWritten(10);
+        assertEquals(List.of(5, 5), batchSizes);
+        assertEquals(2, writer.getBatchesWritten());
+        assertEquals(0, writer.getSynchronousWrites());
+        verify(mongoClient, never()).insertRequestStatus(any());
+    }
+
+    @Test
+    public void testFlushOnTimer() throws InterruptedException {
+
+        writer = new RequestStatusWriter(mongoClient, 100, 100, 200);
+        writer.init();
+
+        // partial batch is written after the staleness window expires
+        final long startMillis = System.currentTimeMillis();
+        addDocuments(3);
+        awaitDocumentsWritten(3);
+        assertTrue(System.currentTimeMillis() - startMillis >= 200);
+        assertEquals(List.of(3), batchSizes);
+        assertEquals(1, writer.getBatchesWritten());
+        assertEquals(0, writer.getQueueSize());
+    }
+
+    @Test
+    public void testDrainOnShutdown() {
+
+        // neither batch size nor staleness window triggers a write before shutdown
+        writer = new RequestStatusWriter(mongoClient, 100, 100, 60_000);
+        writer.init();
+
+        addDocuments(7);
+        final long startMillis = System.currentTimeMillis();
+        assertTrue(writer.fini());
+
+        // fini doesn't wait for the staleness window
+        assertTrue(System.currentTimeMillis() - startMillis < WAIT_TIMEOUT_MILLIS);
+        assertEquals(7, writer.getDocumentsWritten());
+        assertEquals(7, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(0, writer.getSynchronousWrites());
+
+        // documents added after shutdown are inserted synchronously
+        when(mongoClient.insertRequestStatus(any())).thenReturn(InsertOneResult.acknowledged(new BsonObjectId()));
+        writer.addRequestStatus(new RequestStatusDocument());
+        assertEquals(1, writer.getSynchronousWrites());
+        assertEquals(8, writer.getDocumentsWritten());
+        verify(mongoClient, times(1)).insertRequestStatus(any());
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.ospreydcs.dp.grpc.v1.common.DataFrame;
+import com.ospreydcs.dp.grpc.v1.common.DoubleColumn;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.service.common.bson.rollup.RollupDocument;
+import com.ospreydcs.dp.service.common.protobuf.DataTimestampsUtility;
+import com.ospreydcs.dp.service.ingest.handler.mongo.client.MongoIngestionClientInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for the RollupWriter write-behind stage, covering merging the rollups for the requests
+ * in a batch so that each bin is upserted once, draining queued requests on shutdown without waiting for the
+ * staleness window, and writing synchronously after shutdown.
+ */
+public class RollupWriterTest {
+
+    private static final long START_SECONDS = 1_699_999_980L; // divisible by 60
+    private static final long[] TIER_SECONDS = new long[]{60};
+    private static final int SAMPLES_PER_REQUEST = 10;
+    private static final long WAIT_TIMEOUT_MILLIS = 5_000;
+
+    private MongoIngestionClientInterface mongoClient;
+    private final List<List<RollupDocument>> upsertBatches = new CopyOnWriteArrayList<>();
+    private RollupWriter writer = null;
+
+    @Before
+    public void setUp() {
+        mongoClient = mock(MongoIngestionClientInterface.class);
+        final BulkWriteResult acknowledgedResult = mock(BulkWriteResult.class);
+        when(acknowledgedResult.wasAcknowledged()).thenReturn(true);
+        when(mongoClient.upsertRollups(anyList())).thenAnswer(invocation -> {
+            final List<RollupDocument> batch = invocation.getArgument(0);
+            upsertBatches.add(new ArrayList<>(batch));
+            return acknowledgedResult;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.fini();
+        }
+    }
+
+    /**
+     * Returns a request containing 1 Hz samples for the PV starting at the specified offset from START_SECONDS, all
+     * within the first 60 second bin.
+     */
+    private static IngestDataRequest request(String pvName, long offsetSeconds) {
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName(pvName);
+        for (int i = 0 ; i < SAMPLES_PER_REQUEST ; i++) {
+            columnBuilder.addValues(i);
+        }
+        return IngestDataRequest.newBuilder()
+                .setProviderId("provider1")
+                .setClientRequestId(pvName + "-" + offsetSeconds)
+                .setIngestionDataFrame(DataFrame.newBuilder()
+                        .setDataTimestamps(DataTimestampsUtility.dataTimestampsWithSamplingClock(
+                                START_SECONDS + offsetSeconds, 0, 1_000_000_000L, SAMPLES_PER_REQUEST))
+                        .addDoubleColumns(columnBuilder))
+                .build();
+    }
+
+    private void awaitBatchesWritten(long expectedCount) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (writer.getBatchesWritten() < expectedCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expectedCount, writer.getBatchesWritten());
+    }
+
+    @Test
+    public void testInitWithoutTiers() {
+        writer = new RollupWriter(mongoClient, new long[0], 100, 10, 1_000);
+        assertFalse(writer.init());
+    }
+
+    @Test
+    public void testBatchMergedByBin() throws InterruptedException {
+
+        // staleness window longer than the test, so only full batches are written
+        writer = new RollupWriter(mongoClient, TIER_SECONDS, 100, 3, 60_000);
+        assertTrue(writer.init());
+
+        // two requests for pv1 in the same bin and one for pv2 are upserted as one document per PV and bin
+        writer.addRequest(request("pv1", 0));
+        writer.addRequest(request("pv1", SAMPLES_PER_REQUEST));
+        writer.addRequest(request("pv2", 0));
+        awaitBatchesWritten(1);
+
+        assertEquals(1, upsertBatches.size());
+        final List<RollupDocument> batch = upsertBatches.get(0);
+        assertEquals(2, batch.size());
+        for (RollupDocument rollup : batch) {
+            assertEquals(60, rollup.getResolutionSeconds());
+            assertEquals(START_SECONDS, rollup.getBinStartSeconds());
+            final long expectedCount = rollup.getPvName().equals("pv1") ? 2 * SAMPLES_PER_REQUEST : SAMPLES_PER_REQUEST;
+            assertEquals(expectedCount, rollup.getCount());
+        }
+        assertEquals(2, writer.getDocumentsWritten());
+        assertEquals(0, writer.getSynchronousWrites());
+    }
+
+    @Test
+    public void testDrainOnShutdown() {
+
+        // neither batch size nor staleness window triggers a write before shutdown
+        writer = new RollupWriter(mongoClient, TIER_SECONDS, 100, 100, 60_000);
+        assertTrue(writer.init());
+
+        writer.addRequest(request("pv1", 0));
+        writer.addRequest(request("pv2", 0));
+        final long startMillis = System.currentTimeMillis();
+        assertTrue(writer.fini());
+
+        // fini doesn't wait for the staleness window
+        assertTrue(System.currentTimeMillis() - startMillis < WAIT_TIMEOUT_MILLIS);
+        assertEquals(2, writer.getDocumentsWritten());
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(0, writer.getSynchronousWrites());
+
+        // requests added after shutdown are written synchronously
+        writer.addRequest(request("pv3", 0));
+        assertEquals(1, writer.getSynchronousWrites());
+        assertEquals(3, writer.getDocumentsWritten());
+        verify(mongoClient, times(2)).upsertRollups(anyList());
+    }
+
+}
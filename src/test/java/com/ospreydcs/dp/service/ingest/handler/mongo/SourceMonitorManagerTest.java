@@ -0,0 +1,346 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestion.IngestDataRequest;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
+import com.ospreydcs.dp.service.ingest.handler.interfaces.IngestionHandlerInterface;
+import com.ospreydcs.dp.service.ingest.model.SourceMonitor;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for SourceMonitorManager, covering publishing ingested columns of each type to the
+ * subscribers registered in the copy-on-write subscription map, and concurrent addition and removal of subscriptions
+ * while data is published.  Also covers sending a shared bucket serialized once to all of its subscribers.
+ */
+public class SourceMonitorManagerTest {
+
+    private static final int NUM_THREADS = 8;
+    private static final int MONITORS_PER_THREAD = 50;
+
+    private final IngestionHandlerInterface handler = mock(IngestionHandlerInterface.class);
+    private SourceMonitorManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new SourceMonitorManager();
+        manager.init();
+    }
+
+    @After
+    public void tearDown() {
+        manager.fini();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ServerCallStreamObserver<SubscribeDataResponse> mockResponseObserver() {
+        return mock(ServerCallStreamObserver.class);
+    }
+
+    private SourceMonitor sourceMonitor(
+            ServerCallStreamObserver<SubscribeDataResponse> responseObserver,
+            String... pvNames
+    ) {
+        return new SourceMonitor(handler, List.of(pvNames), responseObserver);
+    }
+
+    private static IngestDataRequest doubleRequest(String... pvNames) {
+        final DataFrame.Builder frameBuilder = DataFrame.newBuilder();
+        for (String pvName : pvNames) {
+            frameBuilder.addDoubleColumns(DoubleColumn.newBuilder().setName(pvName).addValues(1.0));
+        }
+        return IngestDataRequest.newBuilder()
+                .setProviderId("provider1")
+                .setIngestionDataFrame(frameBuilder)
+                .build();
+    }
+
+    private void publish(IngestDataRequest request) {
+        manager.publishDataSubscriptions(request, "providerName1");
+    }
+
+    /**
+     * Returns a request containing one column of each type, named for its DataValues case.
+     */
+    private static IngestDataRequest allColumnTypesRequest() {
+        final DataFrame frame = DataFrame.newBuilder()
+                .setDataTimestamps(DataTimestamps.newBuilder().setTimestampList(TimestampList.newBuilder()
+                        .addTimestamps(Timestamp.newBuilder().setEpochSeconds(1_700_000_000L))))
+                .addDataColumns(DataColumn.newBuilder().setName("DATACOLUMN")
+                        .addDataValues(DataValue.newBuilder().setDoubleValue(1.0)))
+                .addSerializedDataColumns(SerializedDataColumn.newBuilder().setName("SERIALIZEDDATACOLUMN")
+                        .setEncoding("proto:DataColumn"))
+                .addDoubleColumns(DoubleColumn.newBuilder().setName("DOUBLECOLUMN").addValues(1.0))
+                .addFloatColumns(FloatColumn.newBuilder().setName("FLOATCOLUMN").addValues(1.0f))
+                .addInt64Columns(Int64Column.newBuilder().setName("INT64COLUMN").addValues(1L))
+                .addInt32Columns(Int32Column.newBuilder().setName("INT32COLUMN").addValues(1))
+                .addBoolColumns(BoolColumn.newBuilder().setName("BOOLCOLUMN").addValues(true))
+                .addStringColumns(StringColumn.newBuilder().setName("STRINGCOLUMN").addValues("value"))
+                .addEnumColumns(EnumColumn.newBuilder().setName("ENUMCOLUMN").addValues(1))
+                .addDoubleArrayColumns(DoubleArrayColumn.newBuilder().setName("DOUBLEARRAYCOLUMN").addValues(1.0))
+                .addFloatArrayColumns(FloatArrayColumn.newBuilder().setName("FLOATARRAYCOLUMN").addValues(1.0f))
+                .addInt32ArrayColumns(Int32ArrayColumn.newBuilder().setName("INT32ARRAYCOLUMN").addValues(1))
+                .addInt64ArrayColumns(Int64ArrayColumn.newBuilder().setName("INT64ARRAYCOLUMN").addValues(1L))
+                .addBoolArrayColumns(BoolArrayColumn.newBuilder().setName("BOOLARRAYCOLUMN").addValues(true))
+                .addStructColumns(StructColumn.newBuilder().setName("STRUCTCOLUMN").setSchemaId("schema-1"))
+                .addImageColumns(ImageColumn.newBuilder().setName("IMAGECOLUMN"))
+                .build();
+        return IngestDataRequest.newBuilder()
+                .setProviderId("provider1")
+                .setIngestionDataFrame(frame)
+                .build();
+    }
+
+    /**
+     * Returns the data buckets sent to the observer, keyed by PV name.
+     */
+    private static Map<String, DataBucket> sentBuckets(
+            ServerCallStreamObserver<SubscribeDataResponse> responseObserver,
+            int expectedCount
+    ) {
+        final ArgumentCaptor<SubscribeDataResponse> responseCaptor =
+                ArgumentCaptor.forClass(SubscribeDataResponse.class);
+        verify(responseObserver, times(expectedCount)).onNext(responseCaptor.capture());
+        final Map<String, DataBucket> buckets = new HashMap<>();
+        for (SubscribeDataResponse response : responseCaptor.getAllValues()) {
+            for (DataBucket bucket : response.getSubscribeDataResult().getDataBucketsList()) {
+                assertNull(buckets.put(bucket.getPvName(), bucket));
+            }
+        }
+        return buckets;
+    }
+
+    @Test
+    public void testPublishAllColumnTypes() {
+
+        // subscribe to the PV for every column type, and a PV that isn't in the request
+        final List<String> pvNames = new ArrayList<>(List.of(
+                "DATACOLUMN", "SERIALIZEDDATACOLUMN", "DOUBLECOLUMN", "FLOATCOLUMN", "INT64COLUMN", "INT32COLUMN",
+                "BOOLCOLUMN", "STRINGCOLUMN", "ENUMCOLUMN", "DOUBLEARRAYCOLUMN", "FLOATARRAYCOLUMN", "INT32ARRAYCOLUMN",
+                "INT64ARRAYCOLUMN", "BOOLARRAYCOLUMN", "STRUCTCOLUMN", "IMAGECOLUMN"));
+        pvNames.add("pvNotPublished");
+        final ServerCallStreamObserver<SubscribeDataResponse> observer = mockResponseObserver();
+        manager.addMonitor(new SourceMonitor(handler, pvNames, observer));
+
+        final IngestDataRequest request = allColumnTypesRequest();
+        publish(request);
+
+        // each column is published in a bucket with the column set in DataValues
+        final Map<String, DataBucket> buckets = sentBuckets(observer, pvNames.size() - 1);
+        assertFalse(buckets.containsKey("pvNotPublished"));
+        for (String pvName : pvNames.subList(0, pvNames.size() - 1)) {
+            final DataBucket bucket = buckets.get(pvName);
+            assertNotNull(pvName, bucket);
+            assertEquals(pvName, bucket.getDataValues().getValuesCase().name());
+            assertEquals("provider1", bucket.getProviderId());
+            assertEquals("providerName1", bucket.getProviderName());
+            assertEquals(request.getIngestionDataFrame().getDataTimestamps(), bucket.getDataTimestamps());
+        }
+        assertEquals(
+                request.getIngestionDataFrame().getDoubleColumns(0),
+                buckets.get("DOUBLECOLUMN").getDataValues().getDoubleColumn());
+        assertEquals(
+                request.getIngestionDataFrame().getImageColumns(0),
+                buckets.get("IMAGECOLUMN").getDataValues().getImageColumn());
+    }
+
+    @Test
+    public void testBucketSharedBySubscribers() {
+
+        final ServerCallStreamObserver<SubscribeDataResponse> observer1 = mockResponseObserver();
+        final ServerCallStreamObserver<SubscribeDataResponse> observer2 = mockResponseObserver();
+        manager.addMonitor(sourceMonitor(observer1, "STRINGCOLUMN", "INT32COLUMN"));
+        manager.addMonitor(sourceMonitor(observer2, "STRINGCOLUMN"));
+        publish(allColumnTypesRequest());
+
+        // the bucket for a column is built once and sent to each subscriber
+        final Map<String, DataBucket> buckets1 = sentBuckets(observer1, 2);
+        final Map<String, DataBucket> buckets2 = sentBuckets(observer2, 1);
+        assertSame(buckets1.get("STRINGCOLUMN"), buckets2.get("STRINGCOLUMN"));
+    }
+
+    /**
+     * Returns the serialized data buckets carried as an unknown field in a SubscribeDataResult.
+     */
+    private static List<ByteString> sentBucketBytes(SubscribeDataResponse response) {
+        return response.getSubscribeDataResult().getUnknownFields()
+                .getField(SubscribeDataResponse.SubscribeDataResult.DATABUCKETS_FIELD_NUMBER)
+                .getLengthDelimitedList();
+    }
+
+    @Test
+    public void testSerializeOnce() throws InvalidProtocolBufferException {
+
+        manager.fini();
+        manager = new SourceMonitorManager();
+        manager.init(0, true);
+
+        final ServerCallStreamObserver<SubscribeDataResponse> observer1 = mockResponseObserver();
+        final ServerCallStreamObserver<SubscribeDataResponse> observer2 = mockResponseObserver();
+        manager.addMonitor(sourceMonitor(observer1, "DOUBLECOLUMN"));
+        manager.addMonitor(sourceMonitor(observer2, "DOUBLECOLUMN"));
+        final IngestDataRequest request = allColumnTypesRequest();
+        publish(request);
+
+        final ArgumentCaptor<SubscribeDataResponse> responseCaptor1 =
+                ArgumentCaptor.forClass(SubscribeDataResponse.class);
+        verify(observer1, times(1)).onNext(responseCaptor1.capture());
+        final ArgumentCaptor<SubscribeDataResponse> responseCaptor2 =
+                ArgumentCaptor.forClass(SubscribeDataResponse.class);
+        verify(observer2, times(1)).onNext(responseCaptor2.capture());
+
+        // the bucket is serialized once, and the same bytes are sent to each subscriber without parsing them
+        final List<ByteString> bucketBytes1 = sentBucketBytes(responseCaptor1.getValue());
+        final List<ByteString> bucketBytes2 = sentBucketBytes(responseCaptor2.getValue());
+        assertEquals(1, bucketBytes1.size());
+        assertSame(bucketBytes1.get(0), bucketBytes2.get(0));
+        assertEquals(0, responseCaptor1.getValue().getSubscribeDataResult().getDataBucketsCount());
+
+        // the response received by a client contains the bucket
+        final SubscribeDataResponse receivedResponse =
+                SubscribeDataResponse.parseFrom(responseCaptor1.getValue().toByteArray());
+        assertEquals(1, receivedResponse.getSubscribeDataResult().getDataBucketsCount());
+        final DataBucket bucket = receivedResponse.getSubscribeDataResult().getDataBuckets(0);
+        assertEquals("DOUBLECOLUMN", bucket.getPvName());
+        assertEquals("provider1", bucket.getProviderId());
+        assertEquals(request.getIngestionDataFrame().getDoubleColumns(0), bucket.getDataValues().getDoubleColumn());
+    }
+
+    @Test
+    public void testAddRemoveMonitor() {
+
+        final ServerCallStreamObserver<SubscribeDataResponse> observer1 = mockResponseObserver();
+        final ServerCallStreamObserver<SubscribeDataResponse> observer2 = mockResponseObserver();
+        final SourceMonitor monitor1 = sourceMonitor(observer1, "pv1", "pv2");
+        final SourceMonitor monitor2 = sourceMonitor(observer2, "pv2");
+        manager.addMonitor(monitor1);
+        manager.addMonitor(monitor2);
+
+        // each subscriber receives the columns for its PVs
+        publish(doubleRequest("pv1", "pv2", "pv3"));
+        verify(observer1, times(2)).onNext(any());
+        verify(observer2, times(1)).onNext(any());
+
+        // removed subscriber receives nothing more, remaining subscriber is unaffected
+        manager.removeMonitor(monitor1);
+        publish(doubleRequest("pv1", "pv2"));
+        verify(observer1, times(2)).onNext(any());
+        verify(observer2, times(2)).onNext(any());
+
+        // terminating a subscriber closes its response stream
+        manager.terminateMonitor(monitor2);
+        verify(observer2).onCompleted();
+        publish(doubleRequest("pv2"));
+        verify(observer2, times(2)).onNext(any());
+    }
+
+    @Test
+    public void testConcurrentAddRemove() throws Exception {
+
+        // one observer shared by all monitors, so it counts the data published to every subscriber
+        final ServerCallStreamObserver<SubscribeDataResponse> observer = mockResponseObserver();
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS + 1);
+        final AtomicBoolean publishing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> publishError = new AtomicReference<>();
+        final ServerCallStreamObserver<SubscribeDataResponse> publisherObserver = mockResponseObserver();
+        try {
+            // publish continuously to a PV with its own subscriber while the other subscriptions change
+            manager.addMonitor(sourceMonitor(publisherObserver, "pvPublished"));
+            final Future<?> publisher = executor.submit(() -> {
+                try {
+                    while (publishing.get()) {
+                        publish(doubleRequest("pvPublished", "pvShared"));
+                    }
+                } catch (Throwable t) {
+                    publishError.set(t);
+                }
+            });
+
+            // each thread adds its monitors to the shared PV and a PV of its own, released together
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            final List<Future<List<SourceMonitor>>> adders = new ArrayList<>();
+            for (int thread = 0 ; thread < NUM_THREADS ; ++thread) {
+                final String threadPvName = "pvThread" + thread;
+                adders.add(executor.submit(() -> {
+                    startLatch.await();
+                    final List<SourceMonitor> monitors = new ArrayList<>();
+                    for (int i = 0 ; i < MONITORS_PER_THREAD ; ++i) {
+                        final SourceMonitor monitor = sourceMonitor(observer, "pvShared", threadPvName);
+                        manager.addMonitor(monitor);
+                        monitors.add(monitor);
+                    }
+                    return monitors;
+                }));
+            }
+            startLatch.countDown();
+            final List<List<SourceMonitor>> threadMonitors = new ArrayList<>();
+            for (Future<List<SourceMonitor>> adder : adders) {
+                threadMonitors.add(adder.get(10, TimeUnit.SECONDS));
+            }
+
+            // stop publishing the shared PV before counting its subscribers
+            publishing.set(false);
+            publisher.get(10, TimeUnit.SECONDS);
+            assertNull(publishError.get());
+            verify(publisherObserver, atLeastOnce()).onNext(any());
+            clearInvocations(observer);
+
+            // no additions were lost
+            publish(doubleRequest("pvShared"));
+            verify(observer, times(NUM_THREADS * MONITORS_PER_THREAD)).onNext(any());
+
+            // remove half of each thread's monitors concurrently
+            final List<Future<?>> removers = new ArrayList<>();
+            for (List<SourceMonitor> monitors : threadMonitors) {
+                removers.add(executor.submit(() -> {
+                    for (int i = 0 ; i < MONITORS_PER_THREAD / 2 ; ++i) {
+                        manager.removeMonitor(monitors.get(i));
+                    }
+                }));
+            }
+            for (Future<?> remover : removers) {
+                remover.get(10, TimeUnit.SECONDS);
+            }
+
+            // no removals were lost, for the shared PV or the per-thread PVs
+            clearInvocations(observer);
+            publish(doubleRequest("pvShared"));
+            verify(observer, times(NUM_THREADS * MONITORS_PER_THREAD / 2)).onNext(any());
+            clearInvocations(observer);
+            publish(doubleRequest("pvThread0"));
+            verify(observer, times(MONITORS_PER_THREAD / 2)).onNext(any());
+
+            // removing every monitor leaves no subscribers
+            for (List<SourceMonitor> monitors : threadMonitors) {
+                for (SourceMonitor monitor : monitors) {
+                    manager.removeMonitor(monitor);
+                }
+            }
+            clearInvocations(observer);
+            publish(doubleRequest("pvShared", "pvThread0"));
+            verify(observer, never()).onNext(any());
+
+        } finally {
+            publishing.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Provides unit test coverage for the ProviderIdCache used by the ingestion client to avoid a providers collection
+ * lookup for every ingestion request.
+ */
+public class ProviderIdCacheTest {
+
+    private static final long TTL_NANOS_LONG = 60_000_000_000L; // 60 seconds
+
+    @Test
+    public void testHitAndMiss() {
+        final ProviderIdCache cache = new ProviderIdCache(10, TTL_NANOS_LONG);
+
+        assertNull(cache.get("id1"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.put("id1", "provider1");
+        assertEquals("provider1", cache.get("id1"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testLruEviction() {
+        final ProviderIdCache cache = new ProviderIdCache(2, TTL_NANOS_LONG);
+
+        cache.put("id1", "provider1");
+        cache.put("id2", "provider2");
+
+        // touch id1 so that id2 is least recently used
+        assertEquals("provider1", cache.get("id1"));
+
+        cache.put("id3", "provider3");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("provider1", cache.get("id1"));
+        assertNull(cache.get("id2"));
+        assertEquals("provider3", cache.get("id3"));
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        final ProviderIdCache cache = new ProviderIdCache(10, 50_000_000L); // 50 millis
+
+        cache.put("id1", "provider1");
+        assertEquals("provider1", cache.get("id1"));
+
+        Thread.sleep(100);
+        assertNull(cache.get("id1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidation() {
+        final ProviderIdCache cache = new ProviderIdCache(10, TTL_NANOS_LONG);
+
+        cache.put("id1", "provider1");
+        cache.put("id2", "provider2");
+        cache.put("id3", "provider1");
+
+        cache.invalidateProviderName("provider1");
+        assertNull(cache.get("id1"));
+        assertNull(cache.get("id3"));
+        assertEquals("provider2", cache.get("id2"));
+
+        cache.invalidateProviderId("id2");
+        assertNull(cache.get("id2"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.nameIndexSize());
+    }
+
+    @Test
+    public void testNameIndexMaintenance() throws InterruptedException {
+        final ProviderIdCache cache = new ProviderIdCache(2, TTL_NANOS_LONG);
+
+        // re-mapping an id to a different name moves it in the reverse index
+        cache.put("id1", "provider1");
+        cache.put("id1", "provider2");
+        assertEquals(1, cache.nameIndexSize());
+        cache.invalidateProviderName("provider1");
+        assertEquals("provider2", cache.get("id1"));
+
+        // eviction removes the evicted id from the reverse index
+        cache.put("id2", "provider3");
+        cache.put("id3", "provider3");
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.nameIndexSize());
+        cache.invalidateProviderName("provider3");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.nameIndexSize());
+
+        // expiration removes the expired id from the reverse index
+        final ProviderIdCache expiringCache = new ProviderIdCache(10, 50_000_000L); // 50 millis
+        expiringCache.put("id1", "provider1");
+        Thread.sleep(100);
+        assertNull(expiringCache.get("id1"));
+        assertEquals(0, expiringCache.nameIndexSize());
+
+        // clear empties the reverse index
+        cache.put("id4", "provider4");
+        cache.clear();
+        assertEquals(0, cache.nameIndexSize());
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.ospreydcs.dp.service.ingest.handler.mongo.job;
+
+import com.mongodb.client.MongoCursor;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataRequest;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
+import com.ospreydcs.dp.service.common.bson.PvMetadataQueryResultDocument;
+import com.ospreydcs.dp.service.ingest.handler.mongo.PvNameIndex;
+import com.ospreydcs.dp.service.ingest.model.SourceMonitor;
+import com.ospreydcs.dp.service.query.handler.mongo.client.MongoQueryClientInterface;
+import io.grpc.stub.StreamObserver;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for SubscribeDataJob PV validation when the pvCatalog collection is enabled, covering
+ * the fallback to the buckets collection for PVs not yet written to the catalog, rejecting PVs found in neither, and
+ * closing the query cursors.
+ */
+public class SubscribeDataJobTest {
+
+    private MongoQueryClientInterface queryClient;
+    private SourceMonitor monitor;
+    private StreamObserver<SubscribeDataResponse> responseObserver;
+    private final List<MongoCursor<?>> cursors = new ArrayList<>();
+
+    /**
+     * SubscribeDataJob with PV validation and the pvCatalog collection enabled, independent of the configuration.
+     */
+    private class TestSubscribeDataJob extends SubscribeDataJob {
+
+        public TestSubscribeDataJob(List<String> pvNames, PvNameIndex pvNameIndex) {
+            super(
+                    SubscribeDataRequest.newBuilder()
+                            .setNewSubscription(SubscribeDataRequest.NewSubscription.newBuilder()
+                                    .addAllPvNames(pvNames))
+                            .build(),
+                    responseObserver,
+                    monitor,
+                    null,
+                    null,
+                    queryClient,
+                    pvNameIndex);
+        }
+
+        @Override
+        protected boolean getConfigValidatePvs() {
+            return true;
+        }
+
+        @Override
+        protected boolean getConfigPvCatalogEnabled() {
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> MongoCursor<T> mockCursor(List<T> values) {
+        final Iterator<T> iterator = values.iterator();
+        final MongoCursor<T> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    private static PvMetadataQueryResultDocument pvMetadata(String pvName) {
+        final PvMetadataQueryResultDocument document = new PvMetadataQueryResultDocument();
+        document.setPvName(pvName);
+        return document;
+    }
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        monitor = mock(SourceMonitor.class);
+        responseObserver = mock(StreamObserver.class);
+        queryClient = mock(MongoQueryClientInterface.class);
+
+        // pv1 is in the catalog, pv2 has been ingested but not yet written to the catalog
+        when(queryClient.executeQueryPvStats(anyCollection()))
+                .thenAnswer(invocation -> mockCursor(List.of(pvMetadata("pv1"))));
+        when(queryClient.executeQueryBucketPvNames(anyCollection()))
+                .thenAnswer(invocation -> mockCursor(List.of("pv2")));
+    }
+
+    @Test
+    public void testBucketFallbackFindsUncatalogedPv() {
+
+        new TestSubscribeDataJob(List.of("pv1", "pv2"), null).execute();
+
+        // only the PV missing from the catalog is looked up in the buckets collection
+        verify(queryClient, times(1)).executeQueryBucketPvNames(argThat(pvNames -> pvNames.equals(Set.of("pv2"))));
+        verify(monitor, times(1)).handleAck();
+        verify(monitor, never()).handleReject(any());
+
+        // both cursors are closed
+        assertEquals(2, cursors.size());
+        for (MongoCursor<?> cursor : cursors) {
+            verify(cursor, times(1)).close();
+        }
+    }
+
+    @Test
+    public void testBucketFallbackNotNeeded() {
+
+        new TestSubscribeDataJob(List.of("pv1"), null).execute();
+
+        verify(queryClient, never()).executeQueryBucketPvNames(anyCollection());
+        verify(monitor, times(1)).handleAck();
+    }
+
+    @Test
+    public void testUnknownPvRejected() {
+
+        new TestSubscribeDataJob(List.of("pv1", "pv2", "pv3"), null).execute();
+
+        verify(monitor, never()).handleAck();
+        verify(monitor, times(1)).handleReject(argThat(msg -> msg.contains("pv3") && !msg.contains("pv2")));
+    }
+
+    @Test
+    public void testBucketFallbackError() {
+
+        when(queryClient.executeQueryBucketPvNames(anyCollection())).thenReturn(null);
+
+        new TestSubscribeDataJob(List.of("pv1", "pv2"), null).execute();
+
+        verify(monitor, never()).handleAck();
+        verify(monitor, times(1)).handleError(argThat(msg -> msg.contains("pv2")));
+    }
+
+    @Test
+    public void testBucketFallbackAddsToIndex() {
+
+        // the index is empty, so all request PVs are looked up in the database
+        final PvNameIndex pvNameIndex = new PvNameIndex(queryClient);
+
+        new TestSubscribeDataJob(List.of("pv1", "pv2"), pvNameIndex).execute();
+        verify(monitor, times(1)).handleAck();
+
+        // PVs found in either the catalog or the buckets collection are added to the index
+        assertEquals(Set.of(), pvNameIndex.unknownPvNames(List.of("pv1", "pv2")));
+    }
+
+}
@@ -0,0 +1,356 @@
+package com.ospreydcs.dp.service.ingest.model;
+
+import com.ospreydcs.dp.grpc.v1.common.DataBucket;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
+import com.ospreydcs.dp.service.ingest.handler.interfaces.IngestionHandlerInterface;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for the SourceMonitor outbox, covering each overflow policy when a subscriber is not
+ * keeping up, draining the outbox when the response stream becomes ready, and the boundaries of the batches of buckets
+ * sent in each response, including batches of buckets published with their serialized bytes.
+ */
+public class SourceMonitorTest {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 5_000;
+    private static final int OUTBOX_CAPACITY = 3;
+
+    /**
+     * Response stream whose readiness is controlled by the test, recording the responses sent.
+     */
+    private static class TestResponseObserver extends ServerCallStreamObserver<SubscribeDataResponse> {
+
+        private volatile boolean ready = true;
+        private final List<SubscribeDataResponse> responses = Collections.synchronizedList(new ArrayList<>());
+
+        @Override public boolean isCancelled() { return false; }
+        @Override public void setOnCancelHandler(Runnable onCancelHandler) { }
+        @Override public void setCompression(String compression) { }
+        @Override public boolean isReady() { return ready; }
+        @Override public void setOnReadyHandler(Runnable onReadyHandler) { }
+        @Override public void disableAutoInboundFlowControl() { }
+        @Override public void request(int count) { }
+        @Override public void setMessageCompression(boolean enable) { }
+        @Override public void onNext(SubscribeDataResponse response) { responses.add(response); }
+        @Override public void onError(Throwable t) { }
+        @Override public void onCompleted() { }
+
+        private List<SubscribeDataResponse> getResponses() {
+            synchronized (responses) {
+                return new ArrayList<>(responses);
+            }
+        }
+    }
+
+    private IngestionHandlerInterface handler;
+    private TestResponseObserver responseObserver;
+    private ScheduledExecutorService senderExecutor;
+
+    @Before
+    public void setUp() {
+        handler = mock(IngestionHandlerInterface.class);
+        responseObserver = new TestResponseObserver();
+        senderExecutor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        senderExecutor.shutdownNow();
+        senderExecutor.awaitTermination(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private SourceMonitor outboxMonitor(SourceMonitor.OutboxConfig outboxConfig) {
+        return new SourceMonitor(handler, List.of("pv"), responseObserver, outboxConfig, senderExecutor);
+    }
+
+    private SourceMonitor outboxMonitor(SourceMonitor.OverflowPolicy overflowPolicy) {
+        return outboxMonitor(new SourceMonitor.OutboxConfig(OUTBOX_CAPACITY, overflowPolicy, 1, Long.MAX_VALUE, 0));
+    }
+
+    private static DataBucket dataBucket(int index) {
+        return DataBucket.newBuilder().setPvName("pv" + index).build();
+    }
+
+    private static void publishBuckets(SourceMonitor monitor, int firstIndex, int count) {
+        for (int index = firstIndex ; index < firstIndex + count ; ++index) {
+            monitor.publishDataBucket("pv", dataBucket(index));
+        }
+    }
+
+    /**
+     * Runs a no-op task on the sender executor and waits for it, so that drains scheduled before the call have run.
+     */
+    private void awaitSenderExecutor() throws Exception {
+        senderExecutor.submit(() -> { }).get(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void awaitSentCount(SourceMonitor monitor, long expectedCount) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (monitor.getSentCount() < expectedCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expectedCount, monitor.getSentCount());
+    }
+
+    /**
+     * Returns the names of the buckets sent in data responses, in order.
+     */
+    private List<String> sentBucketNames() {
+        final List<String> names = new ArrayList<>();
+        for (SubscribeDataResponse response : responseObserver.getResponses()) {
+            if (response.hasSubscribeDataResult()) {
+                for (DataBucket bucket : response.getSubscribeDataResult().getDataBucketsList()) {
+                    names.add(bucket.getPvName());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the number of buckets in each data response sent, in order.
+     */
+    private List<Integer> responseBatchSizes() {
+        final List<Integer> batchSizes = new ArrayList<>();
+        for (SubscribeDataResponse response : responseObserver.getResponses()) {
+            if (response.hasSubscribeDataResult()) {
+                batchSizes.add(response.getSubscribeDataResult().getDataBucketsCount());
+            }
+        }
+        return batchSizes;
+    }
+
+    /**
+     * Publishes buckets while the stream is not ready, then drains the outbox in one pass when it becomes ready.
+     */
+    private void publishThenDrain(SourceMonitor monitor, int count) throws Exception {
+        responseObserver.ready = false;
+        publishBuckets(monitor, 0, count);
+        awaitSenderExecutor();
+        assertEquals(count, monitor.getOutboxDepth());
+        responseObserver.ready = true;
+        monitor.handleReady();
+        awaitSentCount(monitor, count);
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+
+        final SourceMonitor monitor = outboxMonitor(SourceMonitor.OverflowPolicy.DROP_OLDEST);
+
+        // stream not ready, so buckets accumulate in the outbox
+        responseObserver.ready = false;
+        publishBuckets(monitor, 0, 5);
+        awaitSenderExecutor();
+        assertEquals(OUTBOX_CAPACITY, monitor.getOutboxDepth());
+        assertEquals(2, monitor.getDroppedCount());
+        assertTrue(responseObserver.getResponses().isEmpty());
+
+        // oldest buckets were dropped
+        responseObserver.ready = true;
+        monitor.handleReady();
+        awaitSentCount(monitor, 3);
+        assertEquals(List.of("pv2", "pv3", "pv4"), sentBucketNames());
+        assertEquals(5, monitor.getPublishedCount());
+        assertEquals(OUTBOX_CAPACITY, monitor.getMaxOutboxDepth());
+        verify(handler, never()).terminateSourceMonitor(any());
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+
+        final SourceMonitor monitor = outboxMonitor(SourceMonitor.OverflowPolicy.DROP_NEWEST);
+
+        responseObserver.ready = false;
+        publishBuckets(monitor, 0, 5);
+        awaitSenderExecutor();
+        assertEquals(OUTBOX_CAPACITY, monitor.getOutboxDepth());
+        assertEquals(2, monitor.getDroppedCount());
+
+        // newest buckets were dropped
+        responseObserver.ready = true;
+        monitor.handleReady();
+        awaitSentCount(monitor, 3);
+        assertEquals(List.of("pv0", "pv1", "pv2"), sentBucketNames());
+        verify(handler, never()).terminateSourceMonitor(any());
+    }
+
+    @Test
+    public void testDisconnect() throws Exception {
+
+        final SourceMonitor monitor = outboxMonitor(SourceMonitor.OverflowPolicy.DISCONNECT);
+
+        responseObserver.ready = false;
+        publishBuckets(monitor, 0, OUTBOX_CAPACITY + 2);
+        assertEquals(2, monitor.getDroppedCount());
+
+        // subscriber is sent an error and terminated once, on the sender executor
+        verify(handler, timeout(WAIT_TIMEOUT_MILLIS).times(1)).terminateSourceMonitor(monitor);
+        awaitSenderExecutor();
+        final List<SubscribeDataResponse> responses = responseObserver.getResponses();
+        assertEquals(1, responses.size());
+        assertTrue(responses.get(0).hasExceptionalResult());
+        assertTrue(sentBucketNames().isEmpty());
+    }
+
+    @Test
+    public void testDrainOnReady() throws Exception {
+
+        final SourceMonitor monitor = outboxMonitor(SourceMonitor.OverflowPolicy.DROP_OLDEST);
+
+        // buckets published while the stream is ready are sent immediately
+        publishBuckets(monitor, 0, 1);
+        awaitSentCount(monitor, 1);
+
+        // buckets wait in the outbox while the stream is not ready
+        responseObserver.ready = false;
+        publishBuckets(monitor, 1, 2);
+        awaitSenderExecutor();
+        assertEquals(2, monitor.getOutboxDepth());
+        assertEquals(1, monitor.getSentCount());
+        assertTrue(monitor.getOutboxLagNanos() > 0);
+
+        // handleReady() does nothing until the stream is ready
+        monitor.handleReady();
+        awaitSenderExecutor();
+        assertEquals(2, monitor.getOutboxDepth());
+
+        // draining resumes from the onReady handler
+        responseObserver.ready = true;
+        monitor.handleReady();
+        awaitSentCount(monitor, 3);
+        assertEquals(0, monitor.getOutboxDepth());
+        assertEquals(0, monitor.getOutboxLagNanos());
+        assertEquals(List.of("pv0", "pv1", "pv2"), sentBucketNames());
+        assertEquals(0, monitor.getDroppedCount());
+    }
+
+    @Test
+    public void testShutdownClearsOutbox() throws Exception {
+
+        final SourceMonitor monitor = outboxMonitor(SourceMonitor.OverflowPolicy.DROP_OLDEST);
+
+        responseObserver.ready = false;
+        publishBuckets(monitor, 0, 2);
+        monitor.requestShutdown();
+        assertEquals(0, monitor.getOutboxDepth());
+
+        // buckets published after shutdown are ignored
+        responseObserver.ready = true;
+        publishBuckets(monitor, 2, 1);
+        monitor.handleReady();
+        awaitSenderExecutor();
+        assertEquals(2, monitor.getPublishedCount());
+        assertTrue(sentBucketNames().isEmpty());
+    }
+
+    @Test
+    public void testBatchMaxBuckets() throws Exception {
+
+        final SourceMonitor monitor = outboxMonitor(new SourceMonitor.OutboxConfig(
+                100, SourceMonitor.OverflowPolicy.DROP_OLDEST, 3, Long.MAX_VALUE, 0));
+        publishThenDrain(monitor, 7);
+
+        // full batches, then the remainder, in publish order
+        assertEquals(List.of(3, 3, 1), responseBatchSizes());
+        assertEquals(3, monitor.getResponseCount());
+        assertEquals(List.of("pv0", "pv1", "pv2", "pv3", "pv4", "pv5", "pv6"), sentBucketNames());
+    }
+
+    @Test
+    public void testBatchMaxBytes() throws Exception {
+
+        // buckets are the same size, and two fit in the byte limit
+        final int bucketBytes = dataBucket(0).getSerializedSize();
+        final SourceMonitor monitor = outboxMonitor(new SourceMonitor.OutboxConfig(
+                100, SourceMonitor.OverflowPolicy.DROP_OLDEST, 10, 2L * bucketBytes + 1, 0));
+        publishThenDrain(monitor, 5);
+
+        // bucket that doesn't fit is carried over to the next batch without being lost or reordered
+        assertEquals(List.of(2, 2, 1), responseBatchSizes());
+        assertEquals(List.of("pv0", "pv1", "pv2", "pv3", "pv4"), sentBucketNames());
+    }
+
+    @Test
+    public void testBucketLargerThanMaxBytes() throws Exception {
+
+        // a bucket larger than the byte limit is sent by itself
+        final int bucketBytes = dataBucket(0).getSerializedSize();
+        final SourceMonitor monitor = outboxMonitor(new SourceMonitor.OutboxConfig(
+                100, SourceMonitor.OverflowPolicy.DROP_OLDEST, 10, bucketBytes - 1, 0));
+        publishThenDrain(monitor, 3);
+        assertEquals(List.of(1, 1, 1), responseBatchSizes());
+        assertEquals(List.of("pv0", "pv1", "pv2"), sentBucketNames());
+    }
+
+    @Test
+    public void testBatchMaxDelay() throws Exception {
+
+        final long maxDelayMillis = 200;
+        final SourceMonitor monitor = outboxMonitor(new SourceMonitor.OutboxConfig(
+                100, SourceMonitor.OverflowPolicy.DROP_OLDEST, 10, Long.MAX_VALUE, maxDelayMillis));
+
+        // partial batch waits for the oldest bucket to reach the maximum delay, then is sent in one response
+        final long startNanos = System.nanoTime();
+        publishBuckets(monitor, 0, 3);
+        awaitSenderExecutor();
+        assertTrue(responseObserver.getResponses().isEmpty());
+        awaitSentCount(monitor, 3);
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(maxDelayMillis));
+        assertEquals(List.of(3), responseBatchSizes());
+    }
+
+    @Test
+    public void testFullBatchNotDelayed() throws Exception {
+
+        // a full batch is sent without waiting for the maximum delay
+        final SourceMonitor monitor = outboxMonitor(new SourceMonitor.OutboxConfig(
+                100, SourceMonitor.OverflowPolicy.DROP_OLDEST, 3, Long.MAX_VALUE, 60_000));
+        responseObserver.ready = false;
+        publishBuckets(monitor, 0, 3);
+        responseObserver.ready = true;
+        monitor.handleReady();
+        awaitSentCount(monitor, 3);
+        assertEquals(List.of(3), responseBatchSizes());
+    }
+
+    @Test
+    public void testBatchSerializedBuckets() throws Exception {
+
+        final SourceMonitor monitor = outboxMonitor(new SourceMonitor.OutboxConfig(
+                100, SourceMonitor.OverflowPolicy.DROP_OLDEST, 10, Long.MAX_VALUE, 0));
+        responseObserver.ready = false;
+        monitor.publishDataBucket("pv", dataBucket(0), dataBucket(0).toByteString());
+        monitor.publishDataBucket("pv", dataBucket(1));
+        monitor.publishDataBucket("pv", dataBucket(2), dataBucket(2).toByteString());
+        awaitSenderExecutor();
+        responseObserver.ready = true;
+        monitor.handleReady();
+        awaitSentCount(monitor, 3);
+
+        // a batch containing serialized buckets is sent as bytes, and the client receives every bucket in order
+        final List<SubscribeDataResponse> responses = responseObserver.getResponses();
+        assertEquals(1, responses.size());
+        assertEquals(0, responses.get(0).getSubscribeDataResult().getDataBucketsCount());
+        final SubscribeDataResponse receivedResponse = SubscribeDataResponse.parseFrom(responses.get(0).toByteArray());
+        final List<String> receivedNames = new ArrayList<>();
+        for (DataBucket bucket : receivedResponse.getSubscribeDataResult().getDataBucketsList()) {
+            receivedNames.add(bucket.getPvName());
+        }
+        assertEquals(List.of("pv0", "pv1", "pv2"), receivedNames);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.ospreydcs.dp.service.ingestionstream.benchmark;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.ColumnTriggerResult;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.ColumnTriggerUtility;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.PvTriggerState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the scalar loop used by ColumnTriggerUtility to check a DoubleColumn of trigger PV values
+ * with the Vector API scan enabled by ColumnTriggerUtility.enableVectorScan().  The column is a noisy signal below the
+ * trigger value with a spike above it every spikeInterval values, checked without trigger state (LEVEL) and with EDGE
+ * trigger state.  Run from the IDE, or with the test classpath and "--add-modules jdk.incubator.vector", via main().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ColumnTriggerBenchmark {
+
+    private static final long START_SECONDS = 1_700_000_000L;
+    private static final long PERIOD_NANOS = 1_000_000L; // 1 kHz
+    private static final double TRIGGER_VALUE = 5.0;
+
+    @Param({"1000", "100000"})
+    public int valueCount;
+
+    @Param({"1000"})
+    public int spikeInterval;
+
+    @Param({"false", "true"})
+    public boolean vectorScan;
+
+    @Param({"LEVEL", "EDGE"})
+    public PvTriggerState.TriggerMode triggerMode;
+
+    private PvConditionTrigger trigger;
+    private DataBucket dataBucket;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (ColumnTriggerUtility.enableVectorScan(vectorScan) != vectorScan) {
+            throw new IllegalStateException("Vector API scan requires --add-modules jdk.incubator.vector");
+        }
+
+        trigger = PvConditionTrigger.newBuilder()
+                .setPvName("trigger-pv")
+                .setCondition(PvConditionTrigger.PvCondition.PV_CONDITION_GREATER)
+                .setValue(DataValue.newBuilder().setDoubleValue(TRIGGER_VALUE).build())
+                .build();
+
+        final Random random = new Random(42);
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName("trigger-pv");
+        for (int i = 0 ; i < valueCount ; ++i) {
+            final double noise = random.nextDouble();
+            columnBuilder.addValues((i % spikeInterval == spikeInterval - 1) ? TRIGGER_VALUE + 1.0 + noise : noise);
+        }
+        final SamplingClock clock = SamplingClock.newBuilder()
+                .setStartTime(Timestamp.newBuilder().setEpochSeconds(START_SECONDS).build())
+                .setPeriodNanos(PERIOD_NANOS)
+                .setCount(valueCount)
+                .build();
+        dataBucket = DataBucket.newBuilder()
+                .setPvName("trigger-pv")
+                .setDataValues(DataValues.newBuilder().setDoubleColumn(columnBuilder.build()).build())
+                .setDataTimestamps(DataTimestamps.newBuilder().setSamplingClock(clock).build())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ColumnTriggerUtility.enableVectorScan(false);
+    }
+
+    @Benchmark
+    public ColumnTriggerResult checkDoubleColumn() {
+        if (triggerMode == PvTriggerState.TriggerMode.LEVEL) {
+            return ColumnTriggerUtility.checkColumnTrigger(trigger, dataBucket);
+        }
+
+        // new trigger state for each invocation, since checked values are recorded in it
+        final PvTriggerState triggerState = new PvTriggerState(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 0.0, 0L, 0L));
+        return ColumnTriggerUtility.checkColumnTrigger(trigger, dataBucket, triggerState);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(ColumnTriggerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,575 @@
+package com.ospreydcs.dp.service.ingestionstream.handler;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.ColumnTriggerEvent;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.ColumnTriggerResult;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.ColumnTriggerUtility;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.PvTriggerState;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Provides unit test coverage for checking PvConditionTriggers against column data with ColumnTriggerUtility, with and
+ * without the PvTriggerState used by the EventMonitor for the EDGE trigger mode and minimum re-arm interval, including
+ * reordering buckets received out of order within the reorder window and counting late values.  Also covers that
+ * checking each typed column produces the same result as checking an equivalent DataColumn of boxed DataValues, for
+ * each trigger condition, and that the Vector API scan of DoubleColumn values produces the same result as the scalar
+ * loop.
+ */
+public class ColumnTriggerUtilityTest {
+
+    private static final long START_SECONDS = 1_700_000_000L;
+    private static final long PERIOD_NANOS = 1_000_000_000L; // 1 second
+    private static final List<PvConditionTrigger.PvCondition> CONDITIONS = List.of(
+            PvConditionTrigger.PvCondition.PV_CONDITION_EQUAL_TO,
+            PvConditionTrigger.PvCondition.PV_CONDITION_GREATER,
+            PvConditionTrigger.PvCondition.PV_CONDITION_GREATER_EQ,
+            PvConditionTrigger.PvCondition.PV_CONDITION_LESS,
+            PvConditionTrigger.PvCondition.PV_CONDITION_LESS_EQ);
+
+    private static PvConditionTrigger greaterThanTrigger(double value) {
+        return PvConditionTrigger.newBuilder()
+                .setPvName("trigger-pv")
+                .setCondition(PvConditionTrigger.PvCondition.PV_CONDITION_GREATER)
+                .setValue(DataValue.newBuilder().setDoubleValue(value).build())
+                .build();
+    }
+
+    private static DataBucket doubleBucket(long startSeconds, double... values) {
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName("trigger-pv");
+        for (double value : values) {
+            columnBuilder.addValues(value);
+        }
+        final SamplingClock clock = SamplingClock.newBuilder()
+                .setStartTime(Timestamp.newBuilder().setEpochSeconds(startSeconds).build())
+                .setPeriodNanos(PERIOD_NANOS)
+                .setCount(values.length)
+                .build();
+        return DataBucket.newBuilder()
+                .setPvName("trigger-pv")
+                .setDataValues(DataValues.newBuilder().setDoubleColumn(columnBuilder.build()).build())
+                .setDataTimestamps(DataTimestamps.newBuilder().setSamplingClock(clock).build())
+                .build();
+    }
+
+    private static PvConditionTrigger trigger(PvConditionTrigger.PvCondition condition, DataValue value) {
+        return PvConditionTrigger.newBuilder()
+                .setPvName("trigger-pv")
+                .setCondition(condition)
+                .setValue(value)
+                .build();
+    }
+
+    private static DataBucket bucket(DataValues dataValues, int valueCount) {
+        final SamplingClock clock = SamplingClock.newBuilder()
+                .setStartTime(Timestamp.newBuilder().setEpochSeconds(START_SECONDS).build())
+                .setPeriodNanos(PERIOD_NANOS)
+                .setCount(valueCount)
+                .build();
+        return DataBucket.newBuilder()
+                .setPvName("trigger-pv")
+                .setDataValues(dataValues)
+                .setDataTimestamps(DataTimestamps.newBuilder().setSamplingClock(clock).build())
+                .build();
+    }
+
+    private static DataBucket dataColumnBucket(List<DataValue> values) {
+        final DataColumn column = DataColumn.newBuilder().setName("trigger-pv").addAllDataValues(values).build();
+        return bucket(DataValues.newBuilder().setDataColumn(column).build(), values.size());
+    }
+
+    /**
+     * Checks each trigger condition for each trigger value against both the typed column and the equivalent
+     * DataColumn of boxed values, asserting the results match, and returns the total number of events triggered.
+     */
+    private static int assertTypedColumnMatchesDataColumn(
+            DataValues typedValues, List<DataValue> boxedValues, List<DataValue> triggerValues
+    ) {
+        final DataBucket typedBucket = bucket(typedValues, boxedValues.size());
+        final DataBucket boxedBucket = dataColumnBucket(boxedValues);
+        int eventCount = 0;
+        for (DataValue triggerValue : triggerValues) {
+            for (PvConditionTrigger.PvCondition condition : CONDITIONS) {
+                final PvConditionTrigger trigger = trigger(condition, triggerValue);
+                final ColumnTriggerResult boxedResult = ColumnTriggerUtility.checkColumnTrigger(trigger, boxedBucket);
+                final ColumnTriggerResult typedResult = ColumnTriggerUtility.checkColumnTrigger(trigger, typedBucket);
+                final String msg = condition.name() + " " + triggerValue;
+                assertFalse(msg, boxedResult.isError());
+                assertFalse(msg, typedResult.isError());
+                assertEquals(msg, boxedResult.columnTriggerEvents(), typedResult.columnTriggerEvents());
+                eventCount = eventCount + typedResult.columnTriggerEvents().size();
+            }
+
+            // an unspecified condition is an error for both
+            final PvConditionTrigger trigger =
+                    trigger(PvConditionTrigger.PvCondition.PV_CONDITION_UNSPECIFIED, triggerValue);
+            assertTrue(ColumnTriggerUtility.checkColumnTrigger(trigger, boxedBucket).isError());
+            assertTrue(ColumnTriggerUtility.checkColumnTrigger(trigger, typedBucket).isError());
+        }
+        return eventCount;
+    }
+
+    private static List<DataValue> doubleValues(double... values) {
+        final List<DataValue> dataValues = new ArrayList<>();
+        for (double value : values) {
+            dataValues.add(DataValue.newBuilder().setDoubleValue(value).build());
+        }
+        return dataValues;
+    }
+
+    private static List<Double> triggeredValues(ColumnTriggerResult result) {
+        assertFalse(result.errorMsg(), result.isError());
+        final List<Double> values = new ArrayList<>();
+        for (ColumnTriggerEvent event : result.columnTriggerEvents()) {
+            values.add(event.dataValue().getDoubleValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void testLevelTrigger() {
+        final DataBucket bucket = doubleBucket(START_SECONDS, 1.0, 6.0, 7.0, 4.0, 8.0);
+        final ColumnTriggerResult result = ColumnTriggerUtility.checkColumnTrigger(greaterThanTrigger(5.0), bucket);
+        assertEquals(List.of(6.0, 7.0, 8.0), triggeredValues(result));
+    }
+
+    @Test
+    public void testEdgeTriggerAcrossBuckets() {
+        final PvTriggerState triggerState = new PvTriggerState(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 0.0, 0L, 0L));
+        final PvConditionTrigger trigger = greaterThanTrigger(5.0);
+
+        // only values rising above the trigger value fire
+        final DataBucket bucket1 = doubleBucket(START_SECONDS, 1.0, 6.0, 7.0, 4.0, 8.0);
+        assertEquals(
+                List.of(6.0, 8.0),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(trigger, bucket1, triggerState)));
+
+        // trigger remains disarmed from the previous bucket until the value falls back
+        final DataBucket bucket2 = doubleBucket(START_SECONDS + 5, 9.0, 3.0, 9.0);
+        assertEquals(
+                List.of(9.0),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(trigger, bucket2, triggerState)));
+    }
+
+    @Test
+    public void testEdgeTriggerHysteresis() {
+        final PvTriggerState triggerState = new PvTriggerState(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 1.0, 0L, 0L));
+
+        // trigger starts disarmed, noise around the trigger value within the band doesn't re-arm it,
+        // falling below 4.0 does
+        final DataBucket bucket = doubleBucket(START_SECONDS, 5.5, 4.5, 5.5, 4.5, 3.5, 5.5);
+        final ColumnTriggerResult result =
+                ColumnTriggerUtility.checkColumnTrigger(greaterThanTrigger(5.0), bucket, triggerState);
+        assertEquals(List.of(5.5), triggeredValues(result));
+        assertEquals(START_SECONDS + 5, result.columnTriggerEvents().get(0).triggerTimestamp().getEpochSeconds());
+    }
+
+    @Test
+    public void testEdgeTriggerInitiallyAboveThreshold() {
+        final PvTriggerState triggerState = new PvTriggerState(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 0.0, 0L, 0L));
+        final PvConditionTrigger trigger = greaterThanTrigger(5.0);
+        assertFalse(triggerState.isArmed());
+
+        // a PV already above the trigger value when the subscription starts doesn't fire
+        final DataBucket bucket1 = doubleBucket(START_SECONDS, 6.0, 7.0, 8.0);
+        assertEquals(
+                List.of(),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(trigger, bucket1, triggerState)));
+
+        // it fires after first falling back below the trigger value
+        final DataBucket bucket2 = doubleBucket(START_SECONDS + 3, 4.0, 6.0);
+        assertEquals(
+                List.of(6.0),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(trigger, bucket2, triggerState)));
+    }
+
+    @Test
+    public void testLateValuesCounted() {
+        final PvTriggerState triggerState = new PvTriggerState(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 0.0, 0L, 0L));
+        final PvConditionTrigger trigger = greaterThanTrigger(5.0);
+
+        final DataBucket bucket1 = doubleBucket(START_SECONDS, 1.0, 6.0);
+        assertEquals(
+                List.of(6.0),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(trigger, bucket1, triggerState)));
+
+        // a bucket arriving late, with values before the last value checked, neither re-arms nor fires the trigger
+        final DataBucket lateBucket = doubleBucket(START_SECONDS - 2, 1.0, 9.0);
+        assertEquals(
+                List.of(),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(trigger, lateBucket, triggerState)));
+        assertFalse(triggerState.isArmed());
+        assertEquals(2, triggerState.getLateValueCount());
+
+        // only the values of an overlapping bucket after the last value checked are used
+        final DataBucket overlappingBucket = doubleBucket(START_SECONDS, 9.0, 1.0, 6.0, 3.0, 7.0);
+        final ColumnTriggerResult result =
+                ColumnTriggerUtility.checkColumnTrigger(trigger, overlappingBucket, triggerState);
+        assertEquals(List.of(7.0), triggeredValues(result));
+        assertEquals(START_SECONDS + 4, result.columnTriggerEvents().get(0).triggerTimestamp().getEpochSeconds());
+        assertEquals(4, triggerState.getLateValueCount());
+    }
+
+    /**
+     * Checks the buckets released by the trigger state at the specified time, returning the triggered values.
+     */
+    private static List<Double> checkReleasedBuckets(
+            PvConditionTrigger trigger, PvTriggerState triggerState, long nowNanos
+    ) {
+        final List<Double> values = new ArrayList<>();
+        for (DataBucket bucket : triggerState.releasePendingBuckets(nowNanos)) {
+            values.addAll(triggeredValues(ColumnTriggerUtility.checkColumnTrigger(trigger, bucket, triggerState)));
+        }
+        return values;
+    }
+
+    @Test
+    public void testOutOfOrderBucketsReordered() {
+        final long reorderWindowNanos = 100;
+        final PvTriggerState triggerState = new PvTriggerState(new PvTriggerState.TriggerStateConfig(
+                PvTriggerState.TriggerMode.EDGE, 0.0, 0L, reorderWindowNanos));
+        final PvConditionTrigger trigger = greaterThanTrigger(5.0);
+        assertTrue(triggerState.isReordering());
+
+        // the bucket with the rising edge to 6.0 is received after the bucket following it
+        final DataBucket bucket1 = doubleBucket(START_SECONDS, 1.0, 2.0);
+        final DataBucket bucket2 = doubleBucket(START_SECONDS + 2, 6.0);
+        final DataBucket bucket3 = doubleBucket(START_SECONDS + 3, 3.0, 7.0);
+        triggerState.addPendingBucket(bucket1, 0);
+        triggerState.addPendingBucket(bucket3, 10);
+        triggerState.addPendingBucket(bucket2, 20);
+
+        // nothing is released until the first bucket has been pending for the reorder window
+        assertEquals(List.of(), checkReleasedBuckets(trigger, triggerState, 50));
+        assertEquals(3, triggerState.getPendingBucketCount());
+
+        // the bucket received late is released and checked before the bucket with later values, so both edges fire
+        assertEquals(List.of(), checkReleasedBuckets(trigger, triggerState, 100));
+        assertEquals(2, triggerState.getPendingBucketCount());
+        assertEquals(List.of(6.0, 7.0), checkReleasedBuckets(trigger, triggerState, 120));
+        assertEquals(0, triggerState.getPendingBucketCount());
+        assertEquals(0, triggerState.getLateValueCount());
+
+        // a bucket received after later values were released is counted as late
+        triggerState.addPendingBucket(doubleBucket(START_SECONDS + 1, 1.0, 9.0), 200);
+        assertEquals(List.of(), checkReleasedBuckets(trigger, triggerState, 300));
+        assertEquals(2, triggerState.getLateValueCount());
+    }
+
+    @Test
+    public void testOutOfOrderBucketsWithoutReorderWindow() {
+        final PvTriggerState triggerState = new PvTriggerState(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 0.0, 0L, 0L));
+        final PvConditionTrigger trigger = greaterThanTrigger(5.0);
+        assertFalse(triggerState.isReordering());
+
+        // without a reorder window, checking the same buckets in the order received loses the edge to 6.0
+        ColumnTriggerUtility.checkColumnTrigger(trigger, doubleBucket(START_SECONDS, 1.0, 2.0), triggerState);
+        assertEquals(
+                List.of(7.0),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(
+                        trigger, doubleBucket(START_SECONDS + 3, 3.0, 7.0), triggerState)));
+        assertEquals(
+                List.of(),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(
+                        trigger, doubleBucket(START_SECONDS + 2, 6.0), triggerState)));
+        assertEquals(1, triggerState.getLateValueCount());
+    }
+
+    @Test
+    public void testMinRearmInterval() {
+        final PvTriggerState triggerState = new PvTriggerState(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.LEVEL, 0.0, 3 * PERIOD_NANOS, 0L));
+
+        // one value per second, so at most one event every 3 seconds
+        final DataBucket bucket = doubleBucket(START_SECONDS, 6.0, 7.0, 8.0, 9.0, 10.0, 11.0, 12.0);
+        final ColumnTriggerResult result =
+                ColumnTriggerUtility.checkColumnTrigger(greaterThanTrigger(5.0), bucket, triggerState);
+        assertEquals(List.of(6.0, 9.0, 12.0), triggeredValues(result));
+    }
+
+    @Test
+    public void testDoubleColumnMatchesDataColumn() {
+        final double[] values = {1.0, 5.0, -0.0, 0.0, 7.5, Double.NaN, 5.0, Double.NEGATIVE_INFINITY};
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName("trigger-pv");
+        for (double value : values) {
+            columnBuilder.addValues(value);
+        }
+        final int eventCount = assertTypedColumnMatchesDataColumn(
+                DataValues.newBuilder().setDoubleColumn(columnBuilder.build()).build(),
+                doubleValues(values),
+                doubleValues(5.0, 0.0, Double.NaN));
+        assertTrue(eventCount > 0);
+    }
+
+    @Test
+    public void testFloatColumnMatchesDataColumn() {
+        final float[] values = {1.0f, 5.0f, -0.0f, 0.0f, 7.5f, Float.NaN, 5.0f, Float.NEGATIVE_INFINITY};
+        final FloatColumn.Builder columnBuilder = FloatColumn.newBuilder().setName("trigger-pv");
+        final List<DataValue> boxedValues = new ArrayList<>();
+        for (float value : values) {
+            columnBuilder.addValues(value);
+            boxedValues.add(DataValue.newBuilder().setFloatValue(value).build());
+        }
+        final int eventCount = assertTypedColumnMatchesDataColumn(
+                DataValues.newBuilder().setFloatColumn(columnBuilder.build()).build(),
+                boxedValues,
+                List.of(DataValue.newBuilder().setFloatValue(5.0f).build(),
+                        DataValue.newBuilder().setFloatValue(0.0f).build(),
+                        DataValue.newBuilder().setFloatValue(Float.NaN).build()));
+        assertTrue(eventCount > 0);
+    }
+
+    @Test
+    public void testInt64ColumnMatchesDataColumn() {
+        final long[] values = {Long.MIN_VALUE, -1L, 0L, 5L, 6L, Long.MAX_VALUE};
+        final Int64Column.Builder columnBuilder = Int64Column.newBuilder().setName("trigger-pv");
+        final List<DataValue> boxedValues = new ArrayList<>();
+        for (long value : values) {
+            columnBuilder.addValues(value);
+            boxedValues.add(DataValue.newBuilder().setLongValue(value).build());
+        }
+        final int eventCount = assertTypedColumnMatchesDataColumn(
+                DataValues.newBuilder().setInt64Column(columnBuilder.build()).build(),
+                boxedValues,
+                List.of(DataValue.newBuilder().setLongValue(5L).build(),
+                        DataValue.newBuilder().setLongValue(Long.MIN_VALUE).build()));
+        assertTrue(eventCount > 0);
+    }
+
+    @Test
+    public void testInt32ColumnMatchesDataColumn() {
+        final int[] values = {Integer.MIN_VALUE, -1, 0, 5, 6, Integer.MAX_VALUE};
+        final Int32Column.Builder columnBuilder = Int32Column.newBuilder().setName("trigger-pv");
+        final List<DataValue> boxedValues = new ArrayList<>();
+        for (int value : values) {
+            columnBuilder.addValues(value);
+            boxedValues.add(DataValue.newBuilder().setIntValue(value).build());
+        }
+        final int eventCount = assertTypedColumnMatchesDataColumn(
+                DataValues.newBuilder().setInt32Column(columnBuilder.build()).build(),
+                boxedValues,
+                List.of(DataValue.newBuilder().setIntValue(5).build(),
+                        DataValue.newBuilder().setIntValue(Integer.MAX_VALUE).build()));
+        assertTrue(eventCount > 0);
+    }
+
+    @Test
+    public void testBoolColumnMatchesDataColumn() {
+        final boolean[] values = {true, false, false, true};
+        final BoolColumn.Builder columnBuilder = BoolColumn.newBuilder().setName("trigger-pv");
+        final List<DataValue> boxedValues = new ArrayList<>();
+        for (boolean value : values) {
+            columnBuilder.addValues(value);
+            boxedValues.add(DataValue.newBuilder().setBooleanValue(value).build());
+        }
+        final int eventCount = assertTypedColumnMatchesDataColumn(
+                DataValues.newBuilder().setBoolColumn(columnBuilder.build()).build(),
+                boxedValues,
+                List.of(DataValue.newBuilder().setBooleanValue(true).build(),
+                        DataValue.newBuilder().setBooleanValue(false).build()));
+        assertTrue(eventCount > 0);
+    }
+
+    @Test
+    public void testStringColumnMatchesDataColumn() {
+        final List<String> values = List.of("a", "b", "", "c", "b");
+        final List<DataValue> boxedValues = new ArrayList<>();
+        for (String value : values) {
+            boxedValues.add(DataValue.newBuilder().setStringValue(value).build());
+        }
+        final int eventCount = assertTypedColumnMatchesDataColumn(
+                DataValues.newBuilder().setStringColumn(
+                        StringColumn.newBuilder().setName("trigger-pv").addAllValues(values).build()).build(),
+                boxedValues,
+                List.of(DataValue.newBuilder().setStringValue("b").build(),
+                        DataValue.newBuilder().setStringValue("").build()));
+        assertTrue(eventCount > 0);
+    }
+
+    @Test
+    public void testEnumColumnMatchesDataColumn() {
+        final int[] values = {0, 1, 2, 3, 2};
+        final EnumColumn.Builder columnBuilder = EnumColumn.newBuilder().setName("trigger-pv").setEnumId("states");
+        final List<DataValue> boxedValues = new ArrayList<>();
+        for (int value : values) {
+            columnBuilder.addValues(value);
+            boxedValues.add(DataValue.newBuilder().setIntValue(value).build());
+        }
+        final int eventCount = assertTypedColumnMatchesDataColumn(
+                DataValues.newBuilder().setEnumColumn(columnBuilder.build()).build(),
+                boxedValues,
+                List.of(DataValue.newBuilder().setIntValue(2).build()));
+        assertTrue(eventCount > 0);
+    }
+
+    @Test
+    public void testNaNTriggerSemantics() {
+        // NaN compares above every other value, as for Double.compareTo() in the DataColumn check
+        final DataBucket bucket = doubleBucket(START_SECONDS, 1.0, Double.NaN, 9.0);
+        assertEquals(
+                List.of(Double.NaN, 9.0),
+                triggeredValues(ColumnTriggerUtility.checkColumnTrigger(greaterThanTrigger(5.0), bucket)));
+        final PvConditionTrigger equalsNaN = trigger(
+                PvConditionTrigger.PvCondition.PV_CONDITION_EQUAL_TO,
+                DataValue.newBuilder().setDoubleValue(Double.NaN).build());
+        assertEquals(List.of(Double.NaN), triggeredValues(ColumnTriggerUtility.checkColumnTrigger(equalsNaN, bucket)));
+    }
+
+    @Test
+    public void testEmptyColumns() {
+        final List<DataValues> emptyColumns = List.of(
+                DataValues.newBuilder().setDataColumn(DataColumn.newBuilder().setName("trigger-pv")).build(),
+                DataValues.newBuilder().setDoubleColumn(DoubleColumn.newBuilder().setName("trigger-pv")).build(),
+                DataValues.newBuilder().setFloatColumn(FloatColumn.newBuilder().setName("trigger-pv")).build(),
+                DataValues.newBuilder().setInt64Column(Int64Column.newBuilder().setName("trigger-pv")).build(),
+                DataValues.newBuilder().setInt32Column(Int32Column.newBuilder().setName("trigger-pv")).build(),
+                DataValues.newBuilder().setBoolColumn(BoolColumn.newBuilder().setName("trigger-pv")).build(),
+                DataValues.newBuilder().setStringColumn(StringColumn.newBuilder().setName("trigger-pv")).build(),
+                DataValues.newBuilder().setEnumColumn(EnumColumn.newBuilder().setName("trigger-pv")).build());
+        final List<DataValue> triggerValues = List.of(
+                DataValue.newBuilder().setDoubleValue(5.0).build(),
+                DataValue.newBuilder().setDoubleValue(5.0).build(),
+                DataValue.newBuilder().setFloatValue(5.0f).build(),
+                DataValue.newBuilder().setLongValue(5L).build(),
+                DataValue.newBuilder().setIntValue(5).build(),
+                DataValue.newBuilder().setBooleanValue(true).build(),
+                DataValue.newBuilder().setStringValue("b").build(),
+                DataValue.newBuilder().setIntValue(5).build());
+
+        // an empty column triggers no events for any condition, including an unspecified one
+        for (int i = 0 ; i < emptyColumns.size() ; ++i) {
+            final DataBucket bucket = bucket(emptyColumns.get(i), 0);
+            for (PvConditionTrigger.PvCondition condition : CONDITIONS) {
+                final ColumnTriggerResult result =
+                        ColumnTriggerUtility.checkColumnTrigger(trigger(condition, triggerValues.get(i)), bucket);
+                assertFalse(result.errorMsg(), result.isError());
+                assertTrue(result.columnTriggerEvents().isEmpty());
+            }
+            final ColumnTriggerResult result = ColumnTriggerUtility.checkColumnTrigger(
+                    trigger(PvConditionTrigger.PvCondition.PV_CONDITION_UNSPECIFIED, triggerValues.get(i)), bucket);
+            assertFalse(result.errorMsg(), result.isError());
+        }
+    }
+
+    @Test
+    public void testTypeMismatch() {
+        final List<DataValues> columns = List.of(
+                DataValues.newBuilder().setDoubleColumn(
+                        DoubleColumn.newBuilder().setName("trigger-pv").addValues(1.0)).build(),
+                DataValues.newBuilder().setFloatColumn(
+                        FloatColumn.newBuilder().setName("trigger-pv").addValues(1.0f)).build(),
+                DataValues.newBuilder().setInt64Column(
+                        Int64Column.newBuilder().setName("trigger-pv").addValues(1L)).build(),
+                DataValues.newBuilder().setInt32Column(
+                        Int32Column.newBuilder().setName("trigger-pv").addValues(1)).build(),
+                DataValues.newBuilder().setBoolColumn(
+                        BoolColumn.newBuilder().setName("trigger-pv").addValues(true)).build(),
+                DataValues.newBuilder().setEnumColumn(
+                        EnumColumn.newBuilder().setName("trigger-pv").addValues(1)).build());
+        final List<DataValue> boxedValues = List.of(
+                DataValue.newBuilder().setDoubleValue(1.0).build(),
+                DataValue.newBuilder().setFloatValue(1.0f).build(),
+                DataValue.newBuilder().setLongValue(1L).build(),
+                DataValue.newBuilder().setIntValue(1).build(),
+                DataValue.newBuilder().setBooleanValue(true).build(),
+                DataValue.newBuilder().setIntValue(1).build());
+
+        // a string trigger value doesn't match any of the column types, for both the typed and DataColumn checks
+        final PvConditionTrigger stringTrigger = trigger(
+                PvConditionTrigger.PvCondition.PV_CONDITION_GREATER,
+                DataValue.newBuilder().setStringValue("1").build());
+        for (int i = 0 ; i < columns.size() ; ++i) {
+            assertTrue(ColumnTriggerUtility.checkColumnTrigger(stringTrigger, bucket(columns.get(i), 1)).isError());
+            assertTrue(ColumnTriggerUtility.checkColumnTrigger(
+                    stringTrigger, dataColumnBucket(List.of(boxedValues.get(i)))).isError());
+        }
+
+        // and a numeric trigger value doesn't match a string column
+        final PvConditionTrigger doubleTrigger = greaterThanTrigger(1.0);
+        final DataValues stringColumn = DataValues.newBuilder().setStringColumn(
+                StringColumn.newBuilder().setName("trigger-pv").addValues("1")).build();
+        assertTrue(ColumnTriggerUtility.checkColumnTrigger(doubleTrigger, bucket(stringColumn, 1)).isError());
+        assertTrue(ColumnTriggerUtility.checkColumnTrigger(
+                doubleTrigger, dataColumnBucket(List.of(DataValue.newBuilder().setStringValue("1").build())))
+                .isError());
+    }
+
+    private static PvTriggerState newTriggerState(PvTriggerState.TriggerStateConfig config) {
+        return (config == null) ? null : new PvTriggerState(config);
+    }
+
+    @Test
+    public void testVectorScanMatchesScalar() {
+        Assume.assumeTrue(
+                "requires --add-modules jdk.incubator.vector", ColumnTriggerUtility.enableVectorScan(true));
+        ColumnTriggerUtility.enableVectorScan(false);
+
+        // runs of values that don't trigger, mixed with values at, around, and across the trigger value, including
+        // values where Double.compare() differs from IEEE comparison, over a length that doesn't fill the last vector
+        final double[] pool = {5.0, 4.5, 5.5, 4.0, 6.0, 0.0, -0.0, Double.NaN, Double.NEGATIVE_INFINITY, 9.0};
+        final Random random = new Random(1);
+        final double[] values = new double[203];
+        for (int i = 0 ; i < values.length ; ++i) {
+            values[i] = (random.nextInt(4) == 0) ? pool[random.nextInt(pool.length)] : 1.0;
+        }
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName("trigger-pv");
+        for (double value : values) {
+            columnBuilder.addValues(value);
+        }
+        final DataBucket bucket =
+                bucket(DataValues.newBuilder().setDoubleColumn(columnBuilder.build()).build(), values.length);
+
+        final List<PvTriggerState.TriggerStateConfig> stateConfigs = new ArrayList<>();
+        stateConfigs.add(null);
+        stateConfigs.add(new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 0.0, 0L, 0L));
+        stateConfigs.add(new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.EDGE, 0.5, 0L, 0L));
+        stateConfigs.add(
+                new PvTriggerState.TriggerStateConfig(PvTriggerState.TriggerMode.LEVEL, 0.0, 3 * PERIOD_NANOS, 0L));
+
+        int eventCount = 0;
+        try {
+            for (DataValue triggerValue : doubleValues(5.0, 0.0, Double.NaN)) {
+                for (PvConditionTrigger.PvCondition condition : CONDITIONS) {
+                    for (PvTriggerState.TriggerStateConfig stateConfig : stateConfigs) {
+                        final PvConditionTrigger trigger = trigger(condition, triggerValue);
+                        final String msg = condition.name() + " " + triggerValue + " " + stateConfig;
+
+                        ColumnTriggerUtility.enableVectorScan(false);
+                        final PvTriggerState scalarState = newTriggerState(stateConfig);
+                        final ColumnTriggerResult scalarResult =
+                                ColumnTriggerUtility.checkColumnTrigger(trigger, bucket, scalarState);
+
+                        ColumnTriggerUtility.enableVectorScan(true);
+                        final PvTriggerState vectorState = newTriggerState(stateConfig);
+                        final ColumnTriggerResult vectorResult =
+                                ColumnTriggerUtility.checkColumnTrigger(trigger, bucket, vectorState);
+
+                        assertFalse(msg, scalarResult.isError());
+                        assertFalse(msg, vectorResult.isError());
+                        assertEquals(msg, scalarResult.columnTriggerEvents(), vectorResult.columnTriggerEvents());
+                        if (scalarState != null) {
+                            assertEquals(msg, scalarState.isArmed(), vectorState.isArmed());
+                        }
+                        eventCount = eventCount + vectorResult.columnTriggerEvents().size();
+                    }
+                }
+            }
+        } finally {
+            ColumnTriggerUtility.enableVectorScan(false);
+        }
+        assertTrue(eventCount > 0);
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.ospreydcs.dp.service.ingestionstream.handler;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.DataBuffer;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.DataBufferManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Provides unit test coverage for the DataBufferManager's periodic flushing, which checks the buffers of all
+ * EventMonitors on a shared scheduler and flushes them via a shared pool.  The test cases cover that an EventMonitor
+ * that is slow to process flushed data doesn't stall flushing for other EventMonitors, and that shutdown waits for a
+ * flush already in progress before flushing the remaining data.
+ */
+public class DataBufferManagerTest {
+
+    private static final long WAIT_TIMEOUT_SECONDS = 5;
+
+    private ScheduledExecutorService flushScheduler;
+    private ThreadPoolExecutor flushExecutor;
+    private DataBuffer.DataBufferConfig config;
+
+    @Before
+    public void setUp() {
+        // single scheduler thread, as shared by all EventMonitors
+        flushScheduler = Executors.newSingleThreadScheduledExecutor();
+        flushExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+        config = new DataBuffer.DataBufferConfig(
+                1000L,          // 1 second flush interval, periodic check every 250ms
+                1024 * 1024L,   // 1MB max buffer size
+                1000,           // 1000 max items
+                50_000_000L     // 50ms max item age in nanoseconds
+        );
+    }
+
+    @After
+    public void tearDown() {
+        flushScheduler.shutdownNow();
+        flushExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSlowProcessorDoesNotStallOtherManager() throws InterruptedException {
+
+        // manager whose processor blocks until released, like a monitor sending to a slow response stream
+        final CountDownLatch slowEntered = new CountDownLatch(1);
+        final CountDownLatch slowRelease = new CountDownLatch(1);
+        final AtomicInteger slowProcessCount = new AtomicInteger(0);
+        final DataBufferManager slowManager = new DataBufferManager(
+                (pvName, results) -> {
+                    slowProcessCount.incrementAndGet();
+                    slowEntered.countDown();
+                    try {
+                        slowRelease.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                },
+                config,
+                flushScheduler,
+                flushExecutor);
+
+        // manager whose processor returns immediately
+        final CountDownLatch fastProcessed = new CountDownLatch(3);
+        final DataBufferManager fastManager = new DataBufferManager(
+                (pvName, results) -> fastProcessed.countDown(),
+                config,
+                flushScheduler,
+                flushExecutor);
+
+        try {
+            // block the slow manager's flush
+            slowManager.bufferData("slow-pv", createTestBucket("slow-pv"));
+            assertTrue(slowEntered.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            // more data for the slow manager doesn't queue additional flush tasks while its flush is blocked
+            slowManager.bufferData("slow-pv", createTestBucket("slow-pv"));
+
+            // data for the other manager is still flushed by the periodic check, repeatedly
+            for (int i = 0 ; i < 3 ; ++i) {
+                fastManager.bufferData("fast-pv", createTestBucket("fast-pv"));
+                Thread.sleep(400);
+            }
+            assertTrue(fastProcessed.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(1, slowProcessCount.get());
+            assertTrue(flushExecutor.getQueue().isEmpty());
+
+            // once released, the slow manager's remaining data is flushed by a later check
+            slowRelease.countDown();
+            final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_SECONDS * 1000;
+            while (slowProcessCount.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, slowProcessCount.get());
+            assertEquals(0, slowManager.getTotalBufferedItems());
+
+        } finally {
+            slowRelease.countDown();
+            slowManager.shutdown();
+            fastManager.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownWaitsForInFlightFlush() throws Exception {
+
+        // processor records each delivery, blocking the first until released
+        final CountDownLatch firstEntered = new CountDownLatch(1);
+        final CountDownLatch firstRelease = new CountDownLatch(1);
+        final List<String> deliveries = Collections.synchronizedList(new ArrayList<>());
+        final DataBufferManager manager = new DataBufferManager(
+                (pvName, results) -> {
+                    final boolean first = deliveries.isEmpty();
+                    deliveries.add((first ? "periodic:" : "shutdown:") + results.size());
+                    if (first) {
+                        firstEntered.countDown();
+                        try {
+                            firstRelease.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        deliveries.add("periodic:done");
+                    }
+                },
+                config,
+                flushScheduler,
+                flushExecutor);
+
+        final ExecutorService shutdownExecutor = Executors.newSingleThreadExecutor();
+        try {
+            // block the periodic flush, then buffer more data
+            manager.bufferData("pv", createTestBucket("pv"));
+            assertTrue(firstEntered.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            manager.bufferData("pv", createTestBucket("pv"));
+
+            // shutdown doesn't flush while the periodic flush is in progress
+            final Future<?> shutdownFuture = shutdownExecutor.submit(manager::shutdown);
+            Thread.sleep(200);
+            assertFalse(shutdownFuture.isDone());
+            assertEquals(List.of("periodic:1"), deliveries);
+
+            // the remaining data is flushed by shutdown after the periodic flush completes
+            firstRelease.countDown();
+            shutdownFuture.get(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(List.of("periodic:1", "periodic:done", "shutdown:1"), deliveries);
+            assertEquals(0, manager.getTotalBufferedItems());
+
+        } finally {
+            firstRelease.countDown();
+            shutdownExecutor.shutdownNow();
+        }
+    }
+
+    private DataBucket createTestBucket(String pvName) {
+        final long epochMillis = System.currentTimeMillis();
+
+        DataColumn dataColumn = DataColumn.newBuilder()
+                .setName(pvName)
+                .addDataValues(DataValue.newBuilder().setDoubleValue(1.0).build())
+                .build();
+
+        Timestamp timestamp = Timestamp.newBuilder()
+                .setEpochSeconds(epochMillis / 1000)
+                .setNanoseconds((int) ((epochMillis % 1000) * 1_000_000))
+                .build();
+
+        SamplingClock clock = SamplingClock.newBuilder()
+                .setStartTime(timestamp)
+                .setPeriodNanos(1_000_000_000L)
+                .setCount(1)
+                .build();
+
+        return DataBucket.newBuilder()
+                .setPvName(pvName)
+                .setDataValues(DataValues.newBuilder().setDataColumn(dataColumn).build())
+                .setDataTimestamps(DataTimestamps.newBuilder().setSamplingClock(clock).build())
+                .build();
+    }
+
+}
@@ -7,6 +7,7 @@ import com.ospreydcs.dp.service.ingestionstream.handler.monitor.EventMonitor;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
@@ -104,6 +105,58 @@ public class DataBufferTest {
         assertEquals(0, dataBuffer.getBufferedItemCount());
     }
 
+    @Test
+    public void testRingBufferGrowthAndOrder() throws InterruptedException {
+        final long startMillis = 1_700_000_000_000L;
+        final DataBuffer largeBuffer = new DataBuffer("test-pv", new DataBuffer.DataBufferConfig(
+                60_000L,            // 1 minute flush interval
+                1024 * 1024L,       // 1MB max buffer size
+                100,                // 100 max items
+                200_000_000L        // 200ms max item age in nanoseconds
+        ));
+
+        // add more items than the initial ring buffer capacity
+        for (int i = 0 ; i < 20 ; ++i) {
+            SubscribeDataResponse.SubscribeDataResult result =
+                    createTestResultWithTimestamp("test-pv", "value" + i, startMillis + i * 1000L);
+            largeBuffer.addData(result.getDataBuckets(0));
+        }
+        assertEquals(20, largeBuffer.getBufferedItemCount());
+
+        // age the first items, then add more so the buffer wraps and grows again with items at different ages
+        Thread.sleep(300);
+        for (int i = 20 ; i < 40 ; ++i) {
+            SubscribeDataResponse.SubscribeDataResult result =
+                    createTestResultWithTimestamp("test-pv", "value" + i, startMillis + i * 1000L);
+            largeBuffer.addData(result.getDataBuckets(0));
+        }
+        assertEquals(40, largeBuffer.getBufferedItemCount());
+
+        // flush returns only the aged items, in the order added
+        assertEquals(20, largeBuffer.getItemsReadyToFlush());
+        List<DataBuffer.BufferedData> flushedResults = largeBuffer.flush();
+        assertEquals(20, flushedResults.size());
+        for (int i = 0 ; i < 20 ; ++i) {
+            assertEquals(Instant.ofEpochMilli(startMillis + i * 1000L), flushedResults.get(i).getFirstInstant());
+        }
+        assertEquals(20, largeBuffer.getBufferedItemCount());
+
+        // an item added out of data time order is kept in the order added
+        SubscribeDataResponse.SubscribeDataResult lateResult =
+                createTestResultWithTimestamp("test-pv", "late", startMillis + 12_500L);
+        largeBuffer.addData(lateResult.getDataBuckets(0));
+
+        // force flush returns the remaining items in the order added
+        flushedResults = largeBuffer.forceFlushAll();
+        assertEquals(21, flushedResults.size());
+        for (int i = 0 ; i < 20 ; ++i) {
+            assertEquals(Instant.ofEpochMilli(startMillis + (i + 20) * 1000L), flushedResults.get(i).getFirstInstant());
+        }
+        assertEquals(Instant.ofEpochMilli(startMillis + 12_500L), flushedResults.get(20).getFirstInstant());
+        assertEquals(0, largeBuffer.getBufferedItemCount());
+        assertEquals(0, largeBuffer.getCurrentBufferSizeBytes());
+    }
+
     private SubscribeDataResponse.SubscribeDataResult createTestResult(String pvName, String value) {
         return createTestResultWithTimestamp(pvName, value, System.currentTimeMillis());
     }
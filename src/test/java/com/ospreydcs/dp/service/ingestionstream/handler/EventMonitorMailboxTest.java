@@ -0,0 +1,354 @@
+package com.ospreydcs.dp.service.ingestionstream.handler;
+
+import com.ospreydcs.dp.service.common.handler.HandlerJob;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.EventMonitorMailbox;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Provides unit test coverage for EventMonitorMailbox, covering in-order execution of a monitor's jobs on a shared
+ * pool, scheduling at most one drain task per mailbox, the drain batch size, the overflow policies for a full
+ * mailbox, and counting of failed jobs.  Also covers that a slow monitor's full mailbox doesn't stall a thread fanning
+ * out responses to it and a fast monitor.
+ */
+public class EventMonitorMailboxTest {
+
+    private static final long WAIT_TIMEOUT_SECONDS = 5;
+    private static final int DRAIN_BATCH_SIZE = 32;
+
+    private CountingExecutor executor;
+
+    /**
+     * Fixed thread pool that counts the tasks submitted via execute(), which are the mailbox drain tasks.
+     */
+    private static class CountingExecutor extends ThreadPoolExecutor {
+
+        private final AtomicInteger executeCount = new AtomicInteger(0);
+
+        public CountingExecutor(int numThreads) {
+            super(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            executeCount.incrementAndGet();
+            super.execute(command);
+        }
+
+        public int getExecuteCount() {
+            return executeCount.get();
+        }
+    }
+
+    /**
+     * Job that runs the supplied Runnable.
+     */
+    private static HandlerJob job(Runnable runnable) {
+        return new HandlerJob() {
+            @Override
+            public void execute() {
+                runnable.run();
+            }
+        };
+    }
+
+    /**
+     * Blocks the executor's threads until the returned latch is released, so that drain tasks are queued behind them.
+     */
+    private CountDownLatch blockExecutor(int numThreads) throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(numThreads);
+        final CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0 ; i < numThreads ; ++i) {
+            executor.execute(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(blocked.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static void awaitExecuted(EventMonitorMailbox mailbox, long count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_SECONDS * 1000;
+        while (mailbox.getExecutedJobCount() + mailbox.getFailedJobCount() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, mailbox.getExecutedJobCount() + mailbox.getFailedJobCount());
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOrdering() throws InterruptedException {
+
+        executor = new CountingExecutor(4);
+        final int numJobs = 1000;
+        final EventMonitorMailbox mailbox = new EventMonitorMailbox(executor, numJobs);
+
+        // jobs for a single mailbox are executed in submission order, never concurrently, on a multi-threaded pool
+        final List<Integer> executedJobs = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger activeJobs = new AtomicInteger(0);
+        final AtomicInteger maxActiveJobs = new AtomicInteger(0);
+        for (int i = 0 ; i < numJobs ; ++i) {
+            final int jobIndex = i;
+            mailbox.submit(job(() -> {
+                maxActiveJobs.accumulateAndGet(activeJobs.incrementAndGet(), Math::max);
+                executedJobs.add(jobIndex);
+                activeJobs.decrementAndGet();
+            }));
+        }
+        awaitExecuted(mailbox, numJobs);
+
+        final List<Integer> expectedJobs = new ArrayList<>();
+        for (int i = 0 ; i < numJobs ; ++i) {
+            expectedJobs.add(i);
+        }
+        assertEquals(expectedJobs, executedJobs);
+        assertEquals(1, maxActiveJobs.get());
+        assertEquals(numJobs, mailbox.getSubmittedJobCount());
+        assertEquals(0, mailbox.getFailedJobCount());
+        assertEquals(0, mailbox.getDepth());
+    }
+
+    @Test
+    public void testSingleDrainPerMailbox() throws InterruptedException {
+
+        executor = new CountingExecutor(2);
+        final EventMonitorMailbox mailbox = new EventMonitorMailbox(executor, 100);
+
+        // block the drain task in the first job
+        final CountDownLatch firstJobEntered = new CountDownLatch(1);
+        final CountDownLatch firstJobRelease = new CountDownLatch(1);
+        mailbox.submit(job(() -> {
+            firstJobEntered.countDown();
+            try {
+                firstJobRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(firstJobEntered.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // jobs submitted while the drain task is running don't schedule another drain task, even with a free thread
+        final int numJobs = 10;
+        for (int i = 0 ; i < numJobs ; ++i) {
+            mailbox.submit(job(() -> {}));
+        }
+        Thread.sleep(100);
+        assertEquals(1, executor.getExecuteCount());
+        assertEquals(numJobs, mailbox.getDepth());
+        assertEquals(numJobs, mailbox.getMaxDepth());
+
+        // the running drain task executes the remaining jobs once released
+        firstJobRelease.countDown();
+        awaitExecuted(mailbox, numJobs + 1);
+        assertEquals(1, executor.getExecuteCount());
+        assertEquals(0, mailbox.getDepth());
+    }
+
+    @Test
+    public void testDrainBatchSize() throws InterruptedException {
+
+        executor = new CountingExecutor(1);
+        final EventMonitorMailbox mailbox = new EventMonitorMailbox(executor, 100);
+
+        // queue the drain task behind a blocked task, then queue another monitor's task behind the drain task
+        final CountDownLatch release = blockExecutor(1);
+        final int numJobs = DRAIN_BATCH_SIZE + 8;
+        for (int i = 0 ; i < numJobs ; ++i) {
+            mailbox.submit(job(() -> {}));
+        }
+        final AtomicInteger executedBeforeOtherTask = new AtomicInteger(-1);
+        executor.execute(() -> executedBeforeOtherTask.set((int) mailbox.getExecutedJobCount()));
+
+        // the drain task executes one batch, then reschedules behind the other task to execute the rest
+        release.countDown();
+        awaitExecuted(mailbox, numJobs);
+        assertEquals(DRAIN_BATCH_SIZE, executedBeforeOtherTask.get());
+
+        // blocking task, first drain task, other task, second drain task
+        assertEquals(4, executor.getExecuteCount());
+    }
+
+    /**
+     * Fills the mailbox while its drain task is queued behind a blocked task, recording each job's index when it is
+     * executed, and returns the latch releasing the blocked task.
+     */
+    private CountDownLatch fillMailbox(
+            EventMonitorMailbox mailbox, int capacity, List<Integer> executedJobs
+    ) throws InterruptedException {
+        final CountDownLatch release = blockExecutor(1);
+        for (int i = 0 ; i < capacity ; ++i) {
+            final int jobIndex = i;
+            mailbox.submit(job(() -> executedJobs.add(jobIndex)));
+        }
+        assertEquals(capacity, mailbox.getDepth());
+        return release;
+    }
+
+    @Test
+    public void testDropOldestWhenFull() throws InterruptedException {
+
+        executor = new CountingExecutor(1);
+        final int capacity = 2;
+        final EventMonitorMailbox mailbox =
+                new EventMonitorMailbox(executor, capacity, EventMonitorMailbox.OverflowPolicy.DROP_OLDEST);
+        final List<Integer> executedJobs = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch release = fillMailbox(mailbox, capacity, executedJobs);
+
+        // submitting to the full mailbox doesn't block, and drops the oldest queued job
+        mailbox.submit(job(() -> executedJobs.add(capacity)));
+        assertEquals(capacity, mailbox.getDepth());
+        assertEquals(1, mailbox.getOverflowCount());
+
+        release.countDown();
+        awaitExecuted(mailbox, capacity);
+        assertEquals(List.of(1, 2), executedJobs);
+        assertEquals(capacity + 1, mailbox.getSubmittedJobCount());
+    }
+
+    @Test
+    public void testDropNewestWhenFull() throws InterruptedException {
+
+        executor = new CountingExecutor(1);
+        final int capacity = 2;
+        final EventMonitorMailbox mailbox =
+                new EventMonitorMailbox(executor, capacity, EventMonitorMailbox.OverflowPolicy.DROP_NEWEST);
+        final List<Integer> executedJobs = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch release = fillMailbox(mailbox, capacity, executedJobs);
+
+        // submitting to the full mailbox doesn't block, and drops the new job
+        mailbox.submit(job(() -> executedJobs.add(capacity)));
+        assertEquals(capacity, mailbox.getDepth());
+        assertEquals(1, mailbox.getOverflowCount());
+
+        release.countDown();
+        awaitExecuted(mailbox, capacity);
+        assertEquals(List.of(0, 1), executedJobs);
+        assertEquals(capacity, mailbox.getSubmittedJobCount());
+    }
+
+    @Test
+    public void testNonDroppableJobWhenFull() throws InterruptedException {
+
+        executor = new CountingExecutor(1);
+        final int capacity = 2;
+        final EventMonitorMailbox mailbox =
+                new EventMonitorMailbox(executor, capacity, EventMonitorMailbox.OverflowPolicy.DROP_NEWEST);
+        final List<Integer> executedJobs = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch release = fillMailbox(mailbox, capacity, executedJobs);
+
+        // a job that isn't droppable, e.g., for the end of the response stream, is queued even when full
+        mailbox.submit(job(() -> executedJobs.add(capacity)), false);
+        assertEquals(capacity + 1, mailbox.getDepth());
+        assertEquals(0, mailbox.getOverflowCount());
+
+        release.countDown();
+        awaitExecuted(mailbox, capacity + 1);
+        assertEquals(List.of(0, 1, 2), executedJobs);
+    }
+
+    @Test
+    public void testSlowMailboxDoesNotStallFastMailbox() throws Exception {
+
+        executor = new CountingExecutor(2);
+        final int capacity = 4;
+        final EventMonitorMailbox slowMailbox = new EventMonitorMailbox(executor, capacity);
+        final int numResponses = 100;
+        final EventMonitorMailbox fastMailbox = new EventMonitorMailbox(executor, numResponses);
+
+        // the slow monitor's first job blocks until released, like a monitor sending to a slow response stream
+        final CountDownLatch slowEntered = new CountDownLatch(1);
+        final CountDownLatch slowRelease = new CountDownLatch(1);
+        slowMailbox.submit(job(() -> {
+            slowEntered.countDown();
+            try {
+                slowRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(slowEntered.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // a single thread fans out responses to both monitors, as for a multiplexed subscribeData() stream
+        final AtomicInteger fastExecuted = new AtomicInteger(0);
+        final ExecutorService callbackThread = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> fanOut = callbackThread.submit(() -> {
+                for (int i = 0 ; i < numResponses ; ++i) {
+                    slowMailbox.submit(job(() -> {}));
+                    fastMailbox.submit(job(() -> {
+                        fastExecuted.incrementAndGet();
+                        try {
+                            Thread.sleep(1);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+                }
+            });
+
+            // fan-out completes without waiting for the slow monitor
+            fanOut.get(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(capacity, slowMailbox.getDepth());
+            assertEquals(numResponses - capacity, slowMailbox.getOverflowCount());
+
+            // the fast monitor keeps executing its responses while the slow monitor is blocked
+            final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_SECONDS * 1000;
+            while (fastExecuted.get() < numResponses && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(numResponses, fastExecuted.get());
+            assertEquals(0, fastMailbox.getOverflowCount());
+            assertEquals(0, slowMailbox.getExecutedJobCount());
+
+            // the slow monitor executes the most recent responses once released
+            slowRelease.countDown();
+            awaitExecuted(slowMailbox, capacity + 1);
+
+        } finally {
+            slowRelease.countDown();
+            callbackThread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedJobs() throws InterruptedException {
+
+        executor = new CountingExecutor(1);
+        final EventMonitorMailbox mailbox = new EventMonitorMailbox(executor, 100);
+
+        // a job that throws is counted as failed and doesn't prevent execution of the following jobs
+        final List<Integer> executedJobs = Collections.synchronizedList(new ArrayList<>());
+        mailbox.submit(job(() -> executedJobs.add(0)));
+        mailbox.submit(job(() -> {
+            throw new IllegalStateException("test job failure");
+        }));
+        mailbox.submit(job(() -> executedJobs.add(2)));
+        awaitExecuted(mailbox, 3);
+
+        assertEquals(List.of(0, 2), executedJobs);
+        assertEquals(2, mailbox.getExecutedJobCount());
+        assertEquals(1, mailbox.getFailedJobCount());
+        assertEquals(3, mailbox.getSubmittedJobCount());
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.ospreydcs.dp.service.ingestionstream.handler;
+
+import com.ospreydcs.dp.grpc.v1.common.ExceptionalResult;
+import com.ospreydcs.dp.grpc.v1.ingestion.DpIngestionServiceGrpc;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataRequest;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
+import com.ospreydcs.dp.service.common.model.ResultStatus;
+import com.ospreydcs.dp.service.ingest.utility.IngestionServiceClientUtility;
+import com.ospreydcs.dp.service.ingestionstream.handler.job.EventMonitorSubscribeDataResponseJob;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.EventMonitor;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.SubscribeDataMultiplexer;
+import io.grpc.stub.StreamObserver;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for SubscribeDataMultiplexer, which shares a single upstream subscribeData()
+ * subscription for each PV among the EventMonitors using it.  The upstream Ingestion Service is simulated by a fake
+ * request stream for each subscription, which acknowledges the subscription request unless configured otherwise.
+ */
+public class SubscribeDataMultiplexerTest {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 5_000;
+
+    private IngestionStreamHandler handler;
+    private SubscribeDataMultiplexer multiplexer;
+    private final List<FakeUpstream> upstreams = new CopyOnWriteArrayList<>();
+    private final List<EventMonitorSubscribeDataResponseJob> jobs = new CopyOnWriteArrayList<>();
+    private volatile boolean autoAck = true;
+
+    /**
+     * Request stream for an upstream subscription, holding the multiplexer's response stream so the test can send
+     * responses for the subscription.
+     */
+    private class FakeUpstream implements StreamObserver<SubscribeDataRequest> {
+
+        private final StreamObserver<SubscribeDataResponse> responseObserver;
+        private volatile List<String> pvNames = List.of();
+        private volatile boolean completed = false;
+
+        private FakeUpstream(StreamObserver<SubscribeDataResponse> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public void onNext(SubscribeDataRequest request) {
+            pvNames = request.getNewSubscription().getPvNamesList();
+            if (autoAck) {
+                sendAck();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+
+        private void sendAck() {
+            responseObserver.onNext(SubscribeDataResponse.newBuilder()
+                    .setAckResult(SubscribeDataResponse.AckResult.newBuilder().build())
+                    .build());
+        }
+
+        private void sendReject(String msg) {
+            responseObserver.onNext(SubscribeDataResponse.newBuilder()
+                    .setExceptionalResult(ExceptionalResult.newBuilder()
+                            .setExceptionalResultStatus(ExceptionalResult.ExceptionalResultStatus.RESULT_STATUS_REJECT)
+                            .setMessage(msg)
+                            .build())
+                    .build());
+        }
+
+        private void sendData() {
+            responseObserver.onNext(SubscribeDataResponse.newBuilder()
+                    .setSubscribeDataResult(SubscribeDataResponse.SubscribeDataResult.newBuilder().build())
+                    .build());
+        }
+    }
+
+    @Before
+    public void setUp() {
+
+        // stub creates a FakeUpstream for each subscribeData() call
+        final DpIngestionServiceGrpc.DpIngestionServiceStub stub =
+                mock(DpIngestionServiceGrpc.DpIngestionServiceStub.class);
+        when(stub.subscribeData(any())).thenAnswer(invocation -> {
+            final FakeUpstream upstream = new FakeUpstream(invocation.getArgument(0));
+            upstreams.add(upstream);
+            return upstream;
+        });
+        final IngestionServiceClientUtility.IngestionServiceGrpcClient client =
+                mock(IngestionServiceClientUtility.IngestionServiceGrpcClient.class);
+        when(client.newStub()).thenReturn(stub);
+
+        // handler collects the jobs dispatched to monitors
+        handler = mock(IngestionStreamHandler.class);
+        doAnswer(invocation -> {
+            jobs.add(invocation.getArgument(0));
+            return null;
+        }).when(handler).addJob(any());
+
+        multiplexer = new SubscribeDataMultiplexer(handler, client);
+    }
+
+    private FakeUpstream upstreamForPv(String pvName) {
+        for (FakeUpstream upstream : upstreams) {
+            if (upstream.pvNames.equals(List.of(pvName)) && !upstream.completed) {
+                return upstream;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits until the specified number of upstream subscriptions have sent their subscription request.
+     */
+    private void awaitUpstreamCount(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (requestedUpstreamCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, requestedUpstreamCount());
+    }
+
+    private int requestedUpstreamCount() {
+        int count = 0;
+        for (FakeUpstream upstream : upstreams) {
+            if (!upstream.pvNames.isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<EventMonitor> jobMonitors() {
+        final List<EventMonitor> monitors = new ArrayList<>();
+        for (EventMonitorSubscribeDataResponseJob job : jobs) {
+            monitors.add(job.getEventMonitor());
+        }
+        return monitors;
+    }
+
+    @Test
+    public void testSharedSubscription() {
+
+        final EventMonitor monitor1 = mock(EventMonitor.class);
+        final EventMonitor monitor2 = mock(EventMonitor.class);
+
+        // first monitor opens an upstream subscription for each of its PVs
+        assertFalse(multiplexer.subscribe(monitor1, List.of("pv1", "pv2")).isError);
+        assertEquals(2, upstreams.size());
+        assertEquals(2, multiplexer.getUpstreamSubscriptionCount());
+
+        // second monitor shares the existing subscription for pv2 and opens one for pv3
+        assertFalse(multiplexer.subscribe(monitor2, List.of("pv2", "pv3")).isError);
+        assertEquals(3, upstreams.size());
+        assertEquals(3, multiplexer.getUpstreamSubscriptionCount());
+
+        // data for the shared PV is dispatched to both monitors
+        upstreamForPv("pv2").sendData();
+        assertEquals(2, jobs.size());
+        assertTrue(jobMonitors().containsAll(List.of(monitor1, monitor2)));
+
+        // data for an unshared PV is dispatched only to its monitor
+        jobs.clear();
+        upstreamForPv("pv1").sendData();
+        assertEquals(List.of(monitor1), jobMonitors());
+    }
+
+    @Test
+    public void testLastUnsubscribeClosesUpstream() {
+
+        final EventMonitor monitor1 = mock(EventMonitor.class);
+        final EventMonitor monitor2 = mock(EventMonitor.class);
+        assertFalse(multiplexer.subscribe(monitor1, List.of("pv1")).isError);
+        assertFalse(multiplexer.subscribe(monitor2, List.of("pv1")).isError);
+        final FakeUpstream upstream = upstreamForPv("pv1");
+        assertEquals(1, upstreams.size());
+
+        // upstream subscription stays open while a monitor is using it
+        multiplexer.unsubscribe(monitor1, List.of("pv1"));
+        assertFalse(upstream.completed);
+        assertEquals(1, multiplexer.getUpstreamSubscriptionCount());
+
+        // last monitor to unsubscribe closes it
+        multiplexer.unsubscribe(monitor2, List.of("pv1"));
+        assertTrue(upstream.completed);
+        assertEquals(0, multiplexer.getUpstreamSubscriptionCount());
+
+        // a later subscriber opens a new upstream subscription
+        assertFalse(multiplexer.subscribe(mock(EventMonitor.class), List.of("pv1")).isError);
+        assertEquals(2, upstreams.size());
+        assertEquals(1, multiplexer.getUpstreamSubscriptionCount());
+    }
+
+    @Test
+    public void testAcksAwaitedConcurrently() throws Exception {
+
+        autoAck = false;
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // all upstream subscriptions are opened before any is acknowledged
+            final Future<ResultStatus> future = executor.submit(
+                    () -> multiplexer.subscribe(mock(EventMonitor.class), List.of("pv1", "pv2", "pv3")));
+            awaitUpstreamCount(3);
+            assertFalse(future.isDone());
+
+            // acknowledging in reverse order completes the subscribe
+            upstreamForPv("pv3").sendAck();
+            upstreamForPv("pv2").sendAck();
+            assertFalse(future.isDone());
+            upstreamForPv("pv1").sendAck();
+            assertFalse(future.get(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).isError);
+            assertEquals(3, multiplexer.getUpstreamSubscriptionCount());
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRejectUnsubscribesMonitor() throws Exception {
+
+        autoAck = false;
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<ResultStatus> future = executor.submit(
+                    () -> multiplexer.subscribe(mock(EventMonitor.class), List.of("pv1", "pv2")));
+            awaitUpstreamCount(2);
+            final FakeUpstream upstream1 = upstreamForPv("pv1");
+            final FakeUpstream upstream2 = upstreamForPv("pv2");
+
+            // a reject for one PV fails the subscribe and closes the monitor's other upstream subscriptions
+            upstream1.sendAck();
+            upstream2.sendReject("invalid pv");
+            final ResultStatus status = future.get(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertTrue(status.isError);
+            assertEquals("invalid pv", status.msg);
+            assertTrue(upstream1.completed);
+            assertTrue(upstream2.completed);
+            assertEquals(0, multiplexer.getUpstreamSubscriptionCount());
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUpstreamErrorNotifiesAllMonitors() {
+
+        final EventMonitor monitor1 = mock(EventMonitor.class);
+        final EventMonitor monitor2 = mock(EventMonitor.class);
+        final EventMonitor monitor3 = mock(EventMonitor.class);
+        assertFalse(multiplexer.subscribe(monitor1, List.of("pv1")).isError);
+        assertFalse(multiplexer.subscribe(monitor2, List.of("pv1", "pv2")).isError);
+        assertFalse(multiplexer.subscribe(monitor3, List.of("pv2")).isError);
+
+        // an error in the shared upstream stream is dispatched to each monitor using it
+        upstreamForPv("pv1").responseObserver.onError(new RuntimeException("connection reset"));
+        assertEquals(2, jobs.size());
+        assertTrue(jobMonitors().containsAll(List.of(monitor1, monitor2)));
+        for (EventMonitorSubscribeDataResponseJob job : jobs) {
+            job.execute();
+        }
+        verify(monitor1).handleError(anyString());
+        verify(monitor2).handleError(anyString());
+        verify(monitor3, never()).handleError(anyString());
+
+        // the failed subscription is removed, so a later subscriber opens a new one
+        assertEquals(1, multiplexer.getUpstreamSubscriptionCount());
+        assertFalse(multiplexer.subscribe(mock(EventMonitor.class), List.of("pv1")).isError);
+        assertEquals(4, upstreams.size());
+    }
+
+    @Test
+    public void testConcurrentSubscribeUnsubscribe() throws Exception {
+
+        final int numThreads = 8;
+        final int numIterations = 50;
+        final List<String> pvNames = List.of("pv1", "pv2", "pv3");
+        final List<EventMonitor> monitors = new ArrayList<>();
+        for (int i = 0 ; i < numThreads ; ++i) {
+            monitors.add(mock(EventMonitor.class));
+        }
+
+        // each thread repeatedly subscribes and unsubscribes its monitor for the same PVs
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (EventMonitor monitor : monitors) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    boolean success = true;
+                    for (int i = 0 ; i < numIterations ; ++i) {
+                        success = success && !multiplexer.subscribe(monitor, pvNames).isError;
+                        multiplexer.unsubscribe(monitor, pvNames);
+                    }
+                    return success;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get(WAIT_TIMEOUT_MILLIS * 4, TimeUnit.MILLISECONDS));
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every upstream subscription that was opened has been closed
+        assertEquals(0, multiplexer.getUpstreamSubscriptionCount());
+        for (FakeUpstream upstream : upstreams) {
+            assertTrue(upstream.completed);
+        }
+    }
+
+}
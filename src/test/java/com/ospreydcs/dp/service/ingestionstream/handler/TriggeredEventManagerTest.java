@@ -0,0 +1,211 @@
+package com.ospreydcs.dp.service.ingestionstream.handler;
+
+import com.ospreydcs.dp.grpc.v1.common.*;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.DataEventOperation;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
+import com.ospreydcs.dp.service.common.protobuf.TimestampUtility;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.DataBuffer;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.TriggeredEvent;
+import com.ospreydcs.dp.service.ingestionstream.handler.monitor.TriggeredEventManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+/**
+ * Provides unit test coverage for TriggeredEventManager, covering matching buffered data to the time windows of the
+ * active events via the begin time index, and the periodic removal of expired events.
+ */
+public class TriggeredEventManagerTest {
+
+    private static final long WAIT_TIMEOUT_MILLIS = 5_000;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long LONG_EXPIRATION_NANOS = 3600 * NANOS_PER_SECOND;
+
+    private ScheduledExecutorService cleanupScheduler;
+    private TriggeredEventManager manager;
+
+    @Before
+    public void setUp() {
+        cleanupScheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        if (manager != null && manager.isRunning()) {
+            manager.shutdown();
+        }
+        cleanupScheduler.shutdownNow();
+    }
+
+    private void startManager(long cleanupIntervalMillis) {
+        manager = new TriggeredEventManager(
+                new TriggeredEventManager.TriggeredEventManagerConfig(0, cleanupIntervalMillis),
+                cleanupScheduler);
+        manager.start();
+    }
+
+    /**
+     * Creates an event triggered at the specified time, with a window of the specified offset and duration from the
+     * trigger time, expiring the specified delay after the window ends.
+     */
+    private static TriggeredEvent triggeredEvent(
+            Instant triggerTime, long offsetSeconds, long durationSeconds, long expirationDelayNanos
+    ) {
+        final DataEventOperation.DataEventWindow.TimeInterval timeInterval =
+                DataEventOperation.DataEventWindow.TimeInterval.newBuilder()
+                        .setOffset(offsetSeconds * NANOS_PER_SECOND)
+                        .setDuration(durationSeconds * NANOS_PER_SECOND)
+                        .build();
+        final DataEventOperation operation = DataEventOperation.newBuilder()
+                .addTargetPvs("target-pv")
+                .setWindow(DataEventOperation.DataEventWindow.newBuilder().setTimeInterval(timeInterval).build())
+                .build();
+        final DataValue dataValue = DataValue.newBuilder().setDoubleValue(1.0).build();
+        final PvConditionTrigger trigger = PvConditionTrigger.newBuilder()
+                .setPvName("trigger-pv")
+                .setCondition(PvConditionTrigger.PvCondition.PV_CONDITION_GREATER)
+                .setValue(dataValue)
+                .build();
+        return new TriggeredEvent(
+                TimestampUtility.getTimestampFromInstant(triggerTime),
+                trigger,
+                operation,
+                dataValue,
+                expirationDelayNanos);
+    }
+
+    /**
+     * Creates buffered data with one sample per second, from the specified first time through the last time.
+     */
+    private static DataBuffer.BufferedData bufferedData(Instant firstTime, Instant lastTime) {
+        final int count = (int) ChronoUnit.SECONDS.between(firstTime, lastTime) + 1;
+        final DoubleColumn.Builder columnBuilder = DoubleColumn.newBuilder().setName("target-pv");
+        for (int i = 0 ; i < count ; ++i) {
+            columnBuilder.addValues(i);
+        }
+        final SamplingClock clock = SamplingClock.newBuilder()
+                .setStartTime(TimestampUtility.getTimestampFromInstant(firstTime))
+                .setPeriodNanos(NANOS_PER_SECOND)
+                .setCount(count)
+                .build();
+        final DataBucket dataBucket = DataBucket.newBuilder()
+                .setPvName("target-pv")
+                .setDataValues(DataValues.newBuilder().setDoubleColumn(columnBuilder.build()).build())
+                .setDataTimestamps(DataTimestamps.newBuilder().setSamplingClock(clock).build())
+                .build();
+
+        // BufferedData is created by the DataBuffer
+        final DataBuffer buffer = new DataBuffer(
+                "target-pv", new DataBuffer.DataBufferConfig(60_000L, 1024 * 1024L, 100, NANOS_PER_SECOND));
+        buffer.addData(dataBucket);
+        return buffer.forceFlushAll().get(0);
+    }
+
+    @Test
+    public void testWindowMatching() {
+
+        startManager(60_000L);
+        final Instant base = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        // events added out of window begin time order
+        final TriggeredEvent eventA = triggeredEvent(base.plusSeconds(10), 0, 5, LONG_EXPIRATION_NANOS); // [10, 15)
+        final TriggeredEvent eventB = triggeredEvent(base.plusSeconds(20), 0, 5, LONG_EXPIRATION_NANOS); // [20, 25)
+        final TriggeredEvent eventC = triggeredEvent(base.plusSeconds(12), 0, 5, LONG_EXPIRATION_NANOS); // [12, 17)
+        manager.addTriggeredEvent(eventA);
+        manager.addTriggeredEvent(eventB);
+        manager.addTriggeredEvent(eventC);
+        assertEquals(3, manager.getActiveEventCount());
+        assertEquals(List.of(eventA, eventC, eventB), manager.getActiveEvents());
+
+        // data inside two overlapping windows
+        final DataBuffer.BufferedData data1 = bufferedData(base.plusSeconds(13), base.plusSeconds(13));
+        // data spanning the end of one window and the start of another
+        final DataBuffer.BufferedData data2 = bufferedData(base.plusSeconds(16), base.plusSeconds(21));
+        // data after all windows
+        final DataBuffer.BufferedData data3 = bufferedData(base.plusSeconds(30), base.plusSeconds(30));
+        // data beginning at the end of eventA's window, which is exclusive
+        final DataBuffer.BufferedData data4 = bufferedData(base.plusSeconds(15), base.plusSeconds(15));
+        // data ending at the beginning of eventA's window, which is inclusive
+        final DataBuffer.BufferedData data5 = bufferedData(base.plusSeconds(5), base.plusSeconds(10));
+
+        // events are ordered by window begin time, each with its data in the order supplied
+        final Map<TriggeredEvent, List<DataBuffer.BufferedData>> eventDataMap =
+                manager.groupDataByTargetedEvent(List.of(data1, data2, data3, data4, data5));
+        assertEquals(List.of(eventA, eventC, eventB), new ArrayList<>(eventDataMap.keySet()));
+        assertEquals(List.of(data1, data5), eventDataMap.get(eventA));
+        assertEquals(List.of(data1, data2, data4), eventDataMap.get(eventC));
+        assertEquals(List.of(data2), eventDataMap.get(eventB));
+
+        // data targeting no event
+        assertTrue(manager.groupDataByTargetedEvent(List.of(data3)).isEmpty());
+    }
+
+    @Test
+    public void testLongestWindowMatching() {
+
+        startManager(60_000L);
+        final Instant base = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        // a short window and a long window with a negative offset, which begins well before data at its end
+        final TriggeredEvent shortEvent = triggeredEvent(base.plusSeconds(100), 0, 1, LONG_EXPIRATION_NANOS);
+        final TriggeredEvent longEvent = triggeredEvent(base.plusSeconds(100), -50, 60, LONG_EXPIRATION_NANOS);
+        manager.addTriggeredEvent(shortEvent);
+        manager.addTriggeredEvent(longEvent);
+
+        // data near the end of the long window is matched even though the window begins long before it
+        final DataBuffer.BufferedData data = bufferedData(base.plusSeconds(105), base.plusSeconds(106));
+        final Map<TriggeredEvent, List<DataBuffer.BufferedData>> eventDataMap =
+                manager.groupDataByTargetedEvent(List.of(data));
+        assertEquals(List.of(longEvent), new ArrayList<>(eventDataMap.keySet()));
+
+        // data in both windows
+        final DataBuffer.BufferedData bothData = bufferedData(base.plusSeconds(100), base.plusSeconds(100));
+        assertEquals(
+                List.of(longEvent, shortEvent),
+                new ArrayList<>(manager.groupDataByTargetedEvent(List.of(bothData)).keySet()));
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+
+        startManager(50L);
+        final Instant now = Instant.now();
+
+        // an event whose expiration has passed and one that expires in the future
+        final TriggeredEvent expiredEvent = triggeredEvent(now.minusSeconds(10), 0, 1, 0);
+        final TriggeredEvent activeEvent = triggeredEvent(now, 0, 1, LONG_EXPIRATION_NANOS);
+        assertTrue(expiredEvent.isExpired());
+        assertFalse(activeEvent.isExpired());
+        manager.addTriggeredEvent(expiredEvent);
+        manager.addTriggeredEvent(activeEvent);
+
+        // periodic cleanup removes only the expired event
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (manager.getActiveEventCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(activeEvent), manager.getActiveEvents());
+
+        // data in the expired event's window no longer matches it
+        final DataBuffer.BufferedData data = bufferedData(now.minusSeconds(10), now.minusSeconds(10));
+        assertTrue(manager.groupDataByTargetedEvent(List.of(data)).isEmpty());
+
+        // shutdown clears the active events, and events are not added after shutdown
+        manager.shutdown();
+        assertFalse(manager.isRunning());
+        assertEquals(0, manager.getActiveEventCount());
+        manager.addTriggeredEvent(triggeredEvent(now, 0, 1, LONG_EXPIRATION_NANOS));
+        assertEquals(0, manager.getActiveEventCount());
+    }
+
+}
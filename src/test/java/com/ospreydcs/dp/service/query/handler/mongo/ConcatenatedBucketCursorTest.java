@@ -0,0 +1,60 @@
+package com.ospreydcs.dp.service.query.handler.mongo;
+
+import com.mongodb.client.MongoCursor;
+import com.ospreydcs.dp.service.common.bson.bucket.BucketDocument;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Provides unit test coverage for ConcatenatedBucketCursor, used to combine the raw bucket and rollup tier results
+ * for a queryData request.
+ */
+public class ConcatenatedBucketCursorTest {
+
+    @SuppressWarnings("unchecked")
+    private static MongoCursor<BucketDocument> mockCursor(String... pvNames) {
+        final List<BucketDocument> documents = new ArrayList<>();
+        for (String pvName : pvNames) {
+            final BucketDocument document = new BucketDocument();
+            document.setPvName(pvName);
+            documents.add(document);
+        }
+        final Iterator<BucketDocument> iterator = documents.iterator();
+        final MongoCursor<BucketDocument> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+
+    @Test
+    public void testCursorsReturnedInTurn() {
+
+        final MongoCursor<BucketDocument> rawCursor = mockCursor("pv1", "pv2");
+        final MongoCursor<BucketDocument> emptyCursor = mockCursor();
+        final MongoCursor<BucketDocument> rollupCursor = mockCursor("pv3");
+        final ConcatenatedBucketCursor cursor =
+                new ConcatenatedBucketCursor(List.of(rawCursor, emptyCursor, rollupCursor));
+
+        final List<String> pvNames = new ArrayList<>();
+        while (cursor.hasNext()) {
+            pvNames.add(cursor.next().getPvName());
+        }
+        assertEquals(List.of("pv1", "pv2", "pv3"), pvNames);
+        assertNull(cursor.tryNext());
+        assertThrows(NoSuchElementException.class, cursor::next);
+
+        // closing the cursor closes each underlying cursor
+        cursor.close();
+        verify(rawCursor).close();
+        verify(emptyCursor).close();
+        verify(rollupCursor).close();
+    }
+
+}